@@ -0,0 +1,60 @@
+package org.hisp.dhis.common;
+
+/*
+ * Copyright (c) 2004-2018, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+import java.util.Set;
+
+/**
+ * Cache of the uids of objects which the current user can access through
+ * data sharing. Entries are keyed on the user, the user group membership of
+ * the user and the last update of objects of the class, which means that
+ * changes to sharing or membership are reflected without explicit
+ * invalidation. Changes to objects of the class may take a few seconds to be
+ * reflected.
+ */
+public interface AccessibleObjectCache
+{
+    /**
+     * Returns the uids of the objects of the given class which the current
+     * user can read data for.
+     *
+     * @param clazz the class.
+     * @return a set of uids.
+     */
+    <T extends IdentifiableObject> Set<String> getDataReadUids( Class<T> clazz );
+
+    /**
+     * Returns the uids of the objects of the given class which the current
+     * user can write data for.
+     *
+     * @param clazz the class.
+     * @return a set of uids.
+     */
+    <T extends IdentifiableObject> Set<String> getDataWriteUids( Class<T> clazz );
+}
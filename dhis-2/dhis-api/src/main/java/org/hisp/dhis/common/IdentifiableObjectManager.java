@@ -62,6 +62,16 @@ public interface IdentifiableObjectManager
 
     void delete( IdentifiableObject object, User user );
 
+    /**
+     * Deletes the given objects. Deletion handlers are invoked once for the
+     * whole collection, using set-based deletion where supported.
+     *
+     * @param objects the objects to delete.
+     */
+    void delete( Collection<? extends IdentifiableObject> objects );
+
+    void delete( Collection<? extends IdentifiableObject> objects, User user );
+
     <T extends IdentifiableObject> T get( String uid );
 
     <T extends IdentifiableObject> T get( Class<T> clazz, int id );
@@ -0,0 +1,148 @@
+package org.hisp.dhis.common;
+
+/*
+ * Copyright (c) 2004-2018, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.util.Base64;
+import java.util.Date;
+import java.util.Objects;
+
+/**
+ * Opaque keyset paging token. Identifies the last object of a page by its
+ * last updated timestamp and database identifier, so that the next page can be
+ * fetched with a seek on (lastUpdated, id) instead of an offset.
+ */
+public class PageToken
+{
+    private static final String SEPARATOR = ":";
+
+    private final Timestamp lastUpdated;
+
+    private final long id;
+
+    public PageToken( Date lastUpdated, long id )
+    {
+        this.lastUpdated = lastUpdated instanceof Timestamp ? (Timestamp) lastUpdated : new Timestamp( lastUpdated.getTime() );
+        this.id = id;
+    }
+
+    // -------------------------------------------------------------------------
+    // Logic
+    // -------------------------------------------------------------------------
+
+    /**
+     * Encodes this token as a URL safe string.
+     */
+    public String encode()
+    {
+        String value = lastUpdated.getTime() + SEPARATOR + lastUpdated.getNanos() + SEPARATOR + id;
+
+        return Base64.getUrlEncoder().withoutPadding().encodeToString( value.getBytes( StandardCharsets.UTF_8 ) );
+    }
+
+    /**
+     * Decodes the given token. Returns null if the token is null or empty,
+     * which signals a request for the first page.
+     *
+     * @param token the encoded token.
+     * @return a page token, or null.
+     * @throws IllegalQueryException if the token is invalid.
+     */
+    public static PageToken decode( String token )
+    {
+        if ( token == null || token.trim().isEmpty() )
+        {
+            return null;
+        }
+
+        try
+        {
+            String[] parts = new String( Base64.getUrlDecoder().decode( token.trim() ), StandardCharsets.UTF_8 ).split( SEPARATOR );
+
+            if ( parts.length != 3 )
+            {
+                throw new IllegalQueryException( "Page token is invalid: " + token );
+            }
+
+            Timestamp lastUpdated = new Timestamp( Long.parseLong( parts[0] ) );
+            lastUpdated.setNanos( Integer.parseInt( parts[1] ) );
+
+            return new PageToken( lastUpdated, Long.parseLong( parts[2] ) );
+        }
+        catch ( IllegalArgumentException ex )
+        {
+            throw new IllegalQueryException( "Page token is invalid: " + token, ex );
+        }
+    }
+
+    // -------------------------------------------------------------------------
+    // Getters
+    // -------------------------------------------------------------------------
+
+    public Timestamp getLastUpdated()
+    {
+        return lastUpdated;
+    }
+
+    public long getId()
+    {
+        return id;
+    }
+
+    @Override
+    public boolean equals( Object o )
+    {
+        if ( this == o )
+        {
+            return true;
+        }
+
+        if ( o == null || getClass() != o.getClass() )
+        {
+            return false;
+        }
+
+        PageToken other = (PageToken) o;
+
+        return id == other.id && lastUpdated.equals( other.lastUpdated );
+    }
+
+    @Override
+    public int hashCode()
+    {
+        return Objects.hash( lastUpdated, id );
+    }
+
+    @Override
+    public String toString()
+    {
+        return encode();
+    }
+}
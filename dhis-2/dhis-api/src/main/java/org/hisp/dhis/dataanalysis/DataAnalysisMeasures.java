@@ -31,12 +31,14 @@ package org.hisp.dhis.dataanalysis;
 /**
  * DataAnalysisMeasures contains the average and standard deviation measures
  * of data for a given combination of organisation unit and
- * category option combo. (The data element is fixed.)
+ * category option combo, and optionally data element.
  *
  * @author Jim Grace
  */
 public class DataAnalysisMeasures
 {
+    private int dataElementId;
+
     private int orgUnitId;
 
     private int categoryOptionComboId;
@@ -58,10 +60,22 @@ public class DataAnalysisMeasures
         this.standardDeviation = standardDeviation;
     }
 
+    public DataAnalysisMeasures( int dataElementId, int orgUnitId, int categoryOptionComboId,
+        double average, double standardDeviation )
+    {
+        this( orgUnitId, categoryOptionComboId, average, standardDeviation );
+        this.dataElementId = dataElementId;
+    }
+
     // -------------------------------------------------------------------------
     // Getters
     // -------------------------------------------------------------------------
 
+    public int getDataElementId()
+    {
+        return dataElementId;
+    }
+
     public int getOrgUnitId()
     {
         return orgUnitId;
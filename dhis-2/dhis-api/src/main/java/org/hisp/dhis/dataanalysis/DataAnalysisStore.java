@@ -41,6 +41,11 @@ import java.util.List;
 import java.util.Map;
 
 /**
+ * Methods taking parent paths resolve the subtrees of the parents through the
+ * organisation unit closure table. Callers must bring the closure up to date
+ * with {@link org.hisp.dhis.organisationunit.OrganisationUnitService#updateOrganisationUnitClosure()}
+ * first.
+ *
  * @author Lars Helge Overland
  */
 public interface DataAnalysisStore
@@ -61,6 +66,43 @@ public interface DataAnalysisStore
         Collection<CategoryOptionCombo> categoryOptionCombos,
         Collection<String> parentPaths, Date from );
 
+    /**
+     * Calculates the average and standard deviation measures of the DataValues
+     * registered for the given data elements, category option combos and
+     * organisation unit parents in a single grouped scan.
+     *
+     * @param dataElements         the data elements.
+     * @param categoryOptionCombos the category option combos.
+     * @param parentPaths          the parent OrganisationUnits' paths.
+     * @param from                 the from date for which to include data values.
+     * @return a list of measures with data element, organisation unit and
+     *         category option combo identifiers.
+     */
+    List<DataAnalysisMeasures> getDataAnalysisMeasures( Collection<DataElement> dataElements,
+        Collection<CategoryOptionCombo> categoryOptionCombos,
+        Collection<String> parentPaths, Date from );
+
+    /**
+     * Returns the data values for the given data elements, category option
+     * combos, periods and organisation unit parents which are outside of the
+     * std dev bounds. The bounds are the average plus and minus the std dev
+     * times the given factor, computed for each data element, category option
+     * combo and organisation unit from data values since the given date. The
+     * bounds are computed and applied in the database.
+     *
+     * @param dataElements         the data elements.
+     * @param categoryOptionCombos the category option combos.
+     * @param periods              the periods.
+     * @param parentPaths          the parent OrganisationUnits' paths.
+     * @param from                 the start date of the data used to compute the bounds.
+     * @param stdDevFactor         the std dev factor.
+     * @param limit                the max limit of outliers to return.
+     * @return a list of DeflatedDataValues.
+     */
+    List<DeflatedDataValue> getOutlierDataValues( Collection<DataElement> dataElements,
+        Collection<CategoryOptionCombo> categoryOptionCombos, Collection<Period> periods,
+        Collection<String> parentPaths, Date from, double stdDevFactor, int limit );
+
     /**
      * Generates a collection of data value violations of min-max predefined values.
      *
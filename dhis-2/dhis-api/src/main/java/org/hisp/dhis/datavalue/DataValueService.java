@@ -184,6 +184,17 @@ public interface DataValueService
     List<DataValue> getDataValues( OrganisationUnit source, Period period,
         Collection<DataElement> dataElements, CategoryOptionCombo attributeOptionCombo );
 
+    /**
+     * Returns the persisted data values, including soft deleted data values,
+     * which match the data element, period, source, category option combo and
+     * attribute option combo of any of the given data values. Intended for
+     * looking up existing data values in bulk during import.
+     *
+     * @param dataValues the data values to match.
+     * @return a list of persisted data values.
+     */
+    List<DataValue> getExistingDataValues( Collection<DataValue> dataValues );
+
     /**
      * Returns deflated data values for the given data export parameters.
      *
@@ -448,6 +448,14 @@ public interface OrganisationUnitService
      */
     void forceUpdatePaths();
 
+    /**
+     * Updates the organisation unit closure table for organisation units which
+     * are missing from it or which have been moved. The closure table is not
+     * maintained when organisation units are saved, so this must be invoked
+     * before reading from it.
+     */
+    void updateOrganisationUnitClosure();
+
     // -------------------------------------------------------------------------
     // Version
     // -------------------------------------------------------------------------
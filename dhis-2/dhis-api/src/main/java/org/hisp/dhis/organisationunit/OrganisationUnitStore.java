@@ -115,6 +115,16 @@ public interface OrganisationUnitStore
      * @return a list of objects.
      */
     List<OrganisationUnit> getWithinCoordinateArea( double[] box );
+
+    /**
+     * Returns all organisation units which have coordinates and a point,
+     * polygon or multi-polygon feature type. The returned objects are not
+     * attached to the session and have only the identifier, feature type and
+     * coordinates properties populated.
+     *
+     * @return a list of organisation units.
+     */
+    List<OrganisationUnit> getOrganisationUnitGeometries();
     
     // -------------------------------------------------------------------------
     // OrganisationUnitHierarchy
@@ -138,6 +148,20 @@ public interface OrganisationUnitStore
     void updatePaths();
 
     void forceUpdatePaths();
+
+    /**
+     * Updates the closure table rows of all organisation units which are
+     * missing from the closure table or whose parent has changed, including
+     * their descendants. The closure table holds one row per ancestor,
+     * descendant and depth, where each organisation unit is its own ancestor
+     * at depth 0.
+     */
+    void updateOrganisationUnitClosure();
+
+    /**
+     * Removes and regenerates all rows of the closure table.
+     */
+    void forceUpdateOrganisationUnitClosure();
     
     /**
      * Returns the number of organsiation unit levels in the database based on
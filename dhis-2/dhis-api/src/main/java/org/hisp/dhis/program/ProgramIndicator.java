@@ -147,6 +147,11 @@ public class ProgramIndicator
 
     private Boolean displayInForm;
 
+    /**
+     * Whether to compute values per row when generating analytics tables.
+     */
+    private Boolean materializeInAnalytics;
+
     private Set<ProgramIndicatorGroup> groups = new HashSet<>();
 
     private AnalyticsType analyticsType = AnalyticsType.EVENT;
@@ -452,6 +457,18 @@ public class ProgramIndicator
         this.displayInForm = displayInForm;
     }
 
+    @JsonProperty
+    @JacksonXmlProperty( namespace = DxfNamespaces.DXF_2_0 )
+    public Boolean getMaterializeInAnalytics()
+    {
+        return materializeInAnalytics;
+    }
+
+    public void setMaterializeInAnalytics( Boolean materializeInAnalytics )
+    {
+        this.materializeInAnalytics = materializeInAnalytics;
+    }
+
     @JsonProperty( "programIndicatorGroups" )
     @JsonSerialize( contentAs = BaseIdentifiableObject.class )
     @JacksonXmlElementWrapper( localName = "programIndicatorGroups", namespace = DxfNamespaces.DXF_2_0 )
@@ -131,6 +131,30 @@ public interface ProgramIndicatorService
      */
     String getAnyValueExistsClauseAnalyticsSql( String expression, AnalyticsType analyticsType );
 
+    /**
+     * Indicates whether values of the given program indicator can be computed
+     * per row when analytics tables are generated. This requires that the
+     * program indicator is marked for materialization, that its aggregation
+     * type is not custom and that the SQL of its expression and filter does
+     * not depend on the reporting period.
+     * 
+     * @param programIndicator the program indicator.
+     * @return true if the program indicator can be materialized.
+     */
+    boolean isMaterializable( ProgramIndicator programIndicator );
+
+    /**
+     * Returns the name of the analytics table column holding the materialized
+     * values of the given program indicator. The name is made of the program
+     * indicator identifier and a hash of its analytics type and the SQL of its
+     * expression and filter, so that values computed before the program
+     * indicator was edited are not used.
+     * 
+     * @param programIndicator the program indicator.
+     * @return the column name, unquoted.
+     */
+    String getMaterializedColumnName( ProgramIndicator programIndicator );
+
     /**
      * Indicates whether the given program indicator expression is valid.
      * 
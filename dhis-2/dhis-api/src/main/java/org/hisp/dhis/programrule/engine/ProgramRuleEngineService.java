@@ -32,7 +32,9 @@ import org.hisp.dhis.program.ProgramInstance;
 import org.hisp.dhis.program.ProgramStageInstance;
 import org.hisp.dhis.rules.models.RuleEffect;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Created by zubair@dhis2.org on 23.10.17.
@@ -42,4 +44,14 @@ public interface ProgramRuleEngineService
     List<RuleEffect> evaluate( ProgramInstance enrollment );
 
     List<RuleEffect> evaluate( ProgramStageInstance event );
+
+    /**
+     * Evaluates the given events of an enrollment in one pass and implements
+     * the resulting actions. Intended for bulk imports of events.
+     *
+     * @param enrollment the enrollment of the events.
+     * @param events the events to evaluate.
+     * @return a mapping from event uid to the rule effects of the event.
+     */
+    Map<String, List<RuleEffect>> evaluate( ProgramInstance enrollment, Collection<ProgramStageInstance> events );
 }
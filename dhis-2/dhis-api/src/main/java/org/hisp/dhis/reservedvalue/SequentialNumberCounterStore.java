@@ -35,6 +35,16 @@ import java.util.List;
  */
 public interface SequentialNumberCounterStore
 {
+    /**
+     * Allocates the next block of sequential values for the given owner and
+     * key. The counter is incremented with a single update statement, so
+     * concurrent callers always receive disjoint blocks.
+     *
+     * @param uid the uid of the owner of the counter.
+     * @param key the key of the counter.
+     * @param length the number of values to allocate.
+     * @return the allocated values in ascending order.
+     */
     List<Integer> getNextValues( String uid, String key, int length );
 
     void deleteCounter( String uid );
@@ -100,6 +100,12 @@ public interface ResourceTableService
      * Generates a resource table for data approval aggregated to minimum level.
      */
     void generateDataApprovalMinLevelTable();
+
+    /**
+     * Generates all resource tables required for analytics in parallel. Tables
+     * whose content is unchanged since they were last generated are skipped.
+     */
+    void generateResourceTables();
     
     /**
      * Create all SQL views.
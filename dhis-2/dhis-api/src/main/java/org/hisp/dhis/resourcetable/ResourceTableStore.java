@@ -50,6 +50,18 @@ public interface ResourceTableStore
      * @param resourceTable the resource table.
      */
     void generateResourceTable( ResourceTable<?> resourceTable );
+
+    /**
+     * Generates the given resource tables. Tables which do not depend on each
+     * other are generated in parallel on separate connections. The content of
+     * content based tables is computed in the calling thread, which must hence
+     * be able to load the objects the tables are populated from. A content
+     * based table is not regenerated if its content has not changed since the
+     * table was last generated.
+     * 
+     * @param resourceTables the resource tables.
+     */
+    void generateResourceTables( List<ResourceTable<?>> resourceTables );
     
     /**
      * Performs a batch update.
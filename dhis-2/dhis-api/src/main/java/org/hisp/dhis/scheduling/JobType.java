@@ -75,6 +75,7 @@ public enum JobType
     DATA_SET_NOTIFICATION( "dataSetNotificationJob", false, null, null ),
     REMOVE_EXPIRED_RESERVED_VALUES( "removeExpiredReservedValuesJob", false, null, null ),
     KAFKA_TRACKER( "kafkaTrackerJob", false, null, null ),
+    TRACKER_SEARCH_INDEX( "trackerSearchIndexJob", true, null, null ),
 
     // For tests
     MOCK( "mockJob", false, MockJobParameters.class, null ),
@@ -43,6 +43,8 @@ import org.springframework.core.Ordered;
 import java.lang.reflect.Method;
 import java.util.List;
 import java.util.Objects;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
 
 /**
  * @author Morten Olav Hansen <mortenoh@gmail.com>
@@ -80,6 +82,20 @@ public class Property implements Ordered, Klass
      */
     private Method setterMethod;
 
+    /**
+     * Cached accessor for getterMethod, created on first use.
+     *
+     * @see PropertyAccessors
+     */
+    private transient Function<Object, Object> getter;
+
+    /**
+     * Cached accessor for setterMethod, created on first use.
+     *
+     * @see PropertyAccessors
+     */
+    private transient BiConsumer<Object, Object> setter;
+
     /**
      * Name for this property, if this class is a collection, it is the name of the items -inside- the collection
      * and not the collection wrapper itself.
@@ -331,6 +347,7 @@ public class Property implements Ordered, Klass
     public void setGetterMethod( Method getterMethod )
     {
         this.getterMethod = getterMethod;
+        this.getter = null;
     }
 
     public Method getSetterMethod()
@@ -341,6 +358,79 @@ public class Property implements Ordered, Klass
     public void setSetterMethod( Method setterMethod )
     {
         this.setterMethod = setterMethod;
+        this.setter = null;
+    }
+
+    /**
+     * Returns the value of this property for the given object using the cached getter
+     * accessor. Returns null if the object or the getter method is null.
+     *
+     * @param target the object to read the property value from.
+     * @return the property value.
+     */
+    @SuppressWarnings( "unchecked" )
+    public <T> T getValue( Object target )
+    {
+        if ( target == null || getterMethod == null )
+        {
+            return null;
+        }
+
+        return (T) getGetter().apply( target );
+    }
+
+    /**
+     * Sets the value of this property on the given object using the cached setter
+     * accessor. Does nothing if the object or the setter method is null.
+     *
+     * @param target the object to set the property value on.
+     * @param value the property value.
+     */
+    public void setValue( Object target, Object value )
+    {
+        if ( target == null || setterMethod == null )
+        {
+            return;
+        }
+
+        getSetter().accept( target, value );
+    }
+
+    /**
+     * Creates the getter and setter accessors for this property up front, so that
+     * the cost of generating them is not paid on first use.
+     */
+    public void initAccessors()
+    {
+        if ( getterMethod != null )
+        {
+            getGetter();
+        }
+
+        if ( setterMethod != null )
+        {
+            getSetter();
+        }
+    }
+
+    private Function<Object, Object> getGetter()
+    {
+        if ( getter == null )
+        {
+            getter = PropertyAccessors.getter( getterMethod );
+        }
+
+        return getter;
+    }
+
+    private BiConsumer<Object, Object> getSetter()
+    {
+        if ( setter == null )
+        {
+            setter = PropertyAccessors.setter( setterMethod );
+        }
+
+        return setter;
     }
 
     @JsonProperty
@@ -0,0 +1,186 @@
+package org.hisp.dhis.schema;
+
+/*
+ * Copyright (c) 2004-2018, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+/**
+ * Creates fast accessors for property getter and setter methods. Accessors are generated
+ * through {@link LambdaMetafactory} so that they can be inlined by the JIT like a regular
+ * method call. If an accessor cannot be generated (i.e. the declaring class is not
+ * accessible) it falls back to plain reflection.
+ * <p>
+ * The accessors follow the semantics of {@code ReflectionUtils.invokeMethod}: protected and
+ * private methods are never invoked, getters for those return null and setters are no-ops,
+ * and exceptions thrown by the method are wrapped in a {@link RuntimeException} with an
+ * {@link InvocationTargetException} as cause.
+ */
+public final class PropertyAccessors
+{
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+
+    private static final Function<Object, Object> NULL_GETTER = target -> null;
+
+    private static final BiConsumer<Object, Object> NULL_SETTER = ( target, value ) -> {};
+
+    private PropertyAccessors()
+    {
+    }
+
+    /**
+     * Creates a getter accessor for the given method.
+     *
+     * @param method the getter method, must take no arguments.
+     * @return a function which returns the property value of the object it is applied to.
+     */
+    @SuppressWarnings( "unchecked" )
+    public static Function<Object, Object> getter( Method method )
+    {
+        if ( method == null || !isAccessible( method ) )
+        {
+            return NULL_GETTER;
+        }
+
+        try
+        {
+            MethodHandle handle = LOOKUP.unreflect( method );
+
+            CallSite site = LambdaMetafactory.metafactory( LOOKUP, "apply",
+                MethodType.methodType( Function.class ),
+                MethodType.methodType( Object.class, Object.class ),
+                handle,
+                MethodType.methodType( wrap( method.getReturnType() ), method.getDeclaringClass() ) );
+
+            Function<Object, Object> getter = (Function<Object, Object>) site.getTarget().invokeExact();
+
+            return target -> {
+                try
+                {
+                    return getter.apply( target );
+                }
+                catch ( Exception ex )
+                {
+                    throw wrapException( ex );
+                }
+            };
+        }
+        catch ( Throwable ex )
+        {
+            return target -> invoke( method, target );
+        }
+    }
+
+    /**
+     * Creates a setter accessor for the given method.
+     *
+     * @param method the setter method, must take a single argument.
+     * @return a consumer which sets the property value of the object it is applied to.
+     */
+    @SuppressWarnings( "unchecked" )
+    public static BiConsumer<Object, Object> setter( Method method )
+    {
+        if ( method == null || !isAccessible( method ) )
+        {
+            return NULL_SETTER;
+        }
+
+        try
+        {
+            MethodHandle handle = LOOKUP.unreflect( method );
+
+            CallSite site = LambdaMetafactory.metafactory( LOOKUP, "accept",
+                MethodType.methodType( BiConsumer.class ),
+                MethodType.methodType( void.class, Object.class, Object.class ),
+                handle,
+                MethodType.methodType( void.class, method.getDeclaringClass(), wrap( method.getParameterTypes()[0] ) ) );
+
+            BiConsumer<Object, Object> setter = (BiConsumer<Object, Object>) site.getTarget().invokeExact();
+
+            return ( target, value ) -> {
+                try
+                {
+                    setter.accept( target, value );
+                }
+                catch ( Exception ex )
+                {
+                    throw wrapException( ex );
+                }
+            };
+        }
+        catch ( Throwable ex )
+        {
+            return ( target, value ) -> invoke( method, target, value );
+        }
+    }
+
+    // -------------------------------------------------------------------------
+    // Supportive methods
+    // -------------------------------------------------------------------------
+
+    private static boolean isAccessible( Method method )
+    {
+        return !Modifier.isProtected( method.getModifiers() ) && !Modifier.isPrivate( method.getModifiers() );
+    }
+
+    private static Object invoke( Method method, Object target, Object... args )
+    {
+        try
+        {
+            return method.invoke( target, args );
+        }
+        catch ( InvocationTargetException | IllegalAccessException ex )
+        {
+            throw new RuntimeException( ex );
+        }
+    }
+
+    private static RuntimeException wrapException( Exception ex )
+    {
+        return new RuntimeException( new InvocationTargetException( ex ) );
+    }
+
+    private static Class<?> wrap( Class<?> type )
+    {
+        if ( !type.isPrimitive() )
+        {
+            return type;
+        }
+
+        return MethodType.methodType( type ).wrap().returnType();
+    }
+}
@@ -29,9 +29,21 @@ package org.hisp.dhis.sms.incoming;
  * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
  */
 
+import org.hisp.dhis.sms.parse.ParserType;
+
 public interface IncomingSmsListener
 {
     boolean accept( IncomingSms sms );
 
     void receive( IncomingSms sms );
+
+    /**
+     * Returns the parser type of the SMS commands handled by this listener,
+     * which is used to dispatch messages on their command keyword. Listeners
+     * which return null are only reached by probing {@link #accept(IncomingSms)}.
+     */
+    default ParserType getParserType()
+    {
+        return null;
+    }
 }
@@ -29,6 +29,7 @@ package org.hisp.dhis.sms.incoming;
  */
 
 import java.util.List;
+import java.util.Collection;
 import java.util.Date;
 
 import org.hisp.dhis.sms.MessageQueue;
@@ -46,6 +47,13 @@ public interface IncomingSmsService
 
     void update( IncomingSms sms );
 
+    /**
+     * Updates the given messages in a single transaction.
+     *
+     * @param smses the messages to update.
+     */
+    void update( Collection<IncomingSms> smses );
+
     IncomingSms findBy( Integer id );
 
     List<IncomingSms> listAllMessage();
@@ -0,0 +1,113 @@
+package org.hisp.dhis.trackedentity;
+
+/*
+ * Copyright (c) 2004-2018, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+import org.hisp.dhis.trackedentityattributevalue.TrackedEntityAttributeValue;
+
+import java.util.Set;
+
+/**
+ * In-process inverted index of tracked entity attribute values, used to narrow
+ * down tracked entity instance searches to a set of candidate instances before
+ * the database query is run. Values are indexed as lower case trigrams per
+ * attribute, and every instance is scoped by its tracked entity type and the
+ * path of its organisation unit. Values of confidential attributes are not
+ * indexed.
+ * <p>
+ * Candidates may contain instances which do not match, so the database query
+ * must still apply the query and filters of the search. Values written
+ * outside the tracked entity attribute value service, or on other nodes, are
+ * not reflected until the next consistency check, and instances matching by
+ * such values may be missing from the candidates until then.
+ */
+public interface TrackedEntityAttributeSearchIndex
+{
+    /**
+     * Indicates whether the index is enabled through configuration.
+     */
+    boolean isEnabled();
+
+    /**
+     * Indicates whether the index is enabled and has been built, and hence can
+     * be used to answer searches.
+     */
+    boolean isReady();
+
+    /**
+     * Adds or replaces the given attribute value in the index when the current
+     * transaction commits.
+     *
+     * @param attributeValue the attribute value.
+     */
+    void addValue( TrackedEntityAttributeValue attributeValue );
+
+    /**
+     * Removes the given attribute value from the index when the current
+     * transaction commits.
+     *
+     * @param attributeValue the attribute value.
+     */
+    void removeValue( TrackedEntityAttributeValue attributeValue );
+
+    /**
+     * Updates the tracked entity type and organisation unit path the given
+     * instance is scoped by.
+     *
+     * @param instance the tracked entity instance.
+     */
+    void updateScope( TrackedEntityInstance instance );
+
+    /**
+     * Returns the identifiers of the tracked entity instances which may match
+     * the query or the attribute filters of the given parameters, restricted to
+     * the tracked entity type and organisation units of the parameters. Returns
+     * null if the index cannot answer the search, or if the search is not
+     * selective enough for the candidates to be useful, in which case the
+     * search must be answered by the database alone.
+     *
+     * @param params the query parameters.
+     * @return a set of tracked entity instance identifiers, or null.
+     */
+    Set<Integer> getCandidates( TrackedEntityInstanceQueryParams params );
+
+    /**
+     * Rebuilds the index from the database.
+     */
+    void rebuild();
+
+    /**
+     * Verifies the index against the database. Scopes are refreshed, and the
+     * values of attributes for which the number of indexed values differ from
+     * the number of values in the database, or which have values updated later
+     * than the latest indexed update, are re-indexed.
+     *
+     * @return the number of inconsistencies which were repaired.
+     */
+    int checkConsistency();
+}
@@ -30,6 +30,7 @@ package org.hisp.dhis.trackedentity;
 
 import org.apache.commons.lang.time.DateUtils;
 import org.hisp.dhis.common.OrganisationUnitSelectionMode;
+import org.hisp.dhis.common.PageToken;
 import org.hisp.dhis.common.QueryFilter;
 import org.hisp.dhis.common.QueryItem;
 import org.hisp.dhis.event.EventStatus;
@@ -208,6 +209,22 @@ public class TrackedEntityInstanceQueryParams
      */
     private List<String> orders;
 
+    /**
+     * Indicates whether to page on (lastUpdated, id) rather than on offset.
+     */
+    private boolean keysetPaging;
+
+    /**
+     * Position after which the keyset page starts, null for the first page.
+     */
+    private PageToken pageToken;
+
+    /**
+     * Position of the last instance of the keyset page, set by the store when
+     * more instances may follow.
+     */
+    private PageToken nextPageToken;
+
     // -------------------------------------------------------------------------
     // Transient properties
     // -------------------------------------------------------------------------
@@ -629,6 +646,23 @@ public class TrackedEntityInstanceQueryParams
         this.skipPaging = false;
     }
 
+    /**
+     * Indicates whether keyset paging applies, which requires that paging is
+     * not skipped.
+     */
+    public boolean isKeysetPaging()
+    {
+        return keysetPaging && !skipPaging;
+    }
+
+    /**
+     * Indicates whether a page token is specified.
+     */
+    public boolean hasPageToken()
+    {
+        return pageToken != null;
+    }
+
     // -------------------------------------------------------------------------
     // toString
     // -------------------------------------------------------------------------
@@ -955,4 +989,32 @@ public class TrackedEntityInstanceQueryParams
     {
         this.orders = orders;
     }
+
+    public TrackedEntityInstanceQueryParams setKeysetPaging( boolean keysetPaging )
+    {
+        this.keysetPaging = keysetPaging;
+        return this;
+    }
+
+    public PageToken getPageToken()
+    {
+        return pageToken;
+    }
+
+    public TrackedEntityInstanceQueryParams setPageToken( PageToken pageToken )
+    {
+        this.pageToken = pageToken;
+        return this;
+    }
+
+    public PageToken getNextPageToken()
+    {
+        return nextPageToken;
+    }
+
+    public TrackedEntityInstanceQueryParams setNextPageToken( PageToken nextPageToken )
+    {
+        this.nextPageToken = nextPageToken;
+        return this;
+    }
 }
@@ -0,0 +1,176 @@
+package org.hisp.dhis.schema;
+
+/*
+ * Copyright (c) 2004-2018, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+import static org.junit.Assert.*;
+
+import java.lang.reflect.InvocationTargetException;
+
+import org.junit.Test;
+
+public class PropertyTest
+{
+    @Test
+    public void testGetSetValue()
+        throws Exception
+    {
+        Property property = new Property( String.class, Item.class.getMethod( "getName" ), Item.class.getMethod( "setName", String.class ) );
+        property.initAccessors();
+
+        Item item = new Item();
+        property.setValue( item, "A" );
+
+        assertEquals( "A", item.getName() );
+        assertEquals( "A", property.getValue( item ) );
+        assertNull( property.getValue( null ) );
+    }
+
+    @Test
+    public void testGetSetPrimitiveValue()
+        throws Exception
+    {
+        Property property = new Property( Integer.class, Item.class.getMethod( "getCount" ), Item.class.getMethod( "setCount", int.class ) );
+
+        Item item = new Item();
+        property.setValue( item, 7 );
+
+        assertEquals( 7, item.getCount() );
+        assertEquals( Integer.valueOf( 7 ), property.getValue( item ) );
+    }
+
+    @Test
+    public void testNonPublicDeclaringClass()
+        throws Exception
+    {
+        Property property = new Property( String.class, HiddenItem.class.getMethod( "getCode" ), HiddenItem.class.getMethod( "setCode", String.class ) );
+
+        HiddenItem item = new HiddenItem();
+        property.setValue( item, "B" );
+
+        assertEquals( "B", property.getValue( item ) );
+    }
+
+    @Test
+    public void testProtectedMethod()
+        throws Exception
+    {
+        Property property = new Property( String.class, Item.class.getDeclaredMethod( "getSecret" ), null );
+
+        assertNull( property.getValue( new Item() ) );
+    }
+
+    @Test
+    public void testChangeGetterMethod()
+        throws Exception
+    {
+        Property property = new Property( String.class, Item.class.getMethod( "getName" ), null );
+        property.initAccessors();
+        property.setGetterMethod( Item.class.getMethod( "getDescription" ) );
+
+        Item item = new Item();
+        item.setName( "A" );
+
+        assertEquals( "Description", property.getValue( item ) );
+    }
+
+    @Test
+    public void testExceptionIsWrapped()
+        throws Exception
+    {
+        Property property = new Property( String.class, Item.class.getMethod( "getFailure" ), null );
+
+        try
+        {
+            property.getValue( new Item() );
+            fail();
+        }
+        catch ( RuntimeException ex )
+        {
+            assertTrue( ex.getCause() instanceof InvocationTargetException );
+            assertTrue( ( (InvocationTargetException) ex.getCause() ).getTargetException() instanceof IllegalStateException );
+        }
+    }
+
+    public static class Item
+    {
+        private String name;
+
+        private int count;
+
+        public String getName()
+        {
+            return name;
+        }
+
+        public void setName( String name )
+        {
+            this.name = name;
+        }
+
+        public int getCount()
+        {
+            return count;
+        }
+
+        public void setCount( int count )
+        {
+            this.count = count;
+        }
+
+        public String getDescription()
+        {
+            return "Description";
+        }
+
+        protected String getSecret()
+        {
+            return "Secret";
+        }
+
+        public String getFailure()
+        {
+            throw new IllegalStateException();
+        }
+    }
+
+    private static class HiddenItem
+    {
+        private String code;
+
+        public String getCode()
+        {
+            return code;
+        }
+
+        public void setCode( String code )
+        {
+            this.code = code;
+        }
+    }
+}
@@ -277,4 +277,10 @@ public interface AclService
      * @return List of error reports (if any)
      */
     <T extends IdentifiableObject> List<ErrorReport> verifySharing( T object, User user );
+
+    /**
+     * Invalidates the cached user group memberships of users which are used
+     * for sharing checks. Should be invoked when user group memberships change.
+     */
+    void invalidateUserGroupMembershipCache();
 }
@@ -28,10 +28,13 @@ package org.hisp.dhis.security.acl;
  * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
  */
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import org.hisp.dhis.category.CategoryOption;
 import org.hisp.dhis.category.CategoryOptionCombo;
 import org.hisp.dhis.common.BaseIdentifiableObject;
 import org.hisp.dhis.common.IdentifiableObject;
+import org.hisp.dhis.commons.util.SystemUtils;
 import org.hisp.dhis.feedback.ErrorCode;
 import org.hisp.dhis.feedback.ErrorReport;
 import org.hisp.dhis.schema.Schema;
@@ -39,12 +42,11 @@ import org.hisp.dhis.schema.SchemaService;
 import org.hisp.dhis.security.AuthorityType;
 import org.hisp.dhis.security.acl.AccessStringHelper.Permission;
 import org.hisp.dhis.user.User;
-import org.hisp.dhis.user.UserAccess;
-import org.hisp.dhis.user.UserGroupAccess;
 
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 import static org.springframework.util.CollectionUtils.containsAny;
 
@@ -55,6 +57,17 @@ import static org.springframework.util.CollectionUtils.containsAny;
  */
 public class DefaultAclService implements AclService
 {
+    /**
+     * Cache for the sorted user group identifiers of users, keyed by user uid.
+     * Local to the instance since it is read for every sharing check. Entries
+     * expire after a few minutes to pick up changes made by other instances.
+     */
+    private static final Cache<String, int[]> USER_GROUP_MEMBERSHIP_CACHE = Caffeine.newBuilder()
+        .expireAfterWrite( 5, TimeUnit.MINUTES )
+        .initialCapacity( 1000 )
+        .maximumSize( SystemUtils.isTestRun() ? 0 : 50000 )
+        .build();
+
     private final SchemaService schemaService;
 
     public DefaultAclService( SchemaService schemaService )
@@ -590,6 +603,12 @@ public class DefaultAclService implements AclService
         return errorReports;
     }
 
+    @Override
+    public void invalidateUserGroupMembershipCache()
+    {
+        USER_GROUP_MEMBERSHIP_CACHE.invalidateAll();
+    }
+
     private <T extends IdentifiableObject> Collection<? extends ErrorReport> verifyImplicitSharing( User user, T object )
     {
         List<ErrorReport> errorReports = new ArrayList<>();
@@ -681,38 +700,23 @@ public class DefaultAclService implements AclService
      */
     private boolean checkSharingPermission( User user, IdentifiableObject object, Permission permission )
     {
-        if ( AccessStringHelper.isEnabled( object.getPublicAccess(), permission ) )
-        {
-            return true;
-        }
-
-        for ( UserGroupAccess userGroupAccess : object.getUserGroupAccesses() )
-        {
-            /**
-             * Is the user allowed to read this object through group access? 
-             *
-             */
-            if ( AccessStringHelper.isEnabled( userGroupAccess.getAccess(), permission )
-                && userGroupAccess.getUserGroup().getMembers().contains( user ) )
-            {
-                return true;
-            }
-        }
+        return getSharingAccessEvaluator( user ).isPermitted( object, permission );
+    }
 
-        for ( UserAccess userAccess : object.getUserAccesses() )
-        {
-            /**
-             * Is the user allowed to read to this object through user access? 
-             *
-             */
-            if ( AccessStringHelper.isEnabled( userAccess.getAccess(), permission )
-                && user.equals( userAccess.getUser() ) )
-            {
-                return true;
-            }
-        }
+    /**
+     * Returns a sharing access evaluator for the given user, based on the
+     * cached user group memberships of the user.
+     *
+     * @param user User to check against
+     * @return a sharing access evaluator
+     */
+    private SharingAccessEvaluator getSharingAccessEvaluator( User user )
+    {
+        int[] userGroupIds = user != null && user.getUid() != null ?
+            USER_GROUP_MEMBERSHIP_CACHE.get( user.getUid(), uid -> SharingAccessEvaluator.getUserGroupIds( user ) ) :
+            SharingAccessEvaluator.getUserGroupIds( user );
 
-        return false;
+        return new SharingAccessEvaluator( user, userGroupIds );
     }
 
     private boolean checkOptionComboSharingPermission( User user, IdentifiableObject object, Permission permission )
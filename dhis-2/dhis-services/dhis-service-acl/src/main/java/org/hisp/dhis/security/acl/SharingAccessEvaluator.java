@@ -0,0 +1,139 @@
+package org.hisp.dhis.security.acl;
+
+/*
+ * Copyright (c) 2004-2018, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+import org.hisp.dhis.common.IdentifiableObject;
+import org.hisp.dhis.security.acl.AccessStringHelper.Permission;
+import org.hisp.dhis.user.User;
+import org.hisp.dhis.user.UserAccess;
+import org.hisp.dhis.user.UserGroup;
+import org.hisp.dhis.user.UserGroupAccess;
+
+import java.util.Arrays;
+
+/**
+ * Evaluates the sharing permissions of objects for a user, based on the access
+ * strings of the objects and the identifiers of the user groups which the user
+ * is a member of. Group membership is checked against a sorted array of group
+ * identifiers, which avoids initializing the members of user groups.
+ */
+public class SharingAccessEvaluator
+{
+    private final User user;
+
+    private final int[] userGroupIds;
+
+    /**
+     * @param user the user.
+     * @param userGroupIds the sorted identifiers of the user groups which the
+     *        user is a member of, see {@link #getUserGroupIds(User)}.
+     */
+    public SharingAccessEvaluator( User user, int[] userGroupIds )
+    {
+        this.user = user;
+        this.userGroupIds = userGroupIds;
+    }
+
+    /**
+     * Returns the sorted user group identifiers of the given user.
+     *
+     * @param user the user.
+     * @return an array of user group identifiers.
+     */
+    public static int[] getUserGroupIds( User user )
+    {
+        if ( user == null || user.getGroups() == null )
+        {
+            return new int[0];
+        }
+
+        return user.getGroups().stream().mapToInt( UserGroup::getId ).sorted().toArray();
+    }
+
+    public boolean canRead( IdentifiableObject object )
+    {
+        return isPermitted( object, Permission.READ );
+    }
+
+    public boolean canWrite( IdentifiableObject object )
+    {
+        return isPermitted( object, Permission.WRITE );
+    }
+
+    public boolean canDataRead( IdentifiableObject object )
+    {
+        return isPermitted( object, Permission.DATA_READ );
+    }
+
+    public boolean canDataWrite( IdentifiableObject object )
+    {
+        return isPermitted( object, Permission.DATA_WRITE );
+    }
+
+    /**
+     * Indicates whether the user is granted the given permission to the given
+     * object through public access, user group access or user access.
+     *
+     * @param object the object.
+     * @param permission the permission.
+     * @return true if the permission is granted, false otherwise.
+     */
+    public boolean isPermitted( IdentifiableObject object, Permission permission )
+    {
+        if ( AccessStringHelper.isEnabled( object.getPublicAccess(), permission ) )
+        {
+            return true;
+        }
+
+        for ( UserGroupAccess userGroupAccess : object.getUserGroupAccesses() )
+        {
+            if ( AccessStringHelper.isEnabled( userGroupAccess.getAccess(), permission )
+                && userGroupAccess.getUserGroup() != null && isMember( userGroupAccess.getUserGroup() ) )
+            {
+                return true;
+            }
+        }
+
+        for ( UserAccess userAccess : object.getUserAccesses() )
+        {
+            if ( AccessStringHelper.isEnabled( userAccess.getAccess(), permission )
+                && user != null && user.equals( userAccess.getUser() ) )
+            {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    private boolean isMember( UserGroup userGroup )
+    {
+        return Arrays.binarySearch( userGroupIds, userGroup.getId() ) >= 0;
+    }
+}
@@ -0,0 +1,147 @@
+package org.hisp.dhis.security.acl;
+
+/*
+ * Copyright (c) 2004-2018, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+import org.hisp.dhis.dataelement.DataElement;
+import org.hisp.dhis.user.User;
+import org.hisp.dhis.user.UserAccess;
+import org.hisp.dhis.user.UserGroup;
+import org.hisp.dhis.user.UserGroupAccess;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class SharingAccessEvaluatorTest
+{
+    private User userA;
+
+    private User userB;
+
+    private UserGroup groupA;
+
+    private UserGroup groupB;
+
+    @Before
+    public void setUp()
+    {
+        userA = createUser( 1, "userUidAaa" );
+        userB = createUser( 2, "userUidBbb" );
+
+        groupA = createUserGroup( 30, "groupUidAa" );
+        groupB = createUserGroup( 10, "groupUidBb" );
+
+        groupA.addUser( userA );
+        groupB.addUser( userA );
+        groupB.addUser( userB );
+    }
+
+    @Test
+    public void testGetUserGroupIds()
+    {
+        assertArrayEquals( new int[] { 10, 30 }, SharingAccessEvaluator.getUserGroupIds( userA ) );
+        assertArrayEquals( new int[] { 10 }, SharingAccessEvaluator.getUserGroupIds( userB ) );
+        assertArrayEquals( new int[0], SharingAccessEvaluator.getUserGroupIds( null ) );
+    }
+
+    @Test
+    public void testPublicAccess()
+    {
+        DataElement object = createObject( "r-r-----" );
+
+        SharingAccessEvaluator evaluator = getEvaluator( userB );
+
+        assertTrue( evaluator.canRead( object ) );
+        assertFalse( evaluator.canWrite( object ) );
+        assertTrue( evaluator.canDataRead( object ) );
+        assertFalse( evaluator.canDataWrite( object ) );
+    }
+
+    @Test
+    public void testUserGroupAccess()
+    {
+        DataElement object = createObject( AccessStringHelper.DEFAULT );
+        object.getUserGroupAccesses().add( new UserGroupAccess( groupA, "rw------" ) );
+        object.getUserGroupAccesses().add( new UserGroupAccess( groupB, "--r-----" ) );
+
+        SharingAccessEvaluator evaluatorA = getEvaluator( userA );
+
+        assertTrue( evaluatorA.canRead( object ) );
+        assertTrue( evaluatorA.canWrite( object ) );
+        assertTrue( evaluatorA.canDataRead( object ) );
+
+        SharingAccessEvaluator evaluatorB = getEvaluator( userB );
+
+        assertFalse( evaluatorB.canRead( object ) );
+        assertFalse( evaluatorB.canWrite( object ) );
+        assertTrue( evaluatorB.canDataRead( object ) );
+    }
+
+    @Test
+    public void testUserAccess()
+    {
+        DataElement object = createObject( AccessStringHelper.DEFAULT );
+        object.getUserAccesses().add( new UserAccess( userB, "r-------" ) );
+
+        assertFalse( getEvaluator( userA ).canRead( object ) );
+        assertTrue( getEvaluator( userB ).canRead( object ) );
+        assertFalse( getEvaluator( userB ).canWrite( object ) );
+    }
+
+    private SharingAccessEvaluator getEvaluator( User user )
+    {
+        return new SharingAccessEvaluator( user, SharingAccessEvaluator.getUserGroupIds( user ) );
+    }
+
+    private DataElement createObject( String publicAccess )
+    {
+        DataElement object = new DataElement( "DataElementA" );
+        object.setUid( "deUidAaaaaa" );
+        object.setPublicAccess( publicAccess );
+        return object;
+    }
+
+    private User createUser( int id, String uid )
+    {
+        User user = new User();
+        user.setId( id );
+        user.setUid( uid );
+        return user;
+    }
+
+    private UserGroup createUserGroup( int id, String uid )
+    {
+        UserGroup userGroup = new UserGroup( uid );
+        userGroup.setId( id );
+        userGroup.setUid( uid );
+        return userGroup;
+    }
+}
@@ -51,6 +51,7 @@ import org.hisp.dhis.resourcetable.table.*;
 import org.hisp.dhis.sqlview.SqlView;
 import org.hisp.dhis.sqlview.SqlViewService;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.util.ArrayList;
 import java.util.Collections;
@@ -123,6 +124,13 @@ public class DefaultResourceTableService
     {
         this.statementBuilder = statementBuilder;
     }
+
+    private TransactionTemplate transactionTemplate;
+
+    public void setTransactionTemplate( TransactionTemplate transactionTemplate )
+    {
+        this.transactionTemplate = transactionTemplate;
+    }
     
     // -------------------------------------------------------------------------
     // ResourceTableService implementation
@@ -132,66 +140,58 @@ public class DefaultResourceTableService
     @Transactional
     public void generateOrganisationUnitStructures()
     {
-        resourceTableStore.generateResourceTable( new OrganisationUnitStructureResourceTable( 
-            null, organisationUnitService, organisationUnitService.getNumberOfOrganisationalLevels() ) );
+        organisationUnitService.updateOrganisationUnitClosure();
+
+        resourceTableStore.generateResourceTable( getOrganisationUnitStructureTable() );
     }
     
     @Override
     @Transactional
     public void generateDataSetOrganisationUnitCategoryTable()
     {
-        resourceTableStore.generateResourceTable( new DataSetOrganisationUnitCategoryResourceTable( 
-            idObjectManager.getAllNoAcl( DataSet.class ), categoryService.getDefaultCategoryOptionCombo() ) );
+        resourceTableStore.generateResourceTable( getDataSetOrganisationUnitCategoryTable() );
     }
     
     @Override
     @Transactional
     public void generateCategoryOptionComboNames()
     {
-        resourceTableStore.generateResourceTable( new CategoryOptionComboNameResourceTable( 
-            idObjectManager.getAllNoAcl( CategoryCombo.class ) ) );
+        resourceTableStore.generateResourceTable( getCategoryOptionComboNameTable() );
     }
 
     @Override
     @Transactional
     public void generateDataElementGroupSetTable()
     {
-        resourceTableStore.generateResourceTable( new DataElementGroupSetResourceTable(
-            idObjectManager.getDataDimensionsNoAcl( DataElementGroupSet.class ) ) );
+        resourceTableStore.generateResourceTable( getDataElementGroupSetTable() );
     }
 
     @Override
     @Transactional
     public void generateIndicatorGroupSetTable()
     {
-        resourceTableStore.generateResourceTable( new IndicatorGroupSetResourceTable(
-            idObjectManager.getAllNoAcl( IndicatorGroupSet.class ) ) );
+        resourceTableStore.generateResourceTable( getIndicatorGroupSetTable() );
     }
 
     @Override
     @Transactional
     public void generateOrganisationUnitGroupSetTable()
     {
-        resourceTableStore.generateResourceTable( new OrganisationUnitGroupSetResourceTable(
-            idObjectManager.getDataDimensionsNoAcl( OrganisationUnitGroupSet.class ),
-            statementBuilder.supportsPartialIndexes() ) );
+        resourceTableStore.generateResourceTable( getOrganisationUnitGroupSetTable() );
     }
 
     @Override
     @Transactional
     public void generateCategoryTable()
     {
-        resourceTableStore.generateResourceTable( new CategoryResourceTable( 
-            idObjectManager.getDataDimensionsNoAcl( Category.class ),
-            idObjectManager.getDataDimensionsNoAcl( CategoryOptionGroupSet.class ) ) );
+        resourceTableStore.generateResourceTable( getCategoryTable() );
     }
 
     @Override
     @Transactional
     public void generateDataElementTable()
     {
-        resourceTableStore.generateResourceTable( new DataElementResourceTable( 
-            idObjectManager.getAllNoAcl( DataElement.class ) ) );
+        resourceTableStore.generateResourceTable( getDataElementTable() );
     }
 
     @Override
@@ -204,7 +204,7 @@ public class DefaultResourceTableService
     @Transactional
     public void generatePeriodTable()
     {
-        resourceTableStore.generateResourceTable( new PeriodResourceTable( periodService.getAllPeriods() ) );
+        resourceTableStore.generateResourceTable( getPeriodTable() );
     }
 
     @Override
@@ -225,6 +225,35 @@ public class DefaultResourceTableService
             resourceTableStore.generateResourceTable( new DataApprovalMinLevelResourceTable( orgUnitLevels ) );
         }
     }
+
+    /**
+     * The organisation unit closure is updated in a separate transaction up
+     * front, as the tables are generated on separate connections which must
+     * see the updated closure. The tables are created within a transaction so
+     * that their content can be computed from the loaded objects.
+     */
+    @Override
+    public void generateResourceTables()
+    {
+        organisationUnitService.updateOrganisationUnitClosure();
+
+        transactionTemplate.execute( status -> {
+            resourceTableStore.generateResourceTables( Lists.newArrayList(
+                getOrganisationUnitStructureTable(),
+                getDataSetOrganisationUnitCategoryTable(),
+                getCategoryOptionComboNameTable(),
+                getDataElementGroupSetTable(),
+                getIndicatorGroupSetTable(),
+                getOrganisationUnitGroupSetTable(),
+                getCategoryTable(),
+                getDataElementTable(),
+                getPeriodTable(),
+                new DatePeriodResourceTable( null ),
+                new CategoryOptionComboResourceTable( null ) ) );
+
+            return null;
+        } );
+    }
     
     // -------------------------------------------------------------------------
     // SQL Views. Each view is created/dropped in separate transactions so that
@@ -269,4 +298,58 @@ public class DefaultResourceTableService
             }
         }
     }
+
+    // -------------------------------------------------------------------------
+    // Supportive methods
+    // -------------------------------------------------------------------------
+
+    private ResourceTable<?> getOrganisationUnitStructureTable()
+    {
+        return new OrganisationUnitStructureResourceTable( organisationUnitService.getNumberOfOrganisationalLevels() );
+    }
+
+    private ResourceTable<?> getDataSetOrganisationUnitCategoryTable()
+    {
+        return new DataSetOrganisationUnitCategoryResourceTable(
+            idObjectManager.getAllNoAcl( DataSet.class ), categoryService.getDefaultCategoryOptionCombo() );
+    }
+
+    private ResourceTable<?> getCategoryOptionComboNameTable()
+    {
+        return new CategoryOptionComboNameResourceTable( idObjectManager.getAllNoAcl( CategoryCombo.class ) );
+    }
+
+    private ResourceTable<?> getDataElementGroupSetTable()
+    {
+        return new DataElementGroupSetResourceTable( idObjectManager.getDataDimensionsNoAcl( DataElementGroupSet.class ) );
+    }
+
+    private ResourceTable<?> getIndicatorGroupSetTable()
+    {
+        return new IndicatorGroupSetResourceTable( idObjectManager.getAllNoAcl( IndicatorGroupSet.class ) );
+    }
+
+    private ResourceTable<?> getOrganisationUnitGroupSetTable()
+    {
+        return new OrganisationUnitGroupSetResourceTable(
+            idObjectManager.getDataDimensionsNoAcl( OrganisationUnitGroupSet.class ),
+            statementBuilder.supportsPartialIndexes() );
+    }
+
+    private ResourceTable<?> getCategoryTable()
+    {
+        return new CategoryResourceTable(
+            idObjectManager.getDataDimensionsNoAcl( Category.class ),
+            idObjectManager.getDataDimensionsNoAcl( CategoryOptionGroupSet.class ) );
+    }
+
+    private ResourceTable<?> getDataElementTable()
+    {
+        return new DataElementResourceTable( idObjectManager.getAllNoAcl( DataElement.class ) );
+    }
+
+    private ResourceTable<?> getPeriodTable()
+    {
+        return new PeriodResourceTable( periodService.getAllPeriods() );
+    }
 }
@@ -28,21 +28,39 @@ package org.hisp.dhis.resourcetable.jdbc;
  * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
  */
 
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.hisp.dhis.analytics.AnalyticsTableHook;
 import org.hisp.dhis.analytics.AnalyticsTableHookService;
 import org.hisp.dhis.analytics.AnalyticsTablePhase;
+import org.hisp.dhis.commons.util.ConcurrentUtils;
+import org.hisp.dhis.commons.util.SystemUtils;
 import org.hisp.dhis.dbms.DbmsManager;
 import org.hisp.dhis.jdbc.StatementBuilder;
 import org.hisp.dhis.resourcetable.ResourceTable;
 import org.hisp.dhis.resourcetable.ResourceTableStore;
 import org.hisp.dhis.system.util.Clock;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.ConnectionCallback;
 import org.springframework.jdbc.core.JdbcTemplate;
 
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Date;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 /**
  * @author Lars Helge Overland
@@ -52,6 +70,14 @@ public class JdbcResourceTableStore
 {
     private static final Log log = LogFactory.getLog( JdbcResourceTableStore.class );
 
+    private static final int COPY_BUFFER_SIZE = 1024 * 1024;
+
+    /**
+     * Checksums of the content of content based resource tables as of when
+     * the tables were last generated, mapped by table name.
+     */
+    private final Map<String, String> contentChecksums = new ConcurrentHashMap<>();
+
     // -------------------------------------------------------------------------
     // Dependencies
     // -------------------------------------------------------------------------
@@ -76,12 +102,120 @@ public class JdbcResourceTableStore
     // ResourceTableStore implementation
     // -------------------------------------------------------------------------
 
+    @Override
     public void generateResourceTable( ResourceTable<?> resourceTable )
+    {
+        final Optional<List<Object[]>> populateTableContent = resourceTable.getPopulateTempTableContent();
+
+        contentChecksums.remove( resourceTable.getTableName() );
+
+        generateResourceTable( resourceTable, populateTableContent, getHooks( resourceTable ) );
+
+        if ( populateTableContent.isPresent() )
+        {
+            contentChecksums.put( resourceTable.getTableName(), getChecksum( resourceTable, populateTableContent.get() ) );
+        }
+    }
+
+    @Override
+    public void generateResourceTables( List<ResourceTable<?>> resourceTables )
+    {
+        final Clock clock = new Clock().startClock();
+        final List<Runnable> tasks = new ArrayList<>();
+
+        // ---------------------------------------------------------------------
+        // Compute content and hooks in the calling thread, skip tables with
+        // unchanged content
+        // ---------------------------------------------------------------------
+
+        for ( ResourceTable<?> resourceTable : resourceTables )
+        {
+            final String tableName = resourceTable.getTableName();
+            final Optional<List<Object[]>> populateTableContent = resourceTable.getPopulateTempTableContent();
+            final List<AnalyticsTableHook> hooks = getHooks( resourceTable );
+            final String checksum = populateTableContent.isPresent() && hooks.isEmpty() ?
+                getChecksum( resourceTable, populateTableContent.get() ) : null;
+
+            if ( checksum != null && checksum.equals( contentChecksums.get( tableName ) ) && dbmsManager.tableExists( tableName ) )
+            {
+                log.info( "Resource table content unchanged, skipping table: " + tableName );
+                continue;
+            }
+
+            tasks.add( () -> {
+                contentChecksums.remove( tableName );
+
+                generateResourceTable( resourceTable, populateTableContent, hooks );
+
+                if ( checksum != null )
+                {
+                    contentChecksums.put( tableName, checksum );
+                }
+            } );
+        }
+
+        if ( tasks.isEmpty() )
+        {
+            log.info( "No resource tables to generate" );
+            return;
+        }
+
+        // ---------------------------------------------------------------------
+        // Generate tables in parallel
+        // ---------------------------------------------------------------------
+
+        final ExecutorService executor = Executors.newFixedThreadPool( getThreadPoolSize( tasks.size() ),
+            new ThreadFactoryBuilder().setNameFormat( "resource-table-%d" ).setDaemon( true ).build() );
+
+        try
+        {
+            List<Future<?>> futures = new ArrayList<>();
+
+            for ( Runnable task : tasks )
+            {
+                futures.add( executor.submit( task ) );
+            }
+
+            ConcurrentUtils.waitForCompletion( futures );
+        }
+        finally
+        {
+            executor.shutdownNow();
+        }
+
+        log.info( String.format( "Generated %d of %d resource tables in: %s", tasks.size(), resourceTables.size(), clock.time() ) );
+    }
+    
+    @Override
+    public void batchUpdate( int columns, String tableName, List<Object[]> batchArgs )
+    {
+        if ( columns == 0 || tableName == null )
+        {
+            return;
+        }
+        
+        StringBuilder builder = new StringBuilder( "insert into " + tableName + " values (" );
+        
+        for ( int i = 0; i < columns; i++ )
+        {
+            builder.append( "?," );
+        }
+        
+        builder.deleteCharAt( builder.length() - 1 ).append( ")" );
+        
+        jdbcTemplate.batchUpdate( builder.toString(), batchArgs );
+    }
+
+    // -------------------------------------------------------------------------
+    // Supportive methods
+    // -------------------------------------------------------------------------
+
+    private void generateResourceTable( ResourceTable<?> resourceTable, Optional<List<Object[]>> populateTableContent,
+        List<AnalyticsTableHook> hooks )
     {
         final Clock clock = new Clock().startClock();
         final String createTableSql = resourceTable.getCreateTempTableStatement();
         final Optional<String> populateTableSql = resourceTable.getPopulateTempTableStatement();
-        final Optional<List<Object[]>> populateTableContent = resourceTable.getPopulateTempTableContent();
         final List<String> createIndexSql = resourceTable.getCreateIndexStatements();
         final String analyzeTableSql = statementBuilder.getAnalyze( resourceTable.getTableName() );
 
@@ -103,7 +237,7 @@ public class JdbcResourceTableStore
         jdbcTemplate.execute( createTableSql );
 
         // ---------------------------------------------------------------------
-        // Populate temporary table through SQL or object batch update
+        // Populate temporary table through SQL or object copy / batch update
         // ---------------------------------------------------------------------
 
         if ( populateTableSql.isPresent() )
@@ -118,7 +252,7 @@ public class JdbcResourceTableStore
             
             log.info( "Populate table content rows: " + content.size() );
             
-            if ( content.size() > 0 )
+            if ( content.size() > 0 && !copyIn( resourceTable.getTempTableName(), content ) )
             {
                 int columns = content.get( 0 ).length;
                 
@@ -130,9 +264,6 @@ public class JdbcResourceTableStore
         // Invoke hooks
         // ---------------------------------------------------------------------
         
-        List<AnalyticsTableHook> hooks = analyticsTableHookService
-            .getByPhaseAndResourceTableType( AnalyticsTablePhase.RESOURCE_TABLE_POPULATED, resourceTable.getTableType() );
-        
         if ( !hooks.isEmpty() )
         {
             analyticsTableHookService.executeAnalyticsTableSqlHooks( hooks );
@@ -177,24 +308,131 @@ public class JdbcResourceTableStore
         
         log.info( "Analyzed resource table: " + resourceTable.getTableName() + ", done in: " + clock.time() );
     }
-    
-    @Override
-    public void batchUpdate( int columns, String tableName, List<Object[]> batchArgs )
+
+    private List<AnalyticsTableHook> getHooks( ResourceTable<?> resourceTable )
     {
-        if ( columns == 0 || tableName == null )
+        return analyticsTableHookService.getByPhaseAndResourceTableType(
+            AnalyticsTablePhase.RESOURCE_TABLE_POPULATED, resourceTable.getTableType() );
+    }
+
+    /**
+     * Loads the given content into the given table through the PostgreSQL
+     * copy protocol, which is considerably faster than batched inserts.
+     * 
+     * @param tableName the name of the table to populate.
+     * @param content the content of the table.
+     * @return true if the content was loaded, false if the database does
+     *         not support copy.
+     */
+    private boolean copyIn( String tableName, List<Object[]> content )
+    {
+        return jdbcTemplate.execute( (ConnectionCallback<Boolean>) connection -> {
+            if ( !connection.isWrapperFor( PGConnection.class ) )
+            {
+                return false;
+            }
+
+            final CopyIn copyIn = connection.unwrap( PGConnection.class ).getCopyAPI()
+                .copyIn( "copy " + tableName + " from stdin with (format csv)" );
+
+            try
+            {
+                final StringBuilder builder = new StringBuilder();
+
+                for ( Object[] row : content )
+                {
+                    appendCsvRow( builder, row );
+
+                    if ( builder.length() >= COPY_BUFFER_SIZE )
+                    {
+                        writeToCopy( copyIn, builder );
+                    }
+                }
+
+                writeToCopy( copyIn, builder );
+
+                log.info( "Copied rows: " + copyIn.endCopy() + " into table: " + tableName );
+            }
+            finally
+            {
+                if ( copyIn.isActive() )
+                {
+                    copyIn.cancelCopy();
+                }
+            }
+
+            return true;
+        } );
+    }
+
+    private void writeToCopy( CopyIn copyIn, StringBuilder builder )
+        throws SQLException
+    {
+        final byte[] bytes = builder.toString().getBytes( StandardCharsets.UTF_8 );
+
+        copyIn.writeToCopy( bytes, 0, bytes.length );
+
+        builder.setLength( 0 );
+    }
+
+    /**
+     * Returns a checksum of the given content and the create table statement
+     * of the given resource table.
+     */
+    private String getChecksum( ResourceTable<?> resourceTable, List<Object[]> content )
+    {
+        final Hasher hasher = Hashing.sha1().newHasher();
+        final StringBuilder builder = new StringBuilder();
+
+        hasher.putString( resourceTable.getCreateTempTableStatement(), StandardCharsets.UTF_8 );
+
+        for ( Object[] row : content )
         {
-            return;
+            appendCsvRow( builder, row );
+
+            hasher.putString( builder, StandardCharsets.UTF_8 );
+
+            builder.setLength( 0 );
         }
-        
-        StringBuilder builder = new StringBuilder( "insert into " + tableName + " values (" );
-        
-        for ( int i = 0; i < columns; i++ )
+
+        return hasher.hash().toString();
+    }
+
+    /**
+     * Appends the given row in CSV format. Null values are left empty, while
+     * other values are quoted, so that empty strings are kept apart from nulls.
+     */
+    static void appendCsvRow( StringBuilder builder, Object[] row )
+    {
+        for ( int i = 0; i < row.length; i++ )
         {
-            builder.append( "?," );
+            if ( i > 0 )
+            {
+                builder.append( ',' );
+            }
+
+            final Object value = row[i];
+
+            if ( value != null )
+            {
+                final String string = value instanceof Date ? new Timestamp( ((Date) value).getTime() ).toString() : value.toString();
+
+                builder.append( '"' ).append( string.replace( "\"", "\"\"" ) ).append( '"' );
+            }
         }
-        
-        builder.deleteCharAt( builder.length() - 1 ).append( ")" );
-        
-        jdbcTemplate.batchUpdate( builder.toString(), batchArgs );
+
+        builder.append( '\n' );
+    }
+
+    private static int getThreadPoolSize( int tasks )
+    {
+        int threadPoolSize = SystemUtils.getCpuCores();
+
+        if ( threadPoolSize > 2 )
+        {
+            threadPoolSize--;
+        }
+
+        return Math.min( threadPoolSize, tasks );
     }
 }
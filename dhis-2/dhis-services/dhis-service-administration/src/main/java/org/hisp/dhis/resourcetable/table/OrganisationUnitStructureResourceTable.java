@@ -28,15 +28,10 @@ package org.hisp.dhis.resourcetable.table;
  * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
  */
 
-import java.util.ArrayList;
-import java.util.Collection;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 import java.util.Optional;
 
 import org.hisp.dhis.organisationunit.OrganisationUnit;
-import org.hisp.dhis.organisationunit.OrganisationUnitService;
 import org.hisp.dhis.resourcetable.ResourceTable;
 import org.hisp.dhis.resourcetable.ResourceTableType;
 
@@ -45,20 +40,19 @@ import com.google.common.collect.Lists;
 import static org.hisp.dhis.system.util.SqlUtils.quote;
 
 /**
+ * Organisation unit structure resource table, populated from the organisation
+ * unit closure table. The closure table must be up to date when the table is
+ * generated.
+ *
  * @author Lars Helge Overland
  */
 public class OrganisationUnitStructureResourceTable
     extends ResourceTable<OrganisationUnit>
 {
-    private OrganisationUnitService organisationUnitService; // Nasty
-    
     private int organisationUnitLevels;
     
-    public OrganisationUnitStructureResourceTable( List<OrganisationUnit> objects, 
-        OrganisationUnitService organisationUnitService, int organisationUnitLevels )
+    public OrganisationUnitStructureResourceTable( int organisationUnitLevels )
     {
-        super( objects );
-        this.organisationUnitService = organisationUnitService;
         this.organisationUnitLevels = organisationUnitLevels;
     }
 
@@ -89,53 +83,42 @@ public class OrganisationUnitStructureResourceTable
     @Override
     public Optional<String> getPopulateTempTableStatement()
     {
-        return Optional.empty();
-    }
+        StringBuilder insert = new StringBuilder( "insert into " ).append( getTempTableName() )
+            .append( " (organisationunitid, organisationunituid, level" );
 
-    @Override
-    public Optional<List<Object[]>> getPopulateTempTableContent()
-    {
-        List<Object[]> batchArgs = new ArrayList<>();
-
-        for ( int i = 0; i < organisationUnitLevels; i++ )
-        {
-            int level = i + 1;
+        StringBuilder select = new StringBuilder( "select ou.organisationunitid, ou.uid, ou.hierarchylevel" );
 
-            Collection<OrganisationUnit> units = organisationUnitService.getOrganisationUnitsAtLevel( level );
+        StringBuilder from = new StringBuilder( " from organisationunit ou" );
 
-            for ( OrganisationUnit unit : units )
-            {
-                List<Object> values = new ArrayList<>();
+        for ( int k = 1; k <= organisationUnitLevels; k++ )
+        {
+            insert.append( ", " ).append( quote( "idlevel" + k ) )
+                .append( ", " ).append( quote( "uidlevel" + k ) )
+                .append( ", " ).append( quote( "namelevel" + k ) );
 
-                values.add( unit.getId() );
-                values.add( unit.getUid() );
-                values.add( level );
+            select.append( ", a" ).append( k ).append( ".organisationunitid" )
+                .append( ", a" ).append( k ).append( ".uid" )
+                .append( ", a" ).append( k ).append( ".name" );
 
-                Map<Integer, Integer> identifiers = new HashMap<>();
-                Map<Integer, String> uids = new HashMap<>();
-                Map<Integer, String> names = new HashMap<>();
+            // The ancestor at level k is found at depth (level - k) in the closure
 
-                for ( int j = level; j > 0; j-- )
-                {
-                    identifiers.put( j, unit.getId() );
-                    uids.put( j, unit.getUid() );
-                    names.put( j, unit.getName() );
+            from.append( " left join orgunitclosure c" ).append( k )
+                .append( " on c" ).append( k ).append( ".descendantid = ou.organisationunitid" )
+                .append( " and c" ).append( k ).append( ".depth = ou.hierarchylevel - " ).append( k )
+                .append( " left join organisationunit a" ).append( k )
+                .append( " on a" ).append( k ).append( ".organisationunitid = c" ).append( k ).append( ".ancestorid" );
+        }
 
-                    unit = unit.getParent();
-                }
+        String sql = insert.append( ") " ).append( select ).append( from )
+            .append( " where ou.hierarchylevel <= " ).append( organisationUnitLevels ).toString();
 
-                for ( int k = 1; k <= organisationUnitLevels; k++ )
-                {
-                    values.add( identifiers.get( k ) != null ? identifiers.get( k ) : null );
-                    values.add( uids.get( k ) );
-                    values.add( names.get( k ) );
-                }
+        return Optional.of( sql );
+    }
 
-                batchArgs.add( values.toArray() );
-            }
-        }
-        
-        return Optional.of( batchArgs );
+    @Override
+    public Optional<List<Object[]>> getPopulateTempTableContent()
+    {
+        return Optional.empty();
     }
 
     @Override
@@ -40,6 +40,9 @@ import org.hisp.dhis.period.MonthlyPeriodType;
 import org.hisp.dhis.period.PeriodType;
 import org.junit.Test;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import static org.junit.Assert.assertEquals;
 
 /**
  * @author Lars Helge Overland
@@ -55,6 +58,9 @@ public class ResourceTableServiceTest
 
     @Autowired
     private DataSetService dataSetService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
     
     @Override
     public void setUpTest()
@@ -138,4 +144,40 @@ public class ResourceTableServiceTest
         resourceTableService.generateDatePeriodTable();
         resourceTableService.generateCategoryOptionComboTable();
     }
+
+    @Test
+    public void testGenerateResourceTables()
+    {
+        resourceTableService.generateResourceTables();
+
+        assertEquals( 2, countRows( "_dataelementstructure" ) );
+        assertEquals( 3, countRows( "_orgunitstructure" ) );
+
+        // Marker rows are kept only if the table is skipped
+
+        jdbcTemplate.update( "insert into _dataelementstructure (dataelementid) values (-1)" );
+        jdbcTemplate.update( "insert into _orgunitstructure (organisationunitid) values (-1)" );
+
+        // Second run skips tables with unchanged content, while tables
+        // populated through SQL are always regenerated
+
+        resourceTableService.generateResourceTables();
+
+        assertEquals( 3, countRows( "_dataelementstructure" ) );
+        assertEquals( 3, countRows( "_orgunitstructure" ) );
+
+        // Changed content is regenerated
+
+        idObjectManager.save( createDataElement( 'C' ) );
+
+        resourceTableService.generateResourceTables();
+
+        assertEquals( 3, countRows( "_dataelementstructure" ) );
+        assertEquals( 0, countRows( "_dataelementstructure where dataelementid = -1" ) );
+    }
+
+    private int countRows( String table )
+    {
+        return jdbcTemplate.queryForObject( "select count(*) from " + table, Integer.class );
+    }
 }
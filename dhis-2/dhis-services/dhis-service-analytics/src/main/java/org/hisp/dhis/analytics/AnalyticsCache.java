@@ -0,0 +1,81 @@
+package org.hisp.dhis.analytics;
+
+/*
+ * Copyright (c) 2004-2018, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Cache for results of aggregate analytics queries. Entries are keyed by the
+ * analytics table name and the key of the {@link DataQueryParams}, and are
+ * invalidated when analytics tables are updated.
+ */
+public interface AnalyticsCache
+{
+    /**
+     * Indicates whether caching of analytics query results is enabled.
+     * 
+     * @return true if caching is enabled.
+     */
+    boolean isEnabled();
+    
+    /**
+     * Returns the cached result for the given query and table.
+     * 
+     * @param params the {@link DataQueryParams}.
+     * @param tableName the analytics table name.
+     * @return the cached mapping between dimension key and value, or empty.
+     */
+    Optional<Map<String, Object>> get( DataQueryParams params, String tableName );
+    
+    /**
+     * Caches the given result for the given query and table.
+     * 
+     * @param params the {@link DataQueryParams}.
+     * @param tableName the analytics table name.
+     * @param value the mapping between dimension key and value.
+     */
+    void put( DataQueryParams params, String tableName, Map<String, Object> value );
+    
+    /**
+     * Invalidates all cached results. Applies to all nodes in a clustered
+     * deployment where a shared cache is used.
+     */
+    void invalidateAll();
+    
+    /**
+     * Returns the number of cache hits since startup.
+     */
+    long getHitCount();
+    
+    /**
+     * Returns the number of cache misses since startup.
+     */
+    long getMissCount();
+}
@@ -60,6 +60,13 @@ public class AnalyticsTableUpdateParams
      */
     private Set<AnalyticsTableType> skipTableTypes;
     
+    /**
+     * Indicates whether to update existing analytics table partitions in place
+     * with data changed since the last successful update, instead of rebuilding
+     * all tables. Falls back to a full update if not possible.
+     */
+    private boolean incrementalUpdate;
+    
     /**
      * Job ID.
      */
@@ -89,6 +96,11 @@ public class AnalyticsTableUpdateParams
         return skipTableTypes;
     }
 
+    public boolean isIncrementalUpdate()
+    {
+        return incrementalUpdate;
+    }
+
     public JobConfiguration getJobId()
     {
         return jobId;
@@ -106,6 +118,7 @@ public class AnalyticsTableUpdateParams
             .add( "skip master table", skipMasterTable )
             .add( "skip resource tables", skipResourceTables )
             .add( "skip table types", skipTableTypes )
+            .add( "incremental update", incrementalUpdate )
             .toString();
     }
     
@@ -154,6 +167,12 @@ public class AnalyticsTableUpdateParams
             return this;
         }
         
+        public Builder withIncrementalUpdate( boolean incrementalUpdate )
+        {
+            this.params.incrementalUpdate = incrementalUpdate;
+            return this;
+        }
+        
         public Builder withJobId( JobConfiguration jobId )
         {
             this.params.jobId = jobId;
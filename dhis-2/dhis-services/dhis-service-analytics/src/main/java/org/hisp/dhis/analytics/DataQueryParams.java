@@ -31,6 +31,8 @@ package org.hisp.dhis.analytics;
 import com.google.common.base.MoreObjects;
 
 import com.google.common.collect.*;
+import com.google.common.hash.Hashing;
+import org.apache.commons.collections4.MapUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.hisp.dhis.analytics.util.AnalyticsUtils;
 import org.hisp.dhis.category.Category;
@@ -57,6 +59,7 @@ import org.hisp.dhis.util.ObjectUtils;
 import org.springframework.util.Assert;
 
 import javax.annotation.Nullable;
+import java.nio.charset.StandardCharsets;
 import java.util.*;
 import java.util.stream.Collectors;
 
@@ -469,6 +472,50 @@ public class DataQueryParams
         return aggregationType != null ? aggregationType.toString() : null;
     }
             
+    /**
+     * Returns a key which identifies the data requested by this query. The key
+     * is based on dimensions, filters and properties which affect the values
+     * returned, and is independent of the order of dimension items and filters.
+     * Dimension order is retained as it determines the keys of the result.
+     * Suitable as key for caching of query results.
+     */
+    public String getKey()
+    {
+        List<String> filterKeys = filters.stream()
+            .filter( Objects::nonNull )
+            .map( DataQueryParams::getDimensionKey )
+            .sorted()
+            .collect( Collectors.toList() );
+        
+        List<String> levelKeys = MapUtils.emptyIfNull( dataApprovalLevels ).entrySet().stream()
+            .map( e -> e.getKey().getUid() + ":" + e.getValue() )
+            .sorted()
+            .collect( Collectors.toList() );
+        
+        StringBuilder key = new StringBuilder();
+        
+        dimensions.forEach( d -> key.append( "dimension=" ).append( getDimensionKey( d ) ).append( ";" ) );
+        
+        key.append( "filters=" ).append( filterKeys ).append( ";" )
+            .append( "aggregationType=" ).append( aggregationType ).append( ";" )
+            .append( "measureCriteria=" ).append( new TreeMap<>( MapUtils.emptyIfNull( measureCriteria ) ) ).append( ";" )
+            .append( "preAggregateMeasureCriteria=" ).append( new TreeMap<>( MapUtils.emptyIfNull( preAggregateMeasureCriteria ) ) ).append( ";" )
+            .append( "completedOnly=" ).append( completedOnly ).append( ";" )
+            .append( "ignoreLimit=" ).append( ignoreLimit ).append( ";" )
+            .append( "approvalLevel=" ).append( approvalLevel ).append( ";" )
+            .append( "startDate=" ).append( startDate != null ? startDate.getTime() : null ).append( ";" )
+            .append( "endDate=" ).append( endDate != null ? endDate.getTime() : null ).append( ";" )
+            .append( "timeField=" ).append( timeField ).append( ";" )
+            .append( "timely=" ).append( timely ).append( ";" )
+            .append( "restrictByOrgUnitOpeningClosedDate=" ).append( restrictByOrgUnitOpeningClosedDate ).append( ";" )
+            .append( "restrictByCategoryOptionStartEndDate=" ).append( restrictByCategoryOptionStartEndDate ).append( ";" )
+            .append( "program=" ).append( program != null ? program.getUid() : null ).append( ";" )
+            .append( "programStage=" ).append( programStage != null ? programStage.getUid() : null ).append( ";" )
+            .append( "dataApprovalLevels=" ).append( levelKeys );
+        
+        return Hashing.sha1().hashString( key.toString(), StandardCharsets.UTF_8 ).toString();
+    }
+    
     /**
      * Creates a mapping between filter dimension identifiers and filter dimensions. 
      * Filters are guaranteed not to be null.
@@ -1573,6 +1620,22 @@ public class DataQueryParams
     // Static methods
     // -------------------------------------------------------------------------
 
+    /**
+     * Returns a key for the given dimension based on the dimension identifier
+     * and the sorted identifiers of the dimension items.
+     * 
+     * @param dimension the dimension.
+     */
+    private static String getDimensionKey( DimensionalObject dimension )
+    {
+        List<String> items = dimension.getItems().stream()
+            .map( DimensionalItemObject::getDimensionItem )
+            .sorted()
+            .collect( Collectors.toList() );
+        
+        return dimension.getDimension() + ":" + items;
+    }
+
     /**
      * Creates a mapping of permutation keys and mappings of data element operands
      * and values based on the given mapping of dimension option keys and 
@@ -0,0 +1,64 @@
+package org.hisp.dhis.analytics;
+
+/*
+ * Copyright (c) 2004-2018, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Manager for analytics database tables which support incremental updates of
+ * existing tables. Managers which do not implement this interface are always
+ * updated in full.
+ */
+public interface IncrementalAnalyticsTableManager
+    extends AnalyticsTableManager
+{
+    /**
+     * Returns the existing analytics table partitions which contain data changed
+     * since the given date, for the purpose of updating them in place. Returns
+     * null if the existing tables are not in a state which allows it, e.g. if
+     * metadata has changed, if analytics table SQL hooks are defined, if data
+     * approval is enabled for analytics, or if partitions, dimension columns
+     * or indexes are missing, in which case a full update must be performed.
+     * 
+     * @param earliest the start date for the first year to update table partitions.
+     * @param lastUpdated the date of the last successful analytics table update.
+     * @return a list of analytics table partitions, or null.
+     */
+    List<AnalyticsTablePartition> getIncrementalTablePartitions( Date earliest, Date lastUpdated );
+    
+    /**
+     * Updates the given existing analytics table partition in place by replacing
+     * the rows of all data slices which have changed since the given date.
+     * 
+     * @param partition the analytics table partition.
+     * @param lastUpdated the date of the last successful analytics table update.
+     */
+    void updateTableIncrementally( AnalyticsTablePartition partition, Date lastUpdated );
+}
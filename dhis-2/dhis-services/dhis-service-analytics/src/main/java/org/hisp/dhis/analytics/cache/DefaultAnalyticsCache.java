@@ -0,0 +1,185 @@
+package org.hisp.dhis.analytics.cache;
+
+/*
+ * Copyright (c) 2004-2018, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.hisp.dhis.analytics.AnalyticsCache;
+import org.hisp.dhis.analytics.DataQueryParams;
+import org.hisp.dhis.cache.Cache;
+import org.hisp.dhis.cache.CacheProvider;
+import org.hisp.dhis.external.conf.ConfigurationKey;
+import org.hisp.dhis.external.conf.DhisConfigurationProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import javax.annotation.PostConstruct;
+import java.io.Serializable;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Implementation of {@link AnalyticsCache} backed by the {@link Cache}
+ * abstraction, which means that the cache is shared between nodes when Redis
+ * is enabled. Caching is enabled when the {@code analytics.cache.expiration}
+ * configuration property is set to a positive number of seconds.
+ * <p>
+ * Since a shared cache does not support clearing all entries, keys are prefixed
+ * with a version which is changed on invalidation. Entries of earlier versions
+ * are no longer reachable and are discarded on expiration.
+ */
+public class DefaultAnalyticsCache
+    implements AnalyticsCache
+{
+    private static final Log log = LogFactory.getLog( DefaultAnalyticsCache.class );
+
+    private static final String VERSION_KEY = "version";
+
+    private static final long MAX_CACHE_ENTRIES = 20000;
+
+    @Autowired
+    private CacheProvider cacheProvider;
+
+    @Autowired
+    private DhisConfigurationProvider dhisConfig;
+
+    private Cache<Serializable> queryCache;
+
+    private Cache<Long> versionCache;
+
+    private boolean enabled;
+
+    private final AtomicLong hitCount = new AtomicLong();
+
+    private final AtomicLong missCount = new AtomicLong();
+
+    @PostConstruct
+    public void init()
+    {
+        long expiration = Long.parseLong( dhisConfig.getProperty( ConfigurationKey.ANALYTICS_CACHE_EXPIRATION ) );
+
+        enabled = expiration > 0;
+
+        queryCache = cacheProvider.newCacheBuilder( Serializable.class ).forRegion( "analyticsQueryResult" )
+            .expireAfterWrite( expiration, TimeUnit.SECONDS ).withMaximumSize( enabled ? MAX_CACHE_ENTRIES : 0 ).build();
+
+        versionCache = cacheProvider.newCacheBuilder( Long.class ).forRegion( "analyticsQueryResultVersion" )
+            .withDefaultValue( 0L ).withMaximumSize( enabled ? 1 : 0 ).build();
+
+        log.info( String.format( "Analytics cache enabled: %b, expiration: %d seconds", enabled, expiration ) );
+    }
+
+    // -------------------------------------------------------------------------
+    // AnalyticsCache implementation
+    // -------------------------------------------------------------------------
+
+    @Override
+    public boolean isEnabled()
+    {
+        return enabled;
+    }
+
+    @Override
+    @SuppressWarnings( "unchecked" )
+    public Optional<Map<String, Object>> get( DataQueryParams params, String tableName )
+    {
+        if ( !enabled )
+        {
+            return Optional.empty();
+        }
+
+        Optional<Serializable> value = queryCache.getIfPresent( getKey( params, tableName ) );
+
+        if ( value.isPresent() )
+        {
+            hitCount.incrementAndGet();
+        }
+        else
+        {
+            missCount.incrementAndGet();
+        }
+
+        log.debug( String.format( "Analytics cache hits: %d, misses: %d", hitCount.get(), missCount.get() ) );
+
+        return value.map( v -> (Map<String, Object>) v );
+    }
+
+    @Override
+    public void put( DataQueryParams params, String tableName, Map<String, Object> value )
+    {
+        if ( enabled && value != null )
+        {
+            queryCache.put( getKey( params, tableName ), new HashMap<>( value ) );
+        }
+    }
+
+    @Override
+    public void invalidateAll()
+    {
+        if ( enabled )
+        {
+            versionCache.put( VERSION_KEY, System.currentTimeMillis() );
+            queryCache.invalidateAll();
+
+            log.info( "Analytics cache invalidated" );
+        }
+    }
+
+    @Override
+    public long getHitCount()
+    {
+        return hitCount.get();
+    }
+
+    @Override
+    public long getMissCount()
+    {
+        return missCount.get();
+    }
+
+    // -------------------------------------------------------------------------
+    // Supportive methods
+    // -------------------------------------------------------------------------
+
+    /**
+     * Returns the cache key for the given query and table, prefixed with the
+     * current cache version.
+     *
+     * @param params the {@link DataQueryParams}.
+     * @param tableName the analytics table name.
+     */
+    private String getKey( DataQueryParams params, String tableName )
+    {
+        Long version = versionCache.get( VERSION_KEY ).orElse( 0L );
+
+        return version + ":" + tableName + ":" + params.getKey();
+    }
+}
@@ -33,6 +33,7 @@ import com.google.common.collect.Lists;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.hisp.dhis.analytics.AnalyticsAggregationType;
+import org.hisp.dhis.analytics.AnalyticsCache;
 import org.hisp.dhis.analytics.AnalyticsManager;
 import org.hisp.dhis.analytics.AnalyticsMetaDataKey;
 import org.hisp.dhis.analytics.AnalyticsSecurityManager;
@@ -96,6 +97,7 @@ import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.Future;
 import java.util.function.Function;
@@ -165,6 +167,9 @@ public class DefaultAnalyticsService
     @Autowired
     private QueryValidator queryValidator;
 
+    @Autowired
+    private AnalyticsCache analyticsCache;
+
     @Autowired
     private ExpressionService expressionService;
 
@@ -1090,6 +1095,37 @@ public class DefaultAnalyticsService
     {
         queryValidator.validateMaintenanceMode();
 
+        if ( analyticsCache.isEnabled() )
+        {
+            Optional<Map<String, Object>> cachedMap = analyticsCache.get( params, tableName );
+
+            if ( cachedMap.isPresent() )
+            {
+                return new HashMap<>( cachedMap.get() );
+            }
+
+            Map<String, Object> map = getAggregatedValueMapFromDatabase( params, tableName, queryGroupers );
+
+            analyticsCache.put( params, tableName, map );
+
+            return map;
+        }
+
+        return getAggregatedValueMapFromDatabase( params, tableName, queryGroupers );
+    }
+
+    /**
+     * Plans and executes the analytics queries for the given parameters
+     * against the database.
+     *
+     * @param params the {@link DataQueryParams}.
+     * @param tableName the table name to use for the query.
+     * @param queryGroupers the list of additional query groupers to use for
+     *        query planning, use empty list for none.
+     * @return a mapping between a dimension key and aggregated values.
+     */
+    private Map<String, Object> getAggregatedValueMapFromDatabase( DataQueryParams params, String tableName, List<Function<DataQueryParams, List<DataQueryParams>>> queryGroupers )
+    {
         int optimalQueries = MathUtils.getWithin( getProcessNo(), 1, MAX_QUERIES );
 
         int maxLimit = params.isIgnoreLimit() ? 0 : (Integer) systemSettingManager.getSystemSetting( SettingKey.ANALYTICS_MAX_LIMIT );
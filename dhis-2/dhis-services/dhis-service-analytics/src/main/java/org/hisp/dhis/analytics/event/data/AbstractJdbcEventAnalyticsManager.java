@@ -35,7 +35,10 @@ import static org.hisp.dhis.analytics.util.AnalyticsSqlUtils.quoteAlias;
 import static org.hisp.dhis.analytics.util.AnalyticsSqlUtils.ANALYTICS_TBL_ALIAS;
 
 import java.util.Date;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
 
 import javax.annotation.Resource;
 
@@ -65,6 +68,8 @@ import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.jdbc.support.rowset.SqlRowSet;
 import org.springframework.util.Assert;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import com.google.common.collect.Lists;
 
 /**
@@ -83,6 +88,14 @@ public abstract class AbstractJdbcEventAnalyticsManager
 
     protected static final int LAST_VALUE_YEARS_OFFSET = -10;
     
+    /**
+     * Cache for the column names of analytics tables. Key is the table name.
+     */
+    private static final Cache<String, Set<String>> TABLE_COLUMN_CACHE = Caffeine.newBuilder()
+        .expireAfterWrite( 1, TimeUnit.MINUTES )
+        .maximumSize( 1000 )
+        .build();
+    
     @Resource( name = "readOnlyJdbcTemplate" )
     protected JdbcTemplate jdbcTemplate;
 
@@ -338,6 +351,11 @@ public abstract class AbstractJdbcEventAnalyticsManager
             
             function = TextUtils.emptyIfEqual( function, AggregationType.CUSTOM.getValue() );
             
+            if ( isMaterialized( params, params.getProgramIndicator() ) )
+            {
+                return function + "(" + quoteAlias( programIndicatorService.getMaterializedColumnName( params.getProgramIndicator() ) ) + ")";
+            }
+            
             String expression = programIndicatorService.getAnalyticsSQl( params.getProgramIndicator().getExpression(), 
                 params.getProgramIndicator(), params.getEarliestStartDate(), params.getLatestEndDate() );
             
@@ -444,6 +462,41 @@ public abstract class AbstractJdbcEventAnalyticsManager
         }
     }
 
+    /**
+     * Indicates whether the value of the given program indicator is available
+     * as a materialized column in the analytics table of the given query. The
+     * column only exists if the table was generated after the program indicator
+     * was flagged for materialization and last edited. Materialized values have
+     * the program indicator filter applied. The table columns are cached for a minute, 
+     * hence a regenerated table may take up to a minute to be used.
+     * 
+     * @param params the {@link EventQueryParams}.
+     * @param programIndicator the {@link ProgramIndicator}.
+     */
+    protected boolean isMaterialized( EventQueryParams params, ProgramIndicator programIndicator )
+    {
+        if ( params.getTableName() == null || !programIndicatorService.isMaterializable( programIndicator ) )
+        {
+            return false;
+        }
+        
+        return TABLE_COLUMN_CACHE.get( params.getTableName(), this::getTableColumns )
+            .contains( programIndicatorService.getMaterializedColumnName( programIndicator ) );
+    }
+
+    /**
+     * Returns the column names of the given table in the current schema.
+     * 
+     * @param tableName the table name.
+     */
+    private Set<String> getTableColumns( String tableName )
+    {
+        String sql = "select column_name from information_schema.columns " +
+            "where table_schema = current_schema() and table_name = ?";
+        
+        return new HashSet<>( jdbcTemplate.queryForList( sql, String.class, tableName ) );
+    }
+
     /**
      * Returns the filter value for the given query item.
      * 
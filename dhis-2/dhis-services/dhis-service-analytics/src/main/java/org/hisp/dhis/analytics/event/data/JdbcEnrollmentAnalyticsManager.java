@@ -187,7 +187,8 @@ public class JdbcEnrollmentAnalyticsManager
         // Filter expression
         // ---------------------------------------------------------------------
 
-        if ( params.hasProgramIndicatorDimension() && params.getProgramIndicator().hasFilter() )
+        if ( params.hasProgramIndicatorDimension() && params.getProgramIndicator().hasFilter() &&
+            !isMaterialized( params, params.getProgramIndicator() ) )
         {
             String filter = programIndicatorService.getAnalyticsSQl( params.getProgramIndicator().getFilter(), 
                 params.getProgramIndicator(), false, params.getEarliestStartDate(), params.getLatestEndDate() );
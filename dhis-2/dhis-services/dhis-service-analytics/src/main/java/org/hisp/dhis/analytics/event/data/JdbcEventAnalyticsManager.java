@@ -397,7 +397,8 @@ public class JdbcEventAnalyticsManager
         // Filter expression
         // ---------------------------------------------------------------------
 
-        if ( params.hasProgramIndicatorDimension() && params.getProgramIndicator().hasFilter() )
+        if ( params.hasProgramIndicatorDimension() && params.getProgramIndicator().hasFilter() &&
+            !isMaterialized( params, params.getProgramIndicator() ) )
         {
             String filter = programIndicatorService.getAnalyticsSQl( params.getProgramIndicator().getFilter(), 
                 params.getProgramIndicator(), false, params.getEarliestStartDate(), params.getLatestEndDate() );
@@ -28,13 +28,28 @@ package org.hisp.dhis.analytics.table;
  * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
  */
 
+import org.hisp.dhis.analytics.AnalyticsTableColumn;
 import org.hisp.dhis.analytics.AnalyticsTablePartition;
 import org.hisp.dhis.common.ValueType;
 import org.hisp.dhis.commons.util.ConcurrentUtils;
+import org.hisp.dhis.commons.util.ExpressionUtils;
+import org.hisp.dhis.commons.util.TextUtils;
+import org.hisp.dhis.program.AnalyticsType;
+import org.hisp.dhis.program.Program;
+import org.hisp.dhis.program.ProgramIndicator;
+import org.hisp.dhis.program.ProgramIndicatorService;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.scheduling.annotation.Async;
 import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+import java.util.Set;
 import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+
+import static org.hisp.dhis.analytics.util.AnalyticsSqlUtils.ANALYTICS_TBL_ALIAS;
+import static org.hisp.dhis.analytics.util.AnalyticsSqlUtils.quote;
 
 /**
  * @author Markus Bekken
@@ -42,6 +57,9 @@ import java.util.concurrent.Future;
 public abstract class AbstractEventJdbcTableManager
     extends AbstractJdbcTableManager
 {
+    @Autowired
+    protected ProgramIndicatorService programIndicatorService;
+
     @Override
     @Async
     public Future<?> applyAggregationLevels( ConcurrentLinkedQueue<AnalyticsTablePartition> partitions,
@@ -98,33 +116,156 @@ public abstract class AbstractEventJdbcTableManager
      * @param valueType the value type to represent as database column type.
      */
     protected String getSelectClause( ValueType valueType )
+    {
+        return getSelectClause( valueType, "value" );
+    }
+
+    /**
+     * Returns the select clause for the given column, potentially with a cast
+     * statement, based on the given value type.
+     * 
+     * @param valueType the value type to represent as database column type.
+     * @param column the name of the column holding the value.
+     */
+    protected String getSelectClause( ValueType valueType, String column )
     {
         if ( valueType.isDecimal() )
         {
-            return "cast(value as " + statementBuilder.getDoubleColumnType() + ")";
+            return "cast(" + column + " as " + statementBuilder.getDoubleColumnType() + ")";
         }
         else if ( valueType.isInteger() )
         {
-            return "cast(value as bigint)";
+            return "cast(" + column + " as bigint)";
         }
         else if ( valueType.isBoolean() )
         {
-            return "case when value = 'true' then 1 when value = 'false' then 0 else null end";
+            return "case when " + column + " = 'true' then 1 when " + column + " = 'false' then 0 else null end";
         }
         else if ( valueType.isDate() )
         {
-            return "cast(value as timestamp)";
+            return "cast(" + column + " as timestamp)";
         }
         else if ( valueType.isGeo() && databaseInfo.isSpatialSupport() )
         {
-            return "ST_GeomFromGeoJSON('{\"type\":\"Point\", \"coordinates\":' || value || ', \"crs\":{\"type\":\"name\", \"properties\":{\"name\":\"EPSG:4326\"}}}')";
+            return "ST_GeomFromGeoJSON('{\"type\":\"Point\", \"coordinates\":' || " + column + " || ', \"crs\":{\"type\":\"name\", \"properties\":{\"name\":\"EPSG:4326\"}}}')";
         }
         else
         {
-            return "value";
+            return column;
         }
     }
     
+    /**
+     * Returns the program indicators of the given program and analytics type
+     * which are flagged for and eligible to materialization in the analytics
+     * table.
+     * 
+     * @param program the program.
+     * @param analyticsType the analytics type of the table.
+     */
+    protected List<ProgramIndicator> getMaterializedProgramIndicators( Program program, AnalyticsType analyticsType )
+    {
+        return program.getProgramIndicators().stream()
+            .filter( pi -> analyticsType == pi.getAnalyticsType() )
+            .filter( pi -> programIndicatorService.isMaterializable( pi ) )
+            .collect( Collectors.toList() );
+    }
+
+    /**
+     * Returns the analytics table columns holding the values of the given
+     * program indicators. The column values are computed from the other
+     * columns of each row when the table is populated. The column names
+     * change whenever the program indicator expression or filter is edited.
+     * 
+     * @param programIndicators the program indicators.
+     */
+    protected List<AnalyticsTableColumn> getProgramIndicatorColumns( List<ProgramIndicator> programIndicators )
+    {
+        final String dbl = statementBuilder.getDoubleColumnType();
+
+        return programIndicators.stream()
+            .map( pi -> new AnalyticsTableColumn( quote( programIndicatorService.getMaterializedColumnName( pi ) ), dbl, "cast(null as " + dbl + ")", true ) )
+            .collect( Collectors.toList() );
+    }
+
+    /**
+     * Populates the given analytics table partition with a single insert. The
+     * rows are selected from the given from clause into a derived table, from
+     * which the values of the given program indicators are computed. The program
+     * indicator filter is folded into the value so that rows not matching the
+     * filter hold null.
+     * 
+     * @param partition the analytics table partition.
+     * @param columns the dimension columns, including program indicator columns.
+     * @param fromClause the from and where clause selecting the rows.
+     * @param programIndicators the materialized program indicators.
+     */
+    protected void populateTable( AnalyticsTablePartition partition, List<AnalyticsTableColumn> columns, 
+        String fromClause, List<ProgramIndicator> programIndicators )
+    {
+        final String tableName = partition.getTempTableName();
+        final Set<String> indicatorColumns = programIndicators.stream()
+            .map( pi -> quote( programIndicatorService.getMaterializedColumnName( pi ) ) )
+            .collect( Collectors.toSet() );
+        final List<AnalyticsTableColumn> rowColumns = columns.stream()
+            .filter( col -> !indicatorColumns.contains( col.getName() ) )
+            .collect( Collectors.toList() );
+
+        String names = "";
+        String aliases = "";
+
+        for ( AnalyticsTableColumn col : rowColumns )
+        {
+            names += col.getName() + ",";
+            aliases += col.getAlias() + ",";
+        }
+
+        names = TextUtils.removeLastComma( names );
+        aliases = TextUtils.removeLastComma( aliases );
+
+        if ( programIndicators.isEmpty() )
+        {
+            populateAndLog( "insert into " + tableName + " (" + names + ") select " + aliases + " " + fromClause, tableName );
+            return;
+        }
+
+        final Date start = partition.getStartDate() != null ? partition.getStartDate() : new Date();
+        final Date end = partition.getEndDate() != null ? partition.getEndDate() : new Date();
+
+        String sql = "insert into " + tableName + " (" + names + ",";
+
+        for ( ProgramIndicator pi : programIndicators )
+        {
+            sql += quote( programIndicatorService.getMaterializedColumnName( pi ) ) + ",";
+        }
+
+        sql = TextUtils.removeLastComma( sql ) + ") select ";
+
+        for ( AnalyticsTableColumn col : rowColumns )
+        {
+            sql += ANALYTICS_TBL_ALIAS + "." + col.getName() + ",";
+        }
+
+        for ( ProgramIndicator pi : programIndicators )
+        {
+            String value = "(" + programIndicatorService.getAnalyticsSQl( pi.getExpression(), pi, start, end ) + ")";
+
+            if ( pi.hasFilter() )
+            {
+                String filter = ExpressionUtils.asSql( programIndicatorService.getAnalyticsSQl( pi.getFilter(), pi, false, start, end ) );
+
+                value = "case when (" + filter + ") then " + value + " end";
+            }
+
+            sql += value + ",";
+        }
+
+        sql = TextUtils.removeLastComma( sql ) + " " +
+            "from (select " + aliases + " " + fromClause + ") as " + ANALYTICS_TBL_ALIAS + " (" + names + ")";
+
+        populateAndLog( sql, tableName );
+    }
+
     @Override
     public String validState()
     {
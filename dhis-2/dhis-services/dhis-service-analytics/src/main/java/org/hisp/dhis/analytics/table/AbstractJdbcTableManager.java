@@ -64,6 +64,7 @@ import org.springframework.scheduling.annotation.Async;
 
 import java.util.Collections;
 import java.util.Date;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 import java.util.concurrent.ConcurrentLinkedQueue;
@@ -240,6 +241,15 @@ public abstract class AbstractJdbcTableManager
         tableHookService.executeAnalyticsTableSqlHooks( hooks );
     }
     
+    /**
+     * Indicates whether analytics table SQL hooks are defined for the populated
+     * phase of the analytics table type of this manager.
+     */
+    protected boolean hasAnalyticsTableSqlHooks()
+    {
+        return !tableHookService.getByPhaseAndAnalyticsTableType( AnalyticsTablePhase.ANALYTICS_TABLE_POPULATED, getAnalyticsTableType() ).isEmpty();
+    }
+    
     // -------------------------------------------------------------------------
     // Abstract methods
     // -------------------------------------------------------------------------
@@ -314,6 +324,36 @@ public abstract class AbstractJdbcTableManager
         }
     }
     
+    /**
+     * Returns the names of the columns of the given table, or an empty set
+     * if the table does not exist.
+     * 
+     * @param tableName the table name.
+     */
+    protected Set<String> getExistingColumns( String tableName )
+    {
+        final String sql = "select column_name from information_schema.columns where table_name = ?";
+        
+        return new HashSet<>( jdbcTemplate.queryForList( sql, String.class, tableName ) );
+    }
+    
+    /**
+     * Returns the names of the indexed columns of the given table, or an empty
+     * set if the table does not exist. Supported on PostgreSQL only.
+     * 
+     * @param tableName the table name.
+     */
+    protected Set<String> getIndexedColumns( String tableName )
+    {
+        final String sql =
+            "select a.attname from pg_index i " +
+            "inner join pg_class c on i.indrelid = c.oid " +
+            "inner join pg_attribute a on a.attrelid = c.oid and a.attnum = any(i.indkey) " +
+            "where c.relname = ?";
+        
+        return new HashSet<>( jdbcTemplate.queryForList( sql, String.class, tableName ) );
+    }
+    
     /**
      * Executes a SQL statement. Ignores existing tables/indexes when attempting
      * to create new.
@@ -81,6 +81,9 @@ public class DefaultAnalyticsTableService
     
     @Autowired
     private SystemSettingManager systemSettingManager;
+    
+    @Autowired
+    private AnalyticsCache analyticsCache;
 
     // -------------------------------------------------------------------------
     // Implementation
@@ -116,6 +119,11 @@ public class DefaultAnalyticsTableService
             return;
         }
 
+        if ( params.isIncrementalUpdate() && updateIncrementally( params, earliest, clock ) )
+        {
+            return;
+        }
+
         final List<AnalyticsTable> tables = tableManager.getAnalyticsTables( earliest );
         
         if ( tables.isEmpty() )
@@ -198,6 +206,60 @@ public class DefaultAnalyticsTableService
     // Supportive methods
     // -------------------------------------------------------------------------
 
+    /**
+     * Updates the existing analytics table partitions in place with data changed
+     * since the last successful analytics table update. Returns false if the
+     * table manager does not support incremental updates or if an incremental
+     * update is not possible, in which case a full update should be performed.
+     *
+     * @param params the {@link AnalyticsTableUpdateParams}.
+     * @param earliest the start date for the first year to update table partitions.
+     * @param clock the {@link Clock}.
+     * @return true if the tables were updated incrementally.
+     */
+    private boolean updateIncrementally( AnalyticsTableUpdateParams params, Date earliest, Clock clock )
+    {
+        JobConfiguration jobId = params.getJobId();
+
+        if ( !( tableManager instanceof IncrementalAnalyticsTableManager ) )
+        {
+            clock.logTime( "Incremental update not supported, performing full update: " + getAnalyticsTableType().getTableName() );
+            return false;
+        }
+
+        IncrementalAnalyticsTableManager incrementalTableManager = (IncrementalAnalyticsTableManager) tableManager;
+
+        Date lastUpdated = (Date) systemSettingManager.getSystemSetting( SettingKey.LAST_SUCCESSFUL_ANALYTICS_TABLES_UPDATE );
+
+        List<AnalyticsTablePartition> partitions = incrementalTableManager.getIncrementalTablePartitions( earliest, lastUpdated );
+
+        if ( partitions == null )
+        {
+            clock.logTime( "Incremental update not possible, performing full update" );
+            notifier.notify( jobId, "Incremental update not possible, performing full update" );
+            return false;
+        }
+
+        clock.logTime( String.format( "Incremental update start: %s, last updated: %s, partitions: %s", getAnalyticsTableType().getTableName(), lastUpdated, partitions ) );
+        notifier.notify( jobId, "Updating analytics table partitions incrementally" );
+
+        for ( AnalyticsTablePartition partition : partitions )
+        {
+            incrementalTableManager.updateTableIncrementally( partition, lastUpdated );
+
+            tableManager.analyzeTable( partition.getTableName() );
+
+            clock.logTime( "Updated partition incrementally: " + partition.getTableName() );
+        }
+
+        analyticsCache.invalidateAll();
+
+        clock.logTime( "Incremental table update done: " + getAnalyticsTableType().getTableName() );
+        notifier.notify( jobId, "Table update done" );
+
+        return true;
+    }
+
     /**
      * Drops the given temporary analytics tables.
      *
@@ -373,6 +435,8 @@ public class DefaultAnalyticsTableService
         tables.forEach( table -> tableManager.swapTable( table, skipMasterTable ) );
         
         resourceTableService.createAllSqlViews();
+        
+        analyticsCache.invalidateAll();
     }
     
     /**
@@ -34,6 +34,7 @@ import org.apache.commons.lang3.StringUtils;
 import org.hisp.dhis.analytics.*;
 import org.hisp.dhis.analytics.partition.PartitionManager;
 import org.hisp.dhis.analytics.util.AnalyticsUtils;
+import org.hisp.dhis.common.IdentifiableObjectUtils;
 import org.hisp.dhis.common.ValueType;
 import org.hisp.dhis.commons.collection.ListUtils;
 import org.hisp.dhis.commons.util.ConcurrentUtils;
@@ -42,6 +43,7 @@ import org.hisp.dhis.dataapproval.DataApprovalLevelService;
 import org.hisp.dhis.category.CategoryOptionGroupSet;
 import org.hisp.dhis.category.Category;
 import org.hisp.dhis.dataelement.DataElementGroupSet;
+import org.hisp.dhis.dataelement.DataElementService;
 import org.hisp.dhis.organisationunit.OrganisationUnitGroupSet;
 import org.hisp.dhis.organisationunit.OrganisationUnitLevel;
 import org.hisp.dhis.period.PeriodType;
@@ -57,10 +59,12 @@ import org.springframework.transaction.annotation.Transactional;
 import java.util.*;
 import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.Future;
+import java.util.stream.Collectors;
 
 import static org.hisp.dhis.commons.util.TextUtils.getQuotedCommaDelimitedString;
 import static org.hisp.dhis.dataapproval.DataApprovalLevelService.APPROVAL_LEVEL_UNAPPROVED;
 import static org.hisp.dhis.analytics.util.AnalyticsSqlUtils.quote;
+import static org.hisp.dhis.analytics.util.AnalyticsSqlUtils.removeQuote;
 
 /**
  * This class manages the analytics tables. The analytics table is a denormalized
@@ -80,12 +84,27 @@ import static org.hisp.dhis.analytics.util.AnalyticsSqlUtils.quote;
  */
 public class JdbcAnalyticsTableManager
     extends AbstractJdbcTableManager
+    implements IncrementalAnalyticsTableManager
 {
+    /**
+     * Metadata tables which analytics table rows are denormalized from, with
+     * the column holding the last updated timestamp.
+     */
+    private static final String[][] METADATA_TABLES = {
+        { "dataelement", "lastupdated" }, { "organisationunit", "lastupdated" }, { "categoryoptioncombo", "lastupdated" },
+        { "dataelementcategoryoption", "lastupdated" }, { "dataelementcategory", "lastupdated" }, { "categoryoptiongroup", "lastupdated" },
+        { "categoryoptiongroupset", "lastupdated" }, { "dataelementgroup", "lastupdated" }, { "dataelementgroupset", "lastupdated" },
+        { "orgunitgroup", "lastupdated" }, { "orgunitgroupset", "lastupdated" }, { "orgunitlevel", "lastupdated" },
+        { "dataapprovallevel", "lastupdated" }, { "deletedobject", "deleted_at" } };
+    
     @Autowired
     private SystemSettingManager systemSettingManager;
     
     @Autowired
     private PartitionManager partitionManager;
+    
+    @Autowired
+    private DataElementService dataElementService;
 
     // -------------------------------------------------------------------------
     // Implementation
@@ -151,6 +170,117 @@ public class JdbcAnalyticsTableManager
     
     @Override
     protected void populateTable( AnalyticsTablePartition partition )
+    {
+        populateTable( partition, partition.getTempTableName(), null );
+    }
+
+    @Override
+    public List<AnalyticsTablePartition> getIncrementalTablePartitions( Date earliest, Date lastUpdated )
+    {
+        if ( lastUpdated == null )
+        {
+            return null;
+        }
+        
+        if ( hasAnalyticsTableSqlHooks() )
+        {
+            log.info( "Analytics table SQL hooks are defined, incremental update not possible" );
+            return null;
+        }
+        
+        if ( isApprovalEnabled( null ) )
+        {
+            // Approvals do not change data values, rows of unchanged slices
+            // would keep outdated approval levels
+            
+            log.info( "Data approval is enabled for analytics, incremental update not possible" );
+            return null;
+        }
+        
+        if ( isMetadataUpdatedSince( lastUpdated ) )
+        {
+            log.info( "Metadata changed since last update, incremental update not possible" );
+            return null;
+        }
+        
+        AnalyticsTable table = getAnalyticsTable( getUpdatedDataYears( earliest, lastUpdated ), getDimensionColumns( null ), getValueColumns() );
+        
+        Set<String> existingTables = getExistingDatabaseTables();
+        
+        for ( AnalyticsTablePartition partition : table.getPartitionTables() )
+        {
+            if ( !existingTables.contains( partition.getTableName() ) )
+            {
+                log.info( String.format( "Partition does not exist, incremental update not possible: %s", partition.getTableName() ) );
+                return null;
+            }
+            
+            Set<String> existingColumns = getExistingColumns( partition.getTableName() );
+            
+            for ( AnalyticsTableColumn col : ListUtils.union( getDimensionColumns( partition.getYear() ), table.getValueColumns() ) )
+            {
+                if ( !existingColumns.contains( removeQuote( col.getName() ) ) )
+                {
+                    log.info( String.format( "Column %s does not exist in partition, incremental update not possible: %s", col.getName(), partition.getTableName() ) );
+                    return null;
+                }
+            }
+            
+            Set<String> indexedColumns = getIndexedColumns( partition.getTableName() );
+            
+            for ( AnalyticsTableColumn col : getDimensionColumns( partition.getYear() ) )
+            {
+                if ( !col.isSkipIndex() && !indexedColumns.contains( removeQuote( col.getName() ) ) )
+                {
+                    log.info( String.format( "Index on column %s does not exist in partition, incremental update not possible: %s", col.getName(), partition.getTableName() ) );
+                    return null;
+                }
+            }
+        }
+        
+        return table.getPartitionTables();
+    }
+
+    /**
+     * Deletes the rows of all (data element, org unit) slices of the given
+     * partition with data values changed since the given date, and repopulates
+     * the slices from the data value table. Data values which are soft deleted
+     * have their last updated timestamp set and are hence part of the slices.
+     * Aggregation levels are applied to the repopulated rows. Runs in a single
+     * transaction so that queries never observe a partially updated slice.
+     */
+    @Override
+    @Transactional
+    public void updateTableIncrementally( AnalyticsTablePartition partition, Date lastUpdated )
+    {
+        final String tableName = partition.getTableName();
+        final String sliceSql = getUpdatedSliceSql( partition.getYear(), lastUpdated );
+
+        String sql =
+            "delete from " + tableName + " ax " +
+            "using (" +
+                "select de.uid as dx, ou.uid as ou from (" + sliceSql + ") dvs " +
+                "inner join dataelement de on dvs.dataelementid=de.dataelementid " +
+                "inner join organisationunit ou on dvs.sourceid=ou.organisationunitid) as sl " +
+            "where ax.dx=sl.dx and ax.ou=sl.ou";
+
+        log.debug( String.format( "Delete updated slices from table: %s with SQL: %s", tableName, sql ) );
+
+        jdbcTemplate.execute( sql );
+
+        populateTable( partition, tableName, "(dv.dataelementid, dv.sourceid) in (" + sliceSql + ") " );
+
+        applyAggregationLevels( tableName, sliceSql );
+    }
+
+    /**
+     * Populates the given analytics table.
+     *
+     * @param partition the analytics table partition to populate.
+     * @param tableName the name of the table to insert into.
+     * @param sliceClause clause to restrict data values to, can be null.
+     */
+    private void populateTable( AnalyticsTablePartition partition, String tableName, String sliceClause )
     {
         final String dbl = statementBuilder.getDoubleColumnType();
         final boolean skipDataTypeValidation = (Boolean) systemSettingManager.getSystemSetting( SettingKey.SKIP_DATA_TYPE_VALIDATION_IN_ANALYTICS_TABLE_EXPORT );
@@ -162,32 +292,34 @@ public class JdbcAnalyticsTableManager
             "( dv.value != '0' or de.aggregationtype in ('" + AggregationType.AVERAGE + ',' + AggregationType.AVERAGE_SUM_ORG_UNIT + "') or de.zeroissignificant = true ) " +
             numericClause;
 
-        populateTable( partition, "cast(dv.value as " + dbl + ")", "null", ValueType.NUMERIC_TYPES, intClause, approvalClause );
+        populateTable( partition, tableName, "cast(dv.value as " + dbl + ")", "null", ValueType.NUMERIC_TYPES, intClause, approvalClause, sliceClause );
 
-        populateTable( partition, "1", "null", Sets.newHashSet( ValueType.BOOLEAN, ValueType.TRUE_ONLY ), "dv.value = 'true'", approvalClause );
+        populateTable( partition, tableName, "1", "null", Sets.newHashSet( ValueType.BOOLEAN, ValueType.TRUE_ONLY ), "dv.value = 'true'", approvalClause, sliceClause );
 
-        populateTable( partition, "0", "null", Sets.newHashSet( ValueType.BOOLEAN ), "dv.value = 'false'", approvalClause );
+        populateTable( partition, tableName, "0", "null", Sets.newHashSet( ValueType.BOOLEAN ), "dv.value = 'false'", approvalClause, sliceClause );
 
-        populateTable( partition, "null", "dv.value", Sets.union( ValueType.TEXT_TYPES, ValueType.DATE_TYPES ), null, approvalClause );
+        populateTable( partition, tableName, "null", "dv.value", Sets.union( ValueType.TEXT_TYPES, ValueType.DATE_TYPES ), null, approvalClause, sliceClause );
     }
 
     /**
      * Populates the given analytics table.
      *
-     * @param table analytics table to populate.
+     * @param partition analytics table partition to populate.
+     * @param tableName the name of the table to insert into.
      * @param valueExpression numeric value expression.
      * @param textValueExpression textual value expression.
      * @param valueTypes data element value types to include data for.
      * @param whereClause where clause to constrain data query.
+     * @param approvalClause approval join clause.
+     * @param sliceClause clause to restrict data values to, can be null.
      */
-    private void populateTable( AnalyticsTablePartition partition, String valueExpression,
-        String textValueExpression, Set<ValueType> valueTypes, String whereClause, String approvalClause )
+    private void populateTable( AnalyticsTablePartition partition, String tableName, String valueExpression,
+        String textValueExpression, Set<ValueType> valueTypes, String whereClause, String approvalClause, String sliceClause )
     {
-        final String tableName = partition.getTempTableName();
         final String valTypes = TextUtils.getQuotedCommaDelimitedString( ObjectUtils.asStringList( valueTypes ) );
         final boolean respectStartEndDates = (Boolean) systemSettingManager.getSystemSetting( SettingKey.RESPECT_META_DATA_START_END_DATES_IN_ANALYTICS_TABLE_EXPORT );
 
-        String sql = "insert into " + partition.getTempTableName() + " (";
+        String sql = "insert into " + tableName + " (";
 
         List<AnalyticsTableColumn> columns = getDimensionColumns( partition.getYear() );
         List<AnalyticsTableColumn> values = partition.getMasterTable().getValueColumns();
@@ -244,6 +376,11 @@ public class JdbcAnalyticsTableManager
                 "and (con.enddate is null or con.enddate >= pe.enddate) ";
         }
 
+        if ( sliceClause != null )
+        {
+            sql += "and " + sliceClause;
+        }
+
         if ( whereClause != null )
         {
             sql += "and " + whereClause;
@@ -395,6 +532,107 @@ public class JdbcAnalyticsTableManager
         return jdbcTemplate.queryForList( sql, Integer.class );
     }
 
+    /**
+     * Returns SQL which selects the distinct (data element, org unit) identifiers
+     * of data values in the given year which were updated or deleted since the
+     * given date.
+     *
+     * @param year the data year.
+     * @param lastUpdated the date of the last successful analytics table update.
+     */
+    private String getUpdatedSliceSql( Integer year, Date lastUpdated )
+    {
+        return
+            "select distinct dv.dataelementid, dv.sourceid " +
+            "from datavalue dv " +
+            "inner join _periodstructure ps on dv.periodid=ps.periodid " +
+            "where ps.year = " + year + " " +
+            "and dv.lastupdated >= '" + DateUtils.getLongDateString( lastUpdated ) + "'";
+    }
+
+    /**
+     * Returns the years of data values which were updated or deleted since the
+     * given date.
+     *
+     * @param earliest the start date for the first year to include, can be null.
+     * @param lastUpdated the date of the last successful analytics table update.
+     */
+    private List<Integer> getUpdatedDataYears( Date earliest, Date lastUpdated )
+    {
+        String sql =
+            "select distinct ps.year " +
+            "from datavalue dv " +
+            "inner join _periodstructure ps on dv.periodid=ps.periodid " +
+            "inner join period pe on dv.periodid=pe.periodid " +
+            "where dv.lastupdated >= '" + DateUtils.getLongDateString( lastUpdated ) + "' ";
+
+        if ( earliest != null )
+        {
+            sql += "and pe.startdate >= '" + DateUtils.getMediumDateString( earliest ) + "'";
+        }
+
+        return jdbcTemplate.queryForList( sql, Integer.class );
+    }
+
+    /**
+     * Indicates whether any metadata which analytics table rows are denormalized
+     * from was created, updated or deleted since the given date.
+     *
+     * @param lastUpdated the date of the last successful analytics table update.
+     */
+    private boolean isMetadataUpdatedSince( Date lastUpdated )
+    {
+        final String date = DateUtils.getLongDateString( lastUpdated );
+
+        String sql = Arrays.stream( METADATA_TABLES )
+            .map( t -> "select 1 from " + t[0] + " where " + t[1] + " >= '" + date + "'" )
+            .collect( Collectors.joining( " union all " ) );
+
+        return jdbcTemplate.queryForObject( "select exists (" + sql + ")", Boolean.class );
+    }
+
+    /**
+     * Applies aggregation levels to the rows of the given slices of the given
+     * analytics table.
+     *
+     * @param tableName the analytics table name.
+     * @param sliceSql the SQL selecting the slices which were repopulated.
+     */
+    private void applyAggregationLevels( String tableName, String sliceSql )
+    {
+        int maxLevels = organisationUnitService.getNumberOfOrganisationalLevels();
+
+        for ( int aggregationLevel = 1; aggregationLevel <= maxLevels; aggregationLevel++ )
+        {
+            Collection<String> dataElements = IdentifiableObjectUtils.getUids(
+                dataElementService.getDataElementsByAggregationLevel( aggregationLevel ) );
+
+            if ( dataElements.isEmpty() )
+            {
+                continue;
+            }
+
+            StringBuilder sql = new StringBuilder( "update " + tableName + " ax set " );
+
+            for ( int i = 0; i < aggregationLevel; i++ )
+            {
+                sql.append( quote( DataQueryParams.LEVEL_PREFIX + ( i + 1 ) ) + " = null," );
+            }
+
+            sql.deleteCharAt( sql.length() - ",".length() );
+
+            sql.append( " from (" +
+                "select ou.uid as ou from (" + sliceSql + ") dvs " +
+                "inner join organisationunit ou on dvs.sourceid=ou.organisationunitid) as sl" );
+            sql.append( " where ax.ou=sl.ou and ax.level > " + aggregationLevel );
+            sql.append( " and ax.dx in (" + getQuotedCommaDelimitedString( dataElements ) + ")" );
+
+            log.debug( "Incremental aggregation level SQL: " + sql.toString() );
+
+            jdbcTemplate.execute( sql.toString() );
+        }
+    }
+
     @Override
     @Async
     public Future<?> applyAggregationLevels( ConcurrentLinkedQueue<AnalyticsTablePartition> partitions, Collection<String> dataElements, int aggregationLevel )
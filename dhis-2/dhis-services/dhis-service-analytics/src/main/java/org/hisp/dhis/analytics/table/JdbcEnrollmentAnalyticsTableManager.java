@@ -36,11 +36,11 @@ import org.hisp.dhis.analytics.AnalyticsTablePartition;
 import org.hisp.dhis.analytics.AnalyticsTableType;
 import org.hisp.dhis.common.ValueType;
 import org.hisp.dhis.commons.collection.UniqueArrayList;
-import org.hisp.dhis.commons.util.TextUtils;
 import org.hisp.dhis.dataelement.DataElement;
 import org.hisp.dhis.organisationunit.OrganisationUnitGroupSet;
 import org.hisp.dhis.organisationunit.OrganisationUnitLevel;
 import org.hisp.dhis.period.PeriodType;
+import org.hisp.dhis.program.AnalyticsType;
 import org.hisp.dhis.program.Program;
 import org.hisp.dhis.program.ProgramStage;
 import org.hisp.dhis.program.ProgramStageDataElement;
@@ -102,29 +102,12 @@ public class JdbcEnrollmentAnalyticsTableManager
     protected void populateTable( AnalyticsTablePartition partition )
     {
         final Program program = partition.getMasterTable().getProgram();
-        final String tableName = partition.getTempTableName();
-
-        String sql = "insert into " + partition.getTempTableName() + " (";
 
         List<AnalyticsTableColumn> columns = getDimensionColumns( program );
         
         validateDimensionColumns( columns );
 
-        for ( AnalyticsTableColumn col : columns )
-        {
-            sql += col.getName() + ",";
-        }
-
-        sql = TextUtils.removeLastComma( sql ) + ") select ";
-
-        for ( AnalyticsTableColumn col : columns )
-        {
-            sql += col.getAlias() + ",";
-        }
-
-        sql = TextUtils.removeLastComma( sql ) + " ";
-
-        sql += "from programinstance pi " +
+        String sql = "from programinstance pi " +
             "inner join program pr on pi.programid=pr.programid " +
             "left join trackedentityinstance tei on pi.trackedentityinstanceid=tei.trackedentityinstanceid and tei.deleted is false " +
             "inner join organisationunit ou on pi.organisationunitid=ou.organisationunitid " +
@@ -137,7 +120,7 @@ public class JdbcEnrollmentAnalyticsTableManager
             "and pi.incidentdate is not null " +
             "and pi.deleted is false ";
 
-        populateAndLog( sql, tableName );
+        populateTable( partition, columns, sql, getMaterializedProgramIndicators( program, AnalyticsType.ENROLLMENT ) );
     }
 
     private List<AnalyticsTableColumn> getDimensionColumns( Program program )
@@ -251,6 +234,8 @@ public class JdbcEnrollmentAnalyticsTableManager
             columns.add( new AnalyticsTableColumn( quote( "tei" ), "character(11)", "tei.uid" ) );
         }
         
+        columns.addAll( getProgramIndicatorColumns( getMaterializedProgramIndicators( program, AnalyticsType.ENROLLMENT ) ) );
+
         return filterDimensionColumns( columns );
     }    
 }
@@ -39,6 +39,7 @@ import org.hisp.dhis.analytics.AnalyticsTableColumn;
 import org.hisp.dhis.analytics.AnalyticsTablePartition;
 import org.hisp.dhis.analytics.AnalyticsTableType;
 import org.hisp.dhis.calendar.Calendar;
+import org.hisp.dhis.common.IdentifiableObjectUtils;
 import org.hisp.dhis.common.ValueType;
 import org.hisp.dhis.commons.util.TextUtils;
 import org.hisp.dhis.category.CategoryOptionGroupSet;
@@ -48,6 +49,7 @@ import org.hisp.dhis.legend.LegendSet;
 import org.hisp.dhis.organisationunit.OrganisationUnitGroupSet;
 import org.hisp.dhis.organisationunit.OrganisationUnitLevel;
 import org.hisp.dhis.period.PeriodType;
+import org.hisp.dhis.program.AnalyticsType;
 import org.hisp.dhis.program.Program;
 import org.hisp.dhis.system.util.DateUtils;
 import org.hisp.dhis.trackedentity.TrackedEntityAttribute;
@@ -66,6 +68,12 @@ public class JdbcEventAnalyticsTableManager
     extends AbstractEventJdbcTableManager
 {
     private static final ImmutableSet<ValueType> NO_INDEX_VAL_TYPES = ImmutableSet.of( ValueType.TEXT, ValueType.LONG_TEXT );
+
+    /**
+     * Alias of the derived table holding data values pivoted to one row per
+     * program stage instance.
+     */
+    private static final String PIVOT_ALIAS = "psidv";
     
     @Override
     public AnalyticsTableType getAnalyticsTableType()
@@ -130,29 +138,12 @@ public class JdbcEventAnalyticsTableManager
         final Program program = partition.getMasterTable().getProgram();
         final String start = DateUtils.getMediumDateString( partition.getStartDate() );
         final String end = DateUtils.getMediumDateString( partition.getEndDate() );
-        final String tableName = partition.getTempTableName();
-
-        String sql = "insert into " + partition.getTempTableName() + " (";
 
         List<AnalyticsTableColumn> columns = getDimensionColumns( program );
         
         validateDimensionColumns( columns );
 
-        for ( AnalyticsTableColumn col : columns )
-        {
-            sql += col.getName() + ",";
-        }
-
-        sql = TextUtils.removeLastComma( sql ) + ") select ";
-
-        for ( AnalyticsTableColumn col : columns )
-        {
-            sql += col.getAlias() + ",";
-        }
-
-        sql = TextUtils.removeLastComma( sql ) + " ";
-
-        sql += "from programstageinstance psi " +
+        String sql = "from programstageinstance psi " +
             "inner join programinstance pi on psi.programinstanceid=pi.programinstanceid " +
             "inner join programstage ps on psi.programstageid=ps.programstageid " +
             "inner join program pr on pi.programid=pr.programid and pi.deleted is false " +
@@ -164,6 +155,7 @@ public class JdbcEventAnalyticsTableManager
                 "and (cast(date_trunc('month', psi.executiondate) as date)=ougs.startdate or ougs.startdate is null) " +
             "inner join _categorystructure acs on psi.attributeoptioncomboid=acs.categoryoptioncomboid " +
             "left join _dateperiodstructure dps on cast(psi.executiondate as date)=dps.dateperiod " +
+            getDataValuePivotJoin( program, start, end ) +
             "where psi.executiondate >= '" + start + "' " + 
             "and psi.executiondate < '" + end + "' " +
             "and pr.programid=" + program.getId() + " " + 
@@ -171,7 +163,55 @@ public class JdbcEventAnalyticsTableManager
             "and psi.executiondate is not null " +
             "and psi.deleted is false ";
 
-        populateAndLog( sql, tableName );
+        populateTable( partition, columns, sql, getMaterializedProgramIndicators( program, AnalyticsType.EVENT ) );
+    }
+
+    /**
+     * Returns a join with a derived table which pivots the data values of the
+     * events of the given program and date range into one row per program
+     * stage instance with one column per data element. This reads the data
+     * values of the partition in a single grouped scan, as opposed to looking
+     * up each data element value of each event row separately.
+     *
+     * @param program the program.
+     * @param start the start date of the partition.
+     * @param end the end date of the partition.
+     * @return a left join clause, or an empty string if the program has no
+     *         data elements.
+     */
+    private String getDataValuePivotJoin( Program program, String start, String end )
+    {
+        if ( program.getDataElements().isEmpty() )
+        {
+            return "";
+        }
+
+        final String numericClause = " and value " + statementBuilder.getRegexpMatch() + " '" + NUMERIC_LENIENT_REGEXP + "'";
+        final String dateClause = " and value " + statementBuilder.getRegexpMatch() + " '" + DATE_REGEXP + "'";
+
+        String sql = "left join (select dv.programstageinstanceid, ";
+
+        for ( DataElement dataElement : program.getDataElements() )
+        {
+            String dataClause = dataElement.isNumericType() ? numericClause : dataElement.getValueType().isDate() ? dateClause : "";
+
+            sql += "max(case when dv.dataelementid=" + dataElement.getId() + dataClause + " then dv.value end) as " + quote( dataElement.getUid() ) + ",";
+        }
+
+        sql = TextUtils.removeLastComma( sql ) + " ";
+
+        sql += "from trackedentitydatavalue dv " +
+            "inner join programstageinstance psi on dv.programstageinstanceid=psi.programstageinstanceid " +
+            "inner join programstage ps on psi.programstageid=ps.programstageid " +
+            "where ps.programid=" + program.getId() + " " +
+            "and psi.executiondate >= '" + start + "' " +
+            "and psi.executiondate < '" + end + "' " +
+            "and psi.deleted is false " +
+            "and dv.dataelementid in (" + TextUtils.getCommaDelimitedString( IdentifiableObjectUtils.getIdentifiers( program.getDataElements() ) ) + ") " +
+            "group by dv.programstageinstanceid) as " + PIVOT_ALIAS + " " +
+            "on psi.programstageinstanceid=" + PIVOT_ALIAS + ".programstageinstanceid ";
+
+        return sql;
     }
 
     private List<AnalyticsTableColumn> getDimensionColumns( Program program )
@@ -231,12 +271,9 @@ public class JdbcEventAnalyticsTableManager
         for ( DataElement dataElement : program.getDataElements() )
         {
             String dataType = getColumnType( dataElement.getValueType() );
-            String dataClause = dataElement.isNumericType() ? numericClause : dataElement.getValueType().isDate() ? dateClause : "";
-            String select = getSelectClause( dataElement.getValueType() );
             boolean skipIndex = NO_INDEX_VAL_TYPES.contains( dataElement.getValueType() ) && !dataElement.hasOptionSet();
 
-            String sql = "(select " + select + " from trackedentitydatavalue where programstageinstanceid=psi.programstageinstanceid " +
-                "and dataelementid=" + dataElement.getId() + dataClause + ") as " + quote( dataElement.getUid() );
+            String sql = getSelectClause( dataElement.getValueType(), getPivotColumn( dataElement ) ) + " as " + quote( dataElement.getUid() );
 
             columns.add( new AnalyticsTableColumn( quote( dataElement.getUid() ), dataType, sql, skipIndex ) );
         }
@@ -246,15 +283,15 @@ public class JdbcEventAnalyticsTableManager
             for ( LegendSet legendSet : dataElement.getLegendSets() )
             {
                 String column = quote( dataElement.getUid() + PartitionUtils.SEP + legendSet.getUid() );
-                String select = getSelectClause( dataElement.getValueType() );
+                String pivotColumn = getPivotColumn( dataElement );
+                String select = getSelectClause( dataElement.getValueType(), pivotColumn );
 
                 String sql =
                     "(select l.uid from maplegend l " +
-                    "inner join trackedentitydatavalue dv on l.startvalue <= " + select + " " +
+                    "where l.startvalue <= " + select + " " +
                     "and l.endvalue > " + select + " " +
                     "and l.maplegendsetid=" + legendSet.getId() + " " +
-                    "and dv.programstageinstanceid=psi.programstageinstanceid " +
-                    "and dv.dataelementid=" + dataElement.getId() + numericClause + ") as " + column;
+                    "and " + pivotColumn + " " + statementBuilder.getRegexpMatch() + " '" + NUMERIC_LENIENT_REGEXP + "') as " + column;
 
                 columns.add( new AnalyticsTableColumn( column, "character(11)", sql ) );
             }
@@ -319,9 +356,20 @@ public class JdbcEventAnalyticsTableManager
             columns.add( new AnalyticsTableColumn( quote( "tei" ), "character(11)", "tei.uid" ) );
         }
                 
+        columns.addAll( getProgramIndicatorColumns( getMaterializedProgramIndicators( program, AnalyticsType.EVENT ) ) );
+
         return filterDimensionColumns( columns );
     }
 
+    /**
+     * Returns the qualified name of the column holding the value of the given
+     * data element in the pivoted data value table.
+     */
+    private String getPivotColumn( DataElement dataElement )
+    {
+        return PIVOT_ALIAS + "." + quote( dataElement.getUid() );
+    }
+
     private List<Integer> getDataYears( Program program, Date earliest )
     {
         String sql = 
@@ -65,6 +65,7 @@ public class AnalyticsTableJob
             .withJobId( jobConfiguration )
             .withSkipTableTypes( parameters.getSkipTableTypes() )
             .withSkipResourceTables( parameters.isSkipResourceTables() )
+            .withIncrementalUpdate( parameters.isIncrementalUpdate() )
             .build();
 
         analyticsTableGenerator.generateTables( params );
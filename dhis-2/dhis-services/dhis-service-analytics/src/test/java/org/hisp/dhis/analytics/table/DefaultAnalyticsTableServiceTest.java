@@ -0,0 +1,162 @@
+package org.hisp.dhis.analytics.table;
+
+/*
+ * Copyright (c) 2004-2018, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.*;
+
+import java.util.Date;
+
+import org.hisp.dhis.analytics.AnalyticsCache;
+import org.hisp.dhis.analytics.AnalyticsTable;
+import org.hisp.dhis.analytics.AnalyticsTableManager;
+import org.hisp.dhis.analytics.AnalyticsTablePartition;
+import org.hisp.dhis.analytics.AnalyticsTableType;
+import org.hisp.dhis.analytics.AnalyticsTableUpdateParams;
+import org.hisp.dhis.analytics.IncrementalAnalyticsTableManager;
+import org.hisp.dhis.dataelement.DataElementService;
+import org.hisp.dhis.organisationunit.OrganisationUnitService;
+import org.hisp.dhis.resourcetable.ResourceTableService;
+import org.hisp.dhis.setting.SettingKey;
+import org.hisp.dhis.setting.SystemSettingManager;
+import org.hisp.dhis.system.notification.Notifier;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+
+import com.google.common.collect.Lists;
+
+@RunWith( MockitoJUnitRunner.class )
+public class DefaultAnalyticsTableServiceTest
+{
+    @Mock
+    private OrganisationUnitService organisationUnitService;
+
+    @Mock
+    private DataElementService dataElementService;
+
+    @Mock
+    private ResourceTableService resourceTableService;
+
+    @Mock
+    private Notifier notifier;
+
+    @Mock
+    private SystemSettingManager systemSettingManager;
+
+    @Mock
+    private AnalyticsCache analyticsCache;
+
+    @InjectMocks
+    private DefaultAnalyticsTableService tableService;
+
+    private Date lastUpdated;
+
+    private AnalyticsTableUpdateParams params;
+
+    @Before
+    public void setUp()
+    {
+        lastUpdated = new Date();
+
+        params = AnalyticsTableUpdateParams.newBuilder().withIncrementalUpdate( true ).build();
+
+        when( systemSettingManager.getSystemSetting( SettingKey.LAST_SUCCESSFUL_ANALYTICS_TABLES_UPDATE ) ).thenReturn( lastUpdated );
+    }
+
+    @Test
+    public void testFullUpdateWhenIncrementalNotSupported()
+    {
+        AnalyticsTableManager tableManager = mockTableManager( AnalyticsTableManager.class );
+
+        tableService.update( params );
+
+        verify( tableManager ).getAnalyticsTables( any( Date.class ) );
+    }
+
+    @Test
+    public void testFullUpdateWhenIncrementalNotPossible()
+    {
+        IncrementalAnalyticsTableManager tableManager = mockTableManager( IncrementalAnalyticsTableManager.class );
+
+        when( tableManager.getIncrementalTablePartitions( any( Date.class ), eq( lastUpdated ) ) ).thenReturn( null );
+
+        tableService.update( params );
+
+        verify( tableManager ).getAnalyticsTables( any( Date.class ) );
+        verify( tableManager, never() ).updateTableIncrementally( any( AnalyticsTablePartition.class ), any( Date.class ) );
+    }
+
+    @Test
+    public void testIncrementalUpdate()
+    {
+        IncrementalAnalyticsTableManager tableManager = mockTableManager( IncrementalAnalyticsTableManager.class );
+
+        AnalyticsTable table = new AnalyticsTable( "analytics", Lists.newArrayList(), Lists.newArrayList() );
+        AnalyticsTablePartition partitionA = new AnalyticsTablePartition( table, 2017, new Date(), new Date(), false );
+        AnalyticsTablePartition partitionB = new AnalyticsTablePartition( table, 2018, new Date(), new Date(), false );
+
+        when( tableManager.getIncrementalTablePartitions( any( Date.class ), eq( lastUpdated ) ) ).thenReturn( Lists.newArrayList( partitionA, partitionB ) );
+
+        tableService.update( params );
+
+        verify( tableManager ).updateTableIncrementally( partitionA, lastUpdated );
+        verify( tableManager ).updateTableIncrementally( partitionB, lastUpdated );
+        verify( tableManager ).analyzeTable( partitionA.getTableName() );
+        verify( tableManager ).analyzeTable( partitionB.getTableName() );
+        verify( tableManager, never() ).getAnalyticsTables( any( Date.class ) );
+        verify( analyticsCache ).invalidateAll();
+    }
+
+    @Test
+    public void testFullUpdateWhenIncrementalNotRequested()
+    {
+        IncrementalAnalyticsTableManager tableManager = mockTableManager( IncrementalAnalyticsTableManager.class );
+
+        tableService.update( AnalyticsTableUpdateParams.newBuilder().build() );
+
+        verify( tableManager, never() ).getIncrementalTablePartitions( any( Date.class ), any( Date.class ) );
+        verify( tableManager ).getAnalyticsTables( any( Date.class ) );
+    }
+
+    private <T extends AnalyticsTableManager> T mockTableManager( Class<T> type )
+    {
+        T tableManager = mock( type );
+
+        when( tableManager.getAnalyticsTableType() ).thenReturn( AnalyticsTableType.DATA_VALUE );
+
+        tableService.setTableManager( tableManager );
+
+        return tableManager;
+    }
+}
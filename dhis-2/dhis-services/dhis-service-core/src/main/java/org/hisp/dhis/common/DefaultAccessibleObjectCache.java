@@ -0,0 +1,167 @@
+package org.hisp.dhis.common;
+
+/*
+ * Copyright (c) 2004-2018, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+import org.hisp.dhis.cache.Cache;
+import org.hisp.dhis.cache.CacheProvider;
+import org.hisp.dhis.commons.util.SystemUtils;
+import org.hisp.dhis.user.CurrentUserService;
+import org.hisp.dhis.user.User;
+import org.hisp.dhis.user.UserGroup;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.google.common.hash.Hashing;
+
+import javax.annotation.PostConstruct;
+import java.io.Serializable;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Implementation of {@link AccessibleObjectCache} backed by the {@link Cache}
+ * abstraction, which means that entries are shared between nodes when Redis
+ * is enabled.
+ * <p>
+ * Keys include a SHA-256 digest of the sorted user group uids of the user and
+ * the last updated timestamp of the class, so entries computed before a change
+ * of membership or sharing are no longer reachable and are discarded on
+ * expiration. The last updated timestamp of each class is held locally for a
+ * few seconds, so that it is not queried for every lookup.
+ */
+public class DefaultAccessibleObjectCache
+    implements AccessibleObjectCache
+{
+    private static final String DATA_READ = "dr";
+
+    private static final String DATA_WRITE = "dw";
+
+    private static final long MAXIMUM_SIZE = 20000;
+
+    private static final long LAST_UPDATED_EXPIRY_SECONDS = 5;
+
+    @Autowired
+    private IdentifiableObjectManager manager;
+
+    @Autowired
+    private CurrentUserService currentUserService;
+
+    @Autowired
+    private CacheProvider cacheProvider;
+
+    private Cache<Serializable> uidCache;
+
+    /**
+     * Local cache of the last updated timestamp in milliseconds per class.
+     */
+    private com.github.benmanes.caffeine.cache.Cache<Class<?>, Long> lastUpdatedCache;
+
+    @PostConstruct
+    public void init()
+    {
+        init( SystemUtils.isTestRun() ? 0 : MAXIMUM_SIZE );
+    }
+
+    void init( long maximumSize )
+    {
+        uidCache = cacheProvider.newCacheBuilder( Serializable.class ).forRegion( "accessibleObjectUids" )
+            .expireAfterWrite( 1, TimeUnit.HOURS ).withMaximumSize( maximumSize ).build();
+
+        lastUpdatedCache = Caffeine.newBuilder()
+            .expireAfterWrite( maximumSize > 0 ? LAST_UPDATED_EXPIRY_SECONDS : 0, TimeUnit.SECONDS ).build();
+    }
+
+    // -------------------------------------------------------------------------
+    // AccessibleObjectCache implementation
+    // -------------------------------------------------------------------------
+
+    @Override
+    public <T extends IdentifiableObject> Set<String> getDataReadUids( Class<T> clazz )
+    {
+        return getUids( clazz, DATA_READ, manager::getDataReadAll );
+    }
+
+    @Override
+    public <T extends IdentifiableObject> Set<String> getDataWriteUids( Class<T> clazz )
+    {
+        return getUids( clazz, DATA_WRITE, manager::getDataWriteAll );
+    }
+
+    // -------------------------------------------------------------------------
+    // Supportive methods
+    // -------------------------------------------------------------------------
+
+    @SuppressWarnings( "unchecked" )
+    private <T extends IdentifiableObject> Set<String> getUids( Class<T> clazz, String access,
+        Function<Class<T>, List<T>> loader )
+    {
+        String key = getKey( clazz, access, currentUserService.getCurrentUser() );
+
+        Serializable uids = uidCache.get( key, k -> loader.apply( clazz ).stream()
+            .map( IdentifiableObject::getUid )
+            .collect( Collectors.toCollection( HashSet::new ) ) ).orElse( new HashSet<>() );
+
+        return Collections.unmodifiableSet( (Set<String>) uids );
+    }
+
+    private <T extends IdentifiableObject> String getKey( Class<T> clazz, String access, User user )
+    {
+        StringBuilder key = new StringBuilder( clazz.getSimpleName() )
+            .append( ':' ).append( access )
+            .append( ':' ).append( getLastUpdated( clazz ) );
+
+        if ( user != null )
+        {
+            String groups = user.getGroups().stream()
+                .map( UserGroup::getUid )
+                .sorted()
+                .collect( Collectors.joining( "," ) );
+
+            key.append( ':' ).append( user.getUid() ).append( ':' )
+                .append( Hashing.sha256().hashString( groups, StandardCharsets.UTF_8 ).toString() );
+        }
+
+        return key.toString();
+    }
+
+    private <T extends IdentifiableObject> long getLastUpdated( Class<T> clazz )
+    {
+        return lastUpdatedCache.get( clazz, c -> {
+            Date lastUpdated = manager.getLastUpdated( clazz );
+            return lastUpdated != null ? lastUpdated.getTime() : 0L;
+        } );
+    }
+}
@@ -205,6 +205,26 @@ public class DefaultIdentifiableObjectManager
         }
     }
 
+    @Override
+    public void delete( Collection<? extends IdentifiableObject> objects )
+    {
+        delete( objects, currentUserService.getCurrentUser() );
+    }
+
+    @Override
+    public void delete( Collection<? extends IdentifiableObject> objects, User user )
+    {
+        if ( objects == null || objects.isEmpty() )
+        {
+            return;
+        }
+
+        for ( IdentifiableObject object : objects )
+        {
+            delete( object, user );
+        }
+    }
+
     @Override
     @SuppressWarnings( "unchecked" )
     public <T extends IdentifiableObject> T get( String uid )
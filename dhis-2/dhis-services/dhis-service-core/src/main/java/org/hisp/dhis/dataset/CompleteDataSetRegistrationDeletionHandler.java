@@ -34,6 +34,8 @@ import org.hisp.dhis.period.Period;
 import org.hisp.dhis.system.deletion.DeletionHandler;
 import org.springframework.jdbc.core.JdbcTemplate;
 
+import java.util.Collection;
+
 /**
  * @author Lars Helge Overland
  * @version $Id$
@@ -89,6 +91,18 @@ public class CompleteDataSetRegistrationDeletionHandler
         completeDataSetRegistrationService.deleteCompleteDataSetRegistrations( unit );
     }
 
+    @Override
+    public boolean isBulkDeletionSupported( Class<?> clazz )
+    {
+        return OrganisationUnit.class.equals( clazz );
+    }
+
+    @Override
+    public void deleteAll( Class<?> clazz, Collection<?> objects )
+    {
+        jdbcTemplate.update( "delete from completedatasetregistration where sourceid in (" + getIdentifiers( objects ) + ")" );
+    }
+
     @Override
     public String allowDeleteCategoryOptionCombo( CategoryOptionCombo optionCombo )
     {
@@ -35,6 +35,8 @@ import org.hisp.dhis.period.Period;
 import org.hisp.dhis.system.deletion.DeletionHandler;
 import org.springframework.jdbc.core.JdbcTemplate;
 
+import java.util.Collection;
+
 public class DataValueAuditDeletionHandler
     extends DeletionHandler
 {
@@ -82,6 +84,20 @@ public class DataValueAuditDeletionHandler
         
         return jdbcTemplate.queryForObject( sql, Integer.class ) == 0 ? null : ERROR;
     }
+
+    @Override
+    public boolean isBulkDeletionSupported( Class<?> clazz )
+    {
+        return OrganisationUnit.class.equals( clazz );
+    }
+
+    @Override
+    public String allowDeleteAll( Class<?> clazz, Collection<?> objects )
+    {
+        String sql = "SELECT COUNT(*) FROM datavalueaudit where organisationunitid in (" + getIdentifiers( objects ) + ")";
+
+        return jdbcTemplate.queryForObject( sql, Integer.class ) == 0 ? null : ERROR;
+    }
     
     @Override
     public String allowDeleteCategoryOptionCombo( CategoryOptionCombo optionCombo )
@@ -323,6 +323,12 @@ public class DefaultDataValueService
         return dataValueStore.getDataValues( source, period, dataElements, attributeOptionCombo );
     }
 
+    @Override
+    public List<DataValue> getExistingDataValues( Collection<DataValue> dataValues )
+    {
+        return dataValueStore.getExistingDataValues( dataValues );
+    }
+
     @Override
     public List<DeflatedDataValue> getDeflatedDataValues( DataExportParams params )
     {
@@ -56,7 +56,9 @@ import org.springframework.jdbc.support.rowset.SqlRowSet;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.stream.Collectors;
 
@@ -331,6 +333,62 @@ public class HibernateDataValueStore
             .list();
     }
 
+    @Override
+    public List<DataValue> getExistingDataValues( Collection<DataValue> dataValues )
+    {
+        List<DataValue> existingValues = new ArrayList<>();
+
+        if ( dataValues.isEmpty() )
+        {
+            return existingValues;
+        }
+
+        Map<String, DataValue> keys = new HashMap<>();
+        SqlHelper sqlHelper = new SqlHelper( true );
+
+        StringBuilder sql = new StringBuilder( "select dv.dataelementid, dv.periodid, dv.sourceid, dv.categoryoptioncomboid, " +
+            "dv.attributeoptioncomboid, dv.value, dv.storedby, dv.created, dv.lastupdated, dv.comment, dv.followup, dv.deleted " +
+            "from datavalue dv where " );
+
+        for ( DataValue dataValue : dataValues )
+        {
+            String key = getKey( dataValue.getDataElement().getId(), dataValue.getPeriod().getId(), dataValue.getSource().getId(),
+                dataValue.getCategoryOptionCombo().getId(), dataValue.getAttributeOptionCombo().getId() );
+
+            if ( keys.put( key, dataValue ) == null )
+            {
+                sql.append( sqlHelper.or() )
+                    .append( "(dv.dataelementid = " ).append( dataValue.getDataElement().getId() )
+                    .append( " and dv.periodid = " ).append( dataValue.getPeriod().getId() )
+                    .append( " and dv.sourceid = " ).append( dataValue.getSource().getId() )
+                    .append( " and dv.categoryoptioncomboid = " ).append( dataValue.getCategoryOptionCombo().getId() )
+                    .append( " and dv.attributeoptioncomboid = " ).append( dataValue.getAttributeOptionCombo().getId() ).append( ")" );
+            }
+        }
+
+        SqlRowSet rowSet = jdbcTemplate.queryForRowSet( sql.toString() );
+
+        while ( rowSet.next() )
+        {
+            DataValue match = keys.get( getKey( rowSet.getInt( 1 ), rowSet.getInt( 2 ), rowSet.getInt( 3 ), rowSet.getInt( 4 ), rowSet.getInt( 5 ) ) );
+
+            if ( match != null )
+            {
+                DataValue existingValue = new DataValue( match.getDataElement(), match.getPeriod(), match.getSource(),
+                    match.getCategoryOptionCombo(), match.getAttributeOptionCombo(), rowSet.getString( 6 ), rowSet.getString( 7 ),
+                    rowSet.getTimestamp( 9 ), rowSet.getString( 10 ) );
+
+                existingValue.setCreated( rowSet.getTimestamp( 8 ) );
+                existingValue.setFollowup( rowSet.getBoolean( 11 ) );
+                existingValue.setDeleted( rowSet.getBoolean( 12 ) );
+
+                existingValues.add( existingValue );
+            }
+        }
+
+        return existingValues;
+    }
+
     @Override
     public List<DeflatedDataValue> getDeflatedDataValues( DataExportParams params )
     {
@@ -515,6 +573,11 @@ public class HibernateDataValueStore
     // Supportive methods
     // -------------------------------------------------------------------------
 
+    private String getKey( int dataElement, int period, int source, int categoryOptionCombo, int attributeOptionCombo )
+    {
+        return dataElement + "-" + period + "-" + source + "-" + categoryOptionCombo + "-" + attributeOptionCombo;
+    }
+
     /**
      * Gets a list of DataElementOperands to use for SQL query.
      *
@@ -0,0 +1,487 @@
+package org.hisp.dhis.expression;
+
+/*
+ * Copyright (c) 2004-2018, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.DoubleBinaryOperator;
+import java.util.function.DoubleUnaryOperator;
+
+import static org.hisp.dhis.expression.MissingValueStrategy.NEVER_SKIP;
+import static org.hisp.dhis.expression.MissingValueStrategy.SKIP_IF_ALL_VALUES_MISSING;
+import static org.hisp.dhis.expression.MissingValueStrategy.SKIP_IF_ANY_VALUE_MISSING;
+
+/**
+ * An expression which has been parsed once into a tree of nodes, and which can
+ * be evaluated repeatedly against value maps without substituting values into
+ * the expression string and parsing it again. Evaluation yields the same result
+ * as generating the expression with values and calculating it with JEP. Instances
+ * are immutable and can be shared between threads. Instances are created with
+ * {@link ExpressionCompiler}.
+ */
+public class CompiledExpression
+{
+    /**
+     * The root node of the expression tree.
+     */
+    private final Node root;
+
+    /**
+     * Dimension item variables of the expression, excluding arguments to the
+     * isNull function, in order of appearance.
+     */
+    private final List<Variable> variables;
+
+    /**
+     * Text of the variables which are arguments to the isNull function.
+     */
+    private final Set<String> isNullArgs;
+
+    /**
+     * Sub-expressions which are arguments to aggregate functions.
+     */
+    private final List<String> aggregates;
+
+    CompiledExpression( Node root, List<Variable> variables, Set<String> isNullArgs, List<String> aggregates )
+    {
+        this.root = root;
+        this.variables = ImmutableList.copyOf( variables );
+        this.isNullArgs = ImmutableSet.copyOf( isNullArgs );
+        this.aggregates = ImmutableList.copyOf( aggregates );
+    }
+
+    // -------------------------------------------------------------------------
+    // Logic
+    // -------------------------------------------------------------------------
+
+    /**
+     * Evaluates this expression.
+     *
+     * @param itemValueMap map of dimension item identifiers and values.
+     * @param constantMap map of constant identifiers and values.
+     * @param orgUnitCountMap map of organisation unit group identifiers and
+     *        member counts.
+     * @param days the number of days.
+     * @param missingValueStrategy the missing value strategy.
+     * @param aggregateMap map of aggregate sub-expressions and sample values,
+     *        can be null.
+     * @return the value of the expression, or null if the expression should be
+     *         skipped according to the missing value strategy.
+     * @throws EvaluationException if the expression cannot be evaluated natively.
+     */
+    public Double evaluate( Map<String, Double> itemValueMap, Map<String, Double> constantMap,
+        Map<String, Integer> orgUnitCountMap, Integer days, MissingValueStrategy missingValueStrategy,
+        Map<String, List<Double>> aggregateMap )
+    {
+        missingValueStrategy = missingValueStrategy != null ? missingValueStrategy : NEVER_SKIP;
+
+        if ( !aggregates.isEmpty() )
+        {
+            if ( aggregateMap == null )
+            {
+                throw new EvaluationException( "Aggregate functions require an aggregate map" );
+            }
+
+            for ( String aggregate : aggregates )
+            {
+                if ( aggregateMap.get( aggregate ) == null )
+                {
+                    if ( SKIP_IF_ANY_VALUE_MISSING.equals( missingValueStrategy ) )
+                    {
+                        return null;
+                    }
+
+                    throw new EvaluationException( "Missing aggregate values for: " + aggregate );
+                }
+            }
+        }
+
+        int matchCount = 0;
+        int valueCount = 0;
+
+        for ( Variable variable : variables )
+        {
+            boolean missingValue = itemValueMap.get( variable.item ) == null;
+
+            if ( missingValue && isNullArgs.contains( variable.text ) )
+            {
+                continue;
+            }
+
+            matchCount++;
+
+            if ( missingValue && SKIP_IF_ANY_VALUE_MISSING.equals( missingValueStrategy ) )
+            {
+                return null;
+            }
+
+            if ( !missingValue )
+            {
+                valueCount++;
+            }
+        }
+
+        if ( SKIP_IF_ALL_VALUES_MISSING.equals( missingValueStrategy ) && matchCount > 0 && valueCount == 0 )
+        {
+            return null;
+        }
+
+        return root.evaluate( new Context( itemValueMap, constantMap, orgUnitCountMap, days, aggregateMap ) );
+    }
+
+    // -------------------------------------------------------------------------
+    // Evaluation context and exception
+    // -------------------------------------------------------------------------
+
+    /**
+     * Values for a single evaluation of an expression.
+     */
+    static class Context
+    {
+        final Map<String, Double> itemValueMap;
+        final Map<String, Double> constantMap;
+        final Map<String, Integer> orgUnitCountMap;
+        final Integer days;
+        final Map<String, List<Double>> aggregateMap;
+
+        Context( Map<String, Double> itemValueMap, Map<String, Double> constantMap,
+            Map<String, Integer> orgUnitCountMap, Integer days, Map<String, List<Double>> aggregateMap )
+        {
+            this.itemValueMap = itemValueMap;
+            this.constantMap = constantMap;
+            this.orgUnitCountMap = orgUnitCountMap;
+            this.days = days;
+            this.aggregateMap = aggregateMap;
+        }
+    }
+
+    /**
+     * Thrown when an expression cannot be evaluated natively, in which case the
+     * expression should be evaluated with JEP, which defines the outcome.
+     */
+    public static class EvaluationException
+        extends RuntimeException
+    {
+        EvaluationException( String message )
+        {
+            super( message );
+        }
+    }
+
+    // -------------------------------------------------------------------------
+    // Nodes
+    // -------------------------------------------------------------------------
+
+    /**
+     * A node in the expression tree.
+     */
+    interface Node
+    {
+        double evaluate( Context ctx );
+    }
+
+    static class Literal
+        implements Node
+    {
+        private final double value;
+
+        Literal( double value )
+        {
+            this.value = value;
+        }
+
+        @Override
+        public double evaluate( Context ctx )
+        {
+            return value;
+        }
+    }
+
+    static class Variable
+        implements Node
+    {
+        private final String item;
+        private final String text;
+
+        Variable( String item, String text )
+        {
+            this.item = item;
+            this.text = text;
+        }
+
+        @Override
+        public double evaluate( Context ctx )
+        {
+            Double value = ctx.itemValueMap.get( item );
+            return value != null ? value : 0d;
+        }
+    }
+
+    static class IsNull
+        implements Node
+    {
+        private final String item;
+
+        IsNull( String item )
+        {
+            this.item = item;
+        }
+
+        @Override
+        public double evaluate( Context ctx )
+        {
+            return ctx.itemValueMap.get( item ) == null ? 1d : 0d;
+        }
+    }
+
+    static class Constant
+        implements Node
+    {
+        private final String uid;
+
+        Constant( String uid )
+        {
+            this.uid = uid;
+        }
+
+        @Override
+        public double evaluate( Context ctx )
+        {
+            Double value = ctx.constantMap != null ? ctx.constantMap.get( uid ) : null;
+            return value != null ? value : 0d;
+        }
+    }
+
+    static class OrgUnitGroupCount
+        implements Node
+    {
+        private final String uid;
+
+        OrgUnitGroupCount( String uid )
+        {
+            this.uid = uid;
+        }
+
+        @Override
+        public double evaluate( Context ctx )
+        {
+            Integer count = ctx.orgUnitCountMap != null ? ctx.orgUnitCountMap.get( uid ) : null;
+            return count != null ? count : 0d;
+        }
+    }
+
+    static class Days
+        implements Node
+    {
+        @Override
+        public double evaluate( Context ctx )
+        {
+            return ctx.days != null ? ctx.days : 0d;
+        }
+    }
+
+    static class Unary
+        implements Node
+    {
+        private final DoubleUnaryOperator operator;
+        private final Node operand;
+
+        Unary( DoubleUnaryOperator operator, Node operand )
+        {
+            this.operator = operator;
+            this.operand = operand;
+        }
+
+        @Override
+        public double evaluate( Context ctx )
+        {
+            return operator.applyAsDouble( operand.evaluate( ctx ) );
+        }
+    }
+
+    /**
+     * The power operator with a dimension item or constant as base. Values are
+     * substituted into the expression text before JEP parses it, and JEP binds
+     * the power operator tighter than unary minus. A negative value is hence
+     * raised to the power as -(|value|^n), which is reproduced here.
+     */
+    static class SubstitutedPower
+        implements Node
+    {
+        private final Node base;
+        private final Node exponent;
+
+        SubstitutedPower( Node base, Node exponent )
+        {
+            this.base = base;
+            this.exponent = exponent;
+        }
+
+        @Override
+        public double evaluate( Context ctx )
+        {
+            double value = base.evaluate( ctx );
+            double power = exponent.evaluate( ctx );
+
+            return value < 0d ? -Math.pow( -value, power ) : Math.pow( value, power );
+        }
+    }
+
+    static class Binary
+        implements Node
+    {
+        private final DoubleBinaryOperator operator;
+        private final Node left;
+        private final Node right;
+
+        Binary( DoubleBinaryOperator operator, Node left, Node right )
+        {
+            this.operator = operator;
+            this.left = left;
+            this.right = right;
+        }
+
+        @Override
+        public double evaluate( Context ctx )
+        {
+            return operator.applyAsDouble( left.evaluate( ctx ), right.evaluate( ctx ) );
+        }
+    }
+
+    /**
+     * The IF function. The test is true if not zero.
+     */
+    static class If
+        implements Node
+    {
+        private final Node test;
+        private final Node valueIfTrue;
+        private final Node valueIfFalse;
+
+        If( Node test, Node valueIfTrue, Node valueIfFalse )
+        {
+            this.test = test;
+            this.valueIfTrue = valueIfTrue;
+            this.valueIfFalse = valueIfFalse;
+        }
+
+        @Override
+        public double evaluate( Context ctx )
+        {
+            return test.evaluate( ctx ) != 0d ? valueIfTrue.evaluate( ctx ) : valueIfFalse.evaluate( ctx );
+        }
+    }
+
+    /**
+     * Aggregate functions over the sample values of a sub-expression, in line
+     * with the functions in {@link org.hisp.dhis.system.jep.CustomFunctions}.
+     * The median function is not included and is always calculated with JEP.
+     */
+    enum AggregateFunction
+    {
+        AVG, STDDEV, MAX, MIN, COUNT, SUM;
+
+        double apply( List<Double> values )
+        {
+            int n = values.size();
+
+            if ( n == 0 && ( this == MAX || this == MIN ) )
+            {
+                throw new EvaluationException( "No values for aggregate function: " + this );
+            }
+
+            switch ( this )
+            {
+                case COUNT:
+                    return n;
+                case SUM:
+                    return sum( values );
+                case AVG:
+                    return n == 0 ? 0d : sum( values ) / n;
+                case STDDEV:
+                    if ( n == 0 )
+                    {
+                        return 0d;
+                    }
+
+                    double mean = sum( values ) / n;
+                    double sum2 = 0;
+
+                    for ( Double v : values )
+                    {
+                        sum2 += ( v - mean ) * ( v - mean );
+                    }
+
+                    return Math.sqrt( sum2 / n );
+                case MAX:
+                    return Collections.max( values );
+                case MIN:
+                    return Collections.min( values );
+                default:
+                    throw new EvaluationException( "Unsupported aggregate function: " + this );
+            }
+        }
+
+        private static double sum( List<Double> values )
+        {
+            double sum = 0;
+
+            for ( Double v : values )
+            {
+                sum += v;
+            }
+
+            return sum;
+        }
+    }
+
+    static class Aggregate
+        implements Node
+    {
+        private final AggregateFunction function;
+        private final String subExpression;
+
+        Aggregate( AggregateFunction function, String subExpression )
+        {
+            this.function = function;
+            this.subExpression = subExpression;
+        }
+
+        @Override
+        public double evaluate( Context ctx )
+        {
+            return function.apply( ctx.aggregateMap.get( subExpression ) );
+        }
+    }
+}
@@ -28,6 +28,8 @@ package org.hisp.dhis.expression;
  * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
  */
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import com.google.common.collect.Sets;
 
 import org.apache.commons.lang3.ObjectUtils;
@@ -43,6 +45,7 @@ import org.hisp.dhis.common.ListMap;
 import org.hisp.dhis.common.SetMap;
 import org.hisp.dhis.common.exception.InvalidIdentifierReferenceException;
 import org.hisp.dhis.commons.collection.CachingMap;
+import org.hisp.dhis.commons.util.SystemUtils;
 import org.hisp.dhis.commons.util.TextUtils;
 import org.hisp.dhis.constant.Constant;
 import org.hisp.dhis.constant.ConstantService;
@@ -51,6 +54,7 @@ import org.hisp.dhis.category.CategoryOptionCombo;
 import org.hisp.dhis.category.CategoryService;
 import org.hisp.dhis.dataelement.DataElementOperand;
 import org.hisp.dhis.dataelement.DataElementService;
+import org.hisp.dhis.expression.CompiledExpression.EvaluationException;
 import org.hisp.dhis.indicator.Indicator;
 import org.hisp.dhis.indicator.IndicatorValue;
 import org.hisp.dhis.organisationunit.OrganisationUnitGroup;
@@ -67,7 +71,9 @@ import java.util.Collection;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -89,6 +95,16 @@ public class DefaultExpressionService
 {
     private static final Log log = LogFactory.getLog( DefaultExpressionService.class );
 
+    /**
+     * Cache for compiled expressions. Key is the expression. Holds an empty
+     * value for expressions which cannot be compiled. Disabled during test phase.
+     */
+    private static final Cache<String, Optional<CompiledExpression>> COMPILED_EXPRESSION_CACHE = Caffeine.newBuilder()
+        .expireAfterAccess( 1, TimeUnit.HOURS )
+        .initialCapacity( 200 )
+        .maximumSize( SystemUtils.isTestRun() ? 0 : 10000 )
+        .build();
+
     // -------------------------------------------------------------------------
     // Dependencies
     // -------------------------------------------------------------------------
@@ -209,28 +225,26 @@ public class DefaultExpressionService
 
         Integer days = period != null ? period.getDaysInPeriod() : null;
 
-        final String denominatorExpression = generateExpression( indicator.getDenominator(), valueMap,
-            constantMap, orgUnitCountMap, days, NEVER_SKIP );
+        Map<String, Double> dimensionItemValueMap = getDimensionItemValueMap( valueMap );
 
-        if ( denominatorExpression == null )
+        final Double denominatorValue = evaluateExpression( indicator.getDenominator(), valueMap,
+            dimensionItemValueMap, constantMap, orgUnitCountMap, days, NEVER_SKIP, null );
+
+        if ( denominatorValue == null )
         {
             return null;
         }
 
-        final double denominatorValue = calculateExpression( denominatorExpression );
-
         if ( !isEqual( denominatorValue, 0d ) )
         {
-            final String numeratorExpression = generateExpression( indicator.getNumerator(), valueMap,
-                constantMap, orgUnitCountMap, days, NEVER_SKIP );
+            final Double numeratorValue = evaluateExpression( indicator.getNumerator(), valueMap,
+                dimensionItemValueMap, constantMap, orgUnitCountMap, days, NEVER_SKIP, null );
 
-            if ( numeratorExpression == null )
+            if ( numeratorValue == null )
             {
                 return null;
             }
 
-            final double numeratorValue = calculateExpression( numeratorExpression );
-
             final double annualizationFactor = period != null ?
                 DateUtils.getAnnualizationFactor( indicator, period.getStartDate(), period.getEndDate() ) : 1d;
             final int factor = indicator.getIndicatorType().getFactor();
@@ -258,11 +272,8 @@ public class DefaultExpressionService
         Map<String, Double> constantMap, Map<String, Integer> orgUnitCountMap, Integer days,
         ListMap<String, Double> aggregateMap )
     {
-        String expressionString = generateExpression( expression.getExpression(),
-            valueMap, constantMap, orgUnitCountMap, days, expression.getMissingValueStrategy(),
-            aggregateMap );
-
-        return expressionString != null ? calculateExpression( expressionString ) : null;
+        return evaluateExpression( expression.getExpression(), valueMap, getDimensionItemValueMap( valueMap ),
+            constantMap, orgUnitCountMap, days, expression.getMissingValueStrategy(), aggregateMap );
     }
 
     @Override
@@ -800,9 +811,7 @@ public class DefaultExpressionService
         
         expression = ExpressionUtils.normalizeExpression( expression );
 
-        Map<String, Double> dimensionItemValueMap = valueMap.entrySet().stream().
-            filter( e -> e.getValue() != null ).
-            collect( Collectors.toMap( e -> e.getKey().getDimensionItem(), e -> e.getValue() ) );
+        Map<String, Double> dimensionItemValueMap = getDimensionItemValueMap( valueMap );
 
         missingValueStrategy = ObjectUtils.firstNonNull( missingValueStrategy, NEVER_SKIP );
 
@@ -1027,4 +1036,65 @@ public class DefaultExpressionService
 
         return TextUtils.appendTail( matcher, sb );
     }
+
+    /**
+     * Evaluates an expression. Uses the compiled form of the expression if the
+     * expression can be compiled, and otherwise generates the expression with
+     * values and calculates it.
+     *
+     * @param expression the expression.
+     * @param valueMap the value map.
+     * @param dimensionItemValueMap the value map keyed on dimension item.
+     * @param constantMap the constant map.
+     * @param orgUnitCountMap the organisation unit count map.
+     * @param days the number of days.
+     * @param missingValueStrategy the missing value strategy.
+     * @param aggregateMap the aggregate map.
+     * @return the value of the expression, or null.
+     */
+    private Double evaluateExpression( String expression, Map<? extends DimensionalItemObject, Double> valueMap,
+        Map<String, Double> dimensionItemValueMap, Map<String, Double> constantMap,
+        Map<String, Integer> orgUnitCountMap, Integer days, MissingValueStrategy missingValueStrategy,
+        Map<String, List<Double>> aggregateMap )
+    {
+        if ( expression == null || expression.isEmpty() )
+        {
+            return null;
+        }
+
+        CompiledExpression compiledExpression = COMPILED_EXPRESSION_CACHE
+            .get( expression, e -> Optional.ofNullable( ExpressionCompiler.compile( e ) ) ).orElse( null );
+
+        if ( compiledExpression != null )
+        {
+            try
+            {
+                return compiledExpression.evaluate( dimensionItemValueMap, constantMap, orgUnitCountMap,
+                    days, missingValueStrategy, aggregateMap );
+            }
+            catch ( EvaluationException ex )
+            {
+                log.debug( "Falling back to expression generation for: " + expression + ", " + ex.getMessage() );
+            }
+        }
+
+        String expressionString = generateExpression( expression, valueMap, constantMap, orgUnitCountMap,
+            days, missingValueStrategy, aggregateMap );
+
+        return expressionString != null ? calculateExpression( expressionString ) : null;
+    }
+
+    /**
+     * Returns a map of dimension item identifiers and values, excluding null
+     * values.
+     *
+     * @param valueMap the value map.
+     * @return a map of dimension item identifiers and values.
+     */
+    private Map<String, Double> getDimensionItemValueMap( Map<? extends DimensionalItemObject, Double> valueMap )
+    {
+        return valueMap.entrySet().stream().
+            filter( e -> e.getValue() != null ).
+            collect( Collectors.toMap( e -> e.getKey().getDimensionItem(), e -> e.getValue() ) );
+    }
 }
@@ -0,0 +1,588 @@
+package org.hisp.dhis.expression;
+
+/*
+ * Copyright (c) 2004-2018, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+import org.hisp.dhis.expression.CompiledExpression.Aggregate;
+import org.hisp.dhis.expression.CompiledExpression.AggregateFunction;
+import org.hisp.dhis.expression.CompiledExpression.Binary;
+import org.hisp.dhis.expression.CompiledExpression.Constant;
+import org.hisp.dhis.expression.CompiledExpression.Days;
+import org.hisp.dhis.expression.CompiledExpression.EvaluationException;
+import org.hisp.dhis.expression.CompiledExpression.If;
+import org.hisp.dhis.expression.CompiledExpression.IsNull;
+import org.hisp.dhis.expression.CompiledExpression.Literal;
+import org.hisp.dhis.expression.CompiledExpression.Node;
+import org.hisp.dhis.expression.CompiledExpression.OrgUnitGroupCount;
+import org.hisp.dhis.expression.CompiledExpression.SubstitutedPower;
+import org.hisp.dhis.expression.CompiledExpression.Unary;
+import org.hisp.dhis.expression.CompiledExpression.Variable;
+import org.hisp.dhis.system.util.ExpressionUtils;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.DoubleUnaryOperator;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.hisp.dhis.expression.ExpressionService.CONSTANT_PATTERN;
+import static org.hisp.dhis.expression.ExpressionService.DAYS_PATTERN;
+import static org.hisp.dhis.expression.ExpressionService.GROUP_ID;
+import static org.hisp.dhis.expression.ExpressionService.OU_GROUP_PATTERN;
+import static org.hisp.dhis.expression.ExpressionService.VARIABLE_PATTERN;
+
+/**
+ * Parses expressions into {@link CompiledExpression} instances. Supports the
+ * subset of the expression language which can be evaluated natively: numbers,
+ * dimension item variables, constants, organisation unit group counts, days,
+ * the arithmetic, relational and logical operators of JEP, the IF and isNull
+ * functions, the aggregate functions except median and the abs, sqrt, ln and
+ * log functions.
+ * Expressions outside of this subset are not compiled and must be evaluated
+ * with JEP.
+ */
+public class ExpressionCompiler
+{
+    private final String expression;
+
+    private final int length;
+
+    private int pos = 0;
+
+    private final List<Variable> variables = new ArrayList<>();
+
+    private final Set<String> isNullArgs = new HashSet<>();
+
+    private final List<String> aggregates = new ArrayList<>();
+
+    private ExpressionCompiler( String expression )
+    {
+        this.expression = expression;
+        this.length = expression.length();
+    }
+
+    /**
+     * Compiles the given expression.
+     *
+     * @param expression the expression.
+     * @return a {@link CompiledExpression}, or null if the expression is empty
+     *         or cannot be compiled.
+     */
+    public static CompiledExpression compile( String expression )
+    {
+        if ( expression == null || expression.trim().isEmpty() )
+        {
+            return null;
+        }
+
+        ExpressionCompiler compiler = new ExpressionCompiler( ExpressionUtils.normalizeExpression( expression ) );
+
+        try
+        {
+            return compiler.compile();
+        }
+        catch ( CompilationException | EvaluationException ex )
+        {
+            return null;
+        }
+    }
+
+    // -------------------------------------------------------------------------
+    // Recursive descent parser, precedence as in JEP
+    // -------------------------------------------------------------------------
+
+    private CompiledExpression compile()
+    {
+        Node root = parseOr();
+
+        skipWhitespace();
+
+        if ( pos < length )
+        {
+            throw new CompilationException( "Unexpected character at position: " + pos );
+        }
+
+        return new CompiledExpression( root, variables, isNullArgs, aggregates );
+    }
+
+    private Node parseOr()
+    {
+        Node node = parseAnd();
+
+        while ( consume( "||" ) )
+        {
+            node = new Binary( ( l, r ) -> l != 0d || r != 0d ? 1d : 0d, node, parseAnd() );
+        }
+
+        return node;
+    }
+
+    private Node parseAnd()
+    {
+        Node node = parseEquality();
+
+        while ( consume( "&&" ) )
+        {
+            node = new Binary( ( l, r ) -> l != 0d && r != 0d ? 1d : 0d, node, parseEquality() );
+        }
+
+        return node;
+    }
+
+    private Node parseEquality()
+    {
+        Node node = parseRelational();
+
+        while ( true )
+        {
+            if ( consume( "==" ) )
+            {
+                node = new Binary( ( l, r ) -> l == r ? 1d : 0d, node, parseRelational() );
+            }
+            else if ( consume( "!=" ) )
+            {
+                node = new Binary( ( l, r ) -> l != r ? 1d : 0d, node, parseRelational() );
+            }
+            else
+            {
+                return node;
+            }
+        }
+    }
+
+    private Node parseRelational()
+    {
+        Node node = parseAdditive();
+
+        while ( true )
+        {
+            if ( consume( "<=" ) )
+            {
+                node = new Binary( ( l, r ) -> l <= r ? 1d : 0d, node, parseAdditive() );
+            }
+            else if ( consume( ">=" ) )
+            {
+                node = new Binary( ( l, r ) -> l >= r ? 1d : 0d, node, parseAdditive() );
+            }
+            else if ( consume( "<" ) )
+            {
+                node = new Binary( ( l, r ) -> l < r ? 1d : 0d, node, parseAdditive() );
+            }
+            else if ( consume( ">" ) )
+            {
+                node = new Binary( ( l, r ) -> l > r ? 1d : 0d, node, parseAdditive() );
+            }
+            else
+            {
+                return node;
+            }
+        }
+    }
+
+    private Node parseAdditive()
+    {
+        Node node = parseMultiplicative();
+
+        while ( true )
+        {
+            if ( consume( "+" ) )
+            {
+                node = new Binary( ( l, r ) -> l + r, node, parseMultiplicative() );
+            }
+            else if ( consume( "-" ) )
+            {
+                node = new Binary( ( l, r ) -> l - r, node, parseMultiplicative() );
+            }
+            else
+            {
+                return node;
+            }
+        }
+    }
+
+    private Node parseMultiplicative()
+    {
+        Node node = parseUnary();
+
+        while ( true )
+        {
+            if ( consume( "*" ) )
+            {
+                node = new Binary( ( l, r ) -> l * r, node, parseUnary() );
+            }
+            else if ( consume( "/" ) )
+            {
+                node = new Binary( ( l, r ) -> l / r, node, parseUnary() );
+            }
+            else if ( consume( "%" ) )
+            {
+                node = new Binary( ( l, r ) -> l % r, node, parseUnary() );
+            }
+            else
+            {
+                return node;
+            }
+        }
+    }
+
+    private Node parseUnary()
+    {
+        if ( consume( "+" ) )
+        {
+            return parseUnary();
+        }
+        else if ( consume( "-" ) )
+        {
+            return new Unary( v -> -v, parseUnary() );
+        }
+        else if ( peek( "!" ) && !peek( "!=" ) )
+        {
+            consume( "!" );
+            return new Unary( v -> v == 0d ? 1d : 0d, parseUnary() );
+        }
+
+        return parsePower();
+    }
+
+    private Node parsePower()
+    {
+        boolean parenthesized = peek( "(" );
+
+        Node node = parsePrimary();
+
+        if ( consume( "^" ) )
+        {
+            boolean substituted = !parenthesized && ( node instanceof Variable || node instanceof Constant );
+
+            node = substituted ? new SubstitutedPower( node, parseUnary() ) : new Binary( Math::pow, node, parseUnary() );
+        }
+
+        return node;
+    }
+
+    private Node parsePrimary()
+    {
+        skipWhitespace();
+
+        if ( pos >= length )
+        {
+            throw new CompilationException( "Unexpected end of expression" );
+        }
+
+        char c = expression.charAt( pos );
+
+        if ( c == '(' )
+        {
+            pos++;
+            Node node = parseOr();
+            expect( ')' );
+            return node;
+        }
+        else if ( Character.isDigit( c ) || c == '.' )
+        {
+            return parseNumber();
+        }
+        else if ( c == '[' )
+        {
+            lookingAt( DAYS_PATTERN );
+            return new Days();
+        }
+        else if ( c == '#' )
+        {
+            return parseVariable();
+        }
+        else if ( Character.isLetter( c ) )
+        {
+            int start = pos;
+
+            while ( pos < length && ( Character.isLetterOrDigit( expression.charAt( pos ) ) || expression.charAt( pos ) == '_' ) )
+            {
+                pos++;
+            }
+
+            String name = expression.substring( start, pos );
+
+            if ( pos < length && expression.charAt( pos ) == '{' )
+            {
+                pos = start;
+
+                switch ( name )
+                {
+                    case "D":
+                    case "A":
+                    case "I":
+                    case "R":
+                        return parseVariable();
+                    case "C":
+                        return new Constant( lookingAt( CONSTANT_PATTERN ).group( GROUP_ID ) );
+                    case "OUG":
+                        return new OrgUnitGroupCount( lookingAt( OU_GROUP_PATTERN ).group( GROUP_ID ) );
+                    default:
+                        throw new CompilationException( "Unsupported item: " + name );
+                }
+            }
+
+            skipWhitespace();
+            expect( '(' );
+
+            return parseFunction( name );
+        }
+
+        throw new CompilationException( "Unexpected character at position: " + pos );
+    }
+
+    private Node parseNumber()
+    {
+        int start = pos;
+
+        while ( pos < length && ( Character.isDigit( expression.charAt( pos ) ) || expression.charAt( pos ) == '.' ) )
+        {
+            pos++;
+        }
+
+        if ( pos < length && ( expression.charAt( pos ) == 'e' || expression.charAt( pos ) == 'E' ) )
+        {
+            pos++;
+
+            if ( pos < length && ( expression.charAt( pos ) == '+' || expression.charAt( pos ) == '-' ) )
+            {
+                pos++;
+            }
+
+            while ( pos < length && Character.isDigit( expression.charAt( pos ) ) )
+            {
+                pos++;
+            }
+        }
+
+        try
+        {
+            return new Literal( Double.parseDouble( expression.substring( start, pos ) ) );
+        }
+        catch ( NumberFormatException ex )
+        {
+            throw new CompilationException( "Invalid number at position: " + start );
+        }
+    }
+
+    private Node parseVariable()
+    {
+        int start = pos;
+
+        Matcher matcher = lookingAt( VARIABLE_PATTERN );
+
+        Variable variable = new Variable( matcher.group( GROUP_ID ), expression.substring( start, pos ) );
+
+        variables.add( variable );
+
+        return variable;
+    }
+
+    /**
+     * Parses the function with the given name. The position is after the
+     * opening parenthesis.
+     */
+    private Node parseFunction( String name )
+    {
+        String upperName = name.toUpperCase();
+
+        if ( "ISNULL".equals( upperName ) )
+        {
+            return parseIsNull();
+        }
+        else if ( "IF".equals( upperName ) )
+        {
+            Node test = parseOr();
+            expect( ',' );
+            Node valueIfTrue = parseOr();
+            expect( ',' );
+            Node valueIfFalse = parseOr();
+            expect( ')' );
+            return new If( test, valueIfTrue, valueIfFalse );
+        }
+
+        for ( AggregateFunction function : AggregateFunction.values() )
+        {
+            if ( function.name().equals( upperName ) )
+            {
+                return parseAggregate( function );
+            }
+        }
+
+        switch ( name )
+        {
+            case "abs":
+                return parseUnaryFunction( Math::abs );
+            case "sqrt":
+                return parseUnaryFunction( v -> Math.sqrt( nonNegative( v ) ) );
+            case "ln":
+                return parseUnaryFunction( v -> Math.log( nonNegative( v ) ) );
+            case "log":
+                return parseUnaryFunction( v -> Math.log10( nonNegative( v ) ) );
+            default:
+                throw new CompilationException( "Unsupported function: " + name );
+        }
+    }
+
+    private Node parseUnaryFunction( DoubleUnaryOperator operator )
+    {
+        Node arg = parseOr();
+        expect( ')' );
+        return new Unary( operator, arg );
+    }
+
+    /**
+     * Parses an isNull function, which must have a single variable argument.
+     */
+    private Node parseIsNull()
+    {
+        int start = pos;
+        int end = Expression.matchExpression( expression, start );
+
+        if ( end < 0 || expression.charAt( end ) != ')' )
+        {
+            throw new CompilationException( "Invalid isNull function at position: " + start );
+        }
+
+        String arg = expression.substring( start, end ).trim();
+
+        Matcher matcher = VARIABLE_PATTERN.matcher( arg );
+
+        if ( !matcher.matches() )
+        {
+            throw new CompilationException( "Unsupported isNull argument: " + arg );
+        }
+
+        isNullArgs.add( arg );
+
+        pos = end + 1;
+
+        return new IsNull( matcher.group( GROUP_ID ) );
+    }
+
+    /**
+     * Parses an aggregate function. The argument is kept as text as it is the
+     * key of the sample values in the aggregate map.
+     */
+    private Node parseAggregate( AggregateFunction function )
+    {
+        int start = pos;
+        int end = Expression.matchExpression( expression, start );
+
+        if ( end < 0 || expression.charAt( end ) != ')' || expression.charAt( start ) == '<' )
+        {
+            throw new CompilationException( "Unsupported aggregate function at position: " + start );
+        }
+
+        String subExpression = expression.substring( start, end );
+
+        aggregates.add( subExpression );
+
+        pos = end + 1;
+
+        return new Aggregate( function, subExpression );
+    }
+
+    // -------------------------------------------------------------------------
+    // Supportive methods
+    // -------------------------------------------------------------------------
+
+    private static double nonNegative( double value )
+    {
+        if ( value < 0 )
+        {
+            throw new EvaluationException( "Negative argument: " + value );
+        }
+
+        return value;
+    }
+
+    private Matcher lookingAt( Pattern pattern )
+    {
+        Matcher matcher = pattern.matcher( expression );
+        matcher.region( pos, length );
+
+        if ( !matcher.lookingAt() )
+        {
+            throw new CompilationException( "Invalid item at position: " + pos );
+        }
+
+        pos = matcher.end();
+
+        return matcher;
+    }
+
+    private boolean peek( String token )
+    {
+        skipWhitespace();
+
+        return expression.startsWith( token, pos );
+    }
+
+    private boolean consume( String token )
+    {
+        if ( peek( token ) )
+        {
+            pos += token.length();
+            return true;
+        }
+
+        return false;
+    }
+
+    private void expect( char c )
+    {
+        skipWhitespace();
+
+        if ( pos >= length || expression.charAt( pos ) != c )
+        {
+            throw new CompilationException( "Expected '" + c + "' at position: " + pos );
+        }
+
+        pos++;
+    }
+
+    private void skipWhitespace()
+    {
+        while ( pos < length && Character.isWhitespace( expression.charAt( pos ) ) )
+        {
+            pos++;
+        }
+    }
+
+    private static class CompilationException
+        extends RuntimeException
+    {
+        CompilationException( String message )
+        {
+            super( message );
+        }
+    }
+}
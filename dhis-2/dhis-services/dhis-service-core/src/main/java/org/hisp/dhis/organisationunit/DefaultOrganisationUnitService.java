@@ -32,22 +32,22 @@ import com.google.common.collect.Maps;
 import com.google.common.collect.Sets;
 import org.apache.commons.lang3.ObjectUtils;
 import org.hisp.dhis.commons.collection.ListUtils;
-import org.hisp.dhis.commons.filter.FilterUtils;
 import org.hisp.dhis.configuration.ConfigurationService;
 import org.hisp.dhis.dataset.DataSet;
 import org.hisp.dhis.dataset.DataSetService;
 import org.hisp.dhis.hierarchy.HierarchyViolationException;
 import org.hisp.dhis.organisationunit.comparator.OrganisationUnitLevelComparator;
-import org.hisp.dhis.system.filter.OrganisationUnitPolygonCoveringCoordinateFilter;
 import org.hisp.dhis.system.util.GeoUtils;
-import org.hisp.dhis.system.util.ValidationUtils;
 import org.hisp.dhis.user.CurrentUserService;
 import org.hisp.dhis.user.User;
 import org.hisp.dhis.version.VersionService;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
-import java.awt.geom.Point2D;
 import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
 
 import static org.hisp.dhis.common.IdentifiableObjectUtils.getUids;
@@ -61,6 +61,20 @@ public class DefaultOrganisationUnitService
 {
     private static final String LEVEL_PREFIX = "Level ";
 
+    /**
+     * Maximum age of the spatial index in milliseconds, after which it is
+     * rebuilt to pick up changes made by other instances.
+     */
+    private static final long SPATIAL_INDEX_MAX_AGE = TimeUnit.MINUTES.toMillis( 30 );
+
+    /**
+     * Spatial index of organisation unit geometries. Built lazily and cleared
+     * when organisation units are changed.
+     */
+    private volatile OrganisationUnitSpatialIndex spatialIndex;
+
+    private final AtomicLong spatialIndexVersion = new AtomicLong();
+
     // -------------------------------------------------------------------------
     // Dependencies
     // -------------------------------------------------------------------------
@@ -115,6 +129,7 @@ public class DefaultOrganisationUnitService
     public int addOrganisationUnit( OrganisationUnit organisationUnit )
     {
         organisationUnitStore.save( organisationUnit );
+        clearSpatialIndex();
         User user = currentUserService.getCurrentUser();
 
         if ( organisationUnit.getParent() == null && user != null )
@@ -130,12 +145,14 @@ public class DefaultOrganisationUnitService
     public void updateOrganisationUnit( OrganisationUnit organisationUnit )
     {
         organisationUnitStore.update( organisationUnit );
+        clearSpatialIndex();
     }
 
     @Override
     public void updateOrganisationUnitVersion()
     {
         versionService.updateVersion( VersionService.ORGANISATIONUNIT_VERSION );
+        clearSpatialIndex();
     }
 
     @Override
@@ -165,6 +182,7 @@ public class DefaultOrganisationUnitService
         }
 
         organisationUnitStore.delete( organisationUnit );
+        clearSpatialIndex();
     }
 
     @Override
@@ -675,12 +693,20 @@ public class DefaultOrganisationUnitService
     public void updatePaths()
     {
         organisationUnitStore.updatePaths();
+        organisationUnitStore.updateOrganisationUnitClosure();
     }
 
     @Override
     public void forceUpdatePaths()
     {
         organisationUnitStore.forceUpdatePaths();
+        organisationUnitStore.forceUpdateOrganisationUnitClosure();
+    }
+
+    @Override
+    public void updateOrganisationUnitClosure()
+    {
+        organisationUnitStore.updateOrganisationUnitClosure();
     }
 
     /**
@@ -690,32 +716,9 @@ public class DefaultOrganisationUnitService
     public List<OrganisationUnit> getOrganisationUnitWithinDistance( double longitude, double latitude,
         double distance )
     {
-        List<OrganisationUnit> objects = organisationUnitStore.getWithinCoordinateArea( GeoUtils.getBoxShape(
-            longitude, latitude, distance ) );
-
-        // Go through the list and remove the ones located outside radius
-
-        if ( objects != null && objects.size() > 0 )
-        {
-            Iterator<OrganisationUnit> iter = objects.iterator();
-
-            Point2D centerPoint = new Point2D.Double( longitude, latitude );
+        List<Integer> identifiers = getSpatialIndex().getPointsWithinDistance( longitude, latitude, distance );
 
-            while ( iter.hasNext() )
-            {
-                OrganisationUnit orgunit = iter.next();
-
-                double distancebetween = GeoUtils.getDistanceBetweenTwoPoints( centerPoint,
-                    ValidationUtils.getCoordinatePoint2D( orgunit.getCoordinates() ) );
-
-                if ( distancebetween > distance )
-                {
-                    iter.remove();
-                }
-            }
-        }
-
-        return objects;
+        return identifiers.isEmpty() ? new ArrayList<>() : organisationUnitStore.getById( identifiers );
     }
 
     /**
@@ -752,18 +755,12 @@ public class DefaultOrganisationUnitService
 
             if ( topOrgUnit != null )
             {
-                List<OrganisationUnit> orgUnitChildren = new ArrayList<>();
-
-                if ( targetLevel != null )
-                {
-                    orgUnitChildren = getOrganisationUnitsAtLevel( targetLevel, topOrgUnit );
-                }
-                else
-                {
-                    orgUnitChildren = getOrganisationUnitWithChildren( topOrgUnit.getId() );
-                }
+                final OrganisationUnit parent = topOrgUnit;
 
-                FilterUtils.filter( orgUnitChildren, new OrganisationUnitPolygonCoveringCoordinateFilter( longitude, latitude ) );
+                List<OrganisationUnit> orgUnitChildren = getOrganisationUnitsWithPolygonCovering( longitude, latitude ).stream()
+                    .filter( ou -> ou.getPath() != null && ou.getPath().startsWith( parent.getPath() ) )
+                    .filter( ou -> targetLevel == null || ou.getLevel() == targetLevel )
+                    .collect( Collectors.toList() );
 
                 // Get org units with lowest level
 
@@ -810,10 +807,15 @@ public class DefaultOrganisationUnitService
     private List<OrganisationUnit> getTopLevelOrgUnitWithPoint( double longitude, double latitude,
         int searchLevel, int stopLevel )
     {
+        List<OrganisationUnit> orgUnits = getOrganisationUnitsWithPolygonCovering( longitude, latitude );
+
         for ( int i = searchLevel; i <= stopLevel; i++ )
         {
-            List<OrganisationUnit> unitsAtLevel = new ArrayList<>( getOrganisationUnitsAtLevel( i ) );
-            FilterUtils.filter( unitsAtLevel, new OrganisationUnitPolygonCoveringCoordinateFilter( longitude, latitude ) );
+            final int level = i;
+
+            List<OrganisationUnit> unitsAtLevel = orgUnits.stream()
+                .filter( ou -> ou.getLevel() == level )
+                .collect( Collectors.toList() );
 
             if ( unitsAtLevel.size() > 0 )
             {
@@ -823,4 +825,82 @@ public class DefaultOrganisationUnitService
 
         return new ArrayList<>();
     }
+
+    /**
+     * Returns organisation units with a polygon or multi-polygon containing the
+     * given point, looked up through the spatial index.
+     */
+    private List<OrganisationUnit> getOrganisationUnitsWithPolygonCovering( double longitude, double latitude )
+    {
+        List<Integer> identifiers = getSpatialIndex().getPolygonsContaining( longitude, latitude );
+
+        return identifiers.isEmpty() ? new ArrayList<>() : organisationUnitStore.getById( identifiers );
+    }
+
+    /**
+     * Returns the spatial index of organisation unit geometries, building it
+     * if it does not exist or has expired.
+     */
+    private OrganisationUnitSpatialIndex getSpatialIndex()
+    {
+        OrganisationUnitSpatialIndex index = spatialIndex;
+
+        if ( index != null && index.getAge() < SPATIAL_INDEX_MAX_AGE )
+        {
+            return index;
+        }
+
+        synchronized ( spatialIndexVersion )
+        {
+            index = spatialIndex;
+
+            if ( index != null && index.getAge() < SPATIAL_INDEX_MAX_AGE )
+            {
+                return index;
+            }
+
+            long version = spatialIndexVersion.get();
+
+            index = new OrganisationUnitSpatialIndex( organisationUnitStore.getOrganisationUnitGeometries() );
+
+            // Do not publish the index if organisation units were changed while building it
+
+            if ( version == spatialIndexVersion.get() )
+            {
+                spatialIndex = index;
+            }
+
+            return index;
+        }
+    }
+
+    /**
+     * Clears the spatial index when the current transaction commits, or
+     * immediately if there is no transaction. Clearing it earlier would let a
+     * concurrent build read the uncommitted state and publish an outdated index.
+     */
+    private void clearSpatialIndex()
+    {
+        if ( TransactionSynchronizationManager.isSynchronizationActive() )
+        {
+            TransactionSynchronizationManager.registerSynchronization( new TransactionSynchronizationAdapter()
+            {
+                @Override
+                public void afterCommit()
+                {
+                    doClearSpatialIndex();
+                }
+            } );
+        }
+        else
+        {
+            doClearSpatialIndex();
+        }
+    }
+
+    private void doClearSpatialIndex()
+    {
+        spatialIndexVersion.incrementAndGet();
+        spatialIndex = null;
+    }
 }
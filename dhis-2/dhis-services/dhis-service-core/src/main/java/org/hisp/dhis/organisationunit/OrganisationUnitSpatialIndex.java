@@ -0,0 +1,199 @@
+package org.hisp.dhis.organisationunit;
+
+/*
+ * Copyright (c) 2004-2018, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+import com.vividsolutions.jts.geom.Coordinate;
+import com.vividsolutions.jts.geom.Envelope;
+import com.vividsolutions.jts.geom.Geometry;
+import com.vividsolutions.jts.geom.GeometryFactory;
+import com.vividsolutions.jts.geom.Point;
+import com.vividsolutions.jts.index.strtree.STRtree;
+import org.hisp.dhis.system.util.GeoUtils;
+
+import java.awt.geom.Point2D;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * In-memory spatial index of organisation unit geometries, based on STR-trees
+ * of the geometry envelopes. Polygons and points are indexed separately. The
+ * coordinates of each organisation unit are parsed once when the index is
+ * created. The index is immutable and can be queried concurrently.
+ */
+public class OrganisationUnitSpatialIndex
+{
+    private static final GeometryFactory GEOMETRY_FACTORY = new GeometryFactory();
+
+    private final STRtree polygonTree = new STRtree();
+
+    private final STRtree pointTree = new STRtree();
+
+    private final long created = System.currentTimeMillis();
+
+    /**
+     * Creates an index of the given organisation units. Organisation units
+     * without coordinates or with a feature type other than point, polygon or
+     * multi-polygon are ignored.
+     *
+     * @param organisationUnits the organisation units to index.
+     */
+    public OrganisationUnitSpatialIndex( Collection<OrganisationUnit> organisationUnits )
+    {
+        for ( OrganisationUnit organisationUnit : organisationUnits )
+        {
+            FeatureType featureType = organisationUnit.getFeatureType();
+
+            Geometry geometry = GeoUtils.getGeometry( organisationUnit.getCoordinates(), featureType );
+
+            if ( geometry == null || geometry.isEmpty() )
+            {
+                continue;
+            }
+
+            STRtree tree = featureType.isPolygon() ? polygonTree : pointTree;
+
+            tree.insert( geometry.getEnvelopeInternal(), new Entry( organisationUnit.getId(), geometry ) );
+        }
+
+        polygonTree.build();
+        pointTree.build();
+    }
+
+    /**
+     * Returns the identifiers of organisation units with a polygon or
+     * multi-polygon which contains the given point.
+     *
+     * @param longitude the longitude.
+     * @param latitude the latitude.
+     * @return a list of organisation unit identifiers.
+     */
+    public List<Integer> getPolygonsContaining( double longitude, double latitude )
+    {
+        Point point = GEOMETRY_FACTORY.createPoint( new Coordinate( longitude, latitude ) );
+
+        List<Integer> identifiers = new ArrayList<>();
+
+        for ( Entry entry : query( polygonTree, new Envelope( point.getCoordinate() ) ) )
+        {
+            if ( entry.geometry.contains( point ) )
+            {
+                identifiers.add( entry.id );
+            }
+        }
+
+        return identifiers;
+    }
+
+    /**
+     * Returns the identifiers of organisation units with a point located
+     * within the given box shape, as returned by
+     * {@link GeoUtils#getBoxShape(double, double, double)}.
+     *
+     * @param box the box shape.
+     * @return a list of organisation unit identifiers.
+     */
+    public List<Integer> getPointsWithinBox( double[] box )
+    {
+        List<Integer> identifiers = new ArrayList<>();
+
+        for ( Entry entry : query( pointTree, getEnvelope( box ) ) )
+        {
+            identifiers.add( entry.id );
+        }
+
+        return identifiers;
+    }
+
+    /**
+     * Returns the identifiers of organisation units with a point located
+     * within the given distance from the given center point.
+     *
+     * @param longitude the longitude of the center point.
+     * @param latitude the latitude of the center point.
+     * @param distance the distance in meters.
+     * @return a list of organisation unit identifiers.
+     */
+    public List<Integer> getPointsWithinDistance( double longitude, double latitude, double distance )
+    {
+        Envelope envelope = getEnvelope( GeoUtils.getBoxShape( longitude, latitude, distance ) );
+
+        Point2D centerPoint = new Point2D.Double( longitude, latitude );
+
+        List<Integer> identifiers = new ArrayList<>();
+
+        for ( Entry entry : query( pointTree, envelope ) )
+        {
+            Coordinate coordinate = entry.geometry.getCoordinate();
+
+            if ( GeoUtils.getDistanceBetweenTwoPoints( centerPoint, new Point2D.Double( coordinate.x, coordinate.y ) ) <= distance )
+            {
+                identifiers.add( entry.id );
+            }
+        }
+
+        return identifiers;
+    }
+
+    /**
+     * Returns the number of milliseconds since this index was created.
+     */
+    public long getAge()
+    {
+        return System.currentTimeMillis() - created;
+    }
+
+    // -------------------------------------------------------------------------
+    // Supportive methods
+    // -------------------------------------------------------------------------
+
+    @SuppressWarnings( "unchecked" )
+    private List<Entry> query( STRtree tree, Envelope envelope )
+    {
+        return tree.query( envelope );
+    }
+
+    private Envelope getEnvelope( double[] box )
+    {
+        return new Envelope( box[3], box[1], box[2], box[0] );
+    }
+
+    private static class Entry
+    {
+        private final int id;
+
+        private final Geometry geometry;
+
+        private Entry( int id, Geometry geometry )
+        {
+            this.id = id;
+            this.geometry = geometry;
+        }
+    }
+}
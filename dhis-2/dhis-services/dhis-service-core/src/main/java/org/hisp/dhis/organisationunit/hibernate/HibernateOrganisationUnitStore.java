@@ -28,6 +28,9 @@ package org.hisp.dhis.organisationunit.hibernate;
  * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
  */
 
+import com.google.common.collect.Lists;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
 import org.hibernate.Query;
 import org.hibernate.Session;
 import org.hisp.dhis.common.IdentifiableObjectUtils;
@@ -36,6 +39,8 @@ import org.hisp.dhis.common.hibernate.HibernateIdentifiableObjectStore;
 import org.hisp.dhis.commons.util.SqlHelper;
 import org.hisp.dhis.commons.util.TextUtils;
 import org.hisp.dhis.dbms.DbmsManager;
+import org.hisp.dhis.jdbc.StatementBuilder;
+import org.hisp.dhis.organisationunit.FeatureType;
 import org.hisp.dhis.organisationunit.OrganisationUnit;
 import org.hisp.dhis.organisationunit.OrganisationUnitHierarchy;
 import org.hisp.dhis.organisationunit.OrganisationUnitQueryParams;
@@ -47,11 +52,17 @@ import org.springframework.jdbc.core.RowCallbackHandler;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Timestamp;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Date;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
+import java.util.stream.Collectors;
 
 /**
  * @author Kristian Nordal
@@ -60,9 +71,20 @@ public class HibernateOrganisationUnitStore
     extends HibernateIdentifiableObjectStore<OrganisationUnit>
     implements OrganisationUnitStore
 {
+    private static final Log log = LogFactory.getLog( HibernateOrganisationUnitStore.class );
+
+    private static final int CLOSURE_BATCH_SIZE = 10000;
+
     @Autowired
     private DbmsManager dbmsManager;
 
+    private StatementBuilder statementBuilder;
+
+    public void setStatementBuilder( StatementBuilder statementBuilder )
+    {
+        this.statementBuilder = statementBuilder;
+    }
+
     // -------------------------------------------------------------------------
     // OrganisationUnit
     // -------------------------------------------------------------------------
@@ -230,6 +252,22 @@ public class HibernateOrganisationUnitStore
         return getQuery( sql ).list();
     }
 
+    @Override
+    public List<OrganisationUnit> getOrganisationUnitGeometries()
+    {
+        final String sql = "select organisationunitid, featuretype, coordinates from organisationunit " +
+            "where coordinates is not null " +
+            "and featuretype in ('" + FeatureType.POINT.name() + "','" + FeatureType.POLYGON.name() + "','" + FeatureType.MULTI_POLYGON.name() + "')";
+
+        return jdbcTemplate.query( sql, ( rs, rowNum ) -> {
+            OrganisationUnit organisationUnit = new OrganisationUnit();
+            organisationUnit.setId( rs.getInt( "organisationunitid" ) );
+            organisationUnit.setFeatureType( FeatureType.valueOf( rs.getString( "featuretype" ) ) );
+            organisationUnit.setCoordinates( rs.getString( "coordinates" ) );
+            return organisationUnit;
+        } );
+    }
+
     // -------------------------------------------------------------------------
     // OrganisationUnitHierarchy
     // -------------------------------------------------------------------------
@@ -267,6 +305,120 @@ public class HibernateOrganisationUnitStore
         updatePaths( organisationUnits );
     }
 
+    @Override
+    public void updateOrganisationUnitClosure()
+    {
+        getSession().flush();
+
+        Map<Integer, Integer> parents = new HashMap<>();
+        SetMap<Integer, Integer> children = new SetMap<>();
+
+        jdbcTemplate.query( "select organisationunitid, parentid from organisationunit", ( RowCallbackHandler ) rs -> {
+            int id = rs.getInt( 1 );
+            Integer parentId = rs.getObject( 2 ) != null ? rs.getInt( 2 ) : null;
+
+            parents.put( id, parentId );
+
+            if ( parentId != null )
+            {
+                children.putValue( parentId, id );
+            }
+        } );
+
+        Set<Integer> inClosure = new HashSet<>();
+        Map<Integer, Integer> closureParents = new HashMap<>();
+
+        jdbcTemplate.query( "select descendantid, ancestorid, depth from orgunitclosure where depth <= 1", ( RowCallbackHandler ) rs -> {
+            if ( rs.getInt( 3 ) == 0 )
+            {
+                inClosure.add( rs.getInt( 1 ) );
+            }
+            else
+            {
+                closureParents.put( rs.getInt( 1 ), rs.getInt( 2 ) );
+            }
+        } );
+
+        // Organisation units which are new or moved, including their subtrees
+
+        Deque<Integer> stale = new ArrayDeque<>();
+
+        parents.forEach( ( id, parentId ) -> {
+            if ( !inClosure.contains( id ) || !Objects.equals( parentId, closureParents.get( id ) ) )
+            {
+                stale.add( id );
+            }
+        } );
+
+        if ( stale.isEmpty() )
+        {
+            return;
+        }
+
+        Set<Integer> affected = new HashSet<>();
+
+        while ( !stale.isEmpty() )
+        {
+            Integer id = stale.poll();
+
+            if ( affected.add( id ) && children.containsKey( id ) )
+            {
+                stale.addAll( children.get( id ) );
+            }
+        }
+
+        jdbcTemplate.batchUpdate( "delete from orgunitclosure where descendantid = ?",
+            affected.stream().map( id -> new Object[] { id } ).collect( Collectors.toList() ) );
+
+        List<Object[]> rows = new ArrayList<>();
+
+        for ( Integer id : affected )
+        {
+            Set<Integer> visited = new HashSet<>();
+            Integer ancestor = id;
+            int depth = 0;
+
+            while ( ancestor != null && visited.add( ancestor ) ) // Protect against cyclic graphs
+            {
+                rows.add( new Object[] { ancestor, id, depth++ } );
+                ancestor = parents.get( ancestor );
+            }
+
+            if ( rows.size() >= CLOSURE_BATCH_SIZE )
+            {
+                insertClosureRows( rows );
+                rows.clear();
+            }
+        }
+
+        insertClosureRows( rows );
+
+        log.info( String.format( "Updated organisation unit closure for %d organisation units", affected.size() ) );
+    }
+
+    @Override
+    public void forceUpdateOrganisationUnitClosure()
+    {
+        jdbcTemplate.update( "delete from orgunitclosure" );
+
+        updateOrganisationUnitClosure();
+    }
+
+    /**
+     * Inserts the given closure rows. Rows which exist already are skipped, as
+     * concurrent closure updates may insert the same rows.
+     */
+    private void insertClosureRows( List<Object[]> rows )
+    {
+        if ( !rows.isEmpty() )
+        {
+            String sql = statementBuilder.getInsertIgnoreDuplicate( "orgunitclosure",
+                Lists.newArrayList( "ancestorid", "descendantid", "depth" ), Lists.newArrayList( "ancestorid", "descendantid" ) );
+
+            jdbcTemplate.batchUpdate( sql, rows );
+        }
+    }
+
     @Override
     public int getMaxLevel()
     {
@@ -28,9 +28,13 @@ package org.hisp.dhis.program;
  * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
  */
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import com.google.common.collect.ImmutableMap;
+import com.google.common.hash.Hashing;
 
 import org.apache.commons.lang.StringUtils;
+import org.hisp.dhis.analytics.AggregationType;
 import org.hisp.dhis.common.IdentifiableObjectStore;
 import org.hisp.dhis.commons.sqlfunc.ConditionalSqlFunction;
 import org.hisp.dhis.commons.sqlfunc.DaysBetweenSqlFunction;
@@ -44,6 +48,7 @@ import org.hisp.dhis.commons.sqlfunc.ZeroIfNegativeSqlFunction;
 import org.hisp.dhis.commons.sqlfunc.ZeroPositiveValueCountFunction;
 import org.hisp.dhis.commons.sqlfunc.HasValueSqlFunction;
 import org.hisp.dhis.commons.util.ExpressionUtils;
+import org.hisp.dhis.commons.util.SystemUtils;
 import org.hisp.dhis.commons.util.TextUtils;
 import org.hisp.dhis.constant.Constant;
 import org.hisp.dhis.constant.ConstantService;
@@ -59,10 +64,14 @@ import org.hisp.dhis.trackedentity.TrackedEntityAttributeService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
 import java.util.Date;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.TimeUnit;
 import java.util.regex.Matcher;
 
 import static org.apache.commons.lang3.StringUtils.trim;
@@ -100,6 +109,16 @@ public class DefaultProgramIndicatorService
         .put( ProgramIndicator.VAR_TEI_COUNT, "1" ).put( ProgramIndicator.VAR_VALUE_COUNT, "1" )
         .put( ProgramIndicator.VAR_ZERO_POS_VALUE_COUNT, "1" ).build();
 
+    /**
+     * Cache for whether program indicators can be materialized. Key is the
+     * program indicator identifier, last updated timestamp, analytics type,
+     * expression and filter. Disabled during test phase.
+     */
+    private static final Cache<List<Object>, Boolean> MATERIALIZABLE_CACHE = Caffeine.newBuilder()
+        .expireAfterAccess( 1, TimeUnit.HOURS )
+        .maximumSize( SystemUtils.isTestRun() ? 0 : 10000 )
+        .build();
+
     // -------------------------------------------------------------------------
     // Dependencies
     // -------------------------------------------------------------------------
@@ -433,6 +452,57 @@ public class DefaultProgramIndicatorService
         return TextUtils.appendTail( matcher, buffer );
     }
 
+    @Override
+    public boolean isMaterializable( ProgramIndicator programIndicator )
+    {
+        if ( !Boolean.TRUE.equals( programIndicator.getMaterializeInAnalytics() ) || programIndicator.getExpression() == null ||
+            AggregationType.CUSTOM == programIndicator.getAggregationTypeFallback() )
+        {
+            return false;
+        }
+
+        List<Object> key = Arrays.asList( programIndicator.getUid(), programIndicator.getLastUpdated(),
+            programIndicator.getAnalyticsType(), programIndicator.getExpression(), programIndicator.getFilter() );
+
+        return MATERIALIZABLE_CACHE.get( key, k -> isPeriodIndependent( programIndicator ) );
+    }
+
+    @Override
+    public String getMaterializedColumnName( ProgramIndicator programIndicator )
+    {
+        Date start = DateUtils.getMediumDate( "2000-01-01" );
+        Date end = DateUtils.getMediumDate( "2000-12-31" );
+
+        String key = programIndicator.getAnalyticsType() + "|" + 
+            getAnalyticsSQl( programIndicator.getExpression(), programIndicator, start, end ) + "|" + 
+            getAnalyticsSQl( programIndicator.getFilter(), programIndicator, false, start, end );
+
+        String hash = Hashing.sha1().hashString( key, StandardCharsets.UTF_8 ).toString().substring( 0, 10 );
+
+        return programIndicator.getUid() + "_" + hash;
+    }
+
+    /**
+     * Indicates whether the SQL of the expression and filter of the given
+     * program indicator does not depend on the reporting period, by comparing
+     * the SQL generated for two unrelated reporting periods.
+     */
+    private boolean isPeriodIndependent( ProgramIndicator programIndicator )
+    {
+        Date startA = DateUtils.getMediumDate( "2000-01-01" );
+        Date endA = DateUtils.getMediumDate( "2000-12-31" );
+        Date startB = DateUtils.getMediumDate( "2001-02-01" );
+        Date endB = DateUtils.getMediumDate( "2001-02-28" );
+
+        String expression = programIndicator.getExpression();
+        String filter = programIndicator.getFilter();
+
+        return Objects.equals( getAnalyticsSQl( expression, programIndicator, startA, endA ),
+            getAnalyticsSQl( expression, programIndicator, startB, endB ) ) &&
+            Objects.equals( getAnalyticsSQl( filter, programIndicator, false, startA, endA ),
+                getAnalyticsSQl( filter, programIndicator, false, startB, endB ) );
+    }
+
     public String getAnyValueExistsClauseAnalyticsSql( String expression, AnalyticsType analyticsType )
     {
         Set<String> uids = ProgramIndicator.getDataElementAndAttributeIdentifiers( expression, analyticsType );
@@ -32,6 +32,8 @@ import org.hisp.dhis.system.deletion.DeletionHandler;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.jdbc.core.JdbcTemplate;
 
+import java.util.Collection;
+
 /**
  * @author Chau Thu Tran
  */
@@ -86,4 +88,18 @@ public class ProgramStageInstanceDeletionHandler
 
         return jdbcTemplate.queryForObject( sql, Integer.class ) == 0 ? null : ERROR;
     }
+
+    @Override
+    public boolean isBulkDeletionSupported( Class<?> clazz )
+    {
+        return Program.class.equals( clazz );
+    }
+
+    @Override
+    public String allowDeleteAll( Class<?> clazz, Collection<?> objects )
+    {
+        String sql = "SELECT COUNT(*) FROM programstageinstance psi join programinstance pi on pi.programinstanceid=psi.programinstanceid where pi.programid in (" + getIdentifiers( objects ) + ")";
+
+        return jdbcTemplate.queryForObject( sql, Integer.class ) == 0 ? null : ERROR;
+    }
 }
@@ -133,6 +133,44 @@ public class DefaultProgramRuleEngineService
         return ruleEffects;
     }
 
+    @Override
+    public Map<String, List<RuleEffect>> evaluate( ProgramInstance programInstance, Collection<ProgramStageInstance> programStageInstances )
+    {
+        if ( !containsImplementableActions( programInstance ) )
+        {
+            return new HashMap<>();
+        }
+
+        log.info( String.format( "RuleEngine triggered for %d events", programStageInstances.size() ) );
+
+        Map<String, List<RuleEffect>> ruleEffectsMap = new HashMap<>();
+
+        try
+        {
+            ruleEffectsMap = programRuleEngine.evaluateEvents( programInstance, programStageInstances );
+        }
+        catch( Exception ex )
+        {
+            log.error( DebugUtils.getStackTrace( ex ) );
+            log.error( DebugUtils.getStackTrace( ex.getCause() ) );
+        }
+
+        for ( ProgramStageInstance programStageInstance : programStageInstances )
+        {
+            for ( RuleEffect effect : ruleEffectsMap.getOrDefault( programStageInstance.getUid(), new ArrayList<>() ) )
+            {
+                ruleActionImplementers.stream().filter( i -> i.accept( effect.ruleAction() ) ).forEach( i ->
+                {
+                    log.info( String.format( "Invoking action implementer: %s", i.getClass().getSimpleName() ) );
+
+                    i.implement( effect, programStageInstance );
+                } );
+            }
+        }
+
+        return ruleEffectsMap;
+    }
+
     private boolean containsImplementableActions( ProgramInstance programInstance )
     {
         if ( programInstance == null )
@@ -28,9 +28,12 @@ package org.hisp.dhis.programrule.engine;
  * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
  */
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.hisp.dhis.commons.util.DebugUtils;
+import org.hisp.dhis.commons.util.SystemUtils;
 import org.hisp.dhis.organisationunit.OrganisationUnit;
 import org.hisp.dhis.organisationunit.OrganisationUnitGroup;
 import org.hisp.dhis.organisationunit.OrganisationUnitGroupService;
@@ -44,6 +47,9 @@ import org.hisp.dhis.rules.models.*;
 import org.springframework.beans.factory.annotation.Autowired;
 
 import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
 /**
@@ -53,6 +59,21 @@ public class ProgramRuleEngine
 {
     private static final Log log = LogFactory.getLog( ProgramRuleEngine.class );
 
+    private static final Pattern IN_ORG_UNIT_GROUP_PATTERN = Pattern.compile( "d2:inOrgUnitGroup\\(\\s*['\"]([^'\"]+)['\"]\\s*\\)" );
+
+    /**
+     * Cache for rule engine contexts, keyed by program uid. A context holds the
+     * mapped rules, rule variables and supplementary data of a program and is
+     * immutable, so it can be shared between evaluations. Entries are evicted on
+     * metadata import through {@link #invalidateCache()}, and expire after a
+     * while to pick up changes made outside the metadata importer.
+     */
+    private static final Cache<String, RuleEngineContext> RULE_ENGINE_CONTEXT_CACHE = Caffeine.newBuilder()
+        .expireAfterWrite( 10, TimeUnit.MINUTES )
+        .initialCapacity( 20 )
+        .maximumSize( SystemUtils.isTestRun() ? 0 : 500 )
+        .build();
+
     @Autowired
     private ProgramRuleEntityMapperService programRuleEntityMapperService;
 
@@ -76,16 +97,12 @@ public class ProgramRuleEngine
         }
 
         List<RuleEffect> ruleEffects = new ArrayList<>();
-        
-        List<ProgramRule> implementableProgramRules = getImplementableRules( enrollment.getProgram() );
-
-        List<ProgramRuleVariable> programRuleVariables = programRuleVariableService.getProgramRuleVariable( enrollment.getProgram() );
 
         RuleEnrollment ruleEnrollment = programRuleEntityMapperService.toMappedRuleEnrollment( enrollment );
 
         List<RuleEvent> ruleEvents = programRuleEntityMapperService.toMappedRuleEvents( enrollment.getProgramStageInstances() );
 
-        RuleEngine ruleEngine = ruleEngineBuilder( implementableProgramRules, programRuleVariables ).events( ruleEvents ).build();
+        RuleEngine ruleEngine = ruleEngineBuilder( enrollment.getProgram() ).events( ruleEvents ).build();
 
         try
         {
@@ -114,15 +131,11 @@ public class ProgramRuleEngine
 
         ProgramInstance enrollment = programStageInstance.getProgramInstance();
 
-        List<ProgramRule> implementableProgramRules = getImplementableRules( enrollment.getProgram() );
-
-        List<ProgramRuleVariable> programRuleVariables = programRuleVariableService.getProgramRuleVariable( enrollment.getProgram() );
-
         RuleEnrollment ruleEnrollment = programRuleEntityMapperService.toMappedRuleEnrollment( enrollment );
 
         List<RuleEvent> ruleEvents = programRuleEntityMapperService.toMappedRuleEvents( enrollment.getProgramStageInstances(), programStageInstance );
 
-        RuleEngine ruleEngine = ruleEngineBuilder( implementableProgramRules, programRuleVariables ).enrollment( ruleEnrollment ).events( ruleEvents ).build();
+        RuleEngine ruleEngine = ruleEngineBuilder( enrollment.getProgram() ).enrollment( ruleEnrollment ).events( ruleEvents ).build();
 
         try
         {
@@ -140,20 +153,134 @@ public class ProgramRuleEngine
         return ruleEffects;
     }
 
-    private RuleEngine.Builder ruleEngineBuilder( List<ProgramRule> programRules, List<ProgramRuleVariable> programRuleVariables )
+    /**
+     * Evaluates the given events of an enrollment against a single rule engine
+     * instance. The events of the enrollment which are not part of the batch are
+     * used as context for the evaluation, while the events in the batch are
+     * evaluated independently of each other.
+     *
+     * @param enrollment the enrollment of the events.
+     * @param programStageInstances the events to evaluate.
+     * @return a mapping from event uid to the rule effects of the event.
+     */
+    public Map<String, List<RuleEffect>> evaluateEvents( ProgramInstance enrollment, Collection<ProgramStageInstance> programStageInstances )
     {
-        Map<String, List<String>> supplementaryData = new HashMap<>();
+        Map<String, List<RuleEffect>> ruleEffectsMap = new HashMap<>();
+
+        if ( enrollment == null || programStageInstances == null || programStageInstances.isEmpty() )
+        {
+            return ruleEffectsMap;
+        }
+
+        Set<String> batchUids = programStageInstances.stream().map( ProgramStageInstance::getUid ).collect( Collectors.toSet() );
+
+        Set<ProgramStageInstance> contextEvents = enrollment.getProgramStageInstances().stream()
+            .filter( psi -> !batchUids.contains( psi.getUid() ) )
+            .collect( Collectors.toSet() );
+
+        RuleEnrollment ruleEnrollment = programRuleEntityMapperService.toMappedRuleEnrollment( enrollment );
+
+        List<RuleEvent> ruleEvents = programRuleEntityMapperService.toMappedRuleEvents( contextEvents );
+
+        RuleEngine ruleEngine = ruleEngineBuilder( enrollment.getProgram() ).enrollment( ruleEnrollment ).events( ruleEvents ).build();
+
+        for ( ProgramStageInstance programStageInstance : programStageInstances )
+        {
+            List<RuleEffect> ruleEffects = new ArrayList<>();
+
+            try
+            {
+                ruleEffects = ruleEngine.evaluate( programRuleEntityMapperService.toMappedRuleEvent( programStageInstance ) ).call();
+
+                ruleEffects.stream().map( RuleEffect::ruleAction )
+                    .forEach( action -> log.info( String.format( "RuleEngine triggered with result: %s", action.toString() ) ) );
+            }
+            catch ( Exception e )
+            {
+                log.error( DebugUtils.getStackTrace( e ) );
+                log.error( DebugUtils.getStackTrace( e.getCause() ) );
+            }
+
+            ruleEffectsMap.put( programStageInstance.getUid(), ruleEffects );
+        }
+
+        return ruleEffectsMap;
+    }
+
+    /**
+     * Invalidates all cached rule engine contexts. Should be invoked when program
+     * rules, program rule variables or organisation unit groups are changed.
+     */
+    public void invalidateCache()
+    {
+        RULE_ENGINE_CONTEXT_CACHE.invalidateAll();
+    }
 
-        List<OrganisationUnitGroup> groups = organisationUnitGroupService.getAllOrganisationUnitGroups();
+    private RuleEngine.Builder ruleEngineBuilder( Program program )
+    {
+        return RULE_ENGINE_CONTEXT_CACHE.get( program.getUid(), uid -> getRuleEngineContext( program ) )
+            .toEngineBuilder().triggerEnvironment( TriggerEnvironment.SERVER );
+    }
+
+    private RuleEngineContext getRuleEngineContext( Program program )
+    {
+        List<ProgramRule> programRules = getImplementableRules( program );
 
-        groups.stream().forEach( group -> supplementaryData.put( group.getUid(), group.getMembers().stream().map( OrganisationUnit::getUid ).collect( Collectors.toList() ) ) );
+        List<ProgramRuleVariable> programRuleVariables = programRuleVariableService.getProgramRuleVariable( program );
 
         return RuleEngineContext
             .builder( programRuleExpressionEvaluator )
-            .supplementaryData( supplementaryData )
+            .supplementaryData( getSupplementaryData( programRules ) )
             .rules( programRuleEntityMapperService.toMappedProgramRules( programRules ) )
             .ruleVariables( programRuleEntityMapperService.toMappedProgramRuleVariables( programRuleVariables ) )
-            .build().toEngineBuilder().triggerEnvironment( TriggerEnvironment.SERVER );
+            .build();
+    }
+
+    /**
+     * Returns the members of the organisation unit groups which are referenced
+     * by the d2:inOrgUnitGroup function in the conditions and action data of
+     * the given rules, keyed by group uid. Groups which are not referenced are
+     * not included, so programs without such rules carry no group data.
+     */
+    private Map<String, List<String>> getSupplementaryData( List<ProgramRule> programRules )
+    {
+        Set<String> groupUids = new HashSet<>();
+
+        for ( ProgramRule rule : programRules )
+        {
+            addOrgUnitGroupUids( rule.getCondition(), groupUids );
+
+            rule.getProgramRuleActions().forEach( action -> addOrgUnitGroupUids( action.getData(), groupUids ) );
+        }
+
+        Map<String, List<String>> supplementaryData = new HashMap<>();
+
+        for ( String groupUid : groupUids )
+        {
+            OrganisationUnitGroup group = organisationUnitGroupService.getOrganisationUnitGroup( groupUid );
+
+            if ( group != null )
+            {
+                supplementaryData.put( group.getUid(), group.getMembers().stream().map( OrganisationUnit::getUid ).collect( Collectors.toList() ) );
+            }
+        }
+
+        return supplementaryData;
+    }
+
+    private void addOrgUnitGroupUids( String expression, Set<String> groupUids )
+    {
+        if ( expression == null )
+        {
+            return;
+        }
+
+        Matcher matcher = IN_ORG_UNIT_GROUP_PATTERN.matcher( expression );
+
+        while ( matcher.find() )
+        {
+            groupUids.add( matcher.group( 1 ) );
+        }
     }
 
     private List<ProgramRule> getImplementableRules( Program program )
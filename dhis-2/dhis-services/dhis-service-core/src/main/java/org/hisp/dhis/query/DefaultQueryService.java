@@ -97,6 +97,19 @@ public class DefaultQueryService
         return queryObjects( query ).size();
     }
 
+    @Override
+    public boolean isPersistedQuery( Query query )
+    {
+        if ( query.getObjects() != null )
+        {
+            return false;
+        }
+
+        QueryPlan queryPlan = queryPlanner.planQuery( Query.from( query ) );
+
+        return queryPlan.getNonPersistedQuery().isEmpty();
+    }
+
     @Override
     public Query getQueryFromUrl( Class<?> klass, List<String> filters, List<Order> orders ) throws QueryParserException
     {
@@ -65,6 +65,17 @@ public interface QueryService
      */
     int count( Query query );
 
+    /**
+     * Returns true if the given query can be resolved entirely by the persistence
+     * layer, meaning that all filters, orders and paging are applied in the database
+     * and no in-memory processing is needed. Planning the query may modify its
+     * junctions, so a new query instance should be used for the actual querying.
+     *
+     * @param query Query instance to check
+     * @return true if the query can be paged by the database
+     */
+    boolean isPersistedQuery( Query query );
+
     /**
      * Create a query instance from a given set of filters (property:operator:value), and
      * a list of orders.
@@ -28,8 +28,8 @@ package org.hisp.dhis.reservedvalue;
  * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
  */
 
-import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.hisp.dhis.textpattern.TextPattern;
@@ -40,12 +40,23 @@ import org.hisp.dhis.textpattern.TextPatternSegment;
 import org.hisp.dhis.textpattern.TextPatternService;
 import org.hisp.dhis.textpattern.TextPatternValidationUtils;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Date;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.TimeoutException;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
@@ -59,6 +70,30 @@ public class DefaultReservedValueService
 
     private static final long GENERATION_TIMEOUT = (1000 * 30); // 30 sec
 
+    /**
+     * Number of sequential values allocated from the counter store per round
+     * trip when refilling the pool of an owner.
+     */
+    private static final int SEQUENTIAL_POOL_BLOCK_SIZE = 200;
+
+    /**
+     * Pool size below which a refill is scheduled in the background.
+     */
+    private static final int SEQUENTIAL_POOL_LOW_WATERMARK = SEQUENTIAL_POOL_BLOCK_SIZE / 4;
+
+    /**
+     * Minimum number of potential values of a sequential segment for pooling
+     * to be used. Pooled values are lost on restart, which is only acceptable
+     * when the value space is large.
+     */
+    private static final long SEQUENTIAL_POOL_MIN_POTENTIAL = 100_000;
+
+    /**
+     * Maximum number of random candidates generated per missing value before
+     * giving up on the current attempt.
+     */
+    private static final int RANDOM_CANDIDATE_FACTOR = 10;
+
     @Autowired
     private TextPatternService textPatternService;
 
@@ -68,6 +103,22 @@ public class DefaultReservedValueService
     @Autowired
     private SequentialNumberCounterStore sequentialNumberCounterStore;
 
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    /**
+     * Sequential values already allocated from the counter store, keyed on
+     * owner uid and segment parameter. Values are committed in the counter
+     * when allocated, so a pooled value is never handed out twice even if it
+     * ends up not being reserved.
+     */
+    private final Map<String, Deque<Integer>> sequentialPools = new ConcurrentHashMap<>();
+
+    private final Set<String> refillsInProgress = ConcurrentHashMap.newKeySet();
+
+    private final ExecutorService refillExecutor = Executors.newSingleThreadExecutor(
+        new ThreadFactoryBuilder().setNameFormat( "reserved-value-pool-%d" ).setDaemon( true ).build() );
+
     private final Log log = LogFactory.getLog( DefaultReservedValueService.class );
 
     @Override
@@ -106,7 +157,9 @@ public class DefaultReservedValueService
             return reservedValueStore.reserveValues( reservedValue, Lists.newArrayList( key ) );
         }
 
-        List<String> usedGeneratedValues = new ArrayList<>();
+        String rawSegment = generatedSegment.getRawSegment();
+
+        Set<String> usedGeneratedValues = new HashSet<>();
 
         int numberOfValuesLeftToGenerate = numberOfReservations;
 
@@ -119,32 +172,23 @@ public class DefaultReservedValueService
                     throw new TimeoutException( "Generation and reservation of values took too long" );
                 }
 
-                List<String> resolvedPatterns = new ArrayList<>();
-
-                List<String> generatedValues = new ArrayList<>();
+                List<String> generatedValues = generateValues( textPattern, generatedSegment,
+                    numberOfValuesLeftToGenerate, usedGeneratedValues );
 
-                int maxGenerateAttempts = 10;
+                usedGeneratedValues.addAll( generatedValues );
 
-                while ( generatedValues.size() < numberOfValuesLeftToGenerate && maxGenerateAttempts-- > 0 )
-                {
-                    generatedValues.addAll( generateValues( textPattern, numberOfReservations - resultList.size() ) );
-                    generatedValues.removeAll( usedGeneratedValues );
-                }
+                // The key holds the raw generated segment, the remaining
+                // segments are identical for every value in the batch
 
-                usedGeneratedValues.addAll( generatedValues );
+                List<String> resolvedPatterns = generatedValues.stream()
+                    .map( value -> key.replace( rawSegment, value ) )
+                    .collect( Collectors.toList() );
 
-                // Get a list of resolved patterns.
-                for ( int i = 0; i < numberOfReservations - resultList.size(); i++ )
+                if ( !resolvedPatterns.isEmpty() )
                 {
-                    resolvedPatterns.add( textPatternService.resolvePattern( textPattern,
-                        ImmutableMap.<String, String>builder()
-                            .putAll( values )
-                            .put( generatedSegment.getMethod().name(), generatedValues.get( i ) )
-                            .build() ) );
+                    resultList.addAll( reservedValueStore.reserveValues( reservedValue, resolvedPatterns ) );
                 }
 
-                resultList.addAll( reservedValueStore.reserveValues( reservedValue, resolvedPatterns ) );
-
                 numberOfValuesLeftToGenerate = numberOfReservations - resultList.size();
             }
         }
@@ -181,30 +225,116 @@ public class DefaultReservedValueService
             .orElse( null );
     }
 
-    private List<String> generateValues( TextPattern textPattern, int numberOfValues )
+    private List<String> generateValues( TextPattern textPattern, TextPatternSegment segment, int numberOfValues,
+        Set<String> usedValues )
     {
         List<String> generatedValues = new ArrayList<>();
-        TextPatternSegment segment = getGeneratedSegment( textPattern );
 
         if ( segment.getMethod().equals( TextPatternMethod.SEQUENTIAL ) )
         {
-            generatedValues.addAll( sequentialNumberCounterStore
-                .getNextValues( textPattern.getOwnerUid(), segment.getParameter(), numberOfValues )
-                .stream()
-                .map( ( n ) -> String.format( "%0" + segment.getParameter().length() + "d", n ) )
-                .collect( Collectors.toList() ) );
+            String format = "%0" + segment.getParameter().length() + "d";
+
+            getSequentialValues( segment, textPattern.getOwnerUid(), numberOfValues )
+                .forEach( n -> generatedValues.add( String.format( format, n ) ) );
         }
         else if ( segment.getMethod().equals( TextPatternMethod.RANDOM ) )
         {
-            for ( int i = 0; i < numberOfValues; i++ )
+            Set<String> candidates = new LinkedHashSet<>();
+            int maxCandidates = numberOfValues * RANDOM_CANDIDATE_FACTOR;
+
+            for ( int i = 0; i < maxCandidates && candidates.size() < numberOfValues; i++ )
             {
-                generatedValues.add( TextPatternMethodUtils.generateRandom( new Random(), segment.getParameter() ) );
+                String candidate = TextPatternMethodUtils.generateRandom( ThreadLocalRandom.current(), segment.getParameter() );
+
+                if ( !usedValues.contains( candidate ) )
+                {
+                    candidates.add( candidate );
+                }
             }
+
+            generatedValues.addAll( candidates );
         }
 
         return generatedValues;
     }
 
+    /**
+     * Takes the given number of sequential values from the pool of the owner,
+     * allocating a new block from the counter store when the pool cannot serve
+     * the request and scheduling a background refill when it runs low. Small
+     * value spaces go straight to the counter store.
+     */
+    private List<Integer> getSequentialValues( TextPatternSegment segment, String ownerUid, int numberOfValues )
+    {
+        String key = segment.getParameter();
+
+        if ( TextPatternValidationUtils.getTotalValuesPotential( segment ) < SEQUENTIAL_POOL_MIN_POTENTIAL )
+        {
+            return sequentialNumberCounterStore.getNextValues( ownerUid, key, numberOfValues );
+        }
+
+        String poolKey = ownerUid + ":" + key;
+
+        Deque<Integer> pool = sequentialPools.computeIfAbsent( poolKey, k -> new ArrayDeque<>() );
+
+        List<Integer> values = new ArrayList<>( numberOfValues );
+
+        synchronized ( pool )
+        {
+            if ( pool.size() < numberOfValues )
+            {
+                pool.addAll( allocateSequentialBlock( ownerUid, key,
+                    Math.max( numberOfValues - pool.size(), SEQUENTIAL_POOL_BLOCK_SIZE ) ) );
+            }
+
+            while ( values.size() < numberOfValues )
+            {
+                values.add( pool.poll() );
+            }
+
+            if ( pool.size() < SEQUENTIAL_POOL_LOW_WATERMARK && refillsInProgress.add( poolKey ) )
+            {
+                refillExecutor.execute( () -> refillSequentialPool( poolKey, pool, ownerUid, key ) );
+            }
+        }
+
+        return values;
+    }
+
+    private void refillSequentialPool( String poolKey, Deque<Integer> pool, String ownerUid, String key )
+    {
+        try
+        {
+            List<Integer> block = allocateSequentialBlock( ownerUid, key, SEQUENTIAL_POOL_BLOCK_SIZE );
+
+            synchronized ( pool )
+            {
+                pool.addAll( block );
+            }
+        }
+        catch ( Exception ex )
+        {
+            log.warn( String.format( "Refill of sequential value pool for %s failed", poolKey ), ex );
+        }
+        finally
+        {
+            refillsInProgress.remove( poolKey );
+        }
+    }
+
+    /**
+     * Allocates a block of values in a separate transaction, so that the
+     * counter row lock is released immediately and the allocation survives a
+     * rollback of the calling transaction.
+     */
+    private List<Integer> allocateSequentialBlock( String ownerUid, String key, int size )
+    {
+        TransactionTemplate transactionTemplate = new TransactionTemplate( transactionManager );
+        transactionTemplate.setPropagationBehavior( TransactionDefinition.PROPAGATION_REQUIRES_NEW );
+
+        return transactionTemplate.execute( status -> sequentialNumberCounterStore.getNextValues( ownerUid, key, size ) );
+    }
+
     private boolean hasEnoughValuesLeft( ReservedValue reservedValue, long totalValues, int valuesRequired )
     {
         int used = reservedValueStore.getNumberOfUsedValues( reservedValue );
@@ -28,12 +28,17 @@ package org.hisp.dhis.reservedvalue.hibernate;
  * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
  */
 
+import com.google.common.collect.Lists;
 import org.hibernate.Session;
 import org.hibernate.SessionFactory;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hisp.dhis.jdbc.StatementBuilder;
 import org.hisp.dhis.reservedvalue.SequentialNumberCounter;
 import org.hisp.dhis.reservedvalue.SequentialNumberCounterStore;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.io.Serializable;
 import java.util.List;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
@@ -52,30 +57,71 @@ public class HibernateSequentialNumberCounterStore
         this.sessionFactory = sessionFactory;
     }
 
+    protected JdbcTemplate jdbcTemplate;
+
+    public void setJdbcTemplate( JdbcTemplate jdbcTemplate )
+    {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    protected StatementBuilder statementBuilder;
+
+    public void setStatementBuilder( StatementBuilder statementBuilder )
+    {
+        this.statementBuilder = statementBuilder;
+    }
+
     @Override
     public List<Integer> getNextValues( String uid, String key, int length )
     {
         Session session = sessionFactory.getCurrentSession();
 
-        int count;
-
-        SequentialNumberCounter counter = (SequentialNumberCounter) session
-            .createQuery( "FROM SequentialNumberCounter WHERE owneruid = ? AND key = ?" )
-            .setParameter( 0, uid )
-            .setParameter( 1, key )
-            .uniqueResult();
+        // Increment in the database so that the row is locked until the
+        // transaction ends and concurrent requests get disjoint blocks
 
-        if ( counter == null )
+        if ( incrementCounter( session, uid, key, length ) == 0 )
         {
-            counter = new SequentialNumberCounter( uid, key, 1 );
+            insertCounterIfAbsent( session, uid, key );
+
+            incrementCounter( session, uid, key, length );
         }
 
-        count = counter.getCounter();
-        counter.setCounter( count + length );
-        session.saveOrUpdate( counter );
+        int count = (Integer) session
+            .createQuery( "SELECT counter FROM SequentialNumberCounter WHERE ownerUid = :uid AND key = :key" )
+            .setParameter( "uid", uid )
+            .setParameter( "key", key )
+            .uniqueResult();
+
+        return IntStream.range( count - length, count ).boxed().collect( Collectors.toList() );
+    }
+
+    private int incrementCounter( Session session, String uid, String key, int length )
+    {
+        return session
+            .createQuery( "UPDATE SequentialNumberCounter SET counter = counter + :length WHERE ownerUid = :uid AND key = :key" )
+            .setParameter( "length", length )
+            .setParameter( "uid", uid )
+            .setParameter( "key", key )
+            .executeUpdate();
+    }
+
+    /**
+     * Inserts a counter starting at 1 unless one exists, also when it is
+     * inserted by a concurrent transaction, in which case the insert waits
+     * for that transaction and the subsequent increment locks its row.
+     */
+    private void insertCounterIfAbsent( Session session, String uid, String key )
+    {
+        SharedSessionContractImplementor sessionImplementor = (SharedSessionContractImplementor) session;
+
+        Serializable id = sessionImplementor.getFactory()
+            .getIdentifierGenerator( SequentialNumberCounter.class.getName() )
+            .generate( sessionImplementor, null );
 
-        return IntStream.range( count, count + length ).boxed().collect( Collectors.toList() );
+        String sql = statementBuilder.getInsertIgnoreDuplicate( "sequentialnumbercounter",
+            Lists.newArrayList( "id", "owneruid", "key", "counter" ), Lists.newArrayList( "owneruid", "key" ) );
 
+        jdbcTemplate.update( sql, id, uid, key, 1 );
     }
 
     @Override
@@ -28,9 +28,9 @@ package org.hisp.dhis.sms;
  * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
  */
 
-import java.util.ArrayList;
 import java.util.Collection;
-import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
 
 import org.hisp.dhis.sms.incoming.IncomingSms;
 import org.hisp.dhis.sms.incoming.IncomingSmsStore;
@@ -39,7 +39,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 public class DatabaseSupportedInternalMemoryMessageQueue
     implements MessageQueue
 {
-    private List<IncomingSms> queue = new ArrayList<>();
+    private final Queue<IncomingSms> queue = new ConcurrentLinkedQueue<>();
 
     // -------------------------------------------------------------------------
     // Dependencies
@@ -61,12 +61,7 @@ public class DatabaseSupportedInternalMemoryMessageQueue
     @Override
     public IncomingSms get()
     {
-        if ( queue != null && queue.size() > 0 )
-        {
-            return queue.get( 0 );
-        }
-
-        return null;
+        return queue.peek();
     }
 
     @Override
@@ -28,25 +28,58 @@ package org.hisp.dhis.sms;
  * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
  */
 
-import java.util.List;
-
-import javax.annotation.Resource;
-
+import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
+import org.hisp.dhis.external.conf.ConfigurationKey;
+import org.hisp.dhis.external.conf.DhisConfigurationProvider;
 import org.hisp.dhis.message.MessageSender;
+import org.hisp.dhis.sms.command.SMSCommand;
+import org.hisp.dhis.sms.command.SMSCommandService;
 import org.hisp.dhis.sms.incoming.IncomingSms;
 import org.hisp.dhis.sms.incoming.IncomingSmsListener;
 import org.hisp.dhis.sms.incoming.IncomingSmsService;
 import org.hisp.dhis.sms.incoming.SmsMessageStatus;
+import org.hisp.dhis.sms.parse.ParserType;
+import org.hisp.dhis.system.util.SmsUtils;
 import org.springframework.beans.factory.annotation.Autowired;
 
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.annotation.Resource;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Consumes the incoming SMS queue. Messages are partitioned on their
+ * originator and the partitions are processed concurrently by a pool of
+ * workers, so that messages from the same phone are processed in the order
+ * they were received. Messages are dispatched to the listener registered for
+ * the parser type of the SMS command matching their command keyword, and the
+ * listeners are only probed one by one for messages without such a command.
+ * Listeners save the status of the messages they handle within their own
+ * transaction. Messages which are not handled by a listener are saved in
+ * batches with the status set by the consumer.
+ */
 public class SmsConsumerThread
 {
     private static final Log log = LogFactory.getLog( SmsConsumerThread.class );
 
+    private static final int STATUS_BATCH_SIZE = 500;
+
     private List<IncomingSmsListener> listeners;
 
+    private Map<ParserType, IncomingSmsListener> listenersByParserType = new EnumMap<>( ParserType.class );
+
     @Autowired
     private MessageQueue messageQueue;
 
@@ -57,52 +90,102 @@ public class SmsConsumerThread
     @Autowired
     private IncomingSmsService incomingSmsService;
 
+    @Autowired
+    private SMSCommandService smsCommandService;
+
+    @Autowired
+    private DhisConfigurationProvider configurationProvider;
+
+    private int workers;
+
+    private ExecutorService executor;
+
     public SmsConsumerThread()
     {
     }
 
+    @PostConstruct
+    public void init()
+    {
+        workers = Math.max( 1, Integer.parseInt( configurationProvider.getProperty( ConfigurationKey.SMS_CONSUMER_WORKERS ) ) );
+
+        executor = Executors.newFixedThreadPool( workers,
+            new ThreadFactoryBuilder().setNameFormat( "sms-consumer-%d" ).setDaemon( true ).build() );
+    }
+
+    @PreDestroy
+    public void destroy()
+    {
+        executor.shutdownNow();
+    }
+
     public void spawnSmsConsumer()
     {
+        List<IncomingSms> messages = new ArrayList<>();
+
         IncomingSms message = messageQueue.get();
 
         while ( message != null )
         {
-            log.info( "Received SMS: " + message.getText() );
-            
-            try
-            {
-                for ( IncomingSmsListener listener : listeners )
-                {
-                    if ( listener.accept( message ) )
-                    {
-                        listener.receive( message );
-                        messageQueue.remove( message );
-                        return;
-                    }
-                }
+            messageQueue.remove( message );
+            messages.add( message );
+            message = messageQueue.get();
+        }
 
-                log.warn( "No SMS command found in received data" );
+        if ( messages.isEmpty() )
+        {
+            return;
+        }
 
-                message.setStatus( SmsMessageStatus.UNHANDLED );
+        Map<String, ParserType> keywords = getCommandKeywords();
 
-                smsSender.sendMessage( null, "No command found", message.getOriginator() );
-            }
-            catch ( Exception e )
-            {
-                e.printStackTrace();
+        List<List<IncomingSms>> partitions = new ArrayList<>();
 
-                message.setStatus( SmsMessageStatus.FAILED );
-                message.setParsed( false );
-            }
-            finally
+        for ( int i = 0; i < workers; i++ )
+        {
+            partitions.add( new ArrayList<>() );
+        }
+
+        for ( IncomingSms sms : messages )
+        {
+            partitions.get( Math.floorMod( StringUtils.defaultString( sms.getOriginator() ).hashCode(), workers ) ).add( sms );
+        }
+
+        List<Future<List<IncomingSms>>> futures = new ArrayList<>();
+
+        for ( List<IncomingSms> partition : partitions )
+        {
+            if ( !partition.isEmpty() )
             {
-                messageQueue.remove( message );
+                futures.add( executor.submit( () -> consume( partition, keywords ) ) );
+            }
+        }
 
-                incomingSmsService.update( message );
+        List<IncomingSms> unhandled = new ArrayList<>();
 
-                message = messageQueue.get();
+        for ( Future<List<IncomingSms>> future : futures )
+        {
+            try
+            {
+                unhandled.addAll( future.get() );
             }
+            catch ( InterruptedException ex )
+            {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            catch ( ExecutionException ex )
+            {
+                log.error( "SMS consumer worker failed", ex.getCause() );
+            }
+        }
+
+        for ( List<IncomingSms> batch : Lists.partition( unhandled, STATUS_BATCH_SIZE ) )
+        {
+            incomingSmsService.update( batch );
         }
+
+        log.info( String.format( "Consumed %d SMS with %d workers", messages.size(), futures.size() ) );
     }
 
     @Autowired
@@ -110,6 +193,123 @@ public class SmsConsumerThread
     {
         this.listeners = listeners;
 
+        for ( IncomingSmsListener listener : listeners )
+        {
+            if ( listener.getParserType() != null )
+            {
+                listenersByParserType.put( listener.getParserType(), listener );
+            }
+        }
+
         log.info( "Following listners are registered: " + listeners );
     }
+
+    // -------------------------------------------------------------------------
+    // Supportive methods
+    // -------------------------------------------------------------------------
+
+    /**
+     * Consumes the given messages in order and returns the messages which were
+     * not handled by a listener, with the status set by the consumer.
+     */
+    private List<IncomingSms> consume( List<IncomingSms> messages, Map<String, ParserType> keywords )
+    {
+        List<IncomingSms> unhandled = new ArrayList<>();
+
+        for ( IncomingSms message : messages )
+        {
+            if ( !consume( message, keywords ) )
+            {
+                unhandled.add( message );
+            }
+        }
+
+        return unhandled;
+    }
+
+    /**
+     * Dispatches the given message to its listener. Returns true if the
+     * message was handled by a listener, false if no listener was found or
+     * the listener failed.
+     */
+    private boolean consume( IncomingSms message, Map<String, ParserType> keywords )
+    {
+        log.info( "Received SMS: " + message.getText() );
+
+        try
+        {
+            IncomingSmsListener listener = getListener( message, keywords );
+
+            if ( listener != null )
+            {
+                listener.receive( message );
+                return true;
+            }
+
+            log.warn( "No SMS command found in received data" );
+
+            message.setStatus( SmsMessageStatus.UNHANDLED );
+
+            smsSender.sendMessage( null, "No command found", message.getOriginator() );
+        }
+        catch ( Exception e )
+        {
+            log.error( "Failed to process SMS", e );
+
+            message.setStatus( SmsMessageStatus.FAILED );
+            message.setParsed( false );
+        }
+
+        return false;
+    }
+
+    /**
+     * Returns the listener for the given message. The listener registered for
+     * the parser type of the SMS command named by the command keyword of the
+     * message is returned without probing, as accepting a message only means
+     * that such a command exists. The listeners are probed only for messages
+     * without an exactly named command, which covers commands matched on part
+     * of their name.
+     */
+    private IncomingSmsListener getListener( IncomingSms message, Map<String, ParserType> keywords )
+    {
+        String command = message.getText() != null ? SmsUtils.getCommandString( message ) : null;
+
+        ParserType parserType = command != null ? keywords.get( command.toLowerCase() ) : null;
+
+        IncomingSmsListener listener = parserType != null ? listenersByParserType.get( parserType ) : null;
+
+        if ( listener != null )
+        {
+            return listener;
+        }
+
+        for ( IncomingSmsListener candidate : listeners )
+        {
+            if ( candidate.accept( message ) )
+            {
+                return candidate;
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * Returns a mapping from lower case SMS command name to parser type.
+     */
+    private Map<String, ParserType> getCommandKeywords()
+    {
+        Map<String, ParserType> keywords = new HashMap<>();
+
+        for ( SMSCommand command : smsCommandService.getSMSCommands() )
+        {
+            if ( command.getName() != null && command.getParserType() != null )
+            {
+                keywords.put( command.getName().toLowerCase(), command.getParserType() );
+            }
+        }
+
+        return keywords;
+    }
 }
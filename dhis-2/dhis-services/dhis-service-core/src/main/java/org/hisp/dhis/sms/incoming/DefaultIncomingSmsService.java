@@ -28,12 +28,14 @@ package org.hisp.dhis.sms.incoming;
  * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
  */
 
+import java.util.Collection;
 import java.util.Date;
 import java.util.List;
 
 import org.apache.commons.lang3.StringUtils;
 import org.hisp.dhis.sms.MessageQueue;
 import org.hisp.dhis.user.User;
+import org.springframework.transaction.annotation.Transactional;
 
 public class DefaultIncomingSmsService
     implements IncomingSmsService
@@ -136,6 +138,16 @@ public class DefaultIncomingSmsService
         incomingSmsStore.update( incomingSms );
     }
 
+    @Override
+    @Transactional
+    public void update( Collection<IncomingSms> smses )
+    {
+        for ( IncomingSms sms : smses )
+        {
+            incomingSmsStore.update( sms );
+        }
+    }
+
     @Override
     public List<IncomingSms> getSmsByStatus( SmsMessageStatus status, String keyword )
     {
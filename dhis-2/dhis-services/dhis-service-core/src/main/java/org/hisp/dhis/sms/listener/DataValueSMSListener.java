@@ -158,6 +158,12 @@ public class DataValueSMSListener
         update( sms,  SmsMessageStatus.PROCESSED, true );
     }
 
+    @Override
+    public ParserType getParserType()
+    {
+        return ParserType.KEY_VALUE_PARSER;
+    }
+
     @Override
     protected SMSCommand getSMSCommand( IncomingSms sms )
     {
@@ -150,6 +150,12 @@ public class J2MEDataValueSMSListener
         this.sendSuccessFeedback( senderPhoneNumber, smsCommand, parsedMessage, period, orgUnit );
     }
 
+    @Override
+    public ParserType getParserType()
+    {
+        return ParserType.J2ME_PARSER;
+    }
+
     @Override
     protected SMSCommand getSMSCommand( IncomingSms sms )
     {
@@ -129,6 +129,12 @@ public class TrackedEntityRegistrationSMSListener
         update( sms,  SmsMessageStatus.PROCESSED, true );
     }
 
+    @Override
+    public ParserType getParserType()
+    {
+        return ParserType.TRACKED_ENTITY_REGISTRATION_PARSER;
+    }
+
     @Override
     protected SMSCommand getSMSCommand( IncomingSms sms )
     {
@@ -36,6 +36,10 @@ import org.hisp.quick.StatementManager;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
 /**
  * @author Lars Helge Overland
  */
@@ -50,6 +54,19 @@ public class InitTableAlteror
     @Autowired
     private StatementBuilder statementBuilder;
 
+    @Autowired
+    private MigrationLedger migrationLedger;
+
+    /**
+     * Checksums of the statements applied in previous startups.
+     */
+    private Set<String> appliedStatements = new HashSet<>();
+
+    /**
+     * Checksums of the statements applied in this startup.
+     */
+    private Set<String> executedStatements = new LinkedHashSet<>();
+
     // -------------------------------------------------------------------------
     // Execute
     // -------------------------------------------------------------------------
@@ -58,12 +75,15 @@ public class InitTableAlteror
     @Transactional
     public void execute()
     {
-        executeSql( "update dataelement set domaintype='AGGREGATE' where domaintype='aggregate' or domaintype is null;" );
+        appliedStatements = migrationLedger.getAppliedChecksums( getName() );
+        executedStatements = new LinkedHashSet<>();
+
+        executeSqlAlways( "update dataelement set domaintype='AGGREGATE' where domaintype='aggregate' or domaintype is null;" );
         executeSql( "update dataelement set domaintype='TRACKER' where domaintype='patient';" );
-        executeSql( "update users set invitation = false where invitation is null" );
-        executeSql( "update users set selfregistered = false where selfregistered is null" );
-        executeSql( "update users set externalauth = false where externalauth is null" );
-        executeSql( "update users set disabled = false where disabled is null" );
+        executeSqlAlways( "update users set invitation = false where invitation is null" );
+        executeSqlAlways( "update users set selfregistered = false where selfregistered is null" );
+        executeSqlAlways( "update users set externalauth = false where externalauth is null" );
+        executeSqlAlways( "update users set disabled = false where disabled is null" );
         executeSql( "alter table dataelement alter column domaintype set not null;" );
         executeSql( "alter table programstageinstance alter column  status  type varchar(25);" );
         executeSql( "UPDATE programstageinstance SET status='ACTIVE' WHERE status='0';" );
@@ -89,32 +109,32 @@ public class InitTableAlteror
 
         // Update userkeyjsonvalue and keyjsonvalue to set new encrypted column to false.
 
-        executeSql( "UPDATE keyjsonvalue SET encrypted = false WHERE encrypted IS NULL" );
-        executeSql( "UPDATE userkeyjsonvalue SET encrypted = false WHERE encrypted IS NULL" );
+        executeSqlAlways( "UPDATE keyjsonvalue SET encrypted = false WHERE encrypted IS NULL" );
+        executeSqlAlways( "UPDATE userkeyjsonvalue SET encrypted = false WHERE encrypted IS NULL" );
 
         // Set messages "ticket" properties to non-null values
 
-        executeSql( "UPDATE message SET internal = FALSE WHERE internal IS NULL" );
-        executeSql( "UPDATE messageconversation SET priority = 'NONE' WHERE priority IS NULL" );
-        executeSql( "UPDATE messageconversation SET status = 'NONE' WHERE status IS NULL" );
+        executeSqlAlways( "UPDATE message SET internal = FALSE WHERE internal IS NULL" );
+        executeSqlAlways( "UPDATE messageconversation SET priority = 'NONE' WHERE priority IS NULL" );
+        executeSqlAlways( "UPDATE messageconversation SET status = 'NONE' WHERE status IS NULL" );
 
         updateMessageConversationMessageCount();
 
         // Set OrganisationUnitGroupSet includeSubhierarchyInAnalytics to false where IS NULL
-        executeSql( "UPDATE orgunitgroupset SET includesubhierarchyinanalytics = FALSE WHERE includesubhierarchyinanalytics IS NULL" );
+        executeSqlAlways( "UPDATE orgunitgroupset SET includesubhierarchyinanalytics = FALSE WHERE includesubhierarchyinanalytics IS NULL" );
 
         // Update programstageinstance set deleted = false where deleted = null
-        executeSql( "UPDATE programstageinstance SET deleted = false WHERE deleted IS NULL" );
+        executeSqlAlways( "UPDATE programstageinstance SET deleted = false WHERE deleted IS NULL" );
         executeSql( "alter table programstageinstance alter column deleted set not null" );
         executeSql( "create index in_programstageinstance_deleted on programstageinstace(deleted)" );
 
         // Update trackedentityinstance set deleted = false where deleted = null
-        executeSql( "UPDATE trackedentityinstance SET deleted = false WHERE deleted IS NULL" );
+        executeSqlAlways( "UPDATE trackedentityinstance SET deleted = false WHERE deleted IS NULL" );
         executeSql( "alter table trackedentityinstance alter column deleted set not null" );
         executeSql( "create index in_trackedentityinstance_deleted on trackedentityinstance(deleted)" );
 
         // Update programinstance set deleted = false where deleted = null
-        executeSql( "UPDATE programinstance SET deleted = false WHERE deleted IS NULL" );
+        executeSqlAlways( "UPDATE programinstance SET deleted = false WHERE deleted IS NULL" );
         executeSql( "alter table programinstance alter column deleted set not null" );
         executeSql( "create index in_programinstance_deleted on programinstance(deleted)" );
 
@@ -127,36 +147,36 @@ public class InitTableAlteror
         // Message Conversation Message Type
         updateMessageConversationMessageTypes();
 
-        executeSql( "UPDATE expression SET slidingWindow = FALSE WHERE slidingWindow IS NULL" );
-        executeSql( "UPDATE validationResult set notificationsent = false WHERE notificationsent is null" );
+        executeSqlAlways( "UPDATE expression SET slidingWindow = FALSE WHERE slidingWindow IS NULL" );
+        executeSqlAlways( "UPDATE validationResult set notificationsent = false WHERE notificationsent is null" );
 
-        executeSql( "UPDATE trackedentityinstance SET featuretype = 'NONE' WHERE featuretype IS NULL " );
+        executeSqlAlways( "UPDATE trackedentityinstance SET featuretype = 'NONE' WHERE featuretype IS NULL " );
         updateTrackedEntityAttributePatternAndTextPattern();
 
         // 2FA fixes for 2.30
-        executeSql( "UPDATE users set twofa = false where twofa is null" );
+        executeSqlAlways( "UPDATE users set twofa = false where twofa is null" );
         executeSql( "ALTER TABLE  users alter column twofa set not null" );
 
         // Update trackedentityattribute set skipsynchronization = false where skipsynchronization = null
-        executeSql( "UPDATE trackedentityattribute SET skipsynchronization = false WHERE skipsynchronization IS NULL" );
+        executeSqlAlways( "UPDATE trackedentityattribute SET skipsynchronization = false WHERE skipsynchronization IS NULL" );
         executeSql( "ALTER TABLE trackedentityattribute ALTER COLUMN skipsynchronization SET NOT NULL" );
 
         // alter/update lastsynchronized column in trackedentityinstance to: NOT NULL, DEFAULT to_timestamp(0)
-        executeSql( "UPDATE trackedentityinstance SET lastsynchronized = to_timestamp(0) WHERE lastsynchronized IS NULL;" ); //Do not remove this line if some cleanup will ever happen
+        executeSqlAlways( "UPDATE trackedentityinstance SET lastsynchronized = to_timestamp(0) WHERE lastsynchronized IS NULL;" ); //Do not remove this line if some cleanup will ever happen
         executeSql( "ALTER TABLE trackedentityinstance ALTER COLUMN lastsynchronized SET NOT NULL" );
         executeSql( "ALTER TABLE trackedentityinstance ALTER COLUMN lastsynchronized SET DEFAULT to_timestamp(0)" );
 
         // alter/update lastsynchronized column in programstageinstance to: NOT NULL, DEFAULT to_timestamp(0)
-        executeSql( "UPDATE programstageinstance SET lastsynchronized = to_timestamp(0) WHERE lastsynchronized IS NULL" );  //Do not remove this line if some cleanup will ever happen
+        executeSqlAlways( "UPDATE programstageinstance SET lastsynchronized = to_timestamp(0) WHERE lastsynchronized IS NULL" );  //Do not remove this line if some cleanup will ever happen
         executeSql( "ALTER TABLE programstageinstance ALTER COLUMN lastsynchronized SET NOT NULL" );
         executeSql( "ALTER TABLE programstageinstance ALTER COLUMN lastsynchronized SET DEFAULT to_timestamp(0)" );
 
         // Update trackedentityattribute set skipsynchronization = false where skipsynchronization = null
-        executeSql( "UPDATE programstagedataelement SET skipsynchronization = false WHERE skipsynchronization IS NULL" );
+        executeSqlAlways( "UPDATE programstagedataelement SET skipsynchronization = false WHERE skipsynchronization IS NULL" );
         executeSql( "ALTER TABLE programstagedataelement ALTER COLUMN skipsynchronization SET NOT NULL" );
 
-        executeSql( "UPDATE programstage SET featuretype = 'POINT' WHERE capturecoordinates = true AND featuretype IS NULL" );
-        executeSql( "UPDATE programstage SET featuretype = 'NONE' WHERE capturecoordinates = false AND featuretype IS NULL" );
+        executeSqlAlways( "UPDATE programstage SET featuretype = 'POINT' WHERE capturecoordinates = true AND featuretype IS NULL" );
+        executeSqlAlways( "UPDATE programstage SET featuretype = 'NONE' WHERE capturecoordinates = false AND featuretype IS NULL" );
         updateAndRemoveOldProgramStageInstanceCoordinates();
 
         //Remove createddate column from trackedentitycomment table
@@ -175,6 +195,8 @@ public class InitTableAlteror
         executeSql( "UPDATE dataelementcategoryoption SET publicaccess = 'rwrw----' WHERE code = 'default'" );
         executeSql( "UPDATE dataelementcategory SET publicaccess = 'rw------' WHERE code = 'default'" );
         executeSql( "UPDATE categorycombo SET publicaccess = 'rw------' WHERE code = 'default'" );
+
+        migrationLedger.addAppliedChecksums( getName(), executedStatements );
     }
 
     private void addGenerateUidFunction()
@@ -212,7 +234,7 @@ public class InitTableAlteror
     private void updateTrackedEntityAttributePatternAndTextPattern()
     {
         // Create textpattern jsonb
-        executeSql( "UPDATE trackedentityattribute SET textpattern = concat('{\"ownerUid\": \"', uid, '\",\"segments\": [{\"parameter\": \"', pattern, '\",\"method\": \"RANDOM\"}],\"ownerObject\": \"TRACKEDENTITYATTRIBUTE\"}')::jsonb WHERE pattern SIMILAR TO '#+' AND generated = true AND textpattern IS NULL" );
+        executeSqlAlways( "UPDATE trackedentityattribute SET textpattern = concat('{\"ownerUid\": \"', uid, '\",\"segments\": [{\"parameter\": \"', pattern, '\",\"method\": \"RANDOM\"}],\"ownerObject\": \"TRACKEDENTITYATTRIBUTE\"}')::jsonb WHERE pattern SIMILAR TO '#+' AND generated = true AND textpattern IS NULL" );
 
         // Update pattern to match new syntax
         executeSql( "UPDATE trackedentityattribute SET pattern = concat('RANDOM(', pattern, ')') WHERE pattern SIMILAR TO '#+' AND generated = true AND textpattern IS NOT NULL" );
@@ -232,16 +254,16 @@ public class InitTableAlteror
     private void updateMessageConversationMessageTypes()
     {
         // Tickets has status != NONE
-        executeSql( "UPDATE messageconversation SET messagetype = 'TICKET' WHERE messagetype IS NULL AND status != 'NONE'" );
+        executeSqlAlways( "UPDATE messageconversation SET messagetype = 'TICKET' WHERE messagetype IS NULL AND status != 'NONE'" );
 
         // Validation results existing ValidationResults always start with "Alerts as of%"
-        executeSql( "UPDATE messageconversation SET messagetype = 'VALIDATION_RESULT' WHERE messagetype IS NULL AND ( subject LIKE 'Alerts as of%' OR subject LIKE 'DHIS alerts as of%' )" );
+        executeSqlAlways( "UPDATE messageconversation SET messagetype = 'VALIDATION_RESULT' WHERE messagetype IS NULL AND ( subject LIKE 'Alerts as of%' OR subject LIKE 'DHIS alerts as of%' )" );
 
         // System Always have no user "owner"
-        executeSql( "UPDATE messageconversation SET messagetype = 'SYSTEM' WHERE messagetype IS NULL AND userid IS NULL" );
+        executeSqlAlways( "UPDATE messageconversation SET messagetype = 'SYSTEM' WHERE messagetype IS NULL AND userid IS NULL" );
 
         // Direct messages is what is left
-        executeSql( "UPDATE messageconversation SET messagetype = 'PRIVATE' WHERE messagetype IS NULL" );
+        executeSqlAlways( "UPDATE messageconversation SET messagetype = 'PRIVATE' WHERE messagetype IS NULL" );
 
         executeSql( "ALTER TABLE messageconversation ALTER COLUMN messagetype set not null" );
     }
@@ -291,8 +313,8 @@ public class InitTableAlteror
 
     private void updateCompletedBy()
     {
-        executeSql( "update programinstance set completedby=completeduser where completedby is null" );
-        executeSql( "update programstageinstance set completedby=completeduser where completedby is null" );
+        executeSqlAlways( "update programinstance set completedby=completeduser where completedby is null" );
+        executeSqlAlways( "update programstageinstance set completedby=completeduser where completedby is null" );
 
         executeSql( "alter table programinstance drop column completeduser" );
         executeSql( "alter table programstageinstance drop column completeduser" );
@@ -322,14 +344,14 @@ public class InitTableAlteror
 
     private void updateTimestamps()
     {
-        executeSql( "update datavalueaudit set created=timestamp where created is null" );
-        executeSql( "update datavalueaudit set created=now() where created is null" );
+        executeSqlAlways( "update datavalueaudit set created=timestamp where created is null" );
+        executeSqlAlways( "update datavalueaudit set created=now() where created is null" );
         executeSql( "alter table datavalueaudit drop column timestamp" );
 
-        executeSql( "update trackedentitydatavalue set created=timestamp where created is null" );
-        executeSql( "update trackedentitydatavalue set lastupdated=timestamp where lastupdated is null" );
-        executeSql( "update trackedentityattributevalue set created=now() where created is null" );
-        executeSql( "update trackedentityattributevalue set lastupdated=now() where lastupdated is null" );
+        executeSqlAlways( "update trackedentitydatavalue set created=timestamp where created is null" );
+        executeSqlAlways( "update trackedentitydatavalue set lastupdated=timestamp where lastupdated is null" );
+        executeSqlAlways( "update trackedentityattributevalue set created=now() where created is null" );
+        executeSqlAlways( "update trackedentityattributevalue set lastupdated=now() where lastupdated is null" );
         executeSql( "alter table trackedentitydatavalue drop column timestamp" );
     }
 
@@ -341,7 +363,7 @@ public class InitTableAlteror
         executeSql( "update programinstance set status='COMPLETED' where status='1'" );
         executeSql( "update programinstance set status='CANCELLED' where status='2'" );
 
-        executeSql( "update programinstance set status='ACTIVE' where status is null" );
+        executeSqlAlways( "update programinstance set status='ACTIVE' where status is null" );
     }
 
     private void updateValidationRuleEnums()
@@ -351,12 +373,12 @@ public class InitTableAlteror
 
         executeSql( "update validationrule set ruletype='VALIDATION' where ruletype='validation'" );
         executeSql( "update validationrule set ruletype='SURVEILLANCE' where ruletype='surveillance'" );
-        executeSql( "update validationrule set ruletype='VALIDATION' where ruletype='' or ruletype is null" );
+        executeSqlAlways( "update validationrule set ruletype='VALIDATION' where ruletype='' or ruletype is null" );
 
         executeSql( "update validationrule set importance='HIGH' where importance='high'" );
         executeSql( "update validationrule set importance='MEDIUM' where importance='medium'" );
         executeSql( "update validationrule set importance='LOW' where importance='low'" );
-        executeSql( "update validationrule set importance='MEDIUM' where importance='' or importance is null" );
+        executeSqlAlways( "update validationrule set importance='MEDIUM' where importance='' or importance is null" );
     }
 
     private void updateFeatureTypes()
@@ -366,7 +388,7 @@ public class InitTableAlteror
         executeSql( "update organisationunit set featuretype='POLYGON' where featuretype='Polygon'" );
         executeSql( "update organisationunit set featuretype='POINT' where featuretype='Point'" );
         executeSql( "update organisationunit set featuretype='SYMBOL' where featuretype='Symbol'" );
-        executeSql( "update organisationunit set featuretype='NONE' where featuretype is null" );
+        executeSqlAlways( "update organisationunit set featuretype='NONE' where featuretype is null" );
     }
 
     private void updateAggregationTypes()
@@ -386,7 +408,7 @@ public class InitTableAlteror
         executeSql( "update dataelement set aggregationtype='DEFAULT' where aggregationtype='default'" );
         executeSql( "update dataelement set aggregationtype='CUSTOM' where aggregationtype='custom'" );
 
-        executeSql( "update dataelement set aggregationtype='SUM' where aggregationtype is null" );
+        executeSqlAlways( "update dataelement set aggregationtype='SUM' where aggregationtype is null" );
     }
 
     private void updateValueTypes()
@@ -402,13 +424,13 @@ public class InitTableAlteror
         executeSql( "update dataelement set valuetype='INTEGER_ZERO_OR_POSITIVE' where valuetype='int' and numbertype='zeroPositiveInt'" );
         executeSql( "update dataelement set valuetype='PERCENTAGE' where valuetype='int' and numbertype='percentage'" );
         executeSql( "update dataelement set valuetype='UNIT_INTERVAL' where valuetype='int' and numbertype='unitInterval'" );
-        executeSql( "update dataelement set valuetype='NUMBER' where valuetype='int' and numbertype is null" );
+        executeSqlAlways( "update dataelement set valuetype='NUMBER' where valuetype='int' and numbertype is null" );
 
         executeSql( "alter table dataelement drop column numbertype" );
 
         executeSql( "update dataelement set valuetype='TEXT' where valuetype='string' and texttype='text'" );
         executeSql( "update dataelement set valuetype='LONG_TEXT' where valuetype='string' and texttype='longText'" );
-        executeSql( "update dataelement set valuetype='TEXT' where valuetype='string' and texttype is null" );
+        executeSqlAlways( "update dataelement set valuetype='TEXT' where valuetype='string' and texttype is null" );
 
         executeSql( "alter table dataelement drop column texttype" );
 
@@ -418,7 +440,7 @@ public class InitTableAlteror
         executeSql( "update dataelement set valuetype='TRUE_ONLY' where valuetype='trueOnly'" );
         executeSql( "update dataelement set valuetype='USERNAME' where valuetype='username'" );
 
-        executeSql( "update dataelement set valuetype='NUMBER' where valuetype is null" );
+        executeSqlAlways( "update dataelement set valuetype='NUMBER' where valuetype is null" );
 
         executeSql( "update trackedentityattribute set valuetype='TEXT' where valuetype='string'" );
         executeSql( "update trackedentityattribute set valuetype='PHONE_NUMBER' where valuetype='phoneNumber'" );
@@ -433,9 +455,9 @@ public class InitTableAlteror
         executeSql( "update trackedentityattribute set valuetype='TEXT' where valuetype='OPTION_SET'" );
         executeSql( "update trackedentityattribute set valuetype='TRACKER_ASSOCIATE' where valuetype='trackerAssociate'" );
         executeSql( "update trackedentityattribute set valuetype='USERNAME' where valuetype='users'" );
-        executeSql( "update trackedentityattribute set valuetype='TEXT' where valuetype is null" );
+        executeSqlAlways( "update trackedentityattribute set valuetype='TEXT' where valuetype is null" );
 
-        executeSql( "update optionset set valuetype='TEXT' where valuetype is null" );
+        executeSqlAlways( "update optionset set valuetype='TEXT' where valuetype is null" );
 
         executeSql( "update attribute set valuetype='TEXT' where valuetype='string'" );
         executeSql( "update attribute set valuetype='LONG_TEXT' where valuetype='text'" );
@@ -446,7 +468,7 @@ public class InitTableAlteror
         executeSql( "update attribute set valuetype='INTEGER_POSITIVE' where valuetype='positive_integer'" );
         executeSql( "update attribute set valuetype='INTEGER_NEGATIVE' where valuetype='negative_integer'" );
         executeSql( "update attribute set valuetype='TEXT' where valuetype='option_set'" );
-        executeSql( "update attribute set valuetype='TEXT' where valuetype is null" );
+        executeSqlAlways( "update attribute set valuetype='TEXT' where valuetype is null" );
     }
 
     private void upgradeProgramStageDataElements()
@@ -475,13 +497,43 @@ public class InitTableAlteror
     {
         if ( tableExists( "relativeperiods" ) )
         {
-            executeSql( "UPDATE relativeperiods SET thisbiweek='f' WHERE thisbiweek IS NULL" );
-            executeSql( "UPDATE relativeperiods SET lastbiweek='f' WHERE lastbiweek IS NULL" );
-            executeSql( "UPDATE relativeperiods SET last4biweeks='f' WHERE last4biweeks IS NULL" );
+            executeSqlAlways( "UPDATE relativeperiods SET thisbiweek='f' WHERE thisbiweek IS NULL" );
+            executeSqlAlways( "UPDATE relativeperiods SET lastbiweek='f' WHERE lastbiweek IS NULL" );
+            executeSqlAlways( "UPDATE relativeperiods SET last4biweeks='f' WHERE last4biweeks IS NULL" );
         }
     }
 
+    /**
+     * Executes the given statement unless it is recorded in the migration
+     * ledger as applied in a previous startup, in which case -1 is returned
+     * as for a statement which fails. Only statements which succeed are
+     * recorded, so failing statements are retried on the next startup.
+     */
     private int executeSql( String sql )
+    {
+        final String checksum = MigrationLedger.getChecksum( sql );
+
+        if ( appliedStatements.contains( checksum ) )
+        {
+            return -1;
+        }
+
+        int result = executeSqlAlways( sql );
+
+        if ( result >= 0 )
+        {
+            executedStatements.add( checksum );
+        }
+
+        return result;
+    }
+
+    /**
+     * Executes the given statement on every startup, regardless of the
+     * migration ledger. Used for repairs of data which can be introduced
+     * again after the first startup, such as missing default values.
+     */
+    private int executeSqlAlways( String sql )
     {
         try
         {
@@ -0,0 +1,164 @@
+package org.hisp.dhis.startup;
+
+/*
+ * Copyright (c) 2004-2018, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+import com.google.common.hash.Hashing;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.hisp.dhis.external.conf.ConfigurationKey;
+import org.hisp.dhis.external.conf.DhisConfigurationProvider;
+import org.hisp.dhis.jdbc.StatementBuilder;
+import org.hisp.dhis.system.SystemService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Ledger of the SQL statements which have been applied by startup routines,
+ * stored in the startupmigration table. Each statement is recorded with the
+ * name of the routine, a checksum of the statement and the version of the
+ * system which applied it. Routines use the ledger to execute only statements
+ * which are new or have changed since the last startup. Only statements which
+ * succeed are recorded. The ledger can be disabled through the
+ * system.startup_migration_ledger configuration property, and a statement can
+ * be re-applied by deleting its row from the table.
+ */
+public class MigrationLedger
+{
+    private static final Log log = LogFactory.getLog( MigrationLedger.class );
+
+    public static final String TABLE_NAME = "startupmigration";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private SystemService systemService;
+
+    @Autowired
+    private DhisConfigurationProvider config;
+
+    @Autowired
+    private StatementBuilder statementBuilder;
+
+    /**
+     * Returns the checksums of the statements applied by the given startup
+     * routine. Returns an empty set if the ledger is disabled.
+     *
+     * @param routine the name of the startup routine.
+     * @return a set of statement checksums.
+     */
+    public Set<String> getAppliedChecksums( String routine )
+    {
+        if ( !isEnabled() )
+        {
+            return new HashSet<>();
+        }
+
+        createTable();
+
+        List<String> checksums = jdbcTemplate.queryForList(
+            "select checksum from " + TABLE_NAME + " where routine = ?", String.class, routine );
+
+        log.info( String.format( "Found %d applied statements for startup routine: %s", checksums.size(), routine ) );
+
+        return new HashSet<>( checksums );
+    }
+
+    /**
+     * Records the given statement checksums as applied by the given startup
+     * routine. Checksums which are already recorded, for instance by another
+     * node starting at the same time, are ignored. Does nothing if the ledger
+     * is disabled.
+     *
+     * @param routine the name of the startup routine.
+     * @param checksums the statement checksums.
+     */
+    public void addAppliedChecksums( String routine, Collection<String> checksums )
+    {
+        if ( !isEnabled() || checksums.isEmpty() )
+        {
+            return;
+        }
+
+        createTable();
+
+        final String version = systemService.getSystemInfo().getVersion();
+        final Date applied = new Date();
+
+        List<Object[]> batchArgs = checksums.stream()
+            .map( checksum -> new Object[] { routine, checksum, version, applied } )
+            .collect( Collectors.toList() );
+
+        String sql = statementBuilder.getInsertIgnoreDuplicate( TABLE_NAME,
+            Arrays.asList( "routine", "checksum", "version", "applied" ), Arrays.asList( "routine", "checksum" ) );
+
+        jdbcTemplate.batchUpdate( sql, batchArgs );
+
+        log.info( String.format( "Recorded %d applied statements for startup routine: %s", checksums.size(), routine ) );
+    }
+
+    /**
+     * Returns the checksum of the given SQL statement.
+     *
+     * @param sql the SQL statement.
+     * @return a checksum.
+     */
+    public static String getChecksum( String sql )
+    {
+        return Hashing.sha1().hashString( sql.trim(), StandardCharsets.UTF_8 ).toString();
+    }
+
+    // -------------------------------------------------------------------------
+    // Supportive methods
+    // -------------------------------------------------------------------------
+
+    private boolean isEnabled()
+    {
+        return config.isEnabled( ConfigurationKey.SYSTEM_STARTUP_MIGRATION_LEDGER );
+    }
+
+    private void createTable()
+    {
+        jdbcTemplate.execute( "create table if not exists " + TABLE_NAME + " (" +
+            "routine varchar(255) not null, " +
+            "checksum char(40) not null, " +
+            "version varchar(50), " +
+            "applied timestamp not null, " +
+            "primary key (routine, checksum))" );
+    }
+}
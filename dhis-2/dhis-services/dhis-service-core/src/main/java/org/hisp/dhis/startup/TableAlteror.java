@@ -42,8 +42,11 @@ import java.sql.ResultSet;
 import java.sql.Statement;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 /**
  * @author Lars Helge Overland
@@ -63,6 +66,13 @@ public class TableAlteror
     @Autowired
     private StatementBuilder statementBuilder;
 
+    @Autowired
+    private MigrationLedger migrationLedger;
+
+    private Set<String> appliedStatements = new HashSet<>();
+
+    private Set<String> executedStatements = new LinkedHashSet<>();
+
     // -------------------------------------------------------------------------
     // Execute
     // -------------------------------------------------------------------------
@@ -71,6 +81,9 @@ public class TableAlteror
     @Transactional
     public void execute()
     {
+        appliedStatements = migrationLedger.getAppliedChecksums( getName() );
+        executedStatements = new LinkedHashSet<>();
+
         int defaultCategoryComboId = getDefaultCategoryCombo();
         int defaultOptionComboId = getDefaultOptionCombo();
 
@@ -195,7 +208,7 @@ public class TableAlteror
         executeSql( "ALTER TABLE mapview DROP COLUMN legendtype" );
         executeSql( "ALTER TABLE mapview ALTER COLUMN opacity TYPE double precision" );
 
-        executeSql( "UPDATE incomingsms SET userid = 0 WHERE userid IS NULL" );
+        executeSqlAlways( "UPDATE incomingsms SET userid = 0 WHERE userid IS NULL" );
         executeSql( "ALTER TABLE smscommands ALTER COLUMN completenessmethod TYPE text" );
         executeSql( "UPDATE smscommands SET completenessmethod='ALL_DATAVALUE' WHERE completenessmethod='1'" );
         executeSql( "UPDATE smscommands SET completenessmethod='AT_LEAST_ONE_DATAVALUE' WHERE completenessmethod='2'" );
@@ -206,17 +219,17 @@ public class TableAlteror
 
         executeSql( "ALTER TABLE maplegend DROP CONSTRAINT maplegend_name_key" );
 
-        executeSql( "UPDATE mapview SET layer = 'thematic1' WHERE layer IS NULL" );
-        executeSql( "UPDATE mapview SET hidden = false WHERE hidden IS NULL" );
-        executeSql( "UPDATE mapview SET eventclustering = false WHERE eventclustering IS NULL" );
-        executeSql( "UPDATE mapview SET eventpointradius = 0 WHERE eventpointradius IS NULL" );
-        executeSql( "UPDATE programnotificationtemplate SET trackedentityattributeid = 0 WHERE trackedentityattributeid IS NULL" );
-        executeSql( "UPDATE programnotificationtemplate SET dataelementid = 0 WHERE dataelementid IS NULL" );
-        executeSql( "UPDATE programnotificationtemplate SET notifyParentOrganisationUnitOnly = false WHERE notifyParentOrganisationUnitOnly IS NULL" );
-        executeSql( "UPDATE programnotificationtemplate SET notifyUsersInHierarchyOnly = false WHERE notifyUsersInHierarchyOnly IS NULL" );
+        executeSqlAlways( "UPDATE mapview SET layer = 'thematic1' WHERE layer IS NULL" );
+        executeSqlAlways( "UPDATE mapview SET hidden = false WHERE hidden IS NULL" );
+        executeSqlAlways( "UPDATE mapview SET eventclustering = false WHERE eventclustering IS NULL" );
+        executeSqlAlways( "UPDATE mapview SET eventpointradius = 0 WHERE eventpointradius IS NULL" );
+        executeSqlAlways( "UPDATE programnotificationtemplate SET trackedentityattributeid = 0 WHERE trackedentityattributeid IS NULL" );
+        executeSqlAlways( "UPDATE programnotificationtemplate SET dataelementid = 0 WHERE dataelementid IS NULL" );
+        executeSqlAlways( "UPDATE programnotificationtemplate SET notifyParentOrganisationUnitOnly = false WHERE notifyParentOrganisationUnitOnly IS NULL" );
+        executeSqlAlways( "UPDATE programnotificationtemplate SET notifyUsersInHierarchyOnly = false WHERE notifyUsersInHierarchyOnly IS NULL" );
 
-        executeSql( "UPDATE datasetnotificationtemplate SET notifyParentOrganisationUnitOnly = false WHERE notifyParentOrganisationUnitOnly IS NULL" );
-        executeSql( "UPDATE datasetnotificationtemplate SET notifyUsersInHierarchyOnly = false WHERE notifyUsersInHierarchyOnly IS NULL" );
+        executeSqlAlways( "UPDATE datasetnotificationtemplate SET notifyParentOrganisationUnitOnly = false WHERE notifyParentOrganisationUnitOnly IS NULL" );
+        executeSqlAlways( "UPDATE datasetnotificationtemplate SET notifyUsersInHierarchyOnly = false WHERE notifyUsersInHierarchyOnly IS NULL" );
 
         executeSql( "DELETE FROM systemsetting WHERE name = 'longitude'" );
         executeSql( "DELETE FROM systemsetting WHERE name = 'latitude'" );
@@ -239,18 +252,18 @@ public class TableAlteror
         executeSql( "ALTER TABLE organisationunit DROP COLUMN hasPatients" );
 
         // category combo not null
-        executeSql( "update dataelement set categorycomboid = " + defaultCategoryComboId + " where categorycomboid is null" );
+        executeSqlAlways( "update dataelement set categorycomboid = " + defaultCategoryComboId + " where categorycomboid is null" );
         executeSql( "alter table dataelement alter column categorycomboid set not null" );
 
-        executeSql( "update dataset set categorycomboid = " + defaultCategoryComboId + " where categorycomboid is null" );
+        executeSqlAlways( "update dataset set categorycomboid = " + defaultCategoryComboId + " where categorycomboid is null" );
         executeSql( "alter table dataset alter column categorycomboid set not null" );
 
-        executeSql( "update program set categorycomboid = " + defaultCategoryComboId + " where categorycomboid is null" );
+        executeSqlAlways( "update program set categorycomboid = " + defaultCategoryComboId + " where categorycomboid is null" );
         executeSql( "alter table program alter column categorycomboid set not null" );
 
         // categories_categoryoptions
         // set to 0 temporarily
-        int c1 = executeSql( "UPDATE categories_categoryoptions SET sort_order=0 WHERE sort_order is NULL OR sort_order=0" );
+        int c1 = executeSqlAlways( "UPDATE categories_categoryoptions SET sort_order=0 WHERE sort_order is NULL OR sort_order=0" );
         if ( c1 > 0 )
         {
             updateSortOrder( "categories_categoryoptions", "categoryid", "categoryoptionid" );
@@ -260,7 +273,7 @@ public class TableAlteror
 
         // categorycombos_categories
         // set to 0 temporarily
-        int c2 = executeSql( "update categorycombos_categories SET sort_order=0 where sort_order is NULL OR sort_order=0" );
+        int c2 = executeSqlAlways( "update categorycombos_categories SET sort_order=0 where sort_order is NULL OR sort_order=0" );
         if ( c2 > 0 )
         {
             updateSortOrder( "categorycombos_categories", "categorycomboid", "categoryid" );
@@ -293,7 +306,7 @@ public class TableAlteror
         }
 
         // update periodType field to ValidationRule
-        executeSql( "UPDATE validationrule SET periodtypeid = (SELECT periodtypeid FROM periodtype WHERE name='Monthly') WHERE periodtypeid is null" );
+        executeSqlAlways( "UPDATE validationrule SET periodtypeid = (SELECT periodtypeid FROM periodtype WHERE name='Monthly') WHERE periodtypeid is null" );
 
         // set varchar to text
         executeSql( "ALTER TABLE dataelement ALTER COLUMN description TYPE text" );
@@ -318,7 +331,7 @@ public class TableAlteror
         executeSql( "ALTER TABLE minmaxdataelement RENAME minvalue TO minimumvalue" );
         executeSql( "ALTER TABLE minmaxdataelement RENAME maxvalue TO maximumvalue" );
 
-        executeSql( "update minmaxdataelement set generatedvalue = generated where generatedvalue is null" );
+        executeSqlAlways( "update minmaxdataelement set generatedvalue = generated where generatedvalue is null" );
         executeSql( "alter table minmaxdataelement drop column generated" );
         executeSql( "alter table minmaxdataelement alter column generatedvalue set not null" );
 
@@ -326,8 +339,8 @@ public class TableAlteror
         executeSql( "ALTER TABLE organisationunit DROP CONSTRAINT organisationunit_shortname_key" );
 
         executeSql( "ALTER TABLE section DROP CONSTRAINT section_name_key" );
-        executeSql( "UPDATE section SET showrowtotals = false WHERE showrowtotals IS NULL" );
-        executeSql( "UPDATE section SET showcolumntotals = false WHERE showcolumntotals IS NULL" );
+        executeSqlAlways( "UPDATE section SET showrowtotals = false WHERE showrowtotals IS NULL" );
+        executeSqlAlways( "UPDATE section SET showcolumntotals = false WHERE showcolumntotals IS NULL" );
         executeSql( "UPDATE dataelement SET aggregationtype='avg_sum_org_unit' where aggregationtype='average'" );
 
         executeSql( "UPDATE dataelement SET aggregationtype='AVERAGE' where aggregationtype='AVERAGE_SUM_INT'" );
@@ -340,7 +353,7 @@ public class TableAlteror
 
         executeSql( "ALTER TABLE aggregateddatavalue DROP COLUMN modified" );
         executeSql( "ALTER TABLE aggregatedindicatorvalue DROP COLUMN modified " );
-        executeSql( "UPDATE indicatortype SET indicatornumber=false WHERE indicatornumber is null" );
+        executeSqlAlways( "UPDATE indicatortype SET indicatornumber=false WHERE indicatornumber is null" );
 
         // program
 
@@ -361,7 +374,7 @@ public class TableAlteror
         executeSql( "UPDATE chart SET type='line' where type='line3d'" );
         executeSql( "UPDATE chart SET type='pie' where type='pie'" );
         executeSql( "UPDATE chart SET type='pie' where type='pie3d'" );
-        executeSql( "UPDATE programruleaction SET programnotificationtemplateid= 0 where programnotificationtemplateid is NULL" );
+        executeSqlAlways( "UPDATE programruleaction SET programnotificationtemplateid= 0 where programnotificationtemplateid is NULL" );
 
         executeSql( "UPDATE chart SET type=lower(type), series=lower(series), category=lower(category), filter=lower(filter)" );
 
@@ -427,12 +440,12 @@ public class TableAlteror
         // message
 
         executeSql( "ALTER TABLE messageconversation DROP COLUMN messageconversationkey" );
-        executeSql( "UPDATE messageconversation SET lastmessage=lastupdated WHERE lastmessage is null" );
+        executeSqlAlways( "UPDATE messageconversation SET lastmessage=lastupdated WHERE lastmessage is null" );
         executeSql( "ALTER TABLE message DROP COLUMN messagesubject" );
         executeSql( "ALTER TABLE message DROP COLUMN messagekey" );
         executeSql( "ALTER TABLE message DROP COLUMN sentdate" );
         executeSql( "ALTER TABLE usermessage DROP COLUMN messagedate" );
-        executeSql( "UPDATE usermessage SET isfollowup=false WHERE isfollowup is null" );
+        executeSqlAlways( "UPDATE usermessage SET isfollowup=false WHERE isfollowup is null" );
         executeSql( "DROP TABLE message_usermessages" );
 
         // create code unique constraints
@@ -470,156 +483,156 @@ public class TableAlteror
         executeSql( "ALTER TABLE validationrulegroup DROP COLUMN uuid" );
 
         // replace null with false for boolean fields
-        executeSql( "update dataset set fieldcombinationrequired = false where fieldcombinationrequired is null" );
-        executeSql( "update chart set hidelegend = false where hidelegend is null" );
-        executeSql( "update chart set regression = false where regression is null" );
-        executeSql( "update chart set hidesubtitle = false where hidesubtitle is null" );
-        executeSql( "update chart set userorganisationunit = false where userorganisationunit is null" );
-        executeSql( "update chart set percentstackedvalues = false where percentstackedvalues is null" );
-        executeSql( "update chart set cumulativevalues = false where cumulativevalues is null" );
-        executeSql( "update chart set nospacebetweencolumns = false where nospacebetweencolumns is null" );
-        executeSql( "update indicator set annualized = false where annualized is null" );
-        executeSql( "update indicatortype set indicatornumber = false where indicatornumber is null" );
-        executeSql( "update dataset set mobile = false where mobile is null" );
-        executeSql( "update dataset set allowfutureperiods = false where allowfutureperiods is null" );
-        executeSql( "update dataset set validcompleteonly = false where validcompleteonly is null" );
-        executeSql( "update dataset set notifycompletinguser = false where notifycompletinguser is null" );
-        executeSql( "update dataset set approvedata = false where approvedata is null" );
-        executeSql( "update dataelement set zeroissignificant = false where zeroissignificant is null" );
-        executeSql( "update organisationunit set haspatients = false where haspatients is null" );
-        executeSql( "update organisationunit set openingdate = '1970-01-01' where openingdate is null" );
-        executeSql( "update dataset set expirydays = 0 where expirydays is null" );
-        executeSql( "update eventchart set hidelegend = false where hidelegend is null" );
-        executeSql( "update eventchart set regression = false where regression is null" );
-        executeSql( "update eventchart set hidetitle = false where hidetitle is null" );
-        executeSql( "update eventchart set hidesubtitle = false where hidesubtitle is null" );
-        executeSql( "update eventchart set hidenadata = false where hidenadata is null" );
-        executeSql( "update eventchart set percentstackedvalues = false where percentstackedvalues is null" );
-        executeSql( "update eventchart set cumulativevalues = false where cumulativevalues is null" );
-        executeSql( "update eventchart set nospacebetweencolumns = false where nospacebetweencolumns is null" );
-        executeSql( "update reporttable set showdimensionlabels = false where showdimensionlabels is null" );
-        executeSql( "update eventreport set showdimensionlabels = false where showdimensionlabels is null" );
-        executeSql( "update reporttable set skiprounding = false where skiprounding is null" );
-        executeSql( "update validationrule set skipformvalidation = false where skipformvalidation is null" );
-        executeSql( "update validationnotificationtemplate set sendstrategy = 'COLLECTIVE_SUMMARY' where sendstrategy is null" );
+        executeSqlAlways( "update dataset set fieldcombinationrequired = false where fieldcombinationrequired is null" );
+        executeSqlAlways( "update chart set hidelegend = false where hidelegend is null" );
+        executeSqlAlways( "update chart set regression = false where regression is null" );
+        executeSqlAlways( "update chart set hidesubtitle = false where hidesubtitle is null" );
+        executeSqlAlways( "update chart set userorganisationunit = false where userorganisationunit is null" );
+        executeSqlAlways( "update chart set percentstackedvalues = false where percentstackedvalues is null" );
+        executeSqlAlways( "update chart set cumulativevalues = false where cumulativevalues is null" );
+        executeSqlAlways( "update chart set nospacebetweencolumns = false where nospacebetweencolumns is null" );
+        executeSqlAlways( "update indicator set annualized = false where annualized is null" );
+        executeSqlAlways( "update indicatortype set indicatornumber = false where indicatornumber is null" );
+        executeSqlAlways( "update dataset set mobile = false where mobile is null" );
+        executeSqlAlways( "update dataset set allowfutureperiods = false where allowfutureperiods is null" );
+        executeSqlAlways( "update dataset set validcompleteonly = false where validcompleteonly is null" );
+        executeSqlAlways( "update dataset set notifycompletinguser = false where notifycompletinguser is null" );
+        executeSqlAlways( "update dataset set approvedata = false where approvedata is null" );
+        executeSqlAlways( "update dataelement set zeroissignificant = false where zeroissignificant is null" );
+        executeSqlAlways( "update organisationunit set haspatients = false where haspatients is null" );
+        executeSqlAlways( "update organisationunit set openingdate = '1970-01-01' where openingdate is null" );
+        executeSqlAlways( "update dataset set expirydays = 0 where expirydays is null" );
+        executeSqlAlways( "update eventchart set hidelegend = false where hidelegend is null" );
+        executeSqlAlways( "update eventchart set regression = false where regression is null" );
+        executeSqlAlways( "update eventchart set hidetitle = false where hidetitle is null" );
+        executeSqlAlways( "update eventchart set hidesubtitle = false where hidesubtitle is null" );
+        executeSqlAlways( "update eventchart set hidenadata = false where hidenadata is null" );
+        executeSqlAlways( "update eventchart set percentstackedvalues = false where percentstackedvalues is null" );
+        executeSqlAlways( "update eventchart set cumulativevalues = false where cumulativevalues is null" );
+        executeSqlAlways( "update eventchart set nospacebetweencolumns = false where nospacebetweencolumns is null" );
+        executeSqlAlways( "update reporttable set showdimensionlabels = false where showdimensionlabels is null" );
+        executeSqlAlways( "update eventreport set showdimensionlabels = false where showdimensionlabels is null" );
+        executeSqlAlways( "update reporttable set skiprounding = false where skiprounding is null" );
+        executeSqlAlways( "update validationrule set skipformvalidation = false where skipformvalidation is null" );
+        executeSqlAlways( "update validationnotificationtemplate set sendstrategy = 'COLLECTIVE_SUMMARY' where sendstrategy is null" );
 
         // move timelydays from system setting => dataset property
-        executeSql( "update dataset set timelydays = 15 where timelydays is null" );
+        executeSqlAlways( "update dataset set timelydays = 15 where timelydays is null" );
         executeSql( "delete from systemsetting where name='completenessOffset'" );
 
-        executeSql( "update report set paramreportingmonth = false where paramreportingmonth is null" );
-        executeSql( "update report set paramparentorganisationunit = false where paramorganisationunit is null" );
-
-        executeSql( "update reporttable set paramreportingmonth = false where paramreportingmonth is null" );
-        executeSql( "update reporttable set paramparentorganisationunit = false where paramparentorganisationunit is null" );
-        executeSql( "update reporttable set paramorganisationunit = false where paramorganisationunit is null" );
-        executeSql( "update reporttable set paramgrandparentorganisationunit = false where paramgrandparentorganisationunit is null" );
-
-        executeSql( "update reporttable set reportingmonth = false where reportingmonth is null" );
-        executeSql( "update reporttable set reportingbimonth = false where reportingbimonth is null" );
-        executeSql( "update reporttable set reportingquarter = false where reportingquarter is null" );
-        executeSql( "update reporttable set monthsthisyear = false where monthsthisyear is null" );
-        executeSql( "update reporttable set quartersthisyear = false where quartersthisyear is null" );
-        executeSql( "update reporttable set thisyear = false where thisyear is null" );
-        executeSql( "update reporttable set monthslastyear = false where monthslastyear is null" );
-        executeSql( "update reporttable set quarterslastyear = false where quarterslastyear is null" );
-        executeSql( "update reporttable set lastyear = false where lastyear is null" );
-        executeSql( "update reporttable set last5years = false where last5years is null" );
-        executeSql( "update reporttable set lastsixmonth = false where lastsixmonth is null" );
-        executeSql( "update reporttable set last4quarters = false where last4quarters is null" );
-        executeSql( "update reporttable set last12months = false where last12months is null" );
-        executeSql( "update reporttable set last3months = false where last3months is null" );
-        executeSql( "update reporttable set last6bimonths = false where last6bimonths is null" );
-        executeSql( "update reporttable set last4quarters = false where last4quarters is null" );
-        executeSql( "update reporttable set last2sixmonths = false where last2sixmonths is null" );
-        executeSql( "update reporttable set thisfinancialyear = false where thisfinancialyear is null" );
-        executeSql( "update reporttable set lastfinancialyear = false where lastfinancialyear is null" );
-        executeSql( "update reporttable set last5financialyears = false where last5financialyears is null" );
-        executeSql( "update reporttable set cumulative = false where cumulative is null" );
-        executeSql( "update reporttable set userorganisationunit = false where userorganisationunit is null" );
-        executeSql( "update reporttable set userorganisationunitchildren = false where userorganisationunitchildren is null" );
-        executeSql( "update reporttable set userorganisationunitgrandchildren = false where userorganisationunitgrandchildren is null" );
-        executeSql( "update reporttable set subtotals = true where subtotals is null" );
-        executeSql( "update reporttable set hideemptyrows = false where hideemptyrows is null" );
-        executeSql( "update reporttable set hideemptycolumns = false where hideemptycolumns is null" );
-        executeSql( "update reporttable set displaydensity = 'normal' where displaydensity is null" );
-        executeSql( "update reporttable set fontsize = 'normal' where fontsize is null" );
-        executeSql( "update reporttable set digitgroupseparator = 'space' where digitgroupseparator is null" );
-        executeSql( "update reporttable set sortorder = 0 where sortorder is null" );
-        executeSql( "update reporttable set toplimit = 0 where toplimit is null" );
-        executeSql( "update reporttable set showhierarchy = false where showhierarchy is null" );
-        executeSql( "update reporttable set legenddisplaystyle = 'FILL' where legenddisplaystyle is null" );
-        executeSql( "update reporttable set legenddisplaystrategy = 'FIXED' where legenddisplaystrategy is null" );
-        executeSql( "update reporttable set hidetitle = false where hidetitle is null" );
-        executeSql( "update reporttable set hidesubtitle = false where hidesubtitle is null" );
+        executeSqlAlways( "update report set paramreportingmonth = false where paramreportingmonth is null" );
+        executeSqlAlways( "update report set paramparentorganisationunit = false where paramorganisationunit is null" );
+
+        executeSqlAlways( "update reporttable set paramreportingmonth = false where paramreportingmonth is null" );
+        executeSqlAlways( "update reporttable set paramparentorganisationunit = false where paramparentorganisationunit is null" );
+        executeSqlAlways( "update reporttable set paramorganisationunit = false where paramorganisationunit is null" );
+        executeSqlAlways( "update reporttable set paramgrandparentorganisationunit = false where paramgrandparentorganisationunit is null" );
+
+        executeSqlAlways( "update reporttable set reportingmonth = false where reportingmonth is null" );
+        executeSqlAlways( "update reporttable set reportingbimonth = false where reportingbimonth is null" );
+        executeSqlAlways( "update reporttable set reportingquarter = false where reportingquarter is null" );
+        executeSqlAlways( "update reporttable set monthsthisyear = false where monthsthisyear is null" );
+        executeSqlAlways( "update reporttable set quartersthisyear = false where quartersthisyear is null" );
+        executeSqlAlways( "update reporttable set thisyear = false where thisyear is null" );
+        executeSqlAlways( "update reporttable set monthslastyear = false where monthslastyear is null" );
+        executeSqlAlways( "update reporttable set quarterslastyear = false where quarterslastyear is null" );
+        executeSqlAlways( "update reporttable set lastyear = false where lastyear is null" );
+        executeSqlAlways( "update reporttable set last5years = false where last5years is null" );
+        executeSqlAlways( "update reporttable set lastsixmonth = false where lastsixmonth is null" );
+        executeSqlAlways( "update reporttable set last4quarters = false where last4quarters is null" );
+        executeSqlAlways( "update reporttable set last12months = false where last12months is null" );
+        executeSqlAlways( "update reporttable set last3months = false where last3months is null" );
+        executeSqlAlways( "update reporttable set last6bimonths = false where last6bimonths is null" );
+        executeSqlAlways( "update reporttable set last4quarters = false where last4quarters is null" );
+        executeSqlAlways( "update reporttable set last2sixmonths = false where last2sixmonths is null" );
+        executeSqlAlways( "update reporttable set thisfinancialyear = false where thisfinancialyear is null" );
+        executeSqlAlways( "update reporttable set lastfinancialyear = false where lastfinancialyear is null" );
+        executeSqlAlways( "update reporttable set last5financialyears = false where last5financialyears is null" );
+        executeSqlAlways( "update reporttable set cumulative = false where cumulative is null" );
+        executeSqlAlways( "update reporttable set userorganisationunit = false where userorganisationunit is null" );
+        executeSqlAlways( "update reporttable set userorganisationunitchildren = false where userorganisationunitchildren is null" );
+        executeSqlAlways( "update reporttable set userorganisationunitgrandchildren = false where userorganisationunitgrandchildren is null" );
+        executeSqlAlways( "update reporttable set subtotals = true where subtotals is null" );
+        executeSqlAlways( "update reporttable set hideemptyrows = false where hideemptyrows is null" );
+        executeSqlAlways( "update reporttable set hideemptycolumns = false where hideemptycolumns is null" );
+        executeSqlAlways( "update reporttable set displaydensity = 'normal' where displaydensity is null" );
+        executeSqlAlways( "update reporttable set fontsize = 'normal' where fontsize is null" );
+        executeSqlAlways( "update reporttable set digitgroupseparator = 'space' where digitgroupseparator is null" );
+        executeSqlAlways( "update reporttable set sortorder = 0 where sortorder is null" );
+        executeSqlAlways( "update reporttable set toplimit = 0 where toplimit is null" );
+        executeSqlAlways( "update reporttable set showhierarchy = false where showhierarchy is null" );
+        executeSqlAlways( "update reporttable set legenddisplaystyle = 'FILL' where legenddisplaystyle is null" );
+        executeSqlAlways( "update reporttable set legenddisplaystrategy = 'FIXED' where legenddisplaystrategy is null" );
+        executeSqlAlways( "update reporttable set hidetitle = false where hidetitle is null" );
+        executeSqlAlways( "update reporttable set hidesubtitle = false where hidesubtitle is null" );
 
         // reporttable col/row totals = keep existing || copy from totals || true
-        executeSql( "update reporttable set totals = true where totals is null" );
-        executeSql( "update reporttable set coltotals = totals where coltotals is null" );
-        executeSql( "update reporttable set coltotals = true where coltotals is null" );
-        executeSql( "update reporttable set rowtotals = totals where rowtotals is null" );
-        executeSql( "update reporttable set rowtotals = true where rowtotals is null" );
+        executeSqlAlways( "update reporttable set totals = true where totals is null" );
+        executeSqlAlways( "update reporttable set coltotals = totals where coltotals is null" );
+        executeSqlAlways( "update reporttable set coltotals = true where coltotals is null" );
+        executeSqlAlways( "update reporttable set rowtotals = totals where rowtotals is null" );
+        executeSqlAlways( "update reporttable set rowtotals = true where rowtotals is null" );
         executeSql( "alter table reporttable drop column totals" );
 
         // reporttable col/row subtotals
-        executeSql( "update reporttable set colsubtotals = subtotals where colsubtotals is null" );
-        executeSql( "update reporttable set rowsubtotals = subtotals where rowsubtotals is null" );
+        executeSqlAlways( "update reporttable set colsubtotals = subtotals where colsubtotals is null" );
+        executeSqlAlways( "update reporttable set rowsubtotals = subtotals where rowsubtotals is null" );
 
         // reporttable upgrade counttype to outputtype
-        executeSql( "update eventreport set outputtype = 'EVENT' where outputtype is null and counttype = 'events'" );
-        executeSql( "update eventreport set outputtype = 'TRACKED_ENTITY_INSTANCE' where outputtype is null and counttype = 'tracked_entity_instances'" );
-        executeSql( "update eventreport set hidetitle = false where hidetitle is null" );
-        executeSql( "update eventreport set hidesubtitle = false where hidesubtitle is null" );
-        executeSql( "update eventreport set outputtype = 'EVENT' where outputtype is null" );
+        executeSqlAlways( "update eventreport set outputtype = 'EVENT' where outputtype is null and counttype = 'events'" );
+        executeSqlAlways( "update eventreport set outputtype = 'TRACKED_ENTITY_INSTANCE' where outputtype is null and counttype = 'tracked_entity_instances'" );
+        executeSqlAlways( "update eventreport set hidetitle = false where hidetitle is null" );
+        executeSqlAlways( "update eventreport set hidesubtitle = false where hidesubtitle is null" );
+        executeSqlAlways( "update eventreport set outputtype = 'EVENT' where outputtype is null" );
         executeSql( "alter table eventreport drop column counttype" );
 
-        executeSql( "update chart set reportingmonth = false where reportingmonth is null" );
-        executeSql( "update chart set reportingbimonth = false where reportingbimonth is null" );
-        executeSql( "update chart set reportingquarter = false where reportingquarter is null" );
-        executeSql( "update chart set monthsthisyear = false where monthsthisyear is null" );
-        executeSql( "update chart set quartersthisyear = false where quartersthisyear is null" );
-        executeSql( "update chart set thisyear = false where thisyear is null" );
-        executeSql( "update chart set monthslastyear = false where monthslastyear is null" );
-        executeSql( "update chart set quarterslastyear = false where quarterslastyear is null" );
-        executeSql( "update chart set lastyear = false where lastyear is null" );
-        executeSql( "update chart set lastsixmonth = false where lastsixmonth is null" );
-        executeSql( "update chart set last12months = false where last12months is null" );
-        executeSql( "update chart set last3months = false where last3months is null" );
-        executeSql( "update chart set last5years = false where last5years is null" );
-        executeSql( "update chart set last4quarters = false where last4quarters is null" );
-        executeSql( "update chart set last6bimonths = false where last6bimonths is null" );
-        executeSql( "update chart set last4quarters = false where last4quarters is null" );
-        executeSql( "update chart set last2sixmonths = false where last2sixmonths is null" );
-        executeSql( "update chart set showdata = false where showdata is null" );
-        executeSql( "update chart set userorganisationunit = false where userorganisationunit is null" );
-        executeSql( "update chart set userorganisationunitchildren = false where userorganisationunitchildren is null" );
-        executeSql( "update chart set userorganisationunitgrandchildren = false where userorganisationunitgrandchildren is null" );
-        executeSql( "update chart set hidetitle = false where hidetitle is null" );
-        executeSql( "update chart set sortorder = 0 where sortorder is null" );
-
-        executeSql( "update eventreport set showhierarchy = false where showhierarchy is null" );
-        executeSql( "update eventreport set counttype = 'events' where counttype is null" );
-        executeSql( "update eventreport set hidenadata = false where hidenadata is null" );
+        executeSqlAlways( "update chart set reportingmonth = false where reportingmonth is null" );
+        executeSqlAlways( "update chart set reportingbimonth = false where reportingbimonth is null" );
+        executeSqlAlways( "update chart set reportingquarter = false where reportingquarter is null" );
+        executeSqlAlways( "update chart set monthsthisyear = false where monthsthisyear is null" );
+        executeSqlAlways( "update chart set quartersthisyear = false where quartersthisyear is null" );
+        executeSqlAlways( "update chart set thisyear = false where thisyear is null" );
+        executeSqlAlways( "update chart set monthslastyear = false where monthslastyear is null" );
+        executeSqlAlways( "update chart set quarterslastyear = false where quarterslastyear is null" );
+        executeSqlAlways( "update chart set lastyear = false where lastyear is null" );
+        executeSqlAlways( "update chart set lastsixmonth = false where lastsixmonth is null" );
+        executeSqlAlways( "update chart set last12months = false where last12months is null" );
+        executeSqlAlways( "update chart set last3months = false where last3months is null" );
+        executeSqlAlways( "update chart set last5years = false where last5years is null" );
+        executeSqlAlways( "update chart set last4quarters = false where last4quarters is null" );
+        executeSqlAlways( "update chart set last6bimonths = false where last6bimonths is null" );
+        executeSqlAlways( "update chart set last4quarters = false where last4quarters is null" );
+        executeSqlAlways( "update chart set last2sixmonths = false where last2sixmonths is null" );
+        executeSqlAlways( "update chart set showdata = false where showdata is null" );
+        executeSqlAlways( "update chart set userorganisationunit = false where userorganisationunit is null" );
+        executeSqlAlways( "update chart set userorganisationunitchildren = false where userorganisationunitchildren is null" );
+        executeSqlAlways( "update chart set userorganisationunitgrandchildren = false where userorganisationunitgrandchildren is null" );
+        executeSqlAlways( "update chart set hidetitle = false where hidetitle is null" );
+        executeSqlAlways( "update chart set sortorder = 0 where sortorder is null" );
+
+        executeSqlAlways( "update eventreport set showhierarchy = false where showhierarchy is null" );
+        executeSqlAlways( "update eventreport set counttype = 'events' where counttype is null" );
+        executeSqlAlways( "update eventreport set hidenadata = false where hidenadata is null" );
 
         // eventreport col/rowtotals = keep existing || copy from totals || true
-        executeSql( "update eventreport set totals = true where totals is null" );
-        executeSql( "update eventreport set coltotals = totals where coltotals is null" );
-        executeSql( "update eventreport set coltotals = true where coltotals is null" );
-        executeSql( "update eventreport set rowtotals = totals where rowtotals is null" );
-        executeSql( "update eventreport set rowtotals = true where rowtotals is null" );
+        executeSqlAlways( "update eventreport set totals = true where totals is null" );
+        executeSqlAlways( "update eventreport set coltotals = totals where coltotals is null" );
+        executeSqlAlways( "update eventreport set coltotals = true where coltotals is null" );
+        executeSqlAlways( "update eventreport set rowtotals = totals where rowtotals is null" );
+        executeSqlAlways( "update eventreport set rowtotals = true where rowtotals is null" );
         executeSql( "alter table eventreport drop column totals" );
 
         // eventreport col/row subtotals
-        executeSql( "update eventreport set colsubtotals = subtotals where colsubtotals is null" );
-        executeSql( "update eventreport set rowsubtotals = subtotals where rowsubtotals is null" );
+        executeSqlAlways( "update eventreport set colsubtotals = subtotals where colsubtotals is null" );
+        executeSqlAlways( "update eventreport set rowsubtotals = subtotals where rowsubtotals is null" );
 
         // eventchart upgrade counttype to outputtype
-        executeSql( "update eventchart set outputtype = 'EVENT' where outputtype is null and counttype = 'events'" );
-        executeSql( "update eventchart set outputtype = 'TRACKED_ENTITY_INSTANCE' where outputtype is null and counttype = 'tracked_entity_instances'" );
-        executeSql( "update eventchart set outputtype = 'EVENT' where outputtype is null" );
+        executeSqlAlways( "update eventchart set outputtype = 'EVENT' where outputtype is null and counttype = 'events'" );
+        executeSqlAlways( "update eventchart set outputtype = 'TRACKED_ENTITY_INSTANCE' where outputtype is null and counttype = 'tracked_entity_instances'" );
+        executeSqlAlways( "update eventchart set outputtype = 'EVENT' where outputtype is null" );
         executeSql( "alter table eventchart drop column counttype" );
 
-        executeSql( "update eventchart set sortorder = 0 where sortorder is null" );
+        executeSqlAlways( "update eventchart set sortorder = 0 where sortorder is null" );
 
         // Move chart filters to chart_filters table
 
@@ -638,10 +651,10 @@ public class TableAlteror
         executeSql( "update chart_filters set filter = 'pe' where filter = 'period'" );
         executeSql( "update chart_filters set filter = 'ou' where filter = 'organisationunit'" );
 
-        executeSql( "update dataentryform set format = 1 where format is null" );
+        executeSqlAlways( "update dataentryform set format = 1 where format is null" );
 
-        executeSql( "update dataelementgroup set shortname=name where shortname is null and length(name)<=50" );
-        executeSql( "update orgunitgroup set shortname=name where shortname is null and length(name)<=50" );
+        executeSqlAlways( "update dataelementgroup set shortname=name where shortname is null and length(name)<=50" );
+        executeSqlAlways( "update orgunitgroup set shortname=name where shortname is null and length(name)<=50" );
 
         // report, reporttable, chart groups
 
@@ -655,19 +668,19 @@ public class TableAlteror
         executeSql( "delete from usersetting where name='currentStyle' and value like '%blue/blue.css'" );
         executeSql( "delete from systemsetting where name='currentStyle' and value like '%blue/blue.css'" );
 
-        executeSql( "update dataentryform set style='regular' where style is null" );
+        executeSqlAlways( "update dataentryform set style='regular' where style is null" );
 
-        executeSql( "UPDATE dataset SET skipaggregation = false WHERE skipaggregation IS NULL" );
-        executeSql( "UPDATE dataset SET skipoffline = false WHERE skipoffline IS NULL" );
-        executeSql( "UPDATE dataset SET renderastabs = false WHERE renderastabs IS NULL" );
-        executeSql( "UPDATE dataset SET renderhorizontally = false WHERE renderhorizontally IS NULL" );
-        executeSql( "UPDATE dataset SET novaluerequirescomment = false WHERE novaluerequirescomment IS NULL" );
+        executeSqlAlways( "UPDATE dataset SET skipaggregation = false WHERE skipaggregation IS NULL" );
+        executeSqlAlways( "UPDATE dataset SET skipoffline = false WHERE skipoffline IS NULL" );
+        executeSqlAlways( "UPDATE dataset SET renderastabs = false WHERE renderastabs IS NULL" );
+        executeSqlAlways( "UPDATE dataset SET renderhorizontally = false WHERE renderhorizontally IS NULL" );
+        executeSqlAlways( "UPDATE dataset SET novaluerequirescomment = false WHERE novaluerequirescomment IS NULL" );
         executeSql( "UPDATE dataset SET openfutureperiods = 12 where allowfutureperiods is true" );
         executeSql( "UPDATE dataset SET openfutureperiods = 0 where allowfutureperiods is false" );
-        executeSql( "update dataset SET compulsoryfieldscompleteonly = false WHERE compulsoryfieldscompleteonly IS NULL" );
+        executeSqlAlways( "update dataset SET compulsoryfieldscompleteonly = false WHERE compulsoryfieldscompleteonly IS NULL" );
         executeSql( "ALTER TABLE dataset DROP COLUMN allowfutureperiods" );
 
-        executeSql( "UPDATE categorycombo SET skiptotal = false WHERE skiptotal IS NULL" );
+        executeSqlAlways( "UPDATE categorycombo SET skiptotal = false WHERE skiptotal IS NULL" );
 
         // short names
         executeSql( "ALTER TABLE dataelement ALTER COLUMN shortname TYPE character varying(50)" );
@@ -675,8 +688,8 @@ public class TableAlteror
         executeSql( "ALTER TABLE dataset ALTER COLUMN shortname TYPE character varying(50)" );
         executeSql( "ALTER TABLE organisationunit ALTER COLUMN shortname TYPE character varying(50)" );
 
-        executeSql( "update report set type='jasperReportTable' where type is null and reporttableid is not null" );
-        executeSql( "update report set type='jasperJdbc' where type is null and reporttableid is null" );
+        executeSqlAlways( "update report set type='jasperReportTable' where type is null and reporttableid is not null" );
+        executeSqlAlways( "update report set type='jasperJdbc' where type is null and reporttableid is null" );
 
         // upgrade authorities
         executeSql( "UPDATE userroleauthorities SET authority='F_DOCUMENT_PUBLIC_ADD' WHERE authority='F_DOCUMENT_ADD'" );
@@ -761,7 +774,7 @@ public class TableAlteror
         executeSql( "delete from systemsetting where name='keySmsConfigurations'" );
 
         // update denominator of indicator which has indicatortype as 'number'
-        executeSql( "UPDATE indicator SET denominator = 1, denominatordescription = '' WHERE indicatortypeid IN (SELECT DISTINCT indicatortypeid FROM indicatortype WHERE indicatornumber = true) AND denominator IS NULL" );
+        executeSqlAlways( "UPDATE indicator SET denominator = 1, denominatordescription = '' WHERE indicatortypeid IN (SELECT DISTINCT indicatortypeid FROM indicatortype WHERE indicatornumber = true) AND denominator IS NULL" );
 
         // remove name/shortName uniqueness
         executeSql( "ALTER TABLE organisationunit DROP CONSTRAINT organisationunit_name_key" );
@@ -782,31 +795,31 @@ public class TableAlteror
         executeSql( "ALTER TABLE dataelementcategoryoption DROP COLUMN conceptid" );
 
         // upgrade system charts/maps to public read-only sharing
-        executeSql( "UPDATE chart SET publicaccess='r-------' WHERE user IS NULL AND publicaccess IS NULL;" );
-        executeSql( "UPDATE map SET publicaccess='r-------' WHERE user IS NULL AND publicaccess IS NULL;" );
+        executeSqlAlways( "UPDATE chart SET publicaccess='r-------' WHERE user IS NULL AND publicaccess IS NULL;" );
+        executeSqlAlways( "UPDATE map SET publicaccess='r-------' WHERE user IS NULL AND publicaccess IS NULL;" );
 
-        executeSql( "UPDATE chart SET publicaccess='--------' WHERE user IS NULL AND publicaccess IS NULL;" );
-        executeSql( "UPDATE map SET publicaccess='-------' WHERE user IS NULL AND publicaccess IS NULL;" );
+        executeSqlAlways( "UPDATE chart SET publicaccess='--------' WHERE user IS NULL AND publicaccess IS NULL;" );
+        executeSqlAlways( "UPDATE map SET publicaccess='-------' WHERE user IS NULL AND publicaccess IS NULL;" );
 
-        executeSql( "update dataelementcategory set datadimension = false where datadimension is null" );
+        executeSqlAlways( "update dataelementcategory set datadimension = false where datadimension is null" );
 
-        executeSql( "UPDATE dataset SET dataelementdecoration=false WHERE dataelementdecoration is null" );
+        executeSqlAlways( "UPDATE dataset SET dataelementdecoration=false WHERE dataelementdecoration is null" );
 
         executeSql( "update sqlview set sqlviewid=viweid" );
         executeSql( "alter table sqlview drop column viewid" );
         executeSql( "update sqlview set type = 'QUERY' where query is true" );
-        executeSql( "update sqlview set type = 'VIEW' where type is null" );
+        executeSqlAlways( "update sqlview set type = 'VIEW' where type is null" );
         executeSql( "alter table sqlview drop column query" );
 
-        executeSql( "UPDATE dashboard SET publicaccess='--------' WHERE publicaccess is null" );
+        executeSqlAlways( "UPDATE dashboard SET publicaccess='--------' WHERE publicaccess is null" );
 
-        executeSql( "UPDATE optionset SET version=0 WHERE version IS NULL" );
-        executeSql( "UPDATE dataset SET version=0 WHERE version IS NULL" );
-        executeSql( "UPDATE program SET version=0 WHERE version IS NULL" );
-        executeSql( "update program set shortname = substring(name,0,50) where shortname is null" );
+        executeSqlAlways( "UPDATE optionset SET version=0 WHERE version IS NULL" );
+        executeSqlAlways( "UPDATE dataset SET version=0 WHERE version IS NULL" );
+        executeSqlAlways( "UPDATE program SET version=0 WHERE version IS NULL" );
+        executeSqlAlways( "update program set shortname = substring(name,0,50) where shortname is null" );
 
-        executeSql( "update programstageinstance set attributeoptioncomboid = " + defaultOptionComboId + " where attributeoptioncomboid is null" );
-        executeSql( "update programstageinstance set storedby=completedby where storedby is null and completedby is not null" );
+        executeSqlAlways( "update programstageinstance set attributeoptioncomboid = " + defaultOptionComboId + " where attributeoptioncomboid is null" );
+        executeSqlAlways( "update programstageinstance set storedby=completedby where storedby is null and completedby is not null" );
 
         executeSql( "ALTER TABLE datavalue ALTER COLUMN lastupdated TYPE timestamp" );
         executeSql( "ALTER TABLE completedatasetregistration ALTER COLUMN date TYPE timestamp" );
@@ -819,53 +832,53 @@ public class TableAlteror
         executeSql( "update usersetting set name = 'keyDbLocale' where name = 'keyLocaleUserSetting'" );
         executeSql( "update usersetting set name = 'keyStyle' where name = 'currentStyle'" );
         executeSql( "ALTER TABLE interpretation ALTER COLUMN userid DROP NOT NULL" );
-        executeSql( "UPDATE interpretation SET publicaccess='r-------' WHERE publicaccess IS NULL;" );
+        executeSqlAlways( "UPDATE interpretation SET publicaccess='r-------' WHERE publicaccess IS NULL;" );
 
         executeSql( "ALTER TABLE dataset DROP COLUMN symbol" );
         executeSql( "ALTER TABLE users ALTER COLUMN password DROP NOT NULL" );
-        executeSql( "UPDATE users SET twofa = false WHERE twofa IS NULL" );
+        executeSqlAlways( "UPDATE users SET twofa = false WHERE twofa IS NULL" );
 
         // set default dataDimension on orgUnitGroupSet and deGroupSet
-        executeSql( "UPDATE dataelementgroupset SET datadimension=true WHERE datadimension IS NULL" );
+        executeSqlAlways( "UPDATE dataelementgroupset SET datadimension=true WHERE datadimension IS NULL" );
         executeSql( "ALTER TABLE dataelementgroupset ALTER COLUMN datadimension SET NOT NULL" );
-        executeSql( "UPDATE orgunitgroupset SET datadimension=true WHERE datadimension IS NULL" );
+        executeSqlAlways( "UPDATE orgunitgroupset SET datadimension=true WHERE datadimension IS NULL" );
         executeSql( "ALTER TABLE orgunitgroupset ALTER COLUMN datadimension SET NOT NULL" );
         executeSql( "ALTER TABLE validationnotificationtemplate ALTER COLUMN sendstrategy SET NOT NULL" );
 
         // set attribute defaults
-        executeSql( "UPDATE attribute SET dataelementattribute=false WHERE dataelementattribute IS NULL" );
-        executeSql( "UPDATE attribute SET dataelementgroupattribute=false WHERE dataelementgroupattribute IS NULL" );
-        executeSql( "UPDATE attribute SET indicatorattribute=false WHERE indicatorattribute IS NULL" );
-        executeSql( "UPDATE attribute SET indicatorgroupattribute=false WHERE indicatorgroupattribute IS NULL" );
-        executeSql( "UPDATE attribute SET organisationunitattribute=false WHERE organisationunitattribute IS NULL" );
-        executeSql( "UPDATE attribute SET organisationunitgroupattribute=false WHERE organisationunitgroupattribute IS NULL" );
-        executeSql( "UPDATE attribute SET organisationunitgroupsetattribute=false WHERE organisationunitgroupsetattribute IS NULL" );
-        executeSql( "UPDATE attribute SET userattribute=false WHERE userattribute IS NULL" );
-        executeSql( "UPDATE attribute SET usergroupattribute=false WHERE usergroupattribute IS NULL" );
-        executeSql( "UPDATE attribute SET datasetattribute=false WHERE datasetattribute IS NULL" );
-        executeSql( "UPDATE attribute SET programattribute=false WHERE programattribute IS NULL" );
-        executeSql( "UPDATE attribute SET programstageattribute=false WHERE programstageattribute IS NULL" );
-        executeSql( "UPDATE attribute SET trackedentityattribute=false WHERE trackedentityattribute IS NULL" );
-        executeSql( "UPDATE attribute SET trackedentityattributeattribute=false WHERE trackedentityattributeattribute IS NULL" );
-        executeSql( "UPDATE attribute SET categoryoptionattribute=false WHERE categoryoptionattribute IS NULL" );
-        executeSql( "UPDATE attribute SET categoryoptiongroupattribute=false WHERE categoryoptiongroupattribute IS NULL" );
-        executeSql( "UPDATE attribute SET documentattribute=false WHERE documentattribute IS NULL" );
-        executeSql( "UPDATE attribute SET optionattribute=false WHERE optionattribute IS NULL" );
-        executeSql( "UPDATE attribute SET optionsetattribute=false WHERE optionsetattribute IS NULL" );
-        executeSql( "UPDATE attribute SET constantattribute=false WHERE constantattribute IS NULL" );
-        executeSql( "UPDATE attribute SET legendsetattribute=false WHERE legendsetattribute IS NULL" );
-        executeSql( "UPDATE attribute SET programindicatorattribute=false WHERE programindicatorattribute IS NULL" );
-        executeSql( "UPDATE attribute SET sqlviewattribute=false WHERE sqlViewattribute IS NULL" );
-        executeSql( "UPDATE attribute SET sectionattribute=false WHERE sectionattribute IS NULL" );
-        executeSql( "UPDATE attribute SET categoryoptioncomboattribute=false WHERE categoryoptioncomboattribute IS NULL" );
-        executeSql( "UPDATE attribute SET trackedentitytypeattribute=false WHERE trackedentitytypeattribute IS NULL" );
-        executeSql( "UPDATE attribute SET categoryOptionGroupSetAttribute=false WHERE categoryOptionGroupSetAttribute IS NULL" );
-        executeSql( "UPDATE attribute SET dataElementGroupSetAttribute=false WHERE dataElementGroupSetAttribute IS NULL" );
-        executeSql( "UPDATE attribute SET validationRuleAttribute=false WHERE validationRuleAttribute IS NULL" );
-        executeSql( "UPDATE attribute SET validationRuleGroupAttribute=false WHERE validationRuleGroupAttribute IS NULL" );
-        executeSql( "UPDATE attribute SET categoryAttribute=false WHERE categoryAttribute IS NULL" );
-
-        executeSql( "update attribute set isunique=false where isunique is null" );
+        executeSqlAlways( "UPDATE attribute SET dataelementattribute=false WHERE dataelementattribute IS NULL" );
+        executeSqlAlways( "UPDATE attribute SET dataelementgroupattribute=false WHERE dataelementgroupattribute IS NULL" );
+        executeSqlAlways( "UPDATE attribute SET indicatorattribute=false WHERE indicatorattribute IS NULL" );
+        executeSqlAlways( "UPDATE attribute SET indicatorgroupattribute=false WHERE indicatorgroupattribute IS NULL" );
+        executeSqlAlways( "UPDATE attribute SET organisationunitattribute=false WHERE organisationunitattribute IS NULL" );
+        executeSqlAlways( "UPDATE attribute SET organisationunitgroupattribute=false WHERE organisationunitgroupattribute IS NULL" );
+        executeSqlAlways( "UPDATE attribute SET organisationunitgroupsetattribute=false WHERE organisationunitgroupsetattribute IS NULL" );
+        executeSqlAlways( "UPDATE attribute SET userattribute=false WHERE userattribute IS NULL" );
+        executeSqlAlways( "UPDATE attribute SET usergroupattribute=false WHERE usergroupattribute IS NULL" );
+        executeSqlAlways( "UPDATE attribute SET datasetattribute=false WHERE datasetattribute IS NULL" );
+        executeSqlAlways( "UPDATE attribute SET programattribute=false WHERE programattribute IS NULL" );
+        executeSqlAlways( "UPDATE attribute SET programstageattribute=false WHERE programstageattribute IS NULL" );
+        executeSqlAlways( "UPDATE attribute SET trackedentityattribute=false WHERE trackedentityattribute IS NULL" );
+        executeSqlAlways( "UPDATE attribute SET trackedentityattributeattribute=false WHERE trackedentityattributeattribute IS NULL" );
+        executeSqlAlways( "UPDATE attribute SET categoryoptionattribute=false WHERE categoryoptionattribute IS NULL" );
+        executeSqlAlways( "UPDATE attribute SET categoryoptiongroupattribute=false WHERE categoryoptiongroupattribute IS NULL" );
+        executeSqlAlways( "UPDATE attribute SET documentattribute=false WHERE documentattribute IS NULL" );
+        executeSqlAlways( "UPDATE attribute SET optionattribute=false WHERE optionattribute IS NULL" );
+        executeSqlAlways( "UPDATE attribute SET optionsetattribute=false WHERE optionsetattribute IS NULL" );
+        executeSqlAlways( "UPDATE attribute SET constantattribute=false WHERE constantattribute IS NULL" );
+        executeSqlAlways( "UPDATE attribute SET legendsetattribute=false WHERE legendsetattribute IS NULL" );
+        executeSqlAlways( "UPDATE attribute SET programindicatorattribute=false WHERE programindicatorattribute IS NULL" );
+        executeSqlAlways( "UPDATE attribute SET sqlviewattribute=false WHERE sqlViewattribute IS NULL" );
+        executeSqlAlways( "UPDATE attribute SET sectionattribute=false WHERE sectionattribute IS NULL" );
+        executeSqlAlways( "UPDATE attribute SET categoryoptioncomboattribute=false WHERE categoryoptioncomboattribute IS NULL" );
+        executeSqlAlways( "UPDATE attribute SET trackedentitytypeattribute=false WHERE trackedentitytypeattribute IS NULL" );
+        executeSqlAlways( "UPDATE attribute SET categoryOptionGroupSetAttribute=false WHERE categoryOptionGroupSetAttribute IS NULL" );
+        executeSqlAlways( "UPDATE attribute SET dataElementGroupSetAttribute=false WHERE dataElementGroupSetAttribute IS NULL" );
+        executeSqlAlways( "UPDATE attribute SET validationRuleAttribute=false WHERE validationRuleAttribute IS NULL" );
+        executeSqlAlways( "UPDATE attribute SET validationRuleGroupAttribute=false WHERE validationRuleGroupAttribute IS NULL" );
+        executeSqlAlways( "UPDATE attribute SET categoryAttribute=false WHERE categoryAttribute IS NULL" );
+
+        executeSqlAlways( "update attribute set isunique=false where isunique is null" );
 
         executeSql( "ALTER TABLE trackedentityattributedimension DROP COLUMN operator" );
         executeSql( "ALTER TABLE trackedentitydataelementdimension DROP COLUMN operator" );
@@ -877,24 +890,24 @@ public class TableAlteror
         executeSql( "ALTER TABLE programruleaction DROP COLUMN name" );
 
         //update programrule
-        executeSql( "UPDATE programrule SET rulecondition = condition WHERE rulecondition IS NULL" );
+        executeSqlAlways( "UPDATE programrule SET rulecondition = condition WHERE rulecondition IS NULL" );
         executeSql( "ALTER TABLE programrule DROP COLUMN condition" );
 
         // data approval
-        executeSql( "UPDATE dataapproval SET accepted=false WHERE accepted IS NULL" );
+        executeSqlAlways( "UPDATE dataapproval SET accepted=false WHERE accepted IS NULL" );
         executeSql( "ALTER TABLE dataapproval ALTER COLUMN accepted SET NOT NULL" );
         executeSql( "DELETE FROM dataapproval WHERE categoryoptiongroupid IS NOT NULL" );
         executeSql( "ALTER TABLE dataapproval DROP COLUMN categoryoptiongroupid" );
         executeSql( "UPDATE dataapproval SET attributeoptioncomboid=categoryoptioncomboid WHERE categoryoptioncomboid IS NOT NULL" );
         executeSql( "ALTER TABLE dataapproval DROP COLUMN categoryoptioncomboid" );
-        executeSql( "UPDATE dataapproval SET attributeoptioncomboid=" + defaultCategoryComboId + " WHERE attributeoptioncomboid IS NULL" );
+        executeSqlAlways( "UPDATE dataapproval SET attributeoptioncomboid=" + defaultCategoryComboId + " WHERE attributeoptioncomboid IS NULL" );
         executeSql( "ALTER TABLE dataapproval ALTER COLUMN attributeoptioncomboid SET NOT NULL" );
 
         // validation rule group, new column alertbyorgunits
-        executeSql( "UPDATE validationrulegroup SET alertbyorgunits=false WHERE alertbyorgunits IS NULL" );
+        executeSqlAlways( "UPDATE validationrulegroup SET alertbyorgunits=false WHERE alertbyorgunits IS NULL" );
 
-        executeSql( "update expression set missingvaluestrategy = 'SKIP_IF_ANY_VALUE_MISSING' where missingvaluestrategy is null and (nullifblank is true or nullifblank is null)" );
-        executeSql( "update expression set missingvaluestrategy = 'NEVER_SKIP' where missingvaluestrategy is null nullifblank is false" );
+        executeSqlAlways( "update expression set missingvaluestrategy = 'SKIP_IF_ANY_VALUE_MISSING' where missingvaluestrategy is null and (nullifblank is true or nullifblank is null)" );
+        executeSqlAlways( "update expression set missingvaluestrategy = 'NEVER_SKIP' where missingvaluestrategy is null nullifblank is false" );
         executeSql( "alter table expression alter column missingvaluestrategy set not null" );
         executeSql( "alter table expression drop column nullifblank" );
         executeSql( "drop table expressiondataelement" );
@@ -915,68 +928,68 @@ public class TableAlteror
         executeSql( "alter table trackedentitydatavalue alter column value type varchar(50000)" );
         executeSql( "alter table trackedentityattributevalue alter column value type varchar(50000)" );
 
-        executeSql( "update trackedentitydatavalue set providedelsewhere=false where providedelsewhere is null" );
+        executeSqlAlways( "update trackedentitydatavalue set providedelsewhere=false where providedelsewhere is null" );
 
-        executeSql( "update datavalueaudit set attributeoptioncomboid = " + defaultOptionComboId + " where attributeoptioncomboid is null" );
+        executeSqlAlways( "update datavalueaudit set attributeoptioncomboid = " + defaultOptionComboId + " where attributeoptioncomboid is null" );
         executeSql( "alter table datavalueaudit alter column attributeoptioncomboid set not null;" );
 
-        executeSql( "update dataelementcategoryoption set shortname = substring(name,0,50) where shortname is null" );
+        executeSqlAlways( "update dataelementcategoryoption set shortname = substring(name,0,50) where shortname is null" );
 
         // AttributeValue
-        executeSql( "UPDATE attributevalue SET created=now() WHERE created IS NULL" );
-        executeSql( "UPDATE attributevalue SET lastupdated=now() WHERE lastupdated IS NULL" );
+        executeSqlAlways( "UPDATE attributevalue SET created=now() WHERE created IS NULL" );
+        executeSqlAlways( "UPDATE attributevalue SET lastupdated=now() WHERE lastupdated IS NULL" );
         executeSql( "ALTER TABLE attributevalue ALTER value TYPE text" );
         executeSql( "DELETE FROM attributevalue where value IS NULL or value=''" );
 
-        executeSql( "update dashboarditem set shape = 'normal' where shape is null" );
+        executeSqlAlways( "update dashboarditem set shape = 'normal' where shape is null" );
 
-        executeSql( "update categoryoptioncombo set ignoreapproval = false where ignoreapproval is null" );
+        executeSqlAlways( "update categoryoptioncombo set ignoreapproval = false where ignoreapproval is null" );
 
         executeSql( "alter table version alter column versionkey set not null" );
         executeSql( "alter table version add constraint version_versionkey_key unique(versionkey)" );
 
         // Cacheable
-        executeSql( "UPDATE report set cachestrategy='RESPECT_SYSTEM_SETTING' where cachestrategy is null" );
-        executeSql( "UPDATE sqlview set cachestrategy='RESPECT_SYSTEM_SETTING' where cachestrategy is null" );
+        executeSqlAlways( "UPDATE report set cachestrategy='RESPECT_SYSTEM_SETTING' where cachestrategy is null" );
+        executeSqlAlways( "UPDATE sqlview set cachestrategy='RESPECT_SYSTEM_SETTING' where cachestrategy is null" );
 
         executeSql( "update categorycombo set datadimensiontype = 'DISAGGREGATION' where dimensiontype = 'disaggregation'" );
         executeSql( "update categorycombo set datadimensiontype = 'ATTRIBUTE' where dimensiontype = 'attribute'" );
-        executeSql( "update categorycombo set datadimensiontype = 'DISAGGREGATION' where datadimensiontype is null" );
+        executeSqlAlways( "update categorycombo set datadimensiontype = 'DISAGGREGATION' where datadimensiontype is null" );
         executeSql( "alter table categorycombo drop column dimensiontype" );
         executeSql( "update dataelementcategory set datadimensiontype = 'DISAGGREGATION' where dimensiontype = 'disaggregation'" );
         executeSql( "update dataelementcategory set datadimensiontype = 'ATTRIBUTE' where dimensiontype = 'attribute'" );
-        executeSql( "update dataelementcategory set datadimensiontype = 'DISAGGREGATION' where datadimensiontype is null" );
+        executeSqlAlways( "update dataelementcategory set datadimensiontype = 'DISAGGREGATION' where datadimensiontype is null" );
         executeSql( "alter table dataelementcategory drop column dimensiontype" );
 
-        executeSql( "update categoryoptiongroupset set datadimensiontype = 'ATTRIBUTE' where datadimensiontype is null" );
-        executeSql( "update categoryoptiongroup set datadimensiontype = 'ATTRIBUTE' where datadimensiontype is null" );
+        executeSqlAlways( "update categoryoptiongroupset set datadimensiontype = 'ATTRIBUTE' where datadimensiontype is null" );
+        executeSqlAlways( "update categoryoptiongroup set datadimensiontype = 'ATTRIBUTE' where datadimensiontype is null" );
 
-        executeSql( "update reporttable set completedonly = false where completedonly is null" );
-        executeSql( "update chart set completedonly = false where completedonly is null" );
-        executeSql( "update eventreport set completedonly = false where completedonly is null" );
-        executeSql( "update eventchart set completedonly = false where completedonly is null" );
+        executeSqlAlways( "update reporttable set completedonly = false where completedonly is null" );
+        executeSqlAlways( "update chart set completedonly = false where completedonly is null" );
+        executeSqlAlways( "update eventreport set completedonly = false where completedonly is null" );
+        executeSqlAlways( "update eventchart set completedonly = false where completedonly is null" );
 
-        executeSql( "update program set enrollmentdatelabel = dateofenrollmentdescription where enrollmentdatelabel is null" );
-        executeSql( "update program set incidentdatelabel = dateofincidentdescription where incidentdatelabel is null" );
-        executeSql( "update programinstance set incidentdate = dateofincident where incidentdate is null" );
+        executeSqlAlways( "update program set enrollmentdatelabel = dateofenrollmentdescription where enrollmentdatelabel is null" );
+        executeSqlAlways( "update program set incidentdatelabel = dateofincidentdescription where incidentdatelabel is null" );
+        executeSqlAlways( "update programinstance set incidentdate = dateofincident where incidentdate is null" );
         executeSql( "alter table programinstance alter column incidentdate drop not null" );
         executeSql( "alter table program drop column dateofenrollmentdescription" );
         executeSql( "alter table program drop column dateofincidentdescription" );
         executeSql( "alter table programinstance drop column dateofincident" );
 
         executeSql( "update programstage set reportdatetouse = 'indicentDate' where reportdatetouse='dateOfIncident'" );
-        executeSql( "update programstage set repeatable = irregular where repeatable is null" );
-        executeSql( "update programstage set repeatable = false where repeatable is null" );
+        executeSqlAlways( "update programstage set repeatable = irregular where repeatable is null" );
+        executeSqlAlways( "update programstage set repeatable = false where repeatable is null" );
         executeSql( "alter table programstage drop column reportdatedescription" );
         executeSql( "alter table programstage drop column irregular" );
 
-        executeSql( "update smscodes set compulsory = false where compulsory is null" );
+        executeSqlAlways( "update smscodes set compulsory = false where compulsory is null" );
 
         executeSql( "alter table programmessage drop column storecopy" );
 
         executeSql( "alter table programindicator drop column missingvaluereplacement" );
 
-        executeSql( "update keyjsonvalue set namespacekey = key where namespacekey is null" );
+        executeSqlAlways( "update keyjsonvalue set namespacekey = key where namespacekey is null" );
         executeSql( "alter table keyjsonvalue alter column namespacekey set not null" );
         executeSql( "alter table keyjsonvalue drop column key" );
         executeSql( "alter table trackedentityattributevalue drop column encrypted_value" );
@@ -1002,16 +1015,16 @@ public class TableAlteror
         executeSql( "alter table datastatisticsevent alter column eventtype type character varying" );
         executeSql( "alter table orgunitlevel drop constraint orgunitlevel_name_key" );
 
-        executeSql( "update interpretation set likes = 0 where likes is null" );
+        executeSqlAlways( "update interpretation set likes = 0 where likes is null" );
         executeSql( "create index in_interpretationcomment_mentions_username on interpretationcomment using GIN((mentions->'username') jsonb_path_ops)" );
         executeSql( "create index in_interpretation_mentions_username on interpretation using GIN((mentions->'username') jsonb_path_ops)" );
 
-        executeSql( "update chart set regressiontype = 'NONE' where regression is false or regression is null" );
+        executeSqlAlways( "update chart set regressiontype = 'NONE' where regression is false or regression is null" );
         executeSql( "update chart set regressiontype = 'LINEAR' where regression is true" );
         executeSql( "alter table chart alter column regressiontype set not null" );
         executeSql( "alter table chart drop column regression" );
 
-        executeSql( "update eventchart set regressiontype = 'NONE' where regression is false or regression is null" );
+        executeSqlAlways( "update eventchart set regressiontype = 'NONE' where regression is false or regression is null" );
         executeSql( "update eventchart set regressiontype = 'LINEAR' where regression is true" );
         executeSql( "alter table eventchart alter column regressiontype set not null" );
         executeSql( "alter table eventchart drop column regression" );
@@ -1069,7 +1082,7 @@ public class TableAlteror
         updateLegendRelationship();
         updateHideEmptyRows();
 
-        executeSql( "update programindicator set analyticstype = 'EVENT' where analyticstype is null" );
+        executeSqlAlways( "update programindicator set analyticstype = 'EVENT' where analyticstype is null" );
         executeSql( "alter table programindicator alter column analyticstype set not null" );
 
         //TODO: remove - not needed in release 2.26.
@@ -1089,8 +1102,8 @@ public class TableAlteror
         
         insertDefaultBoundariesForBoundlessProgramIndicators();
         
-        executeSql( "UPDATE trackedentitytype SET publicaccess='rwrw----' WHERE publicaccess IS NULL;" );
-        executeSql( "UPDATE programstage SET publicaccess='rw------' WHERE publicaccess IS NULL;" );
+        executeSqlAlways( "UPDATE trackedentitytype SET publicaccess='rwrw----' WHERE publicaccess IS NULL;" );
+        executeSqlAlways( "UPDATE programstage SET publicaccess='rw------' WHERE publicaccess IS NULL;" );
 
         executeSql("alter table jobconfiguration drop column configurable;");
 
@@ -1115,8 +1128,9 @@ public class TableAlteror
         executeSql( "UPDATE jobconfiguration SET leaderonlyjob=true WHERE name='Remove expired reserved values';" );
         executeSql( "UPDATE jobconfiguration SET leaderonlyjob=true WHERE name='Credentials expiry alert';" );
         
-        log.info( "Tables updated" );
+        migrationLedger.addAppliedChecksums( getName(), executedStatements );
 
+        log.info( "Tables updated" );
     }
 
     /**
@@ -1151,7 +1165,7 @@ public class TableAlteror
 
     private void upgradeDataValueSoftDelete()
     {
-        executeSql( "update datavalue set deleted = false where deleted is null" );
+        executeSqlAlways( "update datavalue set deleted = false where deleted is null" );
         executeSql( "alter table datavalue alter column deleted set not null" );
         executeSql( "create index in_datavalue_deleted on datavalue(deleted)" );
     }
@@ -1279,7 +1293,7 @@ public class TableAlteror
         executeSql( "update " + table + " set aggregationtype='VARIANCE' where aggregationtype='variance'" );
         executeSql( "update " + table + " set aggregationtype='MIN' where aggregationtype='min'" );
         executeSql( "update " + table + " set aggregationtype='MAX' where aggregationtype='max'" );
-        executeSql( "update " + table + " set aggregationtype='DEFAULT' where aggregationtype='default' or aggregationtype is null" );
+        executeSqlAlways( "update " + table + " set aggregationtype='DEFAULT' where aggregationtype='default' or aggregationtype is null" );
     }
 
     private void updateRelativePeriods()
@@ -1288,30 +1302,30 @@ public class TableAlteror
         executeSql( "update relativeperiods set thisbimonth=reportingbimonth" );
         executeSql( "update relativeperiods set thisquarter=reportingquarter" );
 
-        executeSql( "update relativeperiods set lastweek = false where lastweek is null" );
-        executeSql( "update relativeperiods set weeksthisyear = false where weeksthisyear is null" );
-        executeSql( "update relativeperiods set bimonthsthisyear = false where bimonthsthisyear is null" );
-        executeSql( "update relativeperiods set last4weeks = false where last4weeks is null" );
-        executeSql( "update relativeperiods set last12weeks = false where last12weeks is null" );
-        executeSql( "update relativeperiods set last6months = false where last6months is null" );
+        executeSqlAlways( "update relativeperiods set lastweek = false where lastweek is null" );
+        executeSqlAlways( "update relativeperiods set weeksthisyear = false where weeksthisyear is null" );
+        executeSqlAlways( "update relativeperiods set bimonthsthisyear = false where bimonthsthisyear is null" );
+        executeSqlAlways( "update relativeperiods set last4weeks = false where last4weeks is null" );
+        executeSqlAlways( "update relativeperiods set last12weeks = false where last12weeks is null" );
+        executeSqlAlways( "update relativeperiods set last6months = false where last6months is null" );
 
-        executeSql( "update relativeperiods set thismonth = false where thismonth is null" );
-        executeSql( "update relativeperiods set thisbimonth = false where thisbimonth is null" );
-        executeSql( "update relativeperiods set thisquarter = false where thisquarter is null" );
-        executeSql( "update relativeperiods set thissixmonth = false where thissixmonth is null" );
-        executeSql( "update relativeperiods set thisweek = false where thisweek is null" );
+        executeSqlAlways( "update relativeperiods set thismonth = false where thismonth is null" );
+        executeSqlAlways( "update relativeperiods set thisbimonth = false where thisbimonth is null" );
+        executeSqlAlways( "update relativeperiods set thisquarter = false where thisquarter is null" );
+        executeSqlAlways( "update relativeperiods set thissixmonth = false where thissixmonth is null" );
+        executeSqlAlways( "update relativeperiods set thisweek = false where thisweek is null" );
 
-        executeSql( "update relativeperiods set lastmonth = false where lastmonth is null" );
-        executeSql( "update relativeperiods set lastbimonth = false where lastbimonth is null" );
-        executeSql( "update relativeperiods set lastquarter = false where lastquarter is null" );
-        executeSql( "update relativeperiods set lastsixmonth = false where lastsixmonth is null" );
-        executeSql( "update relativeperiods set lastweek = false where lastweek is null" );
+        executeSqlAlways( "update relativeperiods set lastmonth = false where lastmonth is null" );
+        executeSqlAlways( "update relativeperiods set lastbimonth = false where lastbimonth is null" );
+        executeSqlAlways( "update relativeperiods set lastquarter = false where lastquarter is null" );
+        executeSqlAlways( "update relativeperiods set lastsixmonth = false where lastsixmonth is null" );
+        executeSqlAlways( "update relativeperiods set lastweek = false where lastweek is null" );
 
-        executeSql( "update relativeperiods set thisday = false where thisday is null" );
-        executeSql( "update relativeperiods set yesterday = false where yesterday is null" );
-        executeSql( "update relativeperiods set last3days = false where last3days is null" );
-        executeSql( "update relativeperiods set last7days = false where last7days is null" );
-        executeSql( "update relativeperiods set last14days = false where last14days is null" );
+        executeSqlAlways( "update relativeperiods set thisday = false where thisday is null" );
+        executeSqlAlways( "update relativeperiods set yesterday = false where yesterday is null" );
+        executeSqlAlways( "update relativeperiods set last3days = false where last3days is null" );
+        executeSqlAlways( "update relativeperiods set last7days = false where last7days is null" );
+        executeSqlAlways( "update relativeperiods set last14days = false where last14days is null" );
 
 
         // Set non-null constraint on fields
@@ -1381,7 +1395,7 @@ public class TableAlteror
         executeSql( "alter table datavalue drop constraint datavalue_pkey;" );
 
         executeSql( "alter table datavalue add column attributeoptioncomboid integer;" );
-        executeSql( "update datavalue set attributeoptioncomboid = " + optionComboId + " where attributeoptioncomboid is null;" );
+        executeSqlAlways( "update datavalue set attributeoptioncomboid = " + optionComboId + " where attributeoptioncomboid is null;" );
         executeSql( "alter table datavalue alter column attributeoptioncomboid set not null;" );
         executeSql( "alter table datavalue add constraint fk_datavalue_attributeoptioncomboid foreign key (attributeoptioncomboid) references categoryoptioncombo (categoryoptioncomboid) match simple;" );
         executeSql( "alter table datavalue add constraint datavalue_pkey primary key(dataelementid, periodid, sourceid, categoryoptioncomboid, attributeoptioncomboid);" );
@@ -1437,9 +1451,9 @@ public class TableAlteror
         executeSql( "alter table mapview drop column dataelementgroupid" );
         executeSql( "alter table mapview drop column indicatorgroupid" );
 
-        executeSql( "update mapview set userorganisationunit = false where userorganisationunit is null" );
-        executeSql( "update mapview set userorganisationunitchildren = false where userorganisationunitchildren is null" );
-        executeSql( "update mapview set userorganisationunitgrandchildren = false where userorganisationunitgrandchildren is null" );
+        executeSqlAlways( "update mapview set userorganisationunit = false where userorganisationunit is null" );
+        executeSqlAlways( "update mapview set userorganisationunitchildren = false where userorganisationunitchildren is null" );
+        executeSqlAlways( "update mapview set userorganisationunitgrandchildren = false where userorganisationunitgrandchildren is null" );
     }
 
     private void upgradeTranslations()
@@ -1631,7 +1645,7 @@ public class TableAlteror
                 String sql = "UPDATE " + table + " SET sort_order=" + sortOrder++ + " WHERE " + col1 + "=" + distinctId
                     + " AND " + col2 + "=" + foreignId;
 
-                int count = executeSql( sql );
+                int count = executeSqlAlways( sql );
 
                 log.info( "Executed: " + count + " - " + sql );
             }
@@ -1683,7 +1697,7 @@ public class TableAlteror
                 "from mapview_columns mc " +
                 "where mv.mapviewid = mc.mapviewid)";
 
-        executeSql( sql );
+        executeSqlAlways( sql );
     }
 
     /**
@@ -1720,7 +1734,7 @@ public class TableAlteror
             "where datasetid is not null " +
             "and metric is null;";
 
-        executeSql( sql );
+        executeSqlAlways( sql );
     }
     
     /**
@@ -1801,11 +1815,39 @@ public class TableAlteror
             "select nextval('hibernate_sequence'), uid(), now(), now(), 'ENROLLMENT_DATE', 'BEFORE_END_OF_REPORTING_PERIOD', ubpi.programindicatorid " + 
             "from temp_unbounded_programindicators ubpi where ubpi.analyticstype = 'ENROLLMENT';";
 
-        executeSql( findBoundlessAndInsertDefaultBoundaries );
+        executeSqlAlways( findBoundlessAndInsertDefaultBoundaries );
         
     }
     
+    /**
+     * Executes the given statement, or returns -1 without executing it if the
+     * migration ledger records it as applied by an earlier startup. Only
+     * successful statements are recorded.
+     */
     private int executeSql( String sql )
+    {
+        final String checksum = MigrationLedger.getChecksum( sql );
+
+        if ( appliedStatements.contains( checksum ) )
+        {
+            return -1;
+        }
+
+        int result = executeSqlAlways( sql );
+
+        if ( result >= 0 )
+        {
+            executedStatements.add( checksum );
+        }
+
+        return result;
+    }
+
+    /**
+     * Executes the given statement on every startup, bypassing the migration
+     * ledger. Used for data repairs.
+     */
+    private int executeSqlAlways( String sql )
     {
         try
         {
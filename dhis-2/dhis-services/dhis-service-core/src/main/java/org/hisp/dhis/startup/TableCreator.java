@@ -62,6 +62,11 @@ public class TableCreator
         createSilently( "create unique index dataapproval_unique on dataapproval(datasetid,periodid,organisationunitid,attributeoptioncomboid,dataapprovallevelid)", "dataapproval_unique" );
         createSilently( "create index in_datavalueaudit on datavalueaudit(dataelementid,periodid,organisationunitid,categoryoptioncomboid,attributeoptioncomboid)", "in_datavalueaudit" );
         createSilently( "create index in_trackedentityattributevalue_attributeid on trackedentityattributevalue(trackedentityattributeid)", "in_trackedentityattributevalue_attributeid" );
+        createSilently( "create table orgunitclosure (ancestorid integer not null, descendantid integer not null, depth integer not null, " +
+            "primary key (ancestorid, descendantid), " +
+            "foreign key (ancestorid) references organisationunit (organisationunitid) on delete cascade, " +
+            "foreign key (descendantid) references organisationunit (organisationunitid) on delete cascade)", "orgunitclosure" );
+        createSilently( "create index in_orgunitclosure_descendantid on orgunitclosure(descendantid, depth)", "in_orgunitclosure_descendantid" );
     }
     
     private void createSilently( final String sql, final String name )
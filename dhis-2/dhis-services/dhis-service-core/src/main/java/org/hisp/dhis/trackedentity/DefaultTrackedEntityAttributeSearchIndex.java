@@ -0,0 +1,797 @@
+package org.hisp.dhis.trackedentity;
+
+/*
+ * Copyright (c) 2004-2018, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.hisp.dhis.common.OrganisationUnitSelectionMode;
+import org.hisp.dhis.common.QueryFilter;
+import org.hisp.dhis.common.QueryItem;
+import org.hisp.dhis.common.QueryOperator;
+import org.hisp.dhis.commons.util.TextUtils;
+import org.hisp.dhis.external.conf.ConfigurationKey;
+import org.hisp.dhis.external.conf.DhisConfigurationProvider;
+import org.hisp.dhis.organisationunit.OrganisationUnit;
+import org.hisp.dhis.system.util.Clock;
+import org.hisp.dhis.trackedentityattributevalue.TrackedEntityAttributeValue;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.annotation.PostConstruct;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * Implementation of {@link TrackedEntityAttributeSearchIndex} which holds a
+ * trigram index per attribute in memory. The index is enabled with the
+ * {@code tracker.search.index} configuration property and is built in the
+ * background on startup.
+ * <p>
+ * Values are maintained after commit of writes through the attribute value
+ * service. Writes which bypass the service are repaired by
+ * {@link #checkConsistency()}, and searches may miss them until then.
+ * <p>
+ * The index is local to a single node and does not see writes made on other
+ * nodes, so it is never enabled in a cluster.
+ * <p>
+ * Memory use is in the order of a few hundred bytes per indexed value. The
+ * index is not built, or is dropped, when the number of values exceeds the
+ * {@code tracker.search.index.max_values} configuration property. Larger
+ * databases are better served by a pg_trgm GIN index on the value column.
+ */
+public class DefaultTrackedEntityAttributeSearchIndex
+    implements TrackedEntityAttributeSearchIndex
+{
+    private static final Log log = LogFactory.getLog( DefaultTrackedEntityAttributeSearchIndex.class );
+
+    private static final int GRAM_LENGTH = 3;
+
+    /**
+     * Maximum number of candidates to return. Searches with more candidates are
+     * left to the database.
+     */
+    private static final int MAX_CANDIDATES = 10000;
+
+    private static final String VALUE_SQL =
+        "select av.trackedentityinstanceid, av.trackedentityattributeid, av.value, av.lastupdated " +
+        "from trackedentityattributevalue av " +
+        "inner join trackedentityattribute a on av.trackedentityattributeid = a.trackedentityattributeid " +
+        "where av.value is not null and (a.confidential is null or a.confidential = false) ";
+
+    private static final String COUNT_SQL =
+        "select av.trackedentityattributeid, count(*) as value_count, max(av.lastupdated) as last_updated " +
+        "from trackedentityattributevalue av " +
+        "inner join trackedentityattribute a on av.trackedentityattributeid = a.trackedentityattributeid " +
+        "where av.value is not null and (a.confidential is null or a.confidential = false) " +
+        "group by av.trackedentityattributeid";
+
+    private static final String SCOPE_SQL =
+        "select tei.trackedentityinstanceid, tei.trackedentitytypeid, ou.path " +
+        "from trackedentityinstance tei " +
+        "inner join organisationunit ou on tei.organisationunitid = ou.organisationunitid";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private DhisConfigurationProvider configurationProvider;
+
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(
+        new ThreadFactoryBuilder().setNameFormat( "tei-search-index-%d" ).setDaemon( true ).build() );
+
+    private final Object rebuildLock = new Object();
+
+    /**
+     * The current index, null until the index has been built.
+     */
+    private volatile Index index;
+
+    @PostConstruct
+    public void init()
+    {
+        if ( isEnabled() )
+        {
+            executor.execute( () -> {
+                try
+                {
+                    rebuild();
+                }
+                catch ( Exception ex )
+                {
+                    log.error( "Failed to build tracked entity attribute search index", ex );
+                }
+            } );
+        }
+    }
+
+    // -------------------------------------------------------------------------
+    // TrackedEntityAttributeSearchIndex implementation
+    // -------------------------------------------------------------------------
+
+    @Override
+    public boolean isEnabled()
+    {
+        return configurationProvider.isEnabled( ConfigurationKey.TRACKER_SEARCH_INDEX ) && !configurationProvider.isClusterEnabled();
+    }
+
+    @Override
+    public boolean isReady()
+    {
+        return index != null && isEnabled();
+    }
+
+    @Override
+    public void addValue( TrackedEntityAttributeValue attributeValue )
+    {
+        if ( index == null || !isIndexable( attributeValue ) )
+        {
+            return;
+        }
+
+        TrackedEntityAttribute attribute = attributeValue.getAttribute();
+
+        if ( attribute.isConfidentialBool() || attributeValue.getPlainValue() == null )
+        {
+            removeValue( attributeValue );
+            return;
+        }
+
+        int attributeId = attribute.getId();
+        int instanceId = attributeValue.getEntityInstance().getId();
+        String value = attributeValue.getPlainValue();
+        Date lastUpdated = attributeValue.getLastUpdated();
+
+        afterCommit( current -> current.attributes.computeIfAbsent( attributeId, id -> new AttributeIndex() )
+            .put( instanceId, value, lastUpdated ) );
+
+        updateScope( attributeValue.getEntityInstance() );
+    }
+
+    @Override
+    public void removeValue( TrackedEntityAttributeValue attributeValue )
+    {
+        if ( index == null || !isIndexable( attributeValue ) )
+        {
+            return;
+        }
+
+        int attributeId = attributeValue.getAttribute().getId();
+        int instanceId = attributeValue.getEntityInstance().getId();
+
+        afterCommit( current -> {
+            AttributeIndex attributeIndex = current.attributes.get( attributeId );
+
+            if ( attributeIndex != null )
+            {
+                attributeIndex.remove( instanceId );
+            }
+        } );
+    }
+
+    @Override
+    public void updateScope( TrackedEntityInstance instance )
+    {
+        if ( index == null || instance == null || instance.getId() == 0 ||
+            instance.getTrackedEntityType() == null || instance.getOrganisationUnit() == null )
+        {
+            return;
+        }
+
+        int instanceId = instance.getId();
+        Scope scope = new Scope( instance.getTrackedEntityType().getId(), instance.getOrganisationUnit().getPath() );
+
+        afterCommit( current -> current.scopes.put( instanceId, scope ) );
+    }
+
+    @Override
+    public Set<Integer> getCandidates( TrackedEntityInstanceQueryParams params )
+    {
+        Index current = index;
+
+        if ( current == null )
+        {
+            return null;
+        }
+
+        Set<Integer> candidates = params.hasQuery() ?
+            getQueryCandidates( current, params.getQuery() ) : getFilterCandidates( current, params.getFilters() );
+
+        if ( candidates == null )
+        {
+            return null;
+        }
+
+        candidates = candidates.stream()
+            .filter( id -> isInScope( current.scopes.get( id ), params ) )
+            .collect( Collectors.toSet() );
+
+        return candidates.size() > MAX_CANDIDATES ? null : candidates;
+    }
+
+    @Override
+    public void rebuild()
+    {
+        synchronized ( rebuildLock )
+        {
+            Clock clock = new Clock( log ).startClock().logTime( "Building tracked entity attribute search index" );
+
+            int valueCount = getValueCounts().values().stream().mapToInt( count -> count.count ).sum();
+
+            if ( valueCount > getMaxValues() )
+            {
+                index = null;
+
+                log.warn( String.format( "Not building tracked entity attribute search index, %d values exceed the maximum of %d",
+                    valueCount, getMaxValues() ) );
+                return;
+            }
+
+            Index fresh = new Index();
+
+            jdbcTemplate.query( SCOPE_SQL, rs -> {
+                fresh.scopes.put( rs.getInt( 1 ), new Scope( rs.getInt( 2 ), rs.getString( 3 ) ) );
+            } );
+
+            jdbcTemplate.query( VALUE_SQL, rs -> {
+                fresh.attributes.computeIfAbsent( rs.getInt( 2 ), id -> new AttributeIndex() )
+                    .put( rs.getInt( 1 ), rs.getString( 3 ), rs.getTimestamp( 4 ) );
+            } );
+
+            index = fresh;
+
+            clock.logTime( String.format( "Built tracked entity attribute search index with %d attributes and %d instances",
+                fresh.attributes.size(), fresh.scopes.size() ) );
+        }
+    }
+
+    @Override
+    public int checkConsistency()
+    {
+        synchronized ( rebuildLock )
+        {
+            Index current = index;
+
+            if ( current == null )
+            {
+                return 0;
+            }
+
+            int repaired = 0;
+
+            // Scopes
+
+            Map<Integer, Scope> scopes = new HashMap<>();
+
+            jdbcTemplate.query( SCOPE_SQL, rs -> {
+                scopes.put( rs.getInt( 1 ), new Scope( rs.getInt( 2 ), rs.getString( 3 ) ) );
+            } );
+
+            for ( Map.Entry<Integer, Scope> entry : scopes.entrySet() )
+            {
+                if ( !entry.getValue().equals( current.scopes.put( entry.getKey(), entry.getValue() ) ) )
+                {
+                    repaired++;
+                }
+            }
+
+            repaired += current.scopes.keySet().stream().filter( id -> !scopes.containsKey( id ) ).count();
+
+            current.scopes.keySet().retainAll( scopes.keySet() );
+
+            // Values
+
+            Map<Integer, ValueCount> counts = getValueCounts();
+
+            int valueCount = counts.values().stream().mapToInt( count -> count.count ).sum();
+
+            if ( valueCount > getMaxValues() )
+            {
+                index = null;
+
+                log.warn( String.format( "Dropped tracked entity attribute search index, %d values exceed the maximum of %d",
+                    valueCount, getMaxValues() ) );
+
+                return repaired;
+            }
+
+            Set<Integer> attributes = new HashSet<>( counts.keySet() );
+            attributes.addAll( current.attributes.keySet() );
+
+            for ( Integer attribute : attributes )
+            {
+                AttributeIndex attributeIndex = current.attributes.get( attribute );
+                ValueCount count = counts.getOrDefault( attribute, new ValueCount( 0, null ) );
+
+                int indexed = attributeIndex != null ? attributeIndex.size() : 0;
+                long lastUpdated = attributeIndex != null ? attributeIndex.getLastUpdated() : 0;
+
+                if ( indexed != count.count || count.lastUpdated > lastUpdated )
+                {
+                    reindexAttribute( current, attribute );
+                    repaired++;
+                }
+            }
+
+            log.info( String.format( "Tracked entity attribute search index consistency check repaired %d inconsistencies", repaired ) );
+
+            return repaired;
+        }
+    }
+
+    // -------------------------------------------------------------------------
+    // Supportive methods
+    // -------------------------------------------------------------------------
+
+    /**
+     * Applies the given write to the index when the current transaction
+     * commits, or immediately if there is no transaction, so that rolled back
+     * writes never reach the index.
+     */
+    private void afterCommit( Consumer<Index> write )
+    {
+        if ( TransactionSynchronizationManager.isSynchronizationActive() )
+        {
+            TransactionSynchronizationManager.registerSynchronization( new TransactionSynchronizationAdapter()
+            {
+                @Override
+                public void afterCommit()
+                {
+                    applyWrite( write );
+                }
+            } );
+        }
+        else
+        {
+            applyWrite( write );
+        }
+    }
+
+    private void applyWrite( Consumer<Index> write )
+    {
+        Index current = index;
+
+        if ( current != null )
+        {
+            write.accept( current );
+        }
+    }
+
+    /**
+     * Returns the number of values and the latest update of a value per
+     * attribute in the database.
+     */
+    private Map<Integer, ValueCount> getValueCounts()
+    {
+        Map<Integer, ValueCount> counts = new HashMap<>();
+
+        jdbcTemplate.query( COUNT_SQL, rs -> {
+            counts.put( rs.getInt( 1 ), new ValueCount( rs.getInt( 2 ), rs.getTimestamp( 3 ) ) );
+        } );
+
+        return counts;
+    }
+
+    private int getMaxValues()
+    {
+        return Integer.parseInt( configurationProvider.getProperty( ConfigurationKey.TRACKER_SEARCH_INDEX_MAX_VALUES ) );
+    }
+
+    private boolean isIndexable( TrackedEntityAttributeValue attributeValue )
+    {
+        return attributeValue != null && attributeValue.getAttribute() != null &&
+            attributeValue.getEntityInstance() != null && attributeValue.getEntityInstance().getId() != 0;
+    }
+
+    /**
+     * Returns the instances which have a value containing every token of the
+     * given query, for any attribute. Tokens shorter than a gram are left to
+     * the database. Returns null if the query cannot be answered by the index.
+     */
+    private Set<Integer> getQueryCandidates( Index current, QueryFilter query )
+    {
+        if ( !query.isOperator( QueryOperator.EQ ) && !query.isOperator( QueryOperator.LIKE ) )
+        {
+            return null;
+        }
+
+        List<String> tokens = TextUtils.getTokens( StringUtils.lowerCase( query.getFilter() ) ).stream()
+            .filter( token -> token.length() >= GRAM_LENGTH )
+            .collect( Collectors.toList() );
+
+        if ( tokens.isEmpty() )
+        {
+            return null;
+        }
+
+        Set<Integer> candidates = null;
+
+        for ( String token : tokens )
+        {
+            Set<Integer> matches = new HashSet<>();
+
+            for ( AttributeIndex attributeIndex : current.attributes.values() )
+            {
+                matches.addAll( attributeIndex.match( token, false ) );
+            }
+
+            candidates = intersect( candidates, matches );
+        }
+
+        return candidates;
+    }
+
+    /**
+     * Returns the instances which match every equality and like filter on
+     * text attributes. Other filters are left to the database. Returns null
+     * if none of the filters can be answered by the index.
+     */
+    private Set<Integer> getFilterCandidates( Index current, List<QueryItem> items )
+    {
+        Set<Integer> candidates = null;
+
+        for ( QueryItem item : items )
+        {
+            if ( item.isNumeric() || !( item.getItem() instanceof TrackedEntityAttribute ) ||
+                ( (TrackedEntityAttribute) item.getItem() ).isConfidentialBool() )
+            {
+                continue;
+            }
+
+            AttributeIndex attributeIndex = current.attributes.getOrDefault( item.getItem().getId(), new AttributeIndex() );
+
+            for ( QueryFilter filter : item.getFilters() )
+            {
+                String term = StringUtils.lowerCase( filter.getFilter() );
+
+                if ( term == null || term.length() < GRAM_LENGTH ||
+                    !( filter.isOperator( QueryOperator.EQ ) || filter.isOperator( QueryOperator.LIKE ) ) )
+                {
+                    continue;
+                }
+
+                candidates = intersect( candidates, attributeIndex.match( term, filter.isOperator( QueryOperator.EQ ) ) );
+            }
+        }
+
+        return candidates;
+    }
+
+    private Set<Integer> intersect( Set<Integer> candidates, Set<Integer> matches )
+    {
+        if ( candidates == null )
+        {
+            return new HashSet<>( matches );
+        }
+
+        candidates.retainAll( matches );
+
+        return candidates;
+    }
+
+    /**
+     * Indicates whether the given scope matches the tracked entity type and
+     * organisation units of the given parameters. Instances without a known
+     * scope are retained and left to the database.
+     */
+    private boolean isInScope( Scope scope, TrackedEntityInstanceQueryParams params )
+    {
+        if ( scope == null )
+        {
+            return true;
+        }
+
+        if ( params.hasTrackedEntityType() && params.getTrackedEntityType().getId() != scope.typeId )
+        {
+            return false;
+        }
+
+        if ( !params.hasOrganisationUnits() || params.isOrganisationUnitMode( OrganisationUnitSelectionMode.ALL ) )
+        {
+            return true;
+        }
+
+        boolean descendants = params.isOrganisationUnitMode( OrganisationUnitSelectionMode.DESCENDANTS );
+
+        for ( OrganisationUnit organisationUnit : params.getOrganisationUnits() )
+        {
+            String path = organisationUnit.getPath();
+
+            if ( path != null && ( descendants ? scope.path.startsWith( path ) : scope.path.equals( path ) ) )
+            {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    private void reindexAttribute( Index current, Integer attribute )
+    {
+        AttributeIndex attributeIndex = new AttributeIndex();
+
+        jdbcTemplate.query( VALUE_SQL + "and av.trackedentityattributeid = ?", new Object[] { attribute }, rs -> {
+            attributeIndex.put( rs.getInt( 1 ), rs.getString( 3 ), rs.getTimestamp( 4 ) );
+        } );
+
+        if ( attributeIndex.size() > 0 )
+        {
+            current.attributes.put( attribute, attributeIndex );
+        }
+        else
+        {
+            current.attributes.remove( attribute );
+        }
+    }
+
+    /**
+     * Returns the distinct grams of the given lower case value.
+     */
+    private static Set<String> getGrams( String value )
+    {
+        Set<String> grams = new HashSet<>();
+
+        for ( int i = 0; i + GRAM_LENGTH <= value.length(); i++ )
+        {
+            grams.add( value.substring( i, i + GRAM_LENGTH ) );
+        }
+
+        return grams;
+    }
+
+    // -------------------------------------------------------------------------
+    // Supportive classes
+    // -------------------------------------------------------------------------
+
+    private static class Index
+    {
+        private final Map<Integer, AttributeIndex> attributes = new ConcurrentHashMap<>();
+
+        private final Map<Integer, Scope> scopes = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Values and trigram postings of a single attribute, and the latest update
+     * of an indexed value in milliseconds.
+     */
+    private static class AttributeIndex
+    {
+        private final Map<Integer, String> values = new HashMap<>();
+
+        private final Map<String, Set<Integer>> postings = new HashMap<>();
+
+        private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+        private long lastUpdated;
+
+        void put( int instance, String value, Date updated )
+        {
+            String lowerValue = StringUtils.lowerCase( value );
+
+            lock.writeLock().lock();
+
+            try
+            {
+                removeUnlocked( instance );
+
+                if ( updated != null )
+                {
+                    lastUpdated = Math.max( lastUpdated, updated.getTime() );
+                }
+
+                values.put( instance, lowerValue );
+
+                for ( String gram : getGrams( lowerValue ) )
+                {
+                    postings.computeIfAbsent( gram, g -> new HashSet<>() ).add( instance );
+                }
+            }
+            finally
+            {
+                lock.writeLock().unlock();
+            }
+        }
+
+        void remove( int instance )
+        {
+            lock.writeLock().lock();
+
+            try
+            {
+                removeUnlocked( instance );
+            }
+            finally
+            {
+                lock.writeLock().unlock();
+            }
+        }
+
+        private void removeUnlocked( int instance )
+        {
+            String previous = values.remove( instance );
+
+            if ( previous == null )
+            {
+                return;
+            }
+
+            for ( String gram : getGrams( previous ) )
+            {
+                Set<Integer> posting = postings.get( gram );
+
+                if ( posting != null )
+                {
+                    posting.remove( instance );
+
+                    if ( posting.isEmpty() )
+                    {
+                        postings.remove( gram );
+                    }
+                }
+            }
+        }
+
+        /**
+         * Returns the instances with a value which equals or contains the
+         * given lower case term, which must be at least one gram long. The
+         * postings of the grams of the term are intersected starting with the
+         * smallest, and the remaining instances are verified against their
+         * value.
+         */
+        Set<Integer> match( String term, boolean exact )
+        {
+            lock.readLock().lock();
+
+            try
+            {
+                List<Set<Integer>> termPostings = getGrams( term ).stream()
+                    .map( gram -> postings.getOrDefault( gram, new HashSet<>() ) )
+                    .sorted( Comparator.comparingInt( Set::size ) )
+                    .collect( Collectors.toList() );
+
+                Set<Integer> matches = new HashSet<>( termPostings.get( 0 ) );
+
+                for ( Collection<Integer> posting : termPostings.subList( 1, termPostings.size() ) )
+                {
+                    matches.retainAll( posting );
+                }
+
+                matches.removeIf( instance -> exact ? !term.equals( values.get( instance ) ) : !values.get( instance ).contains( term ) );
+
+                return matches;
+            }
+            finally
+            {
+                lock.readLock().unlock();
+            }
+        }
+
+        int size()
+        {
+            lock.readLock().lock();
+
+            try
+            {
+                return values.size();
+            }
+            finally
+            {
+                lock.readLock().unlock();
+            }
+        }
+
+        long getLastUpdated()
+        {
+            lock.readLock().lock();
+
+            try
+            {
+                return lastUpdated;
+            }
+            finally
+            {
+                lock.readLock().unlock();
+            }
+        }
+    }
+
+    /**
+     * Number of values and latest update of a value in milliseconds of an
+     * attribute in the database.
+     */
+    private static class ValueCount
+    {
+        private final int count;
+
+        private final long lastUpdated;
+
+        ValueCount( int count, Date lastUpdated )
+        {
+            this.count = count;
+            this.lastUpdated = lastUpdated != null ? lastUpdated.getTime() : 0;
+        }
+    }
+
+    /**
+     * Tracked entity type and organisation unit path of an instance.
+     */
+    private static class Scope
+    {
+        private final int typeId;
+
+        private final String path;
+
+        Scope( int typeId, String path )
+        {
+            this.typeId = typeId;
+            this.path = path != null ? path : "";
+        }
+
+        @Override
+        public boolean equals( Object object )
+        {
+            if ( this == object )
+            {
+                return true;
+            }
+
+            if ( object == null || getClass() != object.getClass() )
+            {
+                return false;
+            }
+
+            Scope other = (Scope) object;
+
+            return typeId == other.typeId && path.equals( other.path );
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return Objects.hash( typeId, path );
+        }
+    }
+}
@@ -112,6 +112,9 @@ public class DefaultTrackedEntityInstanceService
     @Autowired
     private TrackedEntityAttributeService attributeService;
 
+    @Autowired
+    private TrackedEntityAttributeSearchIndex searchIndex;
+
     @Autowired
     private TrackedEntityTypeService trackedEntityTypeService;
 
@@ -871,6 +874,7 @@ public class DefaultTrackedEntityInstanceService
     public void updateTrackedEntityInstance( TrackedEntityInstance instance )
     {
         trackedEntityInstanceStore.update( instance );
+        searchIndex.updateScope( instance );
     }
 
     @Override
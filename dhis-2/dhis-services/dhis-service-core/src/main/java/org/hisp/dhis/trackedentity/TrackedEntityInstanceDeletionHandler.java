@@ -32,6 +32,8 @@ import org.hisp.dhis.organisationunit.OrganisationUnit;
 import org.hisp.dhis.system.deletion.DeletionHandler;
 import org.springframework.jdbc.core.JdbcTemplate;
 
+import java.util.Collection;
+
 /**
  * @author Chau Thu Tran
  */
@@ -65,6 +67,20 @@ public class TrackedEntityInstanceDeletionHandler
         String sql = "select count(*) from trackedentityinstance where organisationunitid = " + unit.getId();
 
         return jdbcTemplate.queryForObject( sql, Integer.class ) == 0 ? null : ERROR;    }
+
+    @Override
+    public boolean isBulkDeletionSupported( Class<?> clazz )
+    {
+        return OrganisationUnit.class.equals( clazz );
+    }
+
+    @Override
+    public String allowDeleteAll( Class<?> clazz, Collection<?> objects )
+    {
+        String sql = "select count(*) from trackedentityinstance where organisationunitid in (" + getIdentifiers( objects ) + ")";
+
+        return jdbcTemplate.queryForObject( sql, Integer.class ) == 0 ? null : ERROR;
+    }
     
     @Override
     public String allowDeleteTrackedEntityType( TrackedEntityType trackedEntityType )
@@ -35,6 +35,7 @@ import org.hibernate.Query;
 import org.hibernate.criterion.DetachedCriteria;
 import org.hibernate.criterion.Restrictions;
 import org.hisp.dhis.common.OrganisationUnitSelectionMode;
+import org.hisp.dhis.common.PageToken;
 import org.hisp.dhis.common.QueryFilter;
 import org.hisp.dhis.common.QueryItem;
 import org.hisp.dhis.common.QueryOperator;
@@ -43,6 +44,7 @@ import org.hisp.dhis.commons.util.SqlHelper;
 import org.hisp.dhis.event.EventStatus;
 import org.hisp.dhis.jdbc.StatementBuilder;
 import org.hisp.dhis.organisationunit.OrganisationUnit;
+import org.hisp.dhis.trackedentity.TrackedEntityAttributeSearchIndex;
 import org.hisp.dhis.trackedentity.TrackedEntityInstance;
 import org.hisp.dhis.trackedentity.TrackedEntityInstanceQueryParams;
 import org.hisp.dhis.trackedentity.TrackedEntityInstanceStore;
@@ -57,6 +59,7 @@ import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import static org.hisp.dhis.common.IdentifiableObjectUtils.getIdentifiers;
 import static org.hisp.dhis.common.IdentifiableObjectUtils.getUids;
@@ -98,6 +101,13 @@ public class HibernateTrackedEntityInstanceStore
         this.statementBuilder = statementBuilder;
     }
 
+    private TrackedEntityAttributeSearchIndex searchIndex;
+
+    public void setSearchIndex( TrackedEntityAttributeSearchIndex searchIndex )
+    {
+        this.searchIndex = searchIndex;
+    }
+
     // -------------------------------------------------------------------------
     // Implementation methods
     // -------------------------------------------------------------------------
@@ -125,13 +135,40 @@ public class HibernateTrackedEntityInstanceStore
 
         Query query = getQuery( hql );
 
-        if ( params.isPaging() )
+        if ( params.isKeysetPaging() )
+        {
+            query.setMaxResults( params.getPageSizeWithDefault() );
+        }
+        else if ( params.isPaging() )
         {
             query.setFirstResult( params.getOffset() );
             query.setMaxResults( params.getPageSizeWithDefault() );
         }
 
-        return query.list();
+        List<TrackedEntityInstance> instances = query.list();
+
+        if ( params.isKeysetPaging() )
+        {
+            params.setNextPageToken( getNextPageToken( instances, params.getPageSizeWithDefault() ) );
+        }
+
+        return instances;
+    }
+
+    /**
+     * Returns the token of the last instance of a full keyset page, or null if
+     * the page was not full and hence no more instances follow.
+     */
+    private PageToken getNextPageToken( List<TrackedEntityInstance> instances, int pageSize )
+    {
+        if ( instances.isEmpty() || instances.size() < pageSize )
+        {
+            return null;
+        }
+
+        TrackedEntityInstance last = instances.get( instances.size() - 1 );
+
+        return new PageToken( last.getLastUpdated(), last.getId() );
     }
 
     private String buildTrackedEntityInstanceCountHql( TrackedEntityInstanceQueryParams params )
@@ -140,7 +177,8 @@ public class HibernateTrackedEntityInstanceStore
             .replaceFirst( "select tei from", "select count(distinct tei) from" )
             .replaceFirst( "left join fetch tei.programInstances", "left join tei.programInstances" )
             .replaceFirst( "order by case when pi.status = 'ACTIVE' then 1 when pi.status = 'COMPLETED' then 2 else 3 end asc, tei.lastUpdated desc ", "" )
-            .replaceFirst( "order by tei.lastUpdated desc ", "" );
+            .replaceFirst( "order by tei.lastUpdated desc ", "" )
+            .replaceFirst( "order by tei.lastUpdated asc, tei.id asc ", "" );
     }
 
     private String buildTrackedEntityInstanceHql( TrackedEntityInstanceQueryParams params )
@@ -247,6 +285,13 @@ public class HibernateTrackedEntityInstanceStore
             }
         }
 
+        Set<Integer> candidates = getSearchCandidates( params );
+
+        if ( candidates != null )
+        {
+            hql += hlp.whereAnd() + getCandidateClause( "tei.id", candidates );
+        }
+
         if ( params.hasQuery() )
         {
             QueryFilter queryFilter = params.getQuery();
@@ -287,7 +332,19 @@ public class HibernateTrackedEntityInstanceStore
             hql += hlp.whereAnd() + " tei.deleted is false ";
         }
 
-        if ( params.hasProgram() )
+        if ( params.isKeysetPaging() && params.hasPageToken() )
+        {
+            PageToken token = params.getPageToken();
+
+            hql += hlp.whereAnd() + " (tei.lastUpdated > '" + token.getLastUpdated() + "' or (tei.lastUpdated = '"
+                + token.getLastUpdated() + "' and tei.id > " + token.getId() + ")) ";
+        }
+
+        if ( params.isKeysetPaging() )
+        {
+            hql += " order by tei.lastUpdated asc, tei.id asc ";
+        }
+        else if ( params.hasProgram() )
         {
             hql += " order by case when pi.status = 'ACTIVE' then 1 when pi.status = 'COMPLETED' then 2 else 3 end asc, tei.lastUpdated desc ";
         }
@@ -540,6 +597,16 @@ public class HibernateTrackedEntityInstanceStore
                 + getCommaDelimitedString( getIdentifiers( params.getOrganisationUnits() ) ) + ") ";
         }
 
+        if ( !params.isOrQuery() || params.hasAttributesOrFilters() )
+        {
+            Set<Integer> candidates = getSearchCandidates( params );
+
+            if ( candidates != null )
+            {
+                sql += hlp.whereAnd() + getCandidateClause( "tei.trackedentityinstanceid", candidates );
+            }
+        }
+
         if ( params.isOrQuery() && params.hasAttributesOrFilters() )
         {
             final String start = params.getQuery().isOperator( QueryOperator.LIKE ) ? anyChar : wordStart;
@@ -576,6 +643,26 @@ public class HibernateTrackedEntityInstanceStore
         return sql;
     }
 
+    /**
+     * Returns the identifiers of the instances which may match the query or
+     * filters of the given parameters according to the attribute search index,
+     * or null if the index is not ready or cannot answer the query.
+     */
+    private Set<Integer> getSearchCandidates( TrackedEntityInstanceQueryParams params )
+    {
+        if ( searchIndex == null || !searchIndex.isReady() || !( params.hasQuery() || params.hasFilters() ) )
+        {
+            return null;
+        }
+
+        return searchIndex.getCandidates( params );
+    }
+
+    private String getCandidateClause( String column, Set<Integer> candidates )
+    {
+        return candidates.isEmpty() ? " 1 = 0 " : " " + column + " in (" + getCommaDelimitedString( candidates ) + ") ";
+    }
+
     private String getOrderClause( TrackedEntityInstanceQueryParams params )
     {
         List<String> cols = getStaticGridColumns();
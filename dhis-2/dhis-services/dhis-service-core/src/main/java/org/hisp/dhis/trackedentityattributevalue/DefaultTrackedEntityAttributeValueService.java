@@ -35,6 +35,7 @@ import org.hisp.dhis.fileresource.FileResource;
 import org.hisp.dhis.fileresource.FileResourceService;
 import org.hisp.dhis.reservedvalue.ReservedValueService;
 import org.hisp.dhis.trackedentity.TrackedEntityAttribute;
+import org.hisp.dhis.trackedentity.TrackedEntityAttributeSearchIndex;
 import org.hisp.dhis.trackedentity.TrackedEntityInstance;
 import org.hisp.dhis.user.CurrentUserService;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -79,6 +80,9 @@ public class DefaultTrackedEntityAttributeValueService
     @Autowired
     private DhisConfigurationProvider dhisConfigurationProvider;
 
+    @Autowired
+    private TrackedEntityAttributeSearchIndex searchIndex;
+
     // -------------------------------------------------------------------------
     // Implementation methods
     // -------------------------------------------------------------------------
@@ -93,6 +97,7 @@ public class DefaultTrackedEntityAttributeValueService
         trackedEntityAttributeValueAuditService.addTrackedEntityAttributeValueAudit( trackedEntityAttributeValueAudit );
         deleteFileValue( attributeValue );
         attributeValueStore.delete( attributeValue );
+        searchIndex.removeValue( attributeValue );
     }
 
     @Override
@@ -165,6 +170,7 @@ public class DefaultTrackedEntityAttributeValueService
         if ( attributeValue.getValue() != null )
         {
             attributeValueStore.saveVoid( attributeValue );
+            searchIndex.addValue( attributeValue );
 
             if ( attributeValue.getAttribute().isGenerated() && attributeValue.getAttribute().getTextPattern() != null )
             {
@@ -181,6 +187,7 @@ public class DefaultTrackedEntityAttributeValueService
         {
             deleteFileValue( attributeValue );
             attributeValueStore.delete( attributeValue );
+            searchIndex.removeValue( attributeValue );
         }
         else
         {
@@ -206,6 +213,7 @@ public class DefaultTrackedEntityAttributeValueService
             trackedEntityAttributeValueAuditService
                 .addTrackedEntityAttributeValueAudit( trackedEntityAttributeValueAudit );
             attributeValueStore.update( attributeValue );
+            searchIndex.addValue( attributeValue );
 
             if ( attributeValue.getAttribute().isGenerated() && attributeValue.getAttribute().getTextPattern() != null )
             {
@@ -32,6 +32,8 @@ import org.hisp.dhis.cache.HibernateCacheManager;
 import org.hisp.dhis.common.IdentifiableObjectStore;
 import org.hisp.dhis.security.acl.AclService;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.util.Collection;
 import java.util.HashSet;
@@ -84,6 +86,7 @@ public class DefaultUserGroupService
     public int addUserGroup( UserGroup userGroup )
     {
         userGroupStore.save( userGroup );
+        invalidateUserGroupMembershipCache();
         return userGroup.getId();
     }
 
@@ -91,6 +94,7 @@ public class DefaultUserGroupService
     public void deleteUserGroup( UserGroup userGroup )
     {
         userGroupStore.delete( userGroup );
+        invalidateUserGroupMembershipCache();
     }
 
     @Override
@@ -101,6 +105,7 @@ public class DefaultUserGroupService
         // Clear query cache due to sharing and user group membership
 
         cacheManager.clearQueryCache();
+        invalidateUserGroupMembershipCache();
     }
 
     @Override
@@ -161,6 +166,8 @@ public class DefaultUserGroupService
                 userGroupStore.updateNoAcl( userGroup );
             }
         }
+
+        invalidateUserGroupMembershipCache();
     }
 
     @Override
@@ -175,6 +182,8 @@ public class DefaultUserGroupService
                 userGroupStore.updateNoAcl( userGroup );
             }
         }
+
+        invalidateUserGroupMembershipCache();
     }
 
     @Override
@@ -204,6 +213,8 @@ public class DefaultUserGroupService
                 userGroupStore.updateNoAcl( userGroup );
             }
         }
+
+        invalidateUserGroupMembershipCache();
     }
 
     public Collection<UserGroup> getUserGroupsByUid( Collection<String> uids )
@@ -240,4 +251,32 @@ public class DefaultUserGroupService
     {
         return userGroupStore.getAllLikeName( name, first, max );
     }
+
+    // -------------------------------------------------------------------------
+    // Supportive methods
+    // -------------------------------------------------------------------------
+
+    /**
+     * Invalidates the user group membership cache when the current transaction
+     * commits, or immediately if there is no transaction, so that concurrent
+     * requests do not populate it again with the uncommitted memberships.
+     */
+    private void invalidateUserGroupMembershipCache()
+    {
+        if ( TransactionSynchronizationManager.isSynchronizationActive() )
+        {
+            TransactionSynchronizationManager.registerSynchronization( new TransactionSynchronizationAdapter()
+            {
+                @Override
+                public void afterCommit()
+                {
+                    aclService.invalidateUserGroupMembershipCache();
+                }
+            } );
+        }
+        else
+        {
+            aclService.invalidateUserGroupMembershipCache();
+        }
+    }
 }
@@ -0,0 +1,144 @@
+package org.hisp.dhis.common;
+
+/*
+ * Copyright (c) 2004-2018, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+import org.hisp.dhis.DhisSpringTest;
+import org.hisp.dhis.program.Program;
+import org.hisp.dhis.security.acl.AccessStringHelper;
+import org.hisp.dhis.user.User;
+import org.hisp.dhis.user.UserGroup;
+import org.junit.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class AccessibleObjectCacheTest
+    extends DhisSpringTest
+{
+    @Autowired
+    private AccessibleObjectCache accessibleObjectCache;
+
+    @Autowired
+    private IdentifiableObjectManager manager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    public void testGetDataReadUidsNoUser()
+    {
+        Program programA = createProgram( 'A' );
+        Program programB = createProgram( 'B' );
+
+        manager.save( programA );
+        manager.save( programB );
+
+        Set<String> uids = accessibleObjectCache.getDataReadUids( Program.class );
+
+        assertEquals( 2, uids.size() );
+        assertTrue( uids.contains( programA.getUid() ) );
+        assertTrue( uids.contains( programB.getUid() ) );
+    }
+
+    @Test
+    public void testGetDataReadAndWriteUids()
+    {
+        Program programA = createProgram( 'A' );
+        Program programB = createProgram( 'B' );
+        Program programC = createProgram( 'C' );
+
+        programA.setPublicAccess( AccessStringHelper.DEFAULT );
+        programB.setPublicAccess( AccessStringHelper.DATA_READ );
+        programC.setPublicAccess( AccessStringHelper.DATA_READ_WRITE );
+
+        manager.save( programA );
+        manager.save( programB );
+        manager.save( programC );
+
+        createUserAndInjectSecurityContext( false );
+
+        Set<String> readUids = accessibleObjectCache.getDataReadUids( Program.class );
+
+        assertEquals( 2, readUids.size() );
+        assertTrue( readUids.contains( programB.getUid() ) );
+        assertTrue( readUids.contains( programC.getUid() ) );
+
+        Set<String> writeUids = accessibleObjectCache.getDataWriteUids( Program.class );
+
+        assertEquals( 1, writeUids.size() );
+        assertTrue( writeUids.contains( programC.getUid() ) );
+    }
+
+    @Test
+    public void testGetDataReadUidsCached()
+    {
+        DefaultAccessibleObjectCache cache = new DefaultAccessibleObjectCache();
+        context.getAutowireCapableBeanFactory().autowireBean( cache );
+        cache.init( 100 );
+
+        Program programA = createProgram( 'A' );
+        Program programB = createProgram( 'B' );
+
+        programA.setPublicAccess( AccessStringHelper.DEFAULT );
+        programB.setPublicAccess( AccessStringHelper.DATA_READ );
+
+        manager.save( programA );
+        manager.save( programB );
+
+        User user = createUserAndInjectSecurityContext( false );
+
+        assertEquals( 1, cache.getDataReadUids( Program.class ).size() );
+
+        // Sharing changed without update of last updated is not reflected
+
+        jdbcTemplate.update( "update program set publicaccess = ? where uid = ?", AccessStringHelper.DATA_READ, programA.getUid() );
+
+        Set<String> cachedUids = cache.getDataReadUids( Program.class );
+
+        assertEquals( 1, cachedUids.size() );
+        assertTrue( cachedUids.contains( programB.getUid() ) );
+
+        // Change of group membership is reflected
+
+        UserGroup userGroup = createUserGroup( 'A', new HashSet<>() );
+        userGroup.addUser( user );
+        manager.save( userGroup );
+
+        Set<String> uids = cache.getDataReadUids( Program.class );
+
+        assertEquals( 2, uids.size() );
+        assertTrue( uids.contains( programA.getUid() ) );
+        assertTrue( uids.contains( programB.getUid() ) );
+    }
+}
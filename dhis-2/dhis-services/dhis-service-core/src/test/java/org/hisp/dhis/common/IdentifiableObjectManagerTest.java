@@ -29,13 +29,16 @@ package org.hisp.dhis.common;
  */
 
 import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Lists;
 import com.google.common.collect.Sets;
 import org.hibernate.SessionFactory;
 import org.hisp.dhis.DhisSpringTest;
+import org.hisp.dhis.category.CategoryOptionCombo;
 import org.hisp.dhis.dataelement.DataElement;
 import org.hisp.dhis.dataelement.DataElementGroup;
 import org.hisp.dhis.dataelement.DataElementOperand;
 import org.hisp.dhis.dataelement.DataElementService;
+import org.hisp.dhis.datavalue.DataValueService;
 import org.hisp.dhis.hibernate.exception.CreateAccessDeniedException;
 import org.hisp.dhis.hibernate.exception.DeleteAccessDeniedException;
 import org.hisp.dhis.hibernate.exception.UpdateAccessDeniedException;
@@ -72,6 +75,9 @@ public class IdentifiableObjectManagerTest
     @Autowired
     private IdentifiableObjectManager identifiableObjectManager;
 
+    @Autowired
+    private DataValueService dataValueService;
+
     @Autowired
     private UserService _userService;
 
@@ -517,4 +523,43 @@ public class IdentifiableObjectManagerTest
         assertEquals( dataElementB, map.get( "DataElementCodeB" ) );
         assertNull( map.get( "DataElementCodeX" ) );
     }
+
+    @Test
+    public void testDeleteCollection()
+    {
+        OrganisationUnit unitA = createOrganisationUnit( 'A' );
+        OrganisationUnit unitB = createOrganisationUnit( 'B' );
+        OrganisationUnit unitC = createOrganisationUnit( 'C' );
+
+        identifiableObjectManager.save( unitA );
+        identifiableObjectManager.save( unitB );
+        identifiableObjectManager.save( unitC );
+
+        identifiableObjectManager.delete( Lists.newArrayList( unitA, unitB ) );
+
+        assertNull( identifiableObjectManager.get( OrganisationUnit.class, unitA.getUid() ) );
+        assertNull( identifiableObjectManager.get( OrganisationUnit.class, unitB.getUid() ) );
+        assertNotNull( identifiableObjectManager.get( OrganisationUnit.class, unitC.getUid() ) );
+    }
+
+    @Test( expected = DeleteNotAllowedException.class )
+    public void testDeleteCollectionNotAllowed()
+    {
+        DataElement dataElement = createDataElement( 'A' );
+        dataElementService.addDataElement( dataElement );
+
+        OrganisationUnit unitA = createOrganisationUnit( 'A' );
+        OrganisationUnit unitB = createOrganisationUnit( 'B' );
+
+        identifiableObjectManager.save( unitA );
+        identifiableObjectManager.save( unitB );
+
+        CategoryOptionCombo optionCombo = categoryService.getDefaultCategoryOptionCombo();
+
+        dataValueService.addDataValue( createDataValue( dataElement, createPeriod( "201801" ), unitB, "10", optionCombo ) );
+
+        sessionFactory.getCurrentSession().flush();
+
+        identifiableObjectManager.delete( Lists.newArrayList( unitA, unitB ) );
+    }
 }
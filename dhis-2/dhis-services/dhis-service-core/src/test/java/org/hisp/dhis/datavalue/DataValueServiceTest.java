@@ -28,12 +28,14 @@ package org.hisp.dhis.datavalue;
  * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
  */
 
+import com.google.common.collect.Lists;
 import com.google.common.collect.Sets;
 import org.hisp.dhis.DhisSpringTest;
 import org.hisp.dhis.category.CategoryOptionCombo;
 import org.hisp.dhis.category.CategoryService;
 import org.hisp.dhis.dataelement.DataElement;
 import org.hisp.dhis.dataelement.DataElementService;
+import org.hisp.dhis.dbms.DbmsManager;
 import org.hisp.dhis.organisationunit.OrganisationUnit;
 import org.hisp.dhis.organisationunit.OrganisationUnitService;
 import org.hisp.dhis.period.Period;
@@ -41,6 +43,8 @@ import org.junit.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 
 import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
 
 import static org.junit.Assert.*;
 
@@ -61,6 +65,9 @@ public class DataValueServiceTest
 
     @Autowired
     private OrganisationUnitService organisationUnitService;
+
+    @Autowired
+    private DbmsManager dbmsManager;
     
     // -------------------------------------------------------------------------
     // Supporting data
@@ -432,6 +439,33 @@ public class DataValueServiceTest
             .setOrganisationUnits( Sets.newHashSet( sourceB ) ) ).size() );     
     }
     
+    @Test
+    public void testGetExistingDataValues()
+    {
+        DataValue dataValueA = new DataValue( dataElementA, periodA, sourceA, optionCombo, optionCombo, "1" );
+        DataValue dataValueB = new DataValue( dataElementB, periodB, sourceB, optionCombo, optionCombo, "2" );
+        DataValue dataValueC = new DataValue( dataElementA, periodB, sourceA, optionCombo, optionCombo, "3" );
+
+        dataValueService.addDataValue( dataValueA );
+        dataValueService.addDataValue( dataValueB );
+        dataValueService.addDataValue( dataValueC );
+        dataValueService.deleteDataValue( dataValueB );
+
+        dbmsManager.flushSession();
+
+        List<DataValue> existingValues = dataValueService.getExistingDataValues( Lists.newArrayList(
+            new DataValue( dataElementA, dataValueA.getPeriod(), sourceA, optionCombo, optionCombo ),
+            new DataValue( dataElementB, dataValueB.getPeriod(), sourceB, optionCombo, optionCombo ),
+            new DataValue( dataElementC, dataValueA.getPeriod(), sourceC, optionCombo, optionCombo ) ) );
+
+        Map<String, DataValue> values = existingValues.stream().collect( Collectors.toMap( DataValue::getValue, dv -> dv ) );
+
+        assertEquals( 2, values.size() );
+        assertFalse( values.get( "1" ).isDeleted() );
+        assertTrue( values.get( "2" ).isDeleted() );
+        assertEquals( sourceB, values.get( "2" ).getSource() );
+    }
+
     @Test
     public void testGetDataValueCountLastUpdatedBetween()
     {
@@ -0,0 +1,145 @@
+package org.hisp.dhis.expression;
+
+/*
+ * Copyright (c) 2004-2018, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+import com.google.common.collect.ImmutableMap;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.hisp.dhis.PerformanceTest;
+import org.hisp.dhis.commons.util.TextUtils;
+import org.hisp.dhis.system.util.MathUtils;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.regex.Matcher;
+
+import static org.hisp.dhis.expression.ExpressionService.CONSTANT_PATTERN;
+import static org.hisp.dhis.expression.ExpressionService.VARIABLE_PATTERN;
+import static org.hisp.dhis.expression.MissingValueStrategy.NEVER_SKIP;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+
+/**
+ * Compares evaluating a compiled expression with substituting the values into
+ * the expression string and calculating it with JEP, which is how expressions
+ * which cannot be compiled are evaluated. Run with the performance profile.
+ */
+@Category( PerformanceTest.class )
+public class CompiledExpressionPerformanceTest
+{
+    private static final Log log = LogFactory.getLog( CompiledExpressionPerformanceTest.class );
+
+    private static final String EXPRESSION = "(#{deabcdefghA} + #{deabcdefghB} * C{xxxxxxxxx05}) / if(#{deabcdefghB} > 0, #{deabcdefghB}, 1)";
+
+    private static final int ROUNDS = 5;
+
+    private static final int COMPILED_ITERATIONS = 1_000_000;
+
+    private static final int SUBSTITUTED_ITERATIONS = 10_000;
+
+    private final Map<String, Double> constantMap = ImmutableMap.of( "xxxxxxxxx05", 0.5 );
+
+    private final Map<String, Integer> orgUnitCountMap = ImmutableMap.of();
+
+    private double sink;
+
+    @Test
+    public void testCompiledAgainstSubstitutedEvaluation()
+    {
+        CompiledExpression compiled = ExpressionCompiler.compile( EXPRESSION );
+
+        assertNotNull( compiled );
+
+        Map<String, Double> values = new HashMap<>();
+        values.put( "deabcdefghA", 12d );
+        values.put( "deabcdefghB", 3d );
+
+        assertEquals( calculateSubstituted( values ), compiled.evaluate( values, constantMap, orgUnitCountMap, 30, NEVER_SKIP, null ), 0.0001 );
+
+        long compiledTime = Long.MAX_VALUE;
+        long substitutedTime = Long.MAX_VALUE;
+
+        // Best of several rounds, where the first rounds warm up the JIT
+
+        for ( int round = 0; round < ROUNDS; round++ )
+        {
+            long start = System.nanoTime();
+
+            for ( int i = 0; i < COMPILED_ITERATIONS; i++ )
+            {
+                values.put( "deabcdefghA", (double) i );
+                sink += compiled.evaluate( values, constantMap, orgUnitCountMap, 30, NEVER_SKIP, null );
+            }
+
+            compiledTime = Math.min( compiledTime, System.nanoTime() - start );
+
+            start = System.nanoTime();
+
+            for ( int i = 0; i < SUBSTITUTED_ITERATIONS; i++ )
+            {
+                values.put( "deabcdefghA", (double) i );
+                sink += calculateSubstituted( values );
+            }
+
+            substitutedTime = Math.min( substitutedTime, System.nanoTime() - start );
+        }
+
+        log.info( String.format( "Compiled: %d ns per evaluation, substituted: %d ns per evaluation",
+            compiledTime / COMPILED_ITERATIONS, substitutedTime / SUBSTITUTED_ITERATIONS ) );
+    }
+
+    /**
+     * Substitutes the given values and the constants into the expression and
+     * calculates the resulting string.
+     */
+    private double calculateSubstituted( Map<String, Double> values )
+    {
+        StringBuffer sb = new StringBuffer();
+        Matcher matcher = VARIABLE_PATTERN.matcher( EXPRESSION );
+
+        while ( matcher.find() )
+        {
+            matcher.appendReplacement( sb, String.valueOf( values.get( matcher.group( "id" ) ) ) );
+        }
+
+        String expression = TextUtils.appendTail( matcher, sb );
+
+        sb = new StringBuffer();
+        matcher = CONSTANT_PATTERN.matcher( expression );
+
+        while ( matcher.find() )
+        {
+            matcher.appendReplacement( sb, String.valueOf( constantMap.get( matcher.group( "id" ) ) ) );
+        }
+
+        return MathUtils.calculateExpression( TextUtils.appendTail( matcher, sb ) );
+    }
+}
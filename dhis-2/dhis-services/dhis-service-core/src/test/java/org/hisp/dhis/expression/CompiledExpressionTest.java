@@ -0,0 +1,168 @@
+package org.hisp.dhis.expression;
+
+/*
+ * Copyright (c) 2004-2018, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+import com.google.common.collect.ImmutableMap;
+import org.hisp.dhis.system.util.MathUtils;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.hisp.dhis.expression.MissingValueStrategy.NEVER_SKIP;
+import static org.hisp.dhis.expression.MissingValueStrategy.SKIP_IF_ALL_VALUES_MISSING;
+import static org.hisp.dhis.expression.MissingValueStrategy.SKIP_IF_ANY_VALUE_MISSING;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+public class CompiledExpressionTest
+{
+    private static final double DELTA = 0.0001;
+
+    private final Map<String, Double> valueMap = ImmutableMap.of(
+        "deabcdefghA", 12d,
+        "deabcdefghB", 3d,
+        "deabcdefghC.cocdefghijA", 5d,
+        "deabcdefghD", -2d );
+
+    private final Map<String, Double> constantMap = ImmutableMap.of( "xxxxxxxxx05", 0.5 );
+
+    private final Map<String, Integer> orgUnitCountMap = ImmutableMap.of( "ougabcdefgA", 20 );
+
+    private Double evaluate( String expression, MissingValueStrategy strategy )
+    {
+        CompiledExpression compiled = ExpressionCompiler.compile( expression );
+
+        assertNotNull( "Not compiled: " + expression, compiled );
+
+        return compiled.evaluate( valueMap, constantMap, orgUnitCountMap, 30, strategy, null );
+    }
+
+    private double evaluate( String expression )
+    {
+        return evaluate( expression, NEVER_SKIP );
+    }
+
+    // -------------------------------------------------------------------------
+    // Tests
+    // -------------------------------------------------------------------------
+
+    @Test
+    public void testArithmetic()
+    {
+        String[] expressions = { "1 + 2 * 3", "(1 + 2) * 3", "10 / 4 - 1", "7 % 3", "2 ^ 3 ^ 2", "-2 ^ 2",
+            "2 * -3", "1.5 + .5", "!0 + !3", "1 < 2 && 3 >= 4 || 5 != 6", "2 == 2", "abs(-3) + sqrt(16) + log(100) + ln(1)" };
+
+        for ( String expression : expressions )
+        {
+            assertEquals( expression, MathUtils.calculateExpression( expression ), evaluate( expression ), DELTA );
+        }
+    }
+
+    @Test
+    public void testItems()
+    {
+        assertEquals( 15d, evaluate( "#{deabcdefghA} + #{deabcdefghB}" ), DELTA );
+        assertEquals( 5d, evaluate( "#{deabcdefghC.cocdefghijA}" ), DELTA );
+        assertEquals( 6d, evaluate( "#{deabcdefghA} * C{xxxxxxxxx05}" ), DELTA );
+        assertEquals( 40d, evaluate( "OUG{ougabcdefgA} * 2" ), DELTA );
+        assertEquals( 31d, evaluate( "[days] + 1" ), DELTA );
+        assertEquals( 12d, evaluate( "#{deabcdefghA} + #{deabcdefghX}" ), DELTA );
+        assertEquals( 0d, evaluate( "C{xxxxxxxxxXX}" ), DELTA );
+        assertEquals( 12d, evaluate( "#{deabcdefghA.*}" ), DELTA );
+    }
+
+    @Test
+    public void testNegativeValuePower()
+    {
+        assertEquals( MathUtils.calculateExpression( "-2.0 ^ 2" ), evaluate( "#{deabcdefghD} ^ 2" ), DELTA );
+        assertEquals( MathUtils.calculateExpression( "--2.0 ^ 2" ), evaluate( "-#{deabcdefghD} ^ 2" ), DELTA );
+        assertEquals( MathUtils.calculateExpression( "2 ^ -2.0" ), evaluate( "2 ^ #{deabcdefghD}" ), DELTA );
+        assertEquals( MathUtils.calculateExpression( "(-2.0) ^ 2" ), evaluate( "(#{deabcdefghD}) ^ 2" ), DELTA );
+        assertEquals( -4d, evaluate( "#{deabcdefghD} ^ 2" ), DELTA );
+    }
+
+    @Test
+    public void testFunctions()
+    {
+        assertEquals( 12d, evaluate( "if(#{deabcdefghA} > #{deabcdefghB}, #{deabcdefghA}, #{deabcdefghB})" ), DELTA );
+        assertEquals( 3d, evaluate( "IF(#{deabcdefghA} < #{deabcdefghB}, #{deabcdefghA}, #{deabcdefghB})" ), DELTA );
+        assertEquals( 1d, evaluate( "isNull(#{deabcdefghX})" ), DELTA );
+        assertEquals( 0d, evaluate( "ISNULL( #{deabcdefghA} )" ), DELTA );
+    }
+
+    @Test
+    public void testMissingValueStrategy()
+    {
+        assertNull( evaluate( "#{deabcdefghA} + #{deabcdefghX}", SKIP_IF_ANY_VALUE_MISSING ) );
+        assertEquals( 12d, evaluate( "#{deabcdefghA} + #{deabcdefghX}", SKIP_IF_ALL_VALUES_MISSING ), DELTA );
+        assertNull( evaluate( "#{deabcdefghX} + #{deabcdefghY}", SKIP_IF_ALL_VALUES_MISSING ) );
+        assertEquals( 0d, evaluate( "#{deabcdefghX} + #{deabcdefghY}", NEVER_SKIP ), DELTA );
+        assertEquals( 1d, evaluate( "isNull(#{deabcdefghX})", SKIP_IF_ANY_VALUE_MISSING ), DELTA );
+        assertEquals( 1d, evaluate( "if(isNull(#{deabcdefghX}), 1, #{deabcdefghX})", SKIP_IF_ANY_VALUE_MISSING ), DELTA );
+    }
+
+    @Test
+    public void testAggregates()
+    {
+        Map<String, List<Double>> aggregateMap = new HashMap<>();
+        aggregateMap.put( "#{deabcdefghA}", Arrays.asList( 4d, 1d, 3d, 2d ) );
+
+        CompiledExpression compiled = ExpressionCompiler.compile(
+            "avg(#{deabcdefghA}) + stddev(#{deabcdefghA}) + max(#{deabcdefghA}) + count(#{deabcdefghA})" );
+
+        assertNotNull( compiled );
+        assertEquals( MathUtils.calculateExpression( "AVG([4.0, 1.0, 3.0, 2.0]) + STDDEV([4.0, 1.0, 3.0, 2.0]) + MAX([4.0, 1.0, 3.0, 2.0]) + COUNT([4.0, 1.0, 3.0, 2.0])" ),
+            compiled.evaluate( valueMap, constantMap, orgUnitCountMap, 30, NEVER_SKIP, aggregateMap ), DELTA );
+        assertNull( compiled.evaluate( valueMap, constantMap, orgUnitCountMap, 30, SKIP_IF_ANY_VALUE_MISSING, new HashMap<>() ) );
+    }
+
+    @Test(expected = CompiledExpression.EvaluationException.class)
+    public void testAggregatesWithoutMap()
+    {
+        ExpressionCompiler.compile( "sum(#{deabcdefghA})" ).evaluate( valueMap, constantMap, orgUnitCountMap, 30, NEVER_SKIP, null );
+    }
+
+    @Test
+    public void testNotCompiled()
+    {
+        assertNull( ExpressionCompiler.compile( null ) );
+        assertNull( ExpressionCompiler.compile( "" ) );
+        assertNull( ExpressionCompiler.compile( "1 +" ) );
+        assertNull( ExpressionCompiler.compile( "(1 + 2" ) );
+        assertNull( ExpressionCompiler.compile( "sin(1)" ) );
+        assertNull( ExpressionCompiler.compile( "V{event_count}" ) );
+        assertNull( ExpressionCompiler.compile( "isNull(#{deabcdefghA} + 1)" ) );
+        assertNull( ExpressionCompiler.compile( "avg(<#{deabcdefghA}>)" ) );
+        assertNull( ExpressionCompiler.compile( "median(#{deabcdefghA})" ) );
+    }
+}
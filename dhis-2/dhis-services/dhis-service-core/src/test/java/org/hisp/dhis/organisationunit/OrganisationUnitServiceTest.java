@@ -49,6 +49,7 @@ import org.hisp.dhis.user.User;
 import org.junit.Ignore;
 import org.junit.Test;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
 
 import com.google.common.collect.Sets;
 
@@ -64,6 +65,9 @@ public class OrganisationUnitServiceTest
     @Autowired
     private OrganisationUnitGroupService organisationUnitGroupService;
 
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
     // -------------------------------------------------------------------------
     // OrganisationUnit
     // -------------------------------------------------------------------------
@@ -942,4 +946,73 @@ public class OrganisationUnitServiceTest
         
         assertEquals( expected, ouD.getParentGraph( Sets.newHashSet( ouB ) ) );        
     }
+
+    @Test
+    public void testOrganisationUnitClosure()
+    {
+        OrganisationUnit ouA = createOrganisationUnit( 'A' );
+        OrganisationUnit ouB = createOrganisationUnit( 'B', ouA );
+        OrganisationUnit ouC = createOrganisationUnit( 'C', ouB );
+        OrganisationUnit ouD = createOrganisationUnit( 'D', ouC );
+
+        organisationUnitService.addOrganisationUnit( ouA );
+        organisationUnitService.addOrganisationUnit( ouB );
+        organisationUnitService.addOrganisationUnit( ouC );
+        organisationUnitService.addOrganisationUnit( ouD );
+
+        assertNull( getClosureDepth( ouA, ouD ) );
+
+        organisationUnitService.updateOrganisationUnitClosure();
+
+        assertEquals( Integer.valueOf( 0 ), getClosureDepth( ouA, ouA ) );
+        assertEquals( Integer.valueOf( 1 ), getClosureDepth( ouA, ouB ) );
+        assertEquals( Integer.valueOf( 2 ), getClosureDepth( ouA, ouC ) );
+        assertEquals( Integer.valueOf( 3 ), getClosureDepth( ouA, ouD ) );
+        assertEquals( Integer.valueOf( 1 ), getClosureDepth( ouC, ouD ) );
+        assertNull( getClosureDepth( ouD, ouA ) );
+
+        // Move C and its subtree from B to A
+
+        ouC.setParent( ouA );
+        organisationUnitService.updateOrganisationUnit( ouC );
+        organisationUnitService.updateOrganisationUnitClosure();
+
+        assertEquals( Integer.valueOf( 1 ), getClosureDepth( ouA, ouC ) );
+        assertEquals( Integer.valueOf( 2 ), getClosureDepth( ouA, ouD ) );
+        assertEquals( Integer.valueOf( 1 ), getClosureDepth( ouC, ouD ) );
+        assertNull( getClosureDepth( ouB, ouC ) );
+        assertNull( getClosureDepth( ouB, ouD ) );
+    }
+
+    @Test
+    public void testForceUpdateOrganisationUnitClosure()
+    {
+        OrganisationUnit ouA = createOrganisationUnit( 'A' );
+        OrganisationUnit ouB = createOrganisationUnit( 'B', ouA );
+        OrganisationUnit ouC = createOrganisationUnit( 'C', ouB );
+
+        organisationUnitService.addOrganisationUnit( ouA );
+        organisationUnitService.addOrganisationUnit( ouB );
+        organisationUnitService.addOrganisationUnit( ouC );
+        organisationUnitService.updateOrganisationUnitClosure();
+
+        jdbcTemplate.update( "delete from orgunitclosure" );
+
+        assertNull( getClosureDepth( ouA, ouC ) );
+
+        organisationUnitService.updateOrganisationUnitClosure();
+
+        assertEquals( Integer.valueOf( 0 ), getClosureDepth( ouC, ouC ) );
+        assertEquals( Integer.valueOf( 1 ), getClosureDepth( ouB, ouC ) );
+        assertEquals( Integer.valueOf( 2 ), getClosureDepth( ouA, ouC ) );
+    }
+
+    private Integer getClosureDepth( OrganisationUnit ancestor, OrganisationUnit descendant )
+    {
+        List<Integer> depths = jdbcTemplate.queryForList(
+            "select depth from orgunitclosure where ancestorid = ? and descendantid = ?",
+            Integer.class, ancestor.getId(), descendant.getId() );
+
+        return depths.isEmpty() ? null : depths.get( 0 );
+    }
 }
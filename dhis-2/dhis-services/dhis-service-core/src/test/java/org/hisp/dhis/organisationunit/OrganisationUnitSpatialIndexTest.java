@@ -0,0 +1,109 @@
+package org.hisp.dhis.organisationunit;
+
+/*
+ * Copyright (c) 2004-2018, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+import com.google.common.collect.Lists;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class OrganisationUnitSpatialIndexTest
+{
+    private OrganisationUnitSpatialIndex index;
+
+    @Before
+    public void setUp()
+    {
+        OrganisationUnit ouA = createOrganisationUnit( 1, FeatureType.POLYGON,
+            "[[[0.0,0.0],[10.0,0.0],[10.0,10.0],[0.0,10.0],[0.0,0.0]]]" );
+        OrganisationUnit ouB = createOrganisationUnit( 2, FeatureType.MULTI_POLYGON,
+            "[[[[0.0,0.0],[5.0,0.0],[5.0,5.0],[0.0,5.0],[0.0,0.0]]],[[[20.0,20.0],[25.0,20.0],[25.0,25.0],[20.0,25.0],[20.0,20.0]]]]" );
+        OrganisationUnit ouC = createOrganisationUnit( 3, FeatureType.POINT, "[1.0,1.0]" );
+        OrganisationUnit ouD = createOrganisationUnit( 4, FeatureType.POINT, "[1.5,1.0]" );
+        OrganisationUnit ouE = createOrganisationUnit( 5, FeatureType.POLYGON, "invalid" );
+        OrganisationUnit ouF = createOrganisationUnit( 6, FeatureType.NONE, null );
+
+        index = new OrganisationUnitSpatialIndex( Lists.newArrayList( ouA, ouB, ouC, ouD, ouE, ouF ) );
+    }
+
+    @Test
+    public void testGetPolygonsContaining()
+    {
+        List<Integer> ids = index.getPolygonsContaining( 2.0, 2.0 );
+
+        assertEquals( 2, ids.size() );
+        assertTrue( ids.contains( 1 ) );
+        assertTrue( ids.contains( 2 ) );
+
+        assertEquals( Lists.newArrayList( 1 ), index.getPolygonsContaining( 7.0, 7.0 ) );
+        assertEquals( Lists.newArrayList( 2 ), index.getPolygonsContaining( 22.0, 22.0 ) );
+        assertTrue( index.getPolygonsContaining( 15.0, 15.0 ).isEmpty() );
+    }
+
+    @Test
+    public void testGetPointsWithinDistance()
+    {
+        // Points are roughly 55 km apart at the equator
+
+        assertEquals( Lists.newArrayList( 3 ), index.getPointsWithinDistance( 1.0, 1.01, 5000 ) );
+
+        List<Integer> ids = index.getPointsWithinDistance( 1.25, 1.0, 50000 );
+
+        assertEquals( 2, ids.size() );
+        assertTrue( ids.contains( 3 ) );
+        assertTrue( ids.contains( 4 ) );
+
+        assertTrue( index.getPointsWithinDistance( 8.0, 8.0, 5000 ).isEmpty() );
+    }
+
+    @Test
+    public void testGetPointsWithinBox()
+    {
+        List<Integer> ids = index.getPointsWithinBox( new double[] { 2.0, 2.0, 0.0, 0.0 } );
+
+        assertEquals( 2, ids.size() );
+        assertTrue( ids.contains( 3 ) );
+        assertTrue( ids.contains( 4 ) );
+
+        assertEquals( Lists.newArrayList( 3 ), index.getPointsWithinBox( new double[] { 2.0, 1.2, 0.0, 0.0 } ) );
+    }
+
+    private OrganisationUnit createOrganisationUnit( int id, FeatureType featureType, String coordinates )
+    {
+        OrganisationUnit organisationUnit = new OrganisationUnit();
+        organisationUnit.setId( id );
+        organisationUnit.setFeatureType( featureType );
+        organisationUnit.setCoordinates( coordinates );
+        return organisationUnit;
+    }
+}
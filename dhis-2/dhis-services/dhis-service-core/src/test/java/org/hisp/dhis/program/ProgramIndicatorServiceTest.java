@@ -32,6 +32,7 @@ import static org.hisp.dhis.program.ProgramIndicator.KEY_ATTRIBUTE;
 import static org.hisp.dhis.program.ProgramIndicator.KEY_DATAELEMENT;
 import static org.hisp.dhis.program.ProgramIndicator.KEY_PROGRAM_VARIABLE;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
@@ -622,6 +623,45 @@ public class ProgramIndicatorServiceTest
         String actual = programIndicatorService.getAnalyticsSQl( filter, createProgramIndicator( 'X', programA, filter, null ), true, DateUtils.parseDate( "2016-01-01" ) , DateUtils.parseDate( "2016-12-31" ) );
         assertEquals( expected, actual );        
     }
+
+    @Test
+    public void testIsMaterializable()
+    {
+        assertFalse( programIndicatorService.isMaterializable( indicatorE ) );
+
+        indicatorE.setMaterializeInAnalytics( true );
+
+        assertTrue( programIndicatorService.isMaterializable( indicatorE ) );
+
+        String filter = "d2:yearsBetween(V{enrollment_date}, V{analytics_period_start}) < 1";
+        ProgramIndicator indicatorX = createProgramIndicator( 'X', programA, "70", filter );
+        indicatorX.setMaterializeInAnalytics( true );
+
+        assertFalse( programIndicatorService.isMaterializable( indicatorX ) );
+    }
+
+    @Test
+    public void testMaterializedColumnNameChangesWhenEdited()
+    {
+        programIndicatorService.addProgramIndicator( indicatorE );
+
+        String columnName = programIndicatorService.getMaterializedColumnName( indicatorE );
+
+        assertTrue( columnName.startsWith( indicatorE.getUid() + "_" ) );
+        assertEquals( columnName, programIndicatorService.getMaterializedColumnName( indicatorE ) );
+
+        indicatorE.setExpression( indicatorE.getExpression() + " + 1" );
+        programIndicatorService.updateProgramIndicator( indicatorE );
+
+        String editedExpressionColumnName = programIndicatorService.getMaterializedColumnName( indicatorE );
+
+        assertFalse( columnName.equals( editedExpressionColumnName ) );
+
+        indicatorE.setFilter( indicatorE.getFilter().replace( "> 10", "> 20" ) );
+        programIndicatorService.updateProgramIndicator( indicatorE );
+
+        assertFalse( editedExpressionColumnName.equals( programIndicatorService.getMaterializedColumnName( indicatorE ) ) );
+    }
     
     @Test
     public void testExpressionIsValid()
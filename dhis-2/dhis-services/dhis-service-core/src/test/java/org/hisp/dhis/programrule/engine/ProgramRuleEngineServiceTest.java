@@ -47,8 +47,10 @@ import org.junit.runner.RunWith;
 import org.mockito.*;
 import org.mockito.runners.MockitoJUnitRunner;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 
 import static org.junit.Assert.*;
 import static org.mockito.Mockito.*;
@@ -196,6 +198,26 @@ public class ProgramRuleEngineServiceTest extends DhisConvenienceTest
         assertTrue( this.ruleEffects.get( 0 ).ruleAction() instanceof RuleActionSendMessage );
     }
 
+    @Test
+    public void testWithImplementableActionExist_programStageInstances()
+    {
+        setProgramRuleActionType_SendMessage();
+        programStageInstance.setUid( "UID-PS1" );
+
+        when( programRuleEngine.evaluateEvents( any(), any() ) )
+            .thenReturn( Collections.singletonMap( "UID-PS1", Collections.singletonList( RuleEffect.create( RuleActionSendMessage.create( NOTIFICATION_UID, DATA ) ) ) ) );
+
+        Map<String, List<RuleEffect>> ruleEffectsMap = service.evaluate( programInstance, Collections.singletonList( programStageInstance ) );
+
+        assertEquals( 1, ruleEffectsMap.get( "UID-PS1" ).size() );
+
+        verify( programRuleEngine, times( 1 ) ).evaluateEvents( programInstance, Collections.singletonList( programStageInstance ) );
+        verify( programRuleEngine, never() ).evaluateEvent( any() );
+        verify( ruleActionSendMessage ).implement( Matchers.any( RuleEffect.class ), Matchers.eq( programStageInstance ) );
+
+        assertEquals( 1, this.ruleEffects.size() );
+    }
+
     @Test
     public void testWithProgramInstanceNull_programStageInstance()
     {
@@ -280,6 +280,29 @@ public class ProgramRuleEngineTest extends DhisSpringTest
         assertEquals( "PNT-1", ruleActionSendMessage.notification() );
     }
 
+    @Test
+    public void testSendMessageForEvents() throws Exception
+    {
+        setUpSendMessageForEnrollment();
+
+        ProgramStageInstance programStageInstance = programStageInstanceService.getProgramStageInstance( "UID-PS1" );
+
+        Map<String, List<RuleEffect>> ruleEffectsMap = programRuleEngine.evaluateEvents(
+            programStageInstance.getProgramInstance(), Collections.singletonList( programStageInstance ) );
+
+        assertEquals( 1, ruleEffectsMap.size() );
+
+        List<RuleEffect> ruleEffects = ruleEffectsMap.get( "UID-PS1" );
+
+        assertEquals( 1, ruleEffects.size() );
+
+        RuleAction ruleAction = ruleEffects.get( 0 ).ruleAction();
+
+        assertTrue( ruleAction instanceof RuleActionSendMessage );
+
+        assertEquals( "PNT-1", ((RuleActionSendMessage) ruleAction).notification() );
+    }
+
     @Test
     public void testSchedulingByProgramRule() throws Exception
     {
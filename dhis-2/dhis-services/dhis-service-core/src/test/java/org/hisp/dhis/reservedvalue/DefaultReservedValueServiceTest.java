@@ -49,6 +49,7 @@ import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.stream.Collectors;
 
 import static java.util.Calendar.DATE;
 import static org.junit.Assert.assertEquals;
@@ -65,6 +66,9 @@ public class DefaultReservedValueServiceTest
     @Autowired
     private ReservedValueStore reservedValueStore;
 
+    @Autowired
+    private SequentialNumberCounterStore sequentialNumberCounterStore;
+
     @Rule
     public ExpectedException thrown = ExpectedException.none();
 
@@ -184,6 +188,17 @@ public class DefaultReservedValueServiceTest
         assertEquals( 3, all.size() );
     }
 
+    @Test
+    public void testReserveReserveManyRandomValuesAreUnique()
+        throws Exception
+    {
+        List<ReservedValue> res = reservedValueService.reserve( simpleRandomTextPattern, 1000, new HashMap<>(), future );
+
+        assertEquals( 1000, res.size() );
+        assertEquals( 1000, res.stream().map( ReservedValue::getValue ).distinct().count() );
+        assertEquals( 1000, reservedValueStore.getCount() );
+    }
+
     @Test
     public void testReserveReserveASequentialValueWhenNotUsed()
         throws Exception
@@ -249,6 +264,25 @@ public class DefaultReservedValueServiceTest
         reservedValueService.reserve( simpleSequentialTextPattern, 1, new HashMap<>(), future );
     }
 
+    @Test
+    public void testReserveSequentialValuesFromPool()
+        throws Exception
+    {
+        TextPattern pooledSequentialTextPattern = createTextPattern( createTrackedEntityAttribute( 'B' ), "\"TEST-\"+SEQUENTIAL(######)" );
+
+        List<ReservedValue> first = reservedValueService.reserve( pooledSequentialTextPattern, 3, new HashMap<>(), future );
+        List<ReservedValue> second = reservedValueService.reserve( pooledSequentialTextPattern, 2, new HashMap<>(), future );
+
+        assertEquals( Lists.newArrayList( "TEST-000001", "TEST-000002", "TEST-000003" ), getSortedValues( first ) );
+        assertEquals( Lists.newArrayList( "TEST-000004", "TEST-000005" ), getSortedValues( second ) );
+        assertEquals( 5, reservedValueStore.getCount() );
+
+        // A whole block was committed in the counter when the pool was filled
+
+        assertEquals( Lists.newArrayList( 201 ),
+            sequentialNumberCounterStore.getNextValues( pooledSequentialTextPattern.getOwnerUid(), "######", 1 ) );
+    }
+
     @Test
     public void testReserveReserveStringValueWithValues()
         throws Exception
@@ -284,6 +318,11 @@ public class DefaultReservedValueServiceTest
 
     // Helpers
 
+    private static List<String> getSortedValues( List<ReservedValue> reservedValues )
+    {
+        return reservedValues.stream().map( ReservedValue::getValue ).sorted().collect( Collectors.toList() );
+    }
+
     private static TextPattern createTextPattern( IdentifiableObject owner, String pattern )
     {
         try
@@ -0,0 +1,224 @@
+package org.hisp.dhis.sms;
+
+/*
+ * Copyright (c) 2004-2018, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+import com.google.common.collect.Lists;
+import org.hisp.dhis.external.conf.ConfigurationKey;
+import org.hisp.dhis.external.conf.DhisConfigurationProvider;
+import org.hisp.dhis.message.MessageSender;
+import org.hisp.dhis.sms.command.SMSCommand;
+import org.hisp.dhis.sms.command.SMSCommandService;
+import org.hisp.dhis.sms.incoming.IncomingSms;
+import org.hisp.dhis.sms.incoming.IncomingSmsListener;
+import org.hisp.dhis.sms.incoming.IncomingSmsService;
+import org.hisp.dhis.sms.incoming.SmsMessageStatus;
+import org.hisp.dhis.sms.parse.ParserType;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.anyCollectionOf;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@RunWith( MockitoJUnitRunner.class )
+public class SmsConsumerThreadTest
+{
+    private static final String ORIGINATOR_A = "4740000001";
+    private static final String ORIGINATOR_B = "4740000002";
+    private static final String ORIGINATOR_C = "4740000003";
+
+    @Mock
+    private MessageQueue messageQueue;
+
+    @Mock
+    private MessageSender smsSender;
+
+    @Mock
+    private IncomingSmsService incomingSmsService;
+
+    @Mock
+    private SMSCommandService smsCommandService;
+
+    @Mock
+    private DhisConfigurationProvider configurationProvider;
+
+    @InjectMocks
+    private SmsConsumerThread smsConsumerThread;
+
+    private RecordingListener keyValueListener = new RecordingListener( ParserType.KEY_VALUE_PARSER, "report" );
+
+    private RecordingListener alertListener = new RecordingListener( null, "alert" );
+
+    @Before
+    public void setUp()
+    {
+        SMSCommand command = new SMSCommand();
+        command.setName( "Report" );
+        command.setParserType( ParserType.KEY_VALUE_PARSER );
+
+        when( smsCommandService.getSMSCommands() ).thenReturn( Lists.newArrayList( command ) );
+        when( configurationProvider.getProperty( ConfigurationKey.SMS_CONSUMER_WORKERS ) ).thenReturn( "4" );
+
+        smsConsumerThread.setListeners( Lists.newArrayList( keyValueListener, alertListener ) );
+        smsConsumerThread.init();
+    }
+
+    @After
+    public void tearDown()
+    {
+        smsConsumerThread.destroy();
+    }
+
+    @Test
+    public void testPreserveOrderPerOriginator()
+    {
+        List<IncomingSms> messages = new ArrayList<>();
+
+        for ( int i = 0; i < 50; i++ )
+        {
+            messages.add( createSms( ORIGINATOR_A, "report a=" + i ) );
+            messages.add( createSms( ORIGINATOR_B, "report b=" + i ) );
+            messages.add( createSms( ORIGINATOR_C, "report c=" + i ) );
+        }
+
+        queue( messages );
+
+        smsConsumerThread.spawnSmsConsumer();
+
+        assertEquals( 150, keyValueListener.received.size() );
+        assertEquals( 0, keyValueListener.accepted.get() );
+
+        for ( String originator : Lists.newArrayList( ORIGINATOR_A, ORIGINATOR_B, ORIGINATOR_C ) )
+        {
+            List<IncomingSms> received = new ArrayList<>();
+            List<IncomingSms> expected = new ArrayList<>();
+
+            keyValueListener.received.stream().filter( sms -> originator.equals( sms.getOriginator() ) ).forEach( received::add );
+            messages.stream().filter( sms -> originator.equals( sms.getOriginator() ) ).forEach( expected::add );
+
+            assertEquals( expected, received );
+        }
+
+        verify( incomingSmsService, never() ).update( anyCollectionOf( IncomingSms.class ) );
+    }
+
+    @Test
+    public void testDispatch()
+    {
+        IncomingSms report = createSms( ORIGINATOR_A, "REPORT a=1" );
+        IncomingSms alert = createSms( ORIGINATOR_A, "alerts fire" );
+        IncomingSms unknown = createSms( ORIGINATOR_A, "hello" );
+
+        queue( Lists.newArrayList( report, alert, unknown ) );
+
+        smsConsumerThread.spawnSmsConsumer();
+
+        assertEquals( Lists.newArrayList( report ), keyValueListener.received );
+        assertEquals( Lists.newArrayList( alert ), alertListener.received );
+        assertTrue( keyValueListener.accepted.get() > 0 );
+        assertEquals( SmsMessageStatus.UNHANDLED, unknown.getStatus() );
+
+        verify( smsSender ).sendMessage( null, "No command found", ORIGINATOR_A );
+        verify( incomingSmsService ).update( Collections.singletonList( unknown ) );
+    }
+
+    // -------------------------------------------------------------------------
+    // Supportive methods
+    // -------------------------------------------------------------------------
+
+    private IncomingSms createSms( String originator, String text )
+    {
+        IncomingSms sms = new IncomingSms();
+        sms.setOriginator( originator );
+        sms.setText( text );
+        return sms;
+    }
+
+    private void queue( List<IncomingSms> messages )
+    {
+        List<IncomingSms> rest = new ArrayList<>( messages.subList( 1, messages.size() ) );
+        rest.add( null );
+
+        when( messageQueue.get() ).thenReturn( messages.get( 0 ), rest.toArray( new IncomingSms[0] ) );
+    }
+
+    private static class RecordingListener
+        implements IncomingSmsListener
+    {
+        private final ParserType parserType;
+
+        private final String prefix;
+
+        private final List<IncomingSms> received = Collections.synchronizedList( new ArrayList<>() );
+
+        private final AtomicInteger accepted = new AtomicInteger();
+
+        RecordingListener( ParserType parserType, String prefix )
+        {
+            this.parserType = parserType;
+            this.prefix = prefix;
+        }
+
+        @Override
+        public boolean accept( IncomingSms sms )
+        {
+            accepted.incrementAndGet();
+
+            return sms.getText().toLowerCase().startsWith( prefix );
+        }
+
+        @Override
+        public void receive( IncomingSms sms )
+        {
+            received.add( sms );
+
+            sms.setStatus( SmsMessageStatus.PROCESSED );
+            sms.setParsed( true );
+        }
+
+        @Override
+        public ParserType getParserType()
+        {
+            return parserType;
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package org.hisp.dhis.startup;
+
+/*
+ * Copyright (c) 2004-2018, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+import com.google.common.collect.Lists;
+import org.hisp.dhis.DhisSpringTest;
+import org.junit.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+public class MigrationLedgerTest
+    extends DhisSpringTest
+{
+    @Autowired
+    private MigrationLedger migrationLedger;
+
+    @Test
+    public void testAddAndGetAppliedChecksums()
+    {
+        String checksumA = MigrationLedger.getChecksum( "alter table dataelement drop column obsolete" );
+        String checksumB = MigrationLedger.getChecksum( "update dataelement set zeroissignificant = false where zeroissignificant is null" );
+
+        assertTrue( migrationLedger.getAppliedChecksums( "RoutineA" ).isEmpty() );
+
+        migrationLedger.addAppliedChecksums( "RoutineA", Lists.newArrayList( checksumA, checksumB ) );
+        migrationLedger.addAppliedChecksums( "RoutineB", Lists.newArrayList( checksumA ) );
+
+        Set<String> appliedA = migrationLedger.getAppliedChecksums( "RoutineA" );
+        Set<String> appliedB = migrationLedger.getAppliedChecksums( "RoutineB" );
+
+        assertEquals( 2, appliedA.size() );
+        assertTrue( appliedA.contains( checksumA ) );
+        assertTrue( appliedA.contains( checksumB ) );
+        assertEquals( 1, appliedB.size() );
+        assertTrue( appliedB.contains( checksumA ) );
+    }
+
+    @Test
+    public void testAddAppliedChecksumsIgnoreDuplicates()
+    {
+        String checksumA = MigrationLedger.getChecksum( "alter table dataelement drop column obsolete" );
+        String checksumB = MigrationLedger.getChecksum( "drop table olapurl" );
+
+        migrationLedger.addAppliedChecksums( "RoutineA", Lists.newArrayList( checksumA ) );
+        migrationLedger.addAppliedChecksums( "RoutineA", Lists.newArrayList( checksumA, checksumB ) );
+
+        Set<String> applied = migrationLedger.getAppliedChecksums( "RoutineA" );
+
+        assertEquals( 2, applied.size() );
+        assertTrue( applied.contains( checksumB ) );
+    }
+
+    @Test
+    public void testGetChecksum()
+    {
+        assertEquals( MigrationLedger.getChecksum( "drop table olapurl" ), MigrationLedger.getChecksum( " drop table olapurl " ) );
+        assertNotEquals( MigrationLedger.getChecksum( "drop table olapurl" ), MigrationLedger.getChecksum( "drop table target" ) );
+        assertEquals( 40, MigrationLedger.getChecksum( "drop table olapurl" ).length() );
+    }
+}
@@ -0,0 +1,217 @@
+package org.hisp.dhis.trackedentity;
+
+/*
+ * Copyright (c) 2004-2018, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+import com.google.common.collect.Sets;
+import org.hisp.dhis.DhisTest;
+import org.hisp.dhis.analytics.AggregationType;
+import org.hisp.dhis.common.IdentifiableObjectManager;
+import org.hisp.dhis.common.OrganisationUnitSelectionMode;
+import org.hisp.dhis.common.QueryFilter;
+import org.hisp.dhis.common.QueryItem;
+import org.hisp.dhis.common.QueryOperator;
+import org.hisp.dhis.common.ValueType;
+import org.hisp.dhis.organisationunit.OrganisationUnit;
+import org.hisp.dhis.organisationunit.OrganisationUnitService;
+import org.hisp.dhis.trackedentityattributevalue.TrackedEntityAttributeValue;
+import org.hisp.dhis.trackedentityattributevalue.TrackedEntityAttributeValueService;
+import org.junit.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Date;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class TrackedEntityAttributeSearchIndexTest
+    extends DhisTest
+{
+    @Autowired
+    private TrackedEntityAttributeSearchIndex searchIndex;
+
+    @Autowired
+    private TrackedEntityInstanceService teiService;
+
+    @Autowired
+    private TrackedEntityAttributeValueService attributeValueService;
+
+    @Autowired
+    private OrganisationUnitService organisationUnitService;
+
+    @Autowired
+    private IdentifiableObjectManager idObjectManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private TrackedEntityAttribute atA;
+
+    private OrganisationUnit ouA;
+    private OrganisationUnit ouB;
+
+    private TrackedEntityInstance teiA;
+    private TrackedEntityInstance teiB;
+    private TrackedEntityInstance teiC;
+
+    @Override
+    public void setUpTest()
+    {
+        atA = createTrackedEntityAttribute( 'A' );
+        idObjectManager.save( atA );
+
+        ouA = createOrganisationUnit( 'A' );
+        ouB = createOrganisationUnit( 'B', ouA );
+        organisationUnitService.addOrganisationUnit( ouA );
+        organisationUnitService.addOrganisationUnit( ouB );
+
+        teiA = createTrackedEntityInstance( 'A', ouA );
+        teiB = createTrackedEntityInstance( 'B', ouB );
+        teiC = createTrackedEntityInstance( 'C', ouB );
+        teiService.addTrackedEntityInstance( teiA );
+        teiService.addTrackedEntityInstance( teiB );
+        teiService.addTrackedEntityInstance( teiC );
+
+        attributeValueService.addTrackedEntityAttributeValue( new TrackedEntityAttributeValue( atA, teiA, "Male" ) );
+        attributeValueService.addTrackedEntityAttributeValue( new TrackedEntityAttributeValue( atA, teiB, "Male" ) );
+        attributeValueService.addTrackedEntityAttributeValue( new TrackedEntityAttributeValue( atA, teiC, "Female" ) );
+
+        dbmsManager.flushSession();
+    }
+
+    @Override
+    public boolean emptyDatabaseAfterTest()
+    {
+        return true;
+    }
+
+    private TrackedEntityInstanceQueryParams filter( QueryOperator operator, String filter )
+    {
+        return new TrackedEntityInstanceQueryParams()
+            .addFilter( new QueryItem( atA, operator, filter, ValueType.TEXT, AggregationType.NONE, null ) );
+    }
+
+    @Test
+    public void testGetCandidates()
+    {
+        searchIndex.rebuild();
+
+        assertEquals( Sets.newHashSet( teiA.getId(), teiB.getId() ), searchIndex.getCandidates( filter( QueryOperator.EQ, "male" ) ) );
+        assertEquals( Sets.newHashSet( teiA.getId(), teiB.getId(), teiC.getId() ), searchIndex.getCandidates( filter( QueryOperator.LIKE, "ALE" ) ) );
+        assertTrue( searchIndex.getCandidates( filter( QueryOperator.EQ, "Unknown" ) ).isEmpty() );
+        assertNull( searchIndex.getCandidates( filter( QueryOperator.LIKE, "al" ) ) );
+        assertNull( searchIndex.getCandidates( filter( QueryOperator.GT, "Male" ) ) );
+
+        TrackedEntityInstanceQueryParams params = new TrackedEntityInstanceQueryParams()
+            .setQuery( new QueryFilter( QueryOperator.LIKE, "fem" ) );
+
+        assertEquals( Sets.newHashSet( teiC.getId() ), searchIndex.getCandidates( params ) );
+    }
+
+    @Test
+    public void testGetCandidatesInScope()
+    {
+        searchIndex.rebuild();
+
+        TrackedEntityInstanceQueryParams params = filter( QueryOperator.EQ, "Male" )
+            .addOrganisationUnit( ouB )
+            .setOrganisationUnitMode( OrganisationUnitSelectionMode.SELECTED );
+
+        assertEquals( Sets.newHashSet( teiB.getId() ), searchIndex.getCandidates( params ) );
+
+        params = filter( QueryOperator.EQ, "Male" )
+            .addOrganisationUnit( ouA )
+            .setOrganisationUnitMode( OrganisationUnitSelectionMode.DESCENDANTS );
+
+        assertEquals( Sets.newHashSet( teiA.getId(), teiB.getId() ), searchIndex.getCandidates( params ) );
+    }
+
+    @Test
+    public void testMaintainOnWrite()
+    {
+        searchIndex.rebuild();
+
+        TrackedEntityAttributeValue value = attributeValueService.getTrackedEntityAttributeValue( teiC, atA );
+        value.setValue( "Male" );
+        attributeValueService.updateTrackedEntityAttributeValue( value );
+
+        assertEquals( Sets.newHashSet( teiA.getId(), teiB.getId(), teiC.getId() ), searchIndex.getCandidates( filter( QueryOperator.EQ, "Male" ) ) );
+        assertTrue( searchIndex.getCandidates( filter( QueryOperator.EQ, "Female" ) ).isEmpty() );
+
+        attributeValueService.deleteTrackedEntityAttributeValue( value );
+
+        assertFalse( searchIndex.getCandidates( filter( QueryOperator.EQ, "Male" ) ).contains( teiC.getId() ) );
+    }
+
+    @Test
+    public void testIgnoreRolledBackWrite()
+    {
+        searchIndex.rebuild();
+
+        transactionTemplate.execute( status -> {
+            attributeValueService.deleteTrackedEntityAttributeValue( attributeValueService.getTrackedEntityAttributeValue( teiC, atA ) );
+            status.setRollbackOnly();
+            return null;
+        } );
+
+        assertEquals( Sets.newHashSet( teiC.getId() ), searchIndex.getCandidates( filter( QueryOperator.EQ, "Female" ) ) );
+    }
+
+    @Test
+    public void testCheckConsistency()
+    {
+        searchIndex.rebuild();
+
+        assertEquals( 0, searchIndex.checkConsistency() );
+
+        jdbcTemplate.update( "delete from trackedentityattributevalue where trackedentityinstanceid = ?", teiC.getId() );
+
+        assertEquals( 1, searchIndex.checkConsistency() );
+        assertTrue( searchIndex.getCandidates( filter( QueryOperator.EQ, "Female" ) ).isEmpty() );
+    }
+
+    @Test
+    public void testCheckConsistencyUpdatedValue()
+    {
+        searchIndex.rebuild();
+
+        jdbcTemplate.update( "update trackedentityattributevalue set value = 'Unknown', lastupdated = ? where trackedentityinstanceid = ?",
+            new Date( System.currentTimeMillis() + 60000 ), teiC.getId() );
+
+        assertEquals( 1, searchIndex.checkConsistency() );
+        assertEquals( Sets.newHashSet( teiC.getId() ), searchIndex.getCandidates( filter( QueryOperator.EQ, "Unknown" ) ) );
+        assertEquals( 0, searchIndex.checkConsistency() );
+    }
+}
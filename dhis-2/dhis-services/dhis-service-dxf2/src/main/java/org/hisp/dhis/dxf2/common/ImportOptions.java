@@ -86,6 +86,8 @@ public class ImportOptions
 
     private boolean skipPatternValidation;
 
+    private boolean parallel;
+
     private String filename;
 
     private NotificationLevel notificationLevel;
@@ -124,6 +126,7 @@ public class ImportOptions
         options.requireCategoryOptionCombo = this.requireCategoryOptionCombo;
         options.requireAttributeOptionCombo = this.requireAttributeOptionCombo;
         options.skipPatternValidation = this.skipPatternValidation;
+        options.parallel = this.parallel;
         options.filename = this.filename;
         options.notificationLevel = this.notificationLevel;
 
@@ -314,6 +317,17 @@ public class ImportOptions
         return skipPatternValidation;
     }
 
+    /**
+     * Indicates whether to persist imported data values on multiple threads.
+     * Applies to data value set imports. Default is false.
+     */
+    @JsonProperty
+    @JacksonXmlProperty( namespace = DxfNamespaces.DXF_2_0 )
+    public boolean isParallel()
+    {
+        return parallel;
+    }
+
     @JsonProperty
     @JacksonXmlProperty( namespace = DxfNamespaces.DXF_2_0 )
     public String getFilename()
@@ -494,6 +508,12 @@ public class ImportOptions
         return this;
     }
 
+    public ImportOptions setParallel( boolean parallel )
+    {
+        this.parallel = parallel;
+        return this;
+    }
+
     public ImportOptions setFilename( String filename )
     {
         this.filename = filename;
@@ -526,6 +546,7 @@ public class ImportOptions
             .add( "strictOrganisationUnits", strictOrganisationUnits )
             .add( "requireCategoryOptionCombo", requireCategoryOptionCombo )
             .add( "requireAttributeOptionCombo", requireAttributeOptionCombo )
+            .add( "parallel", parallel )
             .toString();
     }
 }
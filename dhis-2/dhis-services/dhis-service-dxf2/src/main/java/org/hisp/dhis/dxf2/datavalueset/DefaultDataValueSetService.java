@@ -29,6 +29,7 @@ package org.hisp.dhis.dxf2.datavalueset;
  */
 
 import com.csvreader.CsvReader;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import org.apache.commons.lang3.BooleanUtils;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
@@ -46,6 +47,7 @@ import org.hisp.dhis.common.IllegalQueryException;
 import org.hisp.dhis.commons.collection.CachingMap;
 import org.hisp.dhis.commons.util.DebugUtils;
 import org.hisp.dhis.commons.util.StreamUtils;
+import org.hisp.dhis.commons.util.SystemUtils;
 import org.hisp.dhis.dataapproval.DataApproval;
 import org.hisp.dhis.dataapproval.DataApprovalService;
 import org.hisp.dhis.dataapproval.DataApprovalWorkflow;
@@ -104,6 +106,8 @@ import org.hisp.quick.BatchHandler;
 import org.hisp.quick.BatchHandlerFactory;
 import org.hisp.staxwax.factory.XMLFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
 
 import java.io.InputStream;
 import java.io.OutputStream;
@@ -111,10 +115,18 @@ import java.io.Writer;
 import java.nio.charset.Charset;
 import java.util.ArrayList;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
 import java.util.stream.Collectors;
 
 import static org.apache.commons.lang3.StringUtils.trimToNull;
@@ -133,6 +145,11 @@ public class DefaultDataValueSetService
 
     private static final String ERROR_OBJECT_NEEDED_TO_COMPLETE = "Must be provided to complete data set";
     private static final int CACHE_MISS_THRESHOLD = 250;
+    private static final int IMPORT_CHUNK_SIZE = 1000;
+    private static final int MAX_IMPORT_THREADS = 8;
+
+    private static final ThreadFactory IMPORT_THREAD_FACTORY = new ThreadFactoryBuilder()
+        .setNameFormat( "data-value-import-%d" ).setDaemon( true ).build();
 
     @Autowired
     private IdentifiableObjectManager identifiableObjectManager;
@@ -802,11 +819,18 @@ public class DefaultDataValueSetService
         BatchHandler<DataValue> dataValueBatchHandler = batchHandlerFactory.createBatchHandler( DataValueBatchHandler.class ).init();
         BatchHandler<DataValueAudit> auditBatchHandler = batchHandlerFactory.createBatchHandler( DataValueAuditBatchHandler.class ).init();
 
-        int importCount = 0;
-        int updateCount = 0;
-        int deleteCount = 0;
+        ImportCount importCount = new ImportCount();
+        List<PendingDataValue> chunk = new ArrayList<>();
         int totalCount = 0;
 
+        ParallelDataValueImport parallelImport = importOptions.isParallel() ?
+            new ParallelDataValueImport( getImportThreadCount(), strategy, dryRun, skipExistingCheck ) : null;
+
+        if ( parallelImport != null )
+        {
+            log.info( "Persisting data values in parallel on threads: " + parallelImport.slices.size() );
+        }
+
         // ---------------------------------------------------------------------
         // Data values
         // ---------------------------------------------------------------------
@@ -816,354 +840,453 @@ public class DefaultDataValueSetService
         clock.logTime( "Validated outer meta-data" );
         notifier.notify( id, notificationLevel, "Importing data values" );
 
-        while ( dataValueSet.hasNextDataValue() )
+        try
         {
-            org.hisp.dhis.dxf2.datavalue.DataValue dataValue = dataValueSet.getNextDataValue();
+            while ( dataValueSet.hasNextDataValue() )
+            {
+                org.hisp.dhis.dxf2.datavalue.DataValue dataValue = dataValueSet.getNextDataValue();
+
+                totalCount++;
+
+                final DataElement dataElement =
+                    dataElementMap.get( trimToNull( dataValue.getDataElement() ), dataElementCallable.setId( trimToNull( dataValue.getDataElement() ) ) );
+                final Period period = outerPeriod != null ? outerPeriod :
+                    periodMap.get( trimToNull( dataValue.getPeriod() ), periodCallable.setId( trimToNull( dataValue.getPeriod() ) ) );
+                final OrganisationUnit orgUnit = outerOrgUnit != null ? outerOrgUnit :
+                    orgUnitMap.get( trimToNull( dataValue.getOrgUnit() ), orgUnitCallable.setId( trimToNull( dataValue.getOrgUnit() ) ) );
+                CategoryOptionCombo categoryOptionCombo =
+                    optionComboMap.get( trimToNull( dataValue.getCategoryOptionCombo() ), categoryOptionComboCallable.setId( trimToNull( dataValue.getCategoryOptionCombo() ) ) );
+                CategoryOptionCombo attrOptionCombo = outerAttrOptionCombo != null ? outerAttrOptionCombo :
+                    optionComboMap.get( trimToNull( dataValue.getAttributeOptionCombo() ), attributeOptionComboCallable.setId( trimToNull( dataValue.getAttributeOptionCombo() ) ) );
+
+                // -----------------------------------------------------------------
+                // Potentially heat caches
+                // -----------------------------------------------------------------
+
+                if ( !dataElementMap.isCacheLoaded() && dataElementMap.getCacheMissCount() > CACHE_MISS_THRESHOLD )
+                {
+                    dataElementMap.load( identifiableObjectManager.getAll( DataElement.class ), o -> o.getPropertyValue( dataElementIdScheme ) );
 
-            totalCount++;
+                    log.info( "Data element cache heated after cache miss threshold reached" );
+                }
 
-            final DataElement dataElement =
-                dataElementMap.get( trimToNull( dataValue.getDataElement() ), dataElementCallable.setId( trimToNull( dataValue.getDataElement() ) ) );
-            final Period period = outerPeriod != null ? outerPeriod :
-                periodMap.get( trimToNull( dataValue.getPeriod() ), periodCallable.setId( trimToNull( dataValue.getPeriod() ) ) );
-            final OrganisationUnit orgUnit = outerOrgUnit != null ? outerOrgUnit :
-                orgUnitMap.get( trimToNull( dataValue.getOrgUnit() ), orgUnitCallable.setId( trimToNull( dataValue.getOrgUnit() ) ) );
-            CategoryOptionCombo categoryOptionCombo =
-                optionComboMap.get( trimToNull( dataValue.getCategoryOptionCombo() ), categoryOptionComboCallable.setId( trimToNull( dataValue.getCategoryOptionCombo() ) ) );
-            CategoryOptionCombo attrOptionCombo = outerAttrOptionCombo != null ? outerAttrOptionCombo :
-                optionComboMap.get( trimToNull( dataValue.getAttributeOptionCombo() ), attributeOptionComboCallable.setId( trimToNull( dataValue.getAttributeOptionCombo() ) ) );
+                if ( !orgUnitMap.isCacheLoaded() && orgUnitMap.getCacheMissCount() > CACHE_MISS_THRESHOLD )
+                {
+                    orgUnitMap.load( identifiableObjectManager.getAll( OrganisationUnit.class ), o -> o.getPropertyValue( orgUnitIdScheme ) );
 
-            // -----------------------------------------------------------------
-            // Potentially heat caches
-            // -----------------------------------------------------------------
+                    log.info( "Org unit cache heated after cache miss threshold reached" );
+                }
 
-            if ( !dataElementMap.isCacheLoaded() && dataElementMap.getCacheMissCount() > CACHE_MISS_THRESHOLD )
-            {
-                dataElementMap.load( identifiableObjectManager.getAll( DataElement.class ), o -> o.getPropertyValue( dataElementIdScheme ) );
+                if ( !optionComboMap.isCacheLoaded() && optionComboMap.getCacheMissCount() > CACHE_MISS_THRESHOLD )
+                {
+                    optionComboMap.load( identifiableObjectManager.getAll( CategoryOptionCombo.class ), o -> o.getPropertyValue(
+                        categoryOptComboIdScheme ) );
 
-                log.info( "Data element cache heated after cache miss threshold reached" );
-            }
+                    log.info( "Category Option Combo cache heated after cache miss threshold reached" );
+                }
 
-            if ( !orgUnitMap.isCacheLoaded() && orgUnitMap.getCacheMissCount() > CACHE_MISS_THRESHOLD )
-            {
-                orgUnitMap.load( identifiableObjectManager.getAll( OrganisationUnit.class ), o -> o.getPropertyValue( orgUnitIdScheme ) );
+                // -----------------------------------------------------------------
+                // Validation
+                // -----------------------------------------------------------------
 
-                log.info( "Org unit cache heated after cache miss threshold reached" );
-            }
+                if ( dataElement == null )
+                {
+                    summary.getConflicts().add( new ImportConflict( dataValue.getDataElement(), "Data element not found or not accessible" ) );
+                    continue;
+                }
 
-            if ( !optionComboMap.isCacheLoaded() && optionComboMap.getCacheMissCount() > CACHE_MISS_THRESHOLD )
-            {
-                optionComboMap.load( identifiableObjectManager.getAll( CategoryOptionCombo.class ), o -> o.getPropertyValue(
-                    categoryOptComboIdScheme ) );
+                if ( period == null )
+                {
+                    summary.getConflicts().add( new ImportConflict( dataValue.getPeriod(), "Period not valid" ) );
+                    continue;
+                }
 
-                log.info( "Category Option Combo cache heated after cache miss threshold reached" );
-            }
+                if ( orgUnit == null )
+                {
+                    summary.getConflicts().add( new ImportConflict( dataValue.getOrgUnit(), "Organisation unit not found or not accessible" ) );
+                    continue;
+                }
 
-            // -----------------------------------------------------------------
-            // Validation
-            // -----------------------------------------------------------------
+                if ( categoryOptionCombo == null && trimToNull( dataValue.getCategoryOptionCombo() ) != null )
+                {
+                    summary.getConflicts().add( new ImportConflict( dataValue.getCategoryOptionCombo(), "Category option combo not found or not accessible" ) );
+                    continue;
+                }
 
-            if ( dataElement == null )
-            {
-                summary.getConflicts().add( new ImportConflict( dataValue.getDataElement(), "Data element not found or not accessible" ) );
-                continue;
-            }
+                if ( categoryOptionCombo != null )
+                {
+                    List<String> errors = accessManager.canWrite( currentUser, categoryOptionCombo );
 
-            if ( period == null )
-            {
-                summary.getConflicts().add( new ImportConflict( dataValue.getPeriod(), "Period not valid" ) );
-                continue;
-            }
+                    if ( !errors.isEmpty() )
+                    {
+                        summary.getConflicts().addAll( errors.stream().map( s -> new ImportConflict( "dataValueSet", s ) ).collect( Collectors.toList() ) );
+                        continue;
+                    }
+                }
 
-            if ( orgUnit == null )
-            {
-                summary.getConflicts().add( new ImportConflict( dataValue.getOrgUnit(), "Organisation unit not found or not accessible" ) );
-                continue;
-            }
+                if ( attrOptionCombo == null && trimToNull( dataValue.getAttributeOptionCombo() ) != null )
+                {
+                    summary.getConflicts().add( new ImportConflict( dataValue.getAttributeOptionCombo(), "Attribute option combo not found or not accessible" ) );
+                    continue;
+                }
 
-            if ( categoryOptionCombo == null && trimToNull( dataValue.getCategoryOptionCombo() ) != null )
-            {
-                summary.getConflicts().add( new ImportConflict( dataValue.getCategoryOptionCombo(), "Category option combo not found or not accessible" ) );
-                continue;
-            }
+                if ( attrOptionCombo != null )
+                {
+                    List<String> errors = accessManager.canWrite( currentUser, attrOptionCombo );
 
-            if ( categoryOptionCombo != null )
-            {
-                List<String> errors = accessManager.canWrite( currentUser, categoryOptionCombo );
+                    if ( !errors.isEmpty() )
+                    {
+                        summary.getConflicts().addAll( errors.stream().map( s -> new ImportConflict( "dataValueSet", s ) ).collect( Collectors.toList() ) );
+                        continue;
+                    }
+                }
 
-                if ( !errors.isEmpty() )
+                boolean inUserHierarchy = orgUnitInHierarchyMap.get( orgUnit.getUid(), () -> orgUnit.isDescendant( currentOrgUnits ) );
+
+                if ( !inUserHierarchy )
                 {
-                    summary.getConflicts().addAll( errors.stream().map( s -> new ImportConflict( "dataValueSet", s ) ).collect( Collectors.toList() ) );
+                    summary.getConflicts().add( new ImportConflict( orgUnit.getUid(), "Organisation unit not in hierarchy of current user: " + currentUserName ) );
                     continue;
                 }
-            }
-
-            if ( attrOptionCombo == null && trimToNull( dataValue.getAttributeOptionCombo() ) != null )
-            {
-                summary.getConflicts().add( new ImportConflict( dataValue.getAttributeOptionCombo(), "Attribute option combo not found or not accessible" ) );
-                continue;
-            }
 
-            if ( attrOptionCombo != null )
-            {
-                List<String> errors = accessManager.canWrite( currentUser, attrOptionCombo );
-
-                if ( !errors.isEmpty() )
+                if ( dataValue.isNullValue() && !dataValue.isDeletedValue() )
                 {
-                    summary.getConflicts().addAll( errors.stream().map( s -> new ImportConflict( "dataValueSet", s ) ).collect( Collectors.toList() ) );
+                    summary.getConflicts().add( new ImportConflict( "Value", "Data value or comment not specified for data element: " + dataElement.getUid() ) );
                     continue;
                 }
-            }
 
-            boolean inUserHierarchy = orgUnitInHierarchyMap.get( orgUnit.getUid(), () -> orgUnit.isDescendant( currentOrgUnits ) );
+                dataValue.setValueForced(
+                    ValidationUtils.normalizeBoolean( dataValue.getValue(), dataElement.getValueType() ) );
 
-            if ( !inUserHierarchy )
-            {
-                summary.getConflicts().add( new ImportConflict( orgUnit.getUid(), "Organisation unit not in hierarchy of current user: " + currentUserName ) );
-                continue;
-            }
+                String valueValid = ValidationUtils.dataValueIsValid( dataValue.getValue(), dataElement );
 
-            if ( dataValue.isNullValue() && !dataValue.isDeletedValue() )
-            {
-                summary.getConflicts().add( new ImportConflict( "Value", "Data value or comment not specified for data element: " + dataElement.getUid() ) );
-                continue;
-            }
+                if ( valueValid != null )
+                {
+                    summary.getConflicts().add( new ImportConflict( dataValue.getValue(), i18n.getString( valueValid ) + ", must match data element type: " + dataElement.getUid() ) );
+                    continue;
+                }
 
-            dataValue.setValueForced(
-                ValidationUtils.normalizeBoolean( dataValue.getValue(), dataElement.getValueType() ) );
+                String commentValid = ValidationUtils.commentIsValid( dataValue.getComment() );
 
-            String valueValid = ValidationUtils.dataValueIsValid( dataValue.getValue(), dataElement );
+                if ( commentValid != null )
+                {
+                    summary.getConflicts().add( new ImportConflict( "Comment", i18n.getString( commentValid ) ) );
+                    continue;
+                }
 
-            if ( valueValid != null )
-            {
-                summary.getConflicts().add( new ImportConflict( dataValue.getValue(), i18n.getString( valueValid ) + ", must match data element type: " + dataElement.getUid() ) );
-                continue;
-            }
+                Optional<Set<String>> optionCodes = dataElementOptionsMap.get( dataElement.getUid(), () -> dataElement.hasOptionSet() ?
+                    Optional.of( dataElement.getOptionSet().getOptionCodesAsSet() ) : Optional.empty() );
 
-            String commentValid = ValidationUtils.commentIsValid( dataValue.getComment() );
+                if ( optionCodes.isPresent() && !optionCodes.get().contains( dataValue.getValue() ) )
+                {
+                    summary.getConflicts().add( new ImportConflict( dataValue.getValue(), "Data value is not a valid option of the data element option set: " + dataElement.getUid() ) );
+                    continue;
+                }
 
-            if ( commentValid != null )
-            {
-                summary.getConflicts().add( new ImportConflict( "Comment", i18n.getString( commentValid ) ) );
-                continue;
-            }
+                // -----------------------------------------------------------------
+                // Constraints
+                // -----------------------------------------------------------------
 
-            Optional<Set<String>> optionCodes = dataElementOptionsMap.get( dataElement.getUid(), () -> dataElement.hasOptionSet() ?
-                Optional.of( dataElement.getOptionSet().getOptionCodesAsSet() ) : Optional.empty() );
+                if ( categoryOptionCombo == null )
+                {
+                    if ( requireCategoryOptionCombo )
+                    {
+                        summary.getConflicts().add( new ImportConflict( dataValue.getValue(), "Category option combo is required but is not specified" ) );
+                        continue;
+                    }
+                    else
+                    {
+                        categoryOptionCombo = fallbackCategoryOptionCombo;
+                    }
+                }
 
-            if ( optionCodes.isPresent() && !optionCodes.get().contains( dataValue.getValue() ) )
-            {
-                summary.getConflicts().add( new ImportConflict( dataValue.getValue(), "Data value is not a valid option of the data element option set: " + dataElement.getUid() ) );
-                continue;
-            }
+                if ( attrOptionCombo == null )
+                {
+                    if ( requireAttrOptionCombo )
+                    {
+                        summary.getConflicts().add( new ImportConflict( dataValue.getValue(), "Attribute option combo is required but is not specified" ) );
+                        continue;
+                    }
+                    else
+                    {
+                        attrOptionCombo = fallbackCategoryOptionCombo;
+                    }
+                }
 
-            // -----------------------------------------------------------------
-            // Constraints
-            // -----------------------------------------------------------------
+                if ( strictPeriods && !dataElementPeriodTypesMap.get( dataElement.getUid(),
+                    () -> dataElement.getPeriodTypes() ).contains( period.getPeriodType() ) )
+                {
+                    summary.getConflicts().add( new ImportConflict( dataValue.getPeriod(),
+                        "Period type of period: " + period.getIsoDate() + " not valid for data element: " + dataElement.getUid() ) );
+                    continue;
+                }
 
-            if ( categoryOptionCombo == null )
-            {
-                if ( requireCategoryOptionCombo )
+                if ( strictCategoryOptionCombos && !dataElementCategoryOptionComboMap.get( dataElement.getUid(),
+                    () -> dataElement.getCategoryOptionCombos() ).contains( categoryOptionCombo ) )
                 {
-                    summary.getConflicts().add( new ImportConflict( dataValue.getValue(), "Category option combo is required but is not specified" ) );
+                    summary.getConflicts().add( new ImportConflict( categoryOptionCombo.getUid(),
+                        "Category option combo: " + categoryOptionCombo.getUid() + " must be part of category combo of data element: " + dataElement.getUid() ) );
                     continue;
                 }
-                else
+
+                if ( strictAttrOptionCombos && !dataElementAttrOptionComboMap.get( dataElement.getUid(),
+                    () -> dataElement.getDataSetCategoryOptionCombos() ).contains( attrOptionCombo ) )
                 {
-                    categoryOptionCombo = fallbackCategoryOptionCombo;
+                    summary.getConflicts().add( new ImportConflict( attrOptionCombo.getUid(),
+                        "Attribute option combo: " + attrOptionCombo.getUid() + " must be part of category combo of data sets of data element: " + dataElement.getUid() ) );
+                    continue;
                 }
-            }
 
-            if ( attrOptionCombo == null )
-            {
-                if ( requireAttrOptionCombo )
+                if ( strictOrgUnits && BooleanUtils.isFalse( dataElementOrgUnitMap.get( dataElement.getUid() + orgUnit.getUid(),
+                    () -> orgUnit.hasDataElement( dataElement ) ) ) )
                 {
-                    summary.getConflicts().add( new ImportConflict( dataValue.getValue(), "Attribute option combo is required but is not specified" ) );
+                    summary.getConflicts().add( new ImportConflict( orgUnit.getUid(),
+                        "Data element: " + dataElement.getUid() + " must be assigned through data sets to organisation unit: " + orgUnit.getUid() ) );
                     continue;
                 }
-                else
+
+                boolean zeroInsignificant = ValidationUtils.dataValueIsZeroAndInsignificant( dataValue.getValue(), dataElement );
+
+                if ( zeroInsignificant )
                 {
-                    attrOptionCombo = fallbackCategoryOptionCombo;
+                    summary.getConflicts().add( new ImportConflict( dataValue.getValue(), "Value is zero and not significant, must match data element: " + dataElement.getUid() ) );
+                    continue;
                 }
-            }
 
-            if ( strictPeriods && !dataElementPeriodTypesMap.get( dataElement.getUid(),
-                () -> dataElement.getPeriodTypes() ).contains( period.getPeriodType() ) )
-            {
-                summary.getConflicts().add( new ImportConflict( dataValue.getPeriod(),
-                    "Period type of period: " + period.getIsoDate() + " not valid for data element: " + dataElement.getUid() ) );
-                continue;
-            }
+                String storedByValid = ValidationUtils.storedByIsValid( dataValue.getStoredBy() );
 
-            if ( strictCategoryOptionCombos && !dataElementCategoryOptionComboMap.get( dataElement.getUid(),
-                () -> dataElement.getCategoryOptionCombos() ).contains( categoryOptionCombo ) )
-            {
-                summary.getConflicts().add( new ImportConflict( categoryOptionCombo.getUid(),
-                    "Category option combo: " + categoryOptionCombo.getUid() + " must be part of category combo of data element: " + dataElement.getUid() ) );
-                continue;
-            }
+                if ( storedByValid != null )
+                {
+                    summary.getConflicts().add( new ImportConflict( dataValue.getStoredBy(), i18n.getString( storedByValid ) ) );
+                    continue;
+                }
 
-            if ( strictAttrOptionCombos && !dataElementAttrOptionComboMap.get( dataElement.getUid(),
-                () -> dataElement.getDataSetCategoryOptionCombos() ).contains( attrOptionCombo ) )
-            {
-                summary.getConflicts().add( new ImportConflict( attrOptionCombo.getUid(),
-                    "Attribute option combo: " + attrOptionCombo.getUid() + " must be part of category combo of data sets of data element: " + dataElement.getUid() ) );
-                continue;
-            }
+                String storedBy = dataValue.getStoredBy() == null || dataValue.getStoredBy().trim().isEmpty() ? currentUserName : dataValue.getStoredBy();
 
-            if ( strictOrgUnits && BooleanUtils.isFalse( dataElementOrgUnitMap.get( dataElement.getUid() + orgUnit.getUid(),
-                () -> orgUnit.hasDataElement( dataElement ) ) ) )
-            {
-                summary.getConflicts().add( new ImportConflict( orgUnit.getUid(),
-                    "Data element: " + dataElement.getUid() + " must be assigned through data sets to organisation unit: " + orgUnit.getUid() ) );
-                continue;
-            }
+                final CategoryOptionCombo aoc = attrOptionCombo;
 
-            boolean zeroInsignificant = ValidationUtils.dataValueIsZeroAndInsignificant( dataValue.getValue(), dataElement );
+                DateRange aocDateRange = attrOptionComboDateRangeMap.get( attrOptionCombo.getUid(), () -> aoc.getDateRange() );
 
-            if ( zeroInsignificant )
-            {
-                summary.getConflicts().add( new ImportConflict( dataValue.getValue(), "Value is zero and not significant, must match data element: " + dataElement.getUid() ) );
-                continue;
-            }
+                if ( (aocDateRange.getStartDate() != null && aocDateRange.getStartDate().compareTo( period.getStartDate() ) > 0)
+                    || (aocDateRange.getEndDate() != null && aocDateRange.getEndDate().compareTo( period.getEndDate() ) < 0) )
+                {
+                    summary.getConflicts().add( new ImportConflict( orgUnit.getUid(),
+                        "Period: " + period.getIsoDate() + " is not within date range of attribute option combo: " + attrOptionCombo.getUid() ) );
+                    continue;
+                }
 
-            String storedByValid = ValidationUtils.storedByIsValid( dataValue.getStoredBy() );
+                if ( !attrOptionComboOrgUnitMap.get( attrOptionCombo.getUid() + orgUnit.getUid(), () ->
+                {
+                    Set<OrganisationUnit> aocOrgUnits = aoc.getOrganisationUnits();
+                    return aocOrgUnits == null || orgUnit.isDescendant( aocOrgUnits );
+                } ) )
+                {
+                    summary.getConflicts().add( new ImportConflict( orgUnit.getUid(),
+                        "Organisation unit: " + orgUnit.getUid() + " is not valid for attribute option combo: " + attrOptionCombo.getUid() ) );
+                    continue;
+                }
 
-            if ( storedByValid != null )
-            {
-                summary.getConflicts().add( new ImportConflict( dataValue.getStoredBy(), i18n.getString( storedByValid ) ) );
-                continue;
-            }
+                final DataSet approvalDataSet = dataSet != null ? dataSet : dataElementDataSetMap.get( dataElement.getUid(),
+                    () -> dataElement.getApprovalDataSet() );
 
-            String storedBy = dataValue.getStoredBy() == null || dataValue.getStoredBy().trim().isEmpty() ? currentUserName : dataValue.getStoredBy();
+                if ( approvalDataSet != null ) // Data element is assigned to at least one data set
+                {
+                    if ( dataSetLockedMap.get( approvalDataSet.getUid() + period.getUid() + orgUnit.getUid(),
+                        () -> isLocked( currentUser, approvalDataSet, period, orgUnit, skipLockExceptionCheck ) ) )
+                    {
+                        summary.getConflicts().add( new ImportConflict( period.getIsoDate(), "Current date is past expiry days for period " +
+                            period.getIsoDate() + " and data set: " + approvalDataSet.getUid() ) );
+                        continue;
+                    }
 
-            final CategoryOptionCombo aoc = attrOptionCombo;
+                    Period latestFuturePeriod = dataElementLatestFuturePeriodMap.get( dataElement.getUid(), () -> dataElement.getLatestOpenFuturePeriod() );
 
-            DateRange aocDateRange = attrOptionComboDateRangeMap.get( attrOptionCombo.getUid(), () -> aoc.getDateRange() );
+                    if ( period.isAfter( latestFuturePeriod ) && isIso8601 )
+                    {
+                        summary.getConflicts().add( new ImportConflict( period.getIsoDate(), "Period: " +
+                            period.getIsoDate() + " is after latest open future period: " + latestFuturePeriod.getIsoDate() + " for data element: " + dataElement.getUid() ) );
+                        continue;
+                    }
 
-            if ( (aocDateRange.getStartDate() != null && aocDateRange.getStartDate().compareTo( period.getStartDate() ) > 0)
-                || (aocDateRange.getEndDate() != null && aocDateRange.getEndDate().compareTo( period.getEndDate() ) < 0) )
-            {
-                summary.getConflicts().add( new ImportConflict( orgUnit.getUid(),
-                    "Period: " + period.getIsoDate() + " is not within date range of attribute option combo: " + attrOptionCombo.getUid() ) );
-                continue;
-            }
+                    DataApprovalWorkflow workflow = approvalDataSet.getWorkflow();
 
-            if ( !attrOptionComboOrgUnitMap.get( attrOptionCombo.getUid() + orgUnit.getUid(), () ->
-            {
-                Set<OrganisationUnit> aocOrgUnits = aoc.getOrganisationUnits();
-                return aocOrgUnits == null || orgUnit.isDescendant( aocOrgUnits );
-            } ) )
-            {
-                summary.getConflicts().add( new ImportConflict( orgUnit.getUid(),
-                    "Organisation unit: " + orgUnit.getUid() + " is not valid for attribute option combo: " + attrOptionCombo.getUid() ) );
-                continue;
-            }
+                    if ( workflow != null )
+                    {
+                        final String workflowPeriodAoc = workflow.getUid() + period.getUid() + attrOptionCombo.getUid();
 
-            final DataSet approvalDataSet = dataSet != null ? dataSet : dataElementDataSetMap.get( dataElement.getUid(),
-                () -> dataElement.getApprovalDataSet() );
+                        if ( approvalMap.get( orgUnit.getUid() + workflowPeriodAoc, () ->
+                        {
+                            DataApproval lowestApproval = DataApproval.getLowestApproval( new DataApproval( null, workflow, period, orgUnit, aoc ) );
 
-            if ( approvalDataSet != null ) // Data element is assigned to at least one data set
-            {
-                if ( dataSetLockedMap.get( approvalDataSet.getUid() + period.getUid() + orgUnit.getUid(),
-                    () -> isLocked( currentUser, approvalDataSet, period, orgUnit, skipLockExceptionCheck ) ) )
+                            return lowestApproval != null && lowestApprovalLevelMap.get( lowestApproval.getDataApprovalLevel().getUid() + lowestApproval.getOrganisationUnit().getUid() + workflowPeriodAoc,
+                                () -> approvalService.getDataApproval( lowestApproval ) != null );
+                        } ) )
+                        {
+                            summary.getConflicts().add( new ImportConflict( orgUnit.getUid(),
+                                "Data is already approved for data set: " + approvalDataSet.getUid() + " period: " + period.getIsoDate()
+                                    + " organisation unit: " + orgUnit.getUid() + " attribute option combo: " + attrOptionCombo.getUid() ) );
+                            continue;
+                        }
+                    }
+                }
+
+                if ( approvalDataSet != null && !approvalDataSet.isDataInputPeriodAndDateAllowed( period, new Date() ) )
                 {
-                    summary.getConflicts().add( new ImportConflict( period.getIsoDate(), "Current date is past expiry days for period " +
-                        period.getIsoDate() + " and data set: " + approvalDataSet.getUid() ) );
+                    summary.getConflicts().add( new ImportConflict( orgUnit.getUid(),
+                        "Period: " + period.getIsoDate() + " is not open for this data set at this time: " + approvalDataSet.getUid() ) );
                     continue;
                 }
 
-                Period latestFuturePeriod = dataElementLatestFuturePeriodMap.get( dataElement.getUid(), () -> dataElement.getLatestOpenFuturePeriod() );
+                if ( !periodOpenForDataElement.get( dataElement.getUid() + period.getIsoDate(), () -> dataElement.isDataInputAllowedForPeriodAndDate( period, new Date() ) ) )
+                {
+                    summary.getConflicts().add( new ImportConflict( orgUnit.getUid(), "Period " + period.getName() + " does not conform to the open periods of associated data sets" ) );
+                    continue;
+                }
+            
+                DataValue actualDataValue = null;
+                if ( strategy.isDelete() && dataElement.isFileType() )
+                {
+                    actualDataValue = dataValueService.getDataValue( dataElement, period, orgUnit, categoryOptionCombo, attrOptionCombo );
+                    if ( actualDataValue == null )
+                    {
+                        summary.getConflicts().add( new ImportConflict( dataElement.getUid(), "No data value for file resource exist for the given combination" ) );
+                        continue;
+                    }
+                }
+
+                // -----------------------------------------------------------------
+                // Create data value
+                // -----------------------------------------------------------------
+
+                DataValue internalValue = new DataValue();
+
+                internalValue.setDataElement( dataElement );
+                internalValue.setPeriod( period );
+                internalValue.setSource( orgUnit );
+                internalValue.setCategoryOptionCombo( categoryOptionCombo );
+                internalValue.setAttributeOptionCombo( attrOptionCombo );
+                internalValue.setValue( trimToNull( dataValue.getValue() ) );
+                internalValue.setStoredBy( storedBy );
+                internalValue.setCreated( dataValue.hasCreated() ? parseDate( dataValue.getCreated() ) : now );
+                internalValue.setLastUpdated( dataValue.hasLastUpdated() ? parseDate( dataValue.getLastUpdated() ) : now );
+                internalValue.setComment( trimToNull( dataValue.getComment() ) );
+                internalValue.setFollowup( dataValue.getFollowup() );
+                internalValue.setDeleted( BooleanUtils.isTrue( dataValue.getDeleted() ) );
+
+                // -----------------------------------------------------------------
+                // Check if current user has permission to save this value
+                // -----------------------------------------------------------------
+
+                List<String> errors = accessManager.canWrite( currentUser, internalValue );
 
-                if ( period.isAfter( latestFuturePeriod ) && isIso8601 )
+                if ( !errors.isEmpty() )
                 {
-                    summary.getConflicts().add( new ImportConflict( period.getIsoDate(), "Period: " +
-                        period.getIsoDate() + " is after latest open future period: " + latestFuturePeriod.getIsoDate() + " for data element: " + dataElement.getUid() ) );
+                    summary.getConflicts().addAll( errors.stream().map( s -> new ImportConflict( "dataValueSet", s ) ).collect( Collectors.toList() ) );
                     continue;
                 }
 
-                DataApprovalWorkflow workflow = approvalDataSet.getWorkflow();
+                // -----------------------------------------------------------------
+                // Save, update or delete data values in chunks
+                // -----------------------------------------------------------------
+
+                PendingDataValue pendingValue = new PendingDataValue( internalValue, storedBy, actualDataValue );
 
-                if ( workflow != null )
+                if ( parallelImport != null )
                 {
-                    final String workflowPeriodAoc = workflow.getUid() + period.getUid() + attrOptionCombo.getUid();
+                    parallelImport.add( pendingValue );
+                }
+                else
+                {
+                    chunk.add( pendingValue );
 
-                    if ( approvalMap.get( orgUnit.getUid() + workflowPeriodAoc, () ->
+                    if ( chunk.size() >= IMPORT_CHUNK_SIZE )
                     {
-                        DataApproval lowestApproval = DataApproval.getLowestApproval( new DataApproval( null, workflow, period, orgUnit, aoc ) );
+                        saveDataValues( chunk, strategy, dryRun, skipExistingCheck, dataValueBatchHandler, auditBatchHandler, importCount );
 
-                        return lowestApproval != null && lowestApprovalLevelMap.get( lowestApproval.getDataApprovalLevel().getUid() + lowestApproval.getOrganisationUnit().getUid() + workflowPeriodAoc,
-                            () -> approvalService.getDataApproval( lowestApproval ) != null );
-                    } ) )
-                    {
-                        summary.getConflicts().add( new ImportConflict( orgUnit.getUid(),
-                            "Data is already approved for data set: " + approvalDataSet.getUid() + " period: " + period.getIsoDate()
-                                + " organisation unit: " + orgUnit.getUid() + " attribute option combo: " + attrOptionCombo.getUid() ) );
-                        continue;
+                        chunk.clear();
                     }
                 }
             }
 
-            if ( approvalDataSet != null && !approvalDataSet.isDataInputPeriodAndDateAllowed( period, new Date() ) )
+            if ( parallelImport != null )
             {
-                summary.getConflicts().add( new ImportConflict( orgUnit.getUid(),
-                    "Period: " + period.getIsoDate() + " is not open for this data set at this time: " + approvalDataSet.getUid() ) );
-                continue;
+                importCount = parallelImport.finish();
             }
-
-            if ( !periodOpenForDataElement.get( dataElement.getUid() + period.getIsoDate(), () -> dataElement.isDataInputAllowedForPeriodAndDate( period, new Date() ) ) )
+            else
             {
-                summary.getConflicts().add( new ImportConflict( orgUnit.getUid(), "Period " + period.getName() + " does not conform to the open periods of associated data sets" ) );
-                continue;
+                saveDataValues( chunk, strategy, dryRun, skipExistingCheck, dataValueBatchHandler, auditBatchHandler, importCount );
             }
-            
-            DataValue actualDataValue = null;
-            if ( strategy.isDelete() && dataElement.isFileType() )
+        }
+        finally
+        {
+            if ( parallelImport != null )
             {
-                actualDataValue = dataValueService.getDataValue( dataElement, period, orgUnit, categoryOptionCombo, attrOptionCombo );
-                if ( actualDataValue == null )
-                {
-                    summary.getConflicts().add( new ImportConflict( dataElement.getUid(), "No data value for file resource exist for the given combination" ) );
-                    continue;
-                }
+                parallelImport.shutdown();
             }
+        }
 
-            // -----------------------------------------------------------------
-            // Create data value
-            // -----------------------------------------------------------------
+        dataValueBatchHandler.flush();
+        auditBatchHandler.flush();
 
-            DataValue internalValue = new DataValue();
-
-            internalValue.setDataElement( dataElement );
-            internalValue.setPeriod( period );
-            internalValue.setSource( orgUnit );
-            internalValue.setCategoryOptionCombo( categoryOptionCombo );
-            internalValue.setAttributeOptionCombo( attrOptionCombo );
-            internalValue.setValue( trimToNull( dataValue.getValue() ) );
-            internalValue.setStoredBy( storedBy );
-            internalValue.setCreated( dataValue.hasCreated() ? parseDate( dataValue.getCreated() ) : now );
-            internalValue.setLastUpdated( dataValue.hasLastUpdated() ? parseDate( dataValue.getLastUpdated() ) : now );
-            internalValue.setComment( trimToNull( dataValue.getComment() ) );
-            internalValue.setFollowup( dataValue.getFollowup() );
-            internalValue.setDeleted( BooleanUtils.isTrue( dataValue.getDeleted() ) );
+        int ignores = totalCount - importCount.getImported() - importCount.getUpdated() - importCount.getDeleted();
 
-            // -----------------------------------------------------------------
-            // Check if current user has permission to save this value
-            // -----------------------------------------------------------------
+        importCount.setIgnored( ignores );
+
+        summary.setImportCount( importCount );
+        summary.setStatus( summary.getConflicts().isEmpty() ? ImportStatus.SUCCESS : ImportStatus.WARNING );
+        summary.setDescription( "Import process completed successfully" );
+
+        clock.logTime( "Data value import done, total: " + totalCount + ", import: " + importCount.getImported() +
+            ", update: " + importCount.getUpdated() + ", delete: " + importCount.getDeleted() );
+        notifier.notify( id, notificationLevel, "Import done", true ).addJobSummary( id, notificationLevel, summary, ImportSummary.class );
+
+        dataValueSet.close();
+
+        return summary;
+    }
+
+    // -------------------------------------------------------------------------
+    // Supportive methods
+    // -------------------------------------------------------------------------
+
+    /**
+     * Saves, updates or deletes the given chunk of data values. The existing
+     * data values of the chunk are retrieved with a single query, as opposed to
+     * looking up each data value separately.
+     */
+    private void saveDataValues( List<PendingDataValue> chunk, ImportStrategy strategy, boolean dryRun, boolean skipExistingCheck,
+        BatchHandler<DataValue> dataValueBatchHandler, BatchHandler<DataValueAudit> auditBatchHandler, ImportCount importCount )
+    {
+        if ( chunk.isEmpty() )
+        {
+            return;
+        }
+
+        Map<String, DataValue> existingValues = new HashMap<>();
+
+        if ( !skipExistingCheck )
+        {
+            List<DataValue> dataValues = chunk.stream().map( pending -> pending.dataValue ).collect( Collectors.toList() );
+
+            dataValueService.getExistingDataValues( dataValues ).forEach( dv -> existingValues.put( getKey( dv ), dv ) );
+        }
+
+        Set<String> addedKeys = new HashSet<>();
 
-            List<String> errors = accessManager.canWrite( currentUser, internalValue );
+        for ( PendingDataValue pending : chunk )
+        {
+            final DataValue internalValue = pending.dataValue;
+            final DataElement dataElement = internalValue.getDataElement();
+            final String storedBy = pending.storedBy;
+            final String key = getKey( internalValue );
 
-            if ( !errors.isEmpty() )
+            if ( addedKeys.contains( key ) )
             {
-                summary.getConflicts().addAll( errors.stream().map( s -> new ImportConflict( "dataValueSet", s ) ).collect( Collectors.toList() ) );
-                continue;
+                dataValueBatchHandler.flush(); // Make added value visible before it is updated
+                addedKeys.clear();
             }
 
-            // -----------------------------------------------------------------
-            // Save, update or delete data value
-            // -----------------------------------------------------------------
-
-            DataValue existingValue = !skipExistingCheck ? dataValueBatchHandler.findObject( internalValue ) : null;
+            DataValue existingValue = !skipExistingCheck ? existingValues.get( key ) : null;
 
             // -----------------------------------------------------------------
             // Check soft deleted data values on update and import
@@ -1181,17 +1304,19 @@ public class DefaultDataValueSetService
 
                         auditValue.setAuditType( AuditType.DELETE );
 
-                        deleteCount++;
+                        importCount.incrementDeleted();
                     }
                     else
                     {
-                        updateCount++;
+                        importCount.incrementUpdated();
                     }
 
                     if ( !dryRun )
                     {
                         dataValueBatchHandler.updateObject( internalValue );
 
+                        existingValues.put( key, internalValue );
+
                         auditBatchHandler.addObject( auditValue );
 
                         if ( dataElement.isFileType() )
@@ -1211,13 +1336,13 @@ public class DefaultDataValueSetService
 
                     internalValue.setDeleted( true );
 
-                    deleteCount++;
+                    importCount.incrementDeleted();
 
                     if ( !dryRun )
                     {
                         if ( dataElement.isFileType() )
                         {
-                            FileResource fr = fileResourceService.getFileResource( actualDataValue.getValue() );
+                            FileResource fr = fileResourceService.getFileResource( pending.actualDataValue.getValue() );
 
                             fr.setAssigned( false );
 
@@ -1226,6 +1351,8 @@ public class DefaultDataValueSetService
                         
                         dataValueBatchHandler.updateObject( internalValue );
 
+                        existingValues.put( key, internalValue );
+
                         auditBatchHandler.addObject( auditValue );
                     }
                 }
@@ -1238,12 +1365,14 @@ public class DefaultDataValueSetService
                     {
                         if ( existingValue != null && existingValue.isDeleted() )
                         {
-                            importCount++;
+                            importCount.incrementImported();
 
                             if ( !dryRun )
                             {
                                 dataValueBatchHandler.updateObject( internalValue );
 
+                                existingValues.put( key, internalValue );
+
                                 if ( dataElement.isFileType() )
                                 {
                                     FileResource fr = fileResourceService.getFileResource( internalValue.getValue() );
@@ -1262,6 +1391,12 @@ public class DefaultDataValueSetService
                             {
                                 added = dataValueBatchHandler.addObject( internalValue );
 
+                                if ( added )
+                                {
+                                    existingValues.put( key, internalValue );
+                                    addedKeys.add( key );
+                                }
+
                                 if ( added && dataElement.isFileType() )
                                 {
                                     FileResource fr = fileResourceService.getFileResource( internalValue.getValue() );
@@ -1274,34 +1409,39 @@ public class DefaultDataValueSetService
 
                             if ( dryRun || added )
                             {
-                                importCount++;
+                                importCount.incrementImported();
                             }
                         }
                     }
                 }
             }
         }
+    }
 
-        dataValueBatchHandler.flush();
-        auditBatchHandler.flush();
-
-        int ignores = totalCount - importCount - updateCount - deleteCount;
-
-        summary.setImportCount( new ImportCount( importCount, updateCount, ignores, deleteCount ) );
-        summary.setStatus( summary.getConflicts().isEmpty() ? ImportStatus.SUCCESS : ImportStatus.WARNING );
-        summary.setDescription( "Import process completed successfully" );
-
-        clock.logTime( "Data value import done, total: " + totalCount + ", import: " + importCount + ", update: " + updateCount + ", delete: " + deleteCount );
-        notifier.notify( id, notificationLevel, "Import done", true ).addJobSummary( id, notificationLevel, summary, ImportSummary.class );
+    /**
+     * Returns the number of threads to use for parallel import of data values.
+     */
+    private int getImportThreadCount()
+    {
+        int threads = SystemUtils.getCpuCores();
 
-        dataValueSet.close();
+        if ( threads > 2 )
+        {
+            threads--;
+        }
 
-        return summary;
+        return Math.min( threads, MAX_IMPORT_THREADS );
     }
 
-    // -------------------------------------------------------------------------
-    // Supportive methods
-    // -------------------------------------------------------------------------
+    /**
+     * Returns a key for the data element, period, organisation unit, category
+     * option combo and attribute option combo of the given data value.
+     */
+    private String getKey( DataValue dataValue )
+    {
+        return dataValue.getDataElement().getId() + "-" + dataValue.getPeriod().getId() + "-" + dataValue.getSource().getId() + "-" +
+            dataValue.getCategoryOptionCombo().getId() + "-" + dataValue.getAttributeOptionCombo().getId();
+    }
 
     private void handleComplete( DataSet dataSet, Date completeDate, Period period, OrganisationUnit orgUnit,
         CategoryOptionCombo attributeOptionCombo, ImportSummary summary )
@@ -1355,4 +1495,208 @@ public class DefaultDataValueSetService
     {
         return dataSet.isLocked( user, period, null ) && (skipLockExceptionCheck || lockExceptionStore.getCount( dataSet, period, organisationUnit ) == 0L);
     }
+
+    /**
+     * A validated data value waiting to be saved as part of a chunk.
+     */
+    private static class PendingDataValue
+    {
+        private final DataValue dataValue;
+
+        private final String storedBy;
+
+        private final DataValue actualDataValue;
+
+        PendingDataValue( DataValue dataValue, String storedBy, DataValue actualDataValue )
+        {
+            this.dataValue = dataValue;
+            this.storedBy = storedBy;
+            this.actualDataValue = actualDataValue;
+        }
+    }
+
+    /**
+     * Persists data values on a bounded pool of workers. Data values are
+     * assigned to slices by organisation unit. Each slice is processed in
+     * order by a single thread with its own batch handlers, so that data
+     * values with the same key are written in the order they were imported.
+     * Import counts of the slices are merged when the import is finished.
+     */
+    private class ParallelDataValueImport
+    {
+        private final List<ImportSlice> slices = new ArrayList<>();
+
+        private final Semaphore permits;
+
+        private final Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+
+        private final ImportStrategy strategy;
+
+        private final boolean dryRun;
+
+        private final boolean skipExistingCheck;
+
+        ParallelDataValueImport( int threads, ImportStrategy strategy, boolean dryRun, boolean skipExistingCheck )
+        {
+            for ( int i = 0; i < threads; i++ )
+            {
+                slices.add( new ImportSlice() );
+            }
+
+            this.permits = new Semaphore( threads * 2 );
+            this.strategy = strategy;
+            this.dryRun = dryRun;
+            this.skipExistingCheck = skipExistingCheck;
+        }
+
+        /**
+         * Adds the given data value to its slice, and submits the chunk of the
+         * slice for persistence if full. Blocks if too many chunks are pending.
+         */
+        void add( PendingDataValue pendingValue )
+        {
+            int index = Math.floorMod( pendingValue.dataValue.getSource().getId(), slices.size() );
+
+            ImportSlice slice = slices.get( index );
+
+            slice.chunk.add( pendingValue );
+
+            if ( slice.chunk.size() >= IMPORT_CHUNK_SIZE )
+            {
+                submit( slice );
+            }
+        }
+
+        /**
+         * Persists remaining data values, waits for all slices to complete and
+         * returns the merged import count.
+         */
+        ImportCount finish()
+        {
+            for ( ImportSlice slice : slices )
+            {
+                if ( !slice.chunk.isEmpty() )
+                {
+                    submit( slice );
+                }
+
+                slice.futures.add( slice.executor.submit( slice::flush ) );
+                slice.executor.shutdown();
+            }
+
+            ImportCount importCount = new ImportCount();
+
+            try
+            {
+                for ( ImportSlice slice : slices )
+                {
+                    for ( Future<?> future : slice.futures )
+                    {
+                        future.get();
+                    }
+
+                    importCount.incrementImported( slice.importCount.getImported() );
+                    importCount.incrementUpdated( slice.importCount.getUpdated() );
+                    importCount.incrementDeleted( slice.importCount.getDeleted() );
+                }
+            }
+            catch ( InterruptedException ex )
+            {
+                Thread.currentThread().interrupt();
+
+                throw new RuntimeException( "Data value import was interrupted", ex );
+            }
+            catch ( ExecutionException ex )
+            {
+                throw new RuntimeException( "Data value import failed: " + ex.getCause().getMessage(), ex.getCause() );
+            }
+
+            return importCount;
+        }
+
+        /**
+         * Stops the workers of all slices. Pending chunks are discarded if the
+         * import has not been finished, for instance when it failed.
+         */
+        void shutdown()
+        {
+            slices.forEach( slice -> slice.executor.shutdownNow() );
+        }
+
+        private void submit( ImportSlice slice )
+        {
+            final List<PendingDataValue> chunk = new ArrayList<>( slice.chunk );
+
+            slice.chunk.clear();
+
+            permits.acquireUninterruptibly();
+
+            slice.futures.add( slice.executor.submit( () ->
+            {
+                try
+                {
+                    SecurityContextHolder.getContext().setAuthentication( authentication );
+
+                    saveDataValues( chunk, strategy, dryRun, skipExistingCheck,
+                        slice.getDataValueBatchHandler(), slice.getAuditBatchHandler(), slice.importCount );
+                }
+                finally
+                {
+                    permits.release();
+                }
+            } ) );
+        }
+    }
+
+    /**
+     * A slice of a parallel data value import. Batch handlers are initialized
+     * on the thread of the slice.
+     */
+    private class ImportSlice
+    {
+        private final ExecutorService executor = Executors.newSingleThreadExecutor( IMPORT_THREAD_FACTORY );
+
+        private final List<PendingDataValue> chunk = new ArrayList<>();
+
+        private final List<Future<?>> futures = new ArrayList<>();
+
+        private final ImportCount importCount = new ImportCount();
+
+        private BatchHandler<DataValue> dataValueBatchHandler;
+
+        private BatchHandler<DataValueAudit> auditBatchHandler;
+
+        BatchHandler<DataValue> getDataValueBatchHandler()
+        {
+            if ( dataValueBatchHandler == null )
+            {
+                dataValueBatchHandler = batchHandlerFactory.createBatchHandler( DataValueBatchHandler.class ).init();
+            }
+
+            return dataValueBatchHandler;
+        }
+
+        BatchHandler<DataValueAudit> getAuditBatchHandler()
+        {
+            if ( auditBatchHandler == null )
+            {
+                auditBatchHandler = batchHandlerFactory.createBatchHandler( DataValueAuditBatchHandler.class ).init();
+            }
+
+            return auditBatchHandler;
+        }
+
+        void flush()
+        {
+            if ( dataValueBatchHandler != null )
+            {
+                dataValueBatchHandler.flush();
+            }
+
+            if ( auditBatchHandler != null )
+            {
+                auditBatchHandler.flush();
+            }
+        }
+    }
 }
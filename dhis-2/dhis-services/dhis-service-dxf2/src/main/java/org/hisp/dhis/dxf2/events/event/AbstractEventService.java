@@ -48,6 +48,7 @@ import org.hisp.dhis.common.IdentifiableObject;
 import org.hisp.dhis.common.IdentifiableObjectManager;
 import org.hisp.dhis.common.IllegalQueryException;
 import org.hisp.dhis.common.OrganisationUnitSelectionMode;
+import org.hisp.dhis.common.PageToken;
 import org.hisp.dhis.common.Pager;
 import org.hisp.dhis.common.QueryFilter;
 import org.hisp.dhis.common.QueryItem;
@@ -92,6 +93,7 @@ import org.hisp.dhis.program.notification.ProgramNotificationEventType;
 import org.hisp.dhis.program.notification.ProgramNotificationPublisher;
 import org.hisp.dhis.programrule.engine.DataValueUpdatedEvent;
 import org.hisp.dhis.programrule.engine.ProgramRuleEnginePublisher;
+import org.hisp.dhis.programrule.engine.ProgramRuleEngineService;
 import org.hisp.dhis.programrule.engine.ProgramStageInstanceCompletedEvent;
 import org.hisp.dhis.programrule.engine.ProgramStageInstanceScheduledEvent;
 import org.hisp.dhis.query.Order;
@@ -130,6 +132,7 @@ import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -245,6 +248,9 @@ public abstract class AbstractEventService
     @Autowired
     protected ProgramRuleEnginePublisher enginePublisher;
 
+    @Autowired
+    protected ProgramRuleEngineService programRuleEngineService;
+
     @Autowired
     protected ProgramNotificationPublisher programNotificationPublisher;
 
@@ -297,11 +303,15 @@ public abstract class AbstractEventService
         {
             prepareCaches( importOptions.getUser(), _events );
 
+            List<ProgramStageInstance> ruleEngineEvents = new ArrayList<>();
+
             for ( Event event : _events )
             {
-                importSummaries.addImportSummary( addEvent( event, importOptions ) );
+                importSummaries.addImportSummary( addEvent( event, importOptions, ruleEngineEvents ) );
             }
 
+            evaluateProgramRules( ruleEngineEvents );
+
             if ( clearSession && events.size() >= FLUSH_FREQUENCY )
             {
                 clearSession();
@@ -338,6 +348,16 @@ public abstract class AbstractEventService
 
     @Override
     public ImportSummary addEvent( Event event, ImportOptions importOptions )
+    {
+        return addEvent( event, importOptions, null );
+    }
+
+    /**
+     * Adds the given event. If a list of rule engine events is given, the event
+     * is added to it for program rules to be evaluated in a batch, otherwise
+     * program rules are evaluated immediately.
+     */
+    private ImportSummary addEvent( Event event, ImportOptions importOptions, List<ProgramStageInstance> ruleEngineEvents )
     {
         importOptions = updateImportOptions( importOptions );
 
@@ -527,7 +547,7 @@ public abstract class AbstractEventService
             return importSummary;
         }
 
-        return saveEvent( program, programInstance, programStage, programStageInstance, organisationUnit, event, importOptions );
+        return saveEvent( program, programInstance, programStage, programStageInstance, organisationUnit, event, importOptions, ruleEngineEvents );
     }
 
     // -------------------------------------------------------------------------
@@ -548,7 +568,7 @@ public abstract class AbstractEventService
 
         Events events = new Events();
 
-        if ( params.isPaging() )
+        if ( params.isPaging() && !params.isKeysetPaging() )
         {
             int count = 0;
 
@@ -573,9 +593,32 @@ public abstract class AbstractEventService
             }
         }
 
+        if ( params.getNextPageToken() != null )
+        {
+            events.setNextPageToken( params.getNextPageToken().encode() );
+        }
+
         return events;
     }
 
+    @Override
+    public EventCursor getEventCursor( EventSearchParams params )
+    {
+        validate( params );
+
+        List<OrganisationUnit> organisationUnits = getOrganisationUnits( params );
+
+        if ( !params.isPaging() && !params.isSkipPaging() )
+        {
+            params.setDefaultPaging();
+        }
+
+        User user = currentUserService.getCurrentUser();
+
+        return EventCursor.filter( eventStore.getEventCursor( params, organisationUnits ),
+            event -> trackerOwnershipAccessManager.hasAccess( user, event.getTrackedEntityInstance(), event.getProgram() ) );
+    }
+
     @Override
     public Grid getEventsGrid( EventSearchParams params )
     {
@@ -728,22 +771,29 @@ public abstract class AbstractEventService
     }
 
     @Override
-    public Events getAnonymousEventsForSync( int pageSize )
+    public Events getAnonymousEventsForSync( int pageSize, PageToken pageToken )
     {
-        //A page is not specified here. The reason is, that after a page is synchronized, the items that were in that page
-        // get lastSynchronized column updated. Therefore, they are not present in the results in the next query anymore.
-        // If I used paging, I would come to SQLGrammarException because I would try to fetch entries (with specific offset)
-        // that don't exist anymore.
+        // Keyset paging is used as synchronized events drop out of the result
+        // set, which shifts offset based pages, and as the position of events
+        // which failed to synchronize must be skipped
 
         EventSearchParams params = new EventSearchParams();
         params.setProgramType( ProgramType.WITHOUT_REGISTRATION );
         params.setIncludeDeleted( true );
         params.setSynchronizationQuery( true );
         params.setPageSize( pageSize );
+        params.setKeysetPaging( true );
+        params.setPageToken( pageToken );
 
         Events anonymousEvents = new Events();
         List<Event> events = eventStore.getEvents( params, null );
         anonymousEvents.setEvents( events );
+
+        if ( params.getNextPageToken() != null )
+        {
+            anonymousEvents.setNextPageToken( params.getNextPageToken().encode() );
+        }
+
         return anonymousEvents;
     }
 
@@ -1520,7 +1570,7 @@ public abstract class AbstractEventService
 
     private ImportSummary saveEvent( Program program, ProgramInstance programInstance, ProgramStage programStage,
         ProgramStageInstance programStageInstance, OrganisationUnit organisationUnit, Event event,
-        ImportOptions importOptions )
+        ImportOptions importOptions, List<ProgramStageInstance> ruleEngineEvents )
     {
         Assert.notNull( program, "Program cannot be null" );
         Assert.notNull( programInstance, "Program instance cannot be null" );
@@ -1641,14 +1691,15 @@ public abstract class AbstractEventService
             }
         }
 
-        sendProgramNotification( programStageInstance, importOptions );
+        sendProgramNotification( programStageInstance, importOptions, ruleEngineEvents );
 
         importSummary.setStatus( importSummary.getConflicts().isEmpty() ? ImportStatus.SUCCESS : ImportStatus.WARNING );
 
         return importSummary;
     }
 
-    private void sendProgramNotification( ProgramStageInstance programStageInstance, ImportOptions importOptions )
+    private void sendProgramNotification( ProgramStageInstance programStageInstance, ImportOptions importOptions,
+        List<ProgramStageInstance> ruleEngineEvents )
     {
         if ( !importOptions.isSkipNotifications() )
         {
@@ -1657,10 +1708,34 @@ public abstract class AbstractEventService
                 programNotificationPublisher.publishEvent( programStageInstance, ProgramNotificationEventType.PROGRAM_STAGE_COMPLETION );
             }
 
-            enginePublisher.publishProgramRuleEvent( new ProgramStageInstanceScheduledEvent( this, programStageInstance ) );
+            if ( ruleEngineEvents != null )
+            {
+                ruleEngineEvents.add( programStageInstance );
+            }
+            else
+            {
+                enginePublisher.publishProgramRuleEvent( new ProgramStageInstanceScheduledEvent( this, programStageInstance ) );
+            }
         }
     }
 
+    /**
+     * Evaluates program rules for the given imported events, with one rule
+     * engine evaluation per enrollment.
+     */
+    private void evaluateProgramRules( List<ProgramStageInstance> programStageInstances )
+    {
+        Map<ProgramInstance, List<ProgramStageInstance>> enrollmentEvents = new LinkedHashMap<>();
+
+        for ( ProgramStageInstance programStageInstance : programStageInstances )
+        {
+            enrollmentEvents.computeIfAbsent( programStageInstance.getProgramInstance(), pi -> new ArrayList<>() )
+                .add( programStageInstance );
+        }
+
+        enrollmentEvents.forEach( ( programInstance, events ) -> programRuleEngineService.evaluate( programInstance, events ) );
+    }
+
     private void saveDataValue( ProgramStageInstance programStageInstance, String storedBy, DataElement dataElement,
         String value, Boolean providedElsewhere, TrackedEntityDataValue dataValue, ImportSummary importSummary )
     {
@@ -1916,6 +1991,12 @@ public abstract class AbstractEventService
             violation = "At least one of the following query parameters are required: orgUnit, program, trackedEntityInstance or event";
         }
 
+        if ( params.isKeysetPaging() && ( ( params.getOrders() != null && !params.getOrders().isEmpty() )
+            || ( params.getGridOrders() != null && !params.getGridOrders().isEmpty() ) ) )
+        {
+            violation = "Order can not be specified when paging with a page token";
+        }
+
         if ( violation != null )
         {
             log.warn( "Validation failed: " + violation );
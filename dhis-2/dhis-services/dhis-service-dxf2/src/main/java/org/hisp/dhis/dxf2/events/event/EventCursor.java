@@ -1,4 +1,4 @@
-package org.hisp.dhis.datasource;
+package org.hisp.dhis.dxf2.events.event;
 
 /*
  * Copyright (c) 2004-2018, University of Oslo
@@ -28,62 +28,54 @@ package org.hisp.dhis.datasource;
  * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
  */
 
-import java.sql.Connection;
-import java.sql.SQLException;
-import java.util.Collections;
-import java.util.Iterator;
-import java.util.List;
-
-import javax.sql.DataSource;
-
-import org.springframework.jdbc.datasource.AbstractDataSource;
-
 import com.google.common.collect.Iterators;
 
+import java.util.Iterator;
+import java.util.function.Predicate;
+
 /**
- * Data source implementation which routes to the configured target data sources
- * in a circular fashion.
- * 
- * @author Lars Helge Overland
+ * Forward-only iterator over events which are read one at a time from an
+ * open database cursor. The cursor must be closed when no longer used, it is
+ * closed automatically when all events have been read.
  */
-public class CircularRoutingDataSource
-    extends AbstractDataSource
+public interface EventCursor
+    extends Iterator<Event>, AutoCloseable
 {
-    private Iterator<DataSource> dataSourceIterator;
-
-    public CircularRoutingDataSource()
-    {
-    }
-    
-    public CircularRoutingDataSource( List<DataSource> targetDataSources )
-    {
-        this.dataSourceIterator = Iterators.cycle( Collections.synchronizedList( targetDataSources ) );
-    }
-        
-    // -------------------------------------------------------------------------
-    // AbstractDataSource implementation
-    // -------------------------------------------------------------------------
-
     @Override
-    public Connection getConnection()
-        throws SQLException
-    {
-        return getDataSource().getConnection();
-    }
+    void close();
 
-    @Override
-    public Connection getConnection( String username, String password )
-        throws SQLException
+    /**
+     * Returns a cursor which only yields the events of the given cursor which
+     * match the given predicate. Closing the returned cursor closes the given
+     * cursor.
+     *
+     * @param cursor the cursor to filter.
+     * @param predicate the predicate to apply.
+     * @return a filtered cursor.
+     */
+    static EventCursor filter( EventCursor cursor, Predicate<Event> predicate )
     {
-        return getDataSource().getConnection( username, password );
-    }
+        Iterator<Event> iterator = Iterators.filter( cursor, predicate::test );
 
-    // -------------------------------------------------------------------------
-    // Private methods
-    // -------------------------------------------------------------------------
+        return new EventCursor()
+        {
+            @Override
+            public boolean hasNext()
+            {
+                return iterator.hasNext();
+            }
 
-    private synchronized DataSource getDataSource()
-    {
-        return dataSourceIterator.next();
+            @Override
+            public Event next()
+            {
+                return iterator.next();
+            }
+
+            @Override
+            public void close()
+            {
+                cursor.close();
+            }
+        };
     }
 }
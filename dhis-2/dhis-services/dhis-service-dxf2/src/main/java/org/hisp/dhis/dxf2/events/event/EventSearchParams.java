@@ -31,6 +31,7 @@ package org.hisp.dhis.dxf2.events.event;
 import org.hisp.dhis.category.CategoryOptionCombo;
 import org.hisp.dhis.common.IdSchemes;
 import org.hisp.dhis.common.OrganisationUnitSelectionMode;
+import org.hisp.dhis.common.PageToken;
 import org.hisp.dhis.common.QueryItem;
 import org.hisp.dhis.event.EventStatus;
 import org.hisp.dhis.organisationunit.OrganisationUnit;
@@ -147,6 +148,22 @@ public class EventSearchParams
 
     private boolean synchronizationQuery;
 
+    /**
+     * Indicates whether to page on (lastUpdated, id) rather than on offset.
+     */
+    private boolean keysetPaging;
+
+    /**
+     * Position after which the keyset page starts, null for the first page.
+     */
+    private PageToken pageToken;
+
+    /**
+     * Position of the last event of the keyset page, set by the store when
+     * more events may follow.
+     */
+    private PageToken nextPageToken;
+
     // -------------------------------------------------------------------------
     // Constructors
     // -------------------------------------------------------------------------
@@ -188,6 +205,20 @@ public class EventSearchParams
         this.pageSize = DEFAULT_PAGE_SIZE;
         this.skipPaging = false;
     }
+
+    /**
+     * Indicates whether keyset paging applies, which requires that paging is
+     * not skipped.
+     */
+    public boolean isKeysetPaging()
+    {
+        return keysetPaging && !skipPaging;
+    }
+
+    public boolean hasPageToken()
+    {
+        return pageToken != null;
+    }
     
     public boolean hasProgram()
     {
@@ -561,4 +592,29 @@ public class EventSearchParams
     {
         this.synchronizationQuery = synchronizationQuery;
     }
+
+    public void setKeysetPaging( boolean keysetPaging )
+    {
+        this.keysetPaging = keysetPaging;
+    }
+
+    public PageToken getPageToken()
+    {
+        return pageToken;
+    }
+
+    public void setPageToken( PageToken pageToken )
+    {
+        this.pageToken = pageToken;
+    }
+
+    public PageToken getNextPageToken()
+    {
+        return nextPageToken;
+    }
+
+    public void setNextPageToken( PageToken nextPageToken )
+    {
+        this.nextPageToken = nextPageToken;
+    }
 }
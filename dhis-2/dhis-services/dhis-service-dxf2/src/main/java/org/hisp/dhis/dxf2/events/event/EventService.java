@@ -32,6 +32,7 @@ import org.hisp.dhis.category.CategoryOptionCombo;
 import org.hisp.dhis.common.Grid;
 import org.hisp.dhis.common.IdSchemes;
 import org.hisp.dhis.common.OrganisationUnitSelectionMode;
+import org.hisp.dhis.common.PageToken;
 import org.hisp.dhis.dxf2.common.ImportOptions;
 import org.hisp.dhis.dxf2.events.report.EventRows;
 import org.hisp.dhis.dxf2.importsummary.ImportSummaries;
@@ -59,6 +60,17 @@ public interface EventService
 
     Events getEvents( EventSearchParams params );
 
+    /**
+     * Returns a cursor over the events matching the given parameters which the
+     * current user has access to. Events are read one at a time from the database,
+     * which keeps memory usage constant for large exports. The cursor must be
+     * closed after use.
+     *
+     * @param params the event search parameters.
+     * @return an event cursor.
+     */
+    EventCursor getEventCursor( EventSearchParams params );
+
     EventRows getEventRows( EventSearchParams params );
 
     EventSearchParams getFromUrl( String program, String programStage, ProgramStatus programStatus, Boolean followUp, String orgUnit,
@@ -92,9 +104,11 @@ public interface EventService
      * Returns the anonymous events that are supposed to be synchronized (lastUpdated > lastSynchronized)
      *
      * @param pageSize Specifies the max number for the events returned.
-     * @return the anonymous events that are supposed to be synchronized (lastUpdated > lastSynchronized)
+     * @param pageToken Specifies the position after which to return events, null for the first page.
+     * @return the anonymous events that are supposed to be synchronized (lastUpdated > lastSynchronized),
+     * with the token of the next page if more events may follow
      */
-    Events getAnonymousEventsForSync( int pageSize );
+    Events getAnonymousEventsForSync( int pageSize, PageToken pageToken );
 
     // -------------------------------------------------------------------------
     // CREATE
@@ -40,6 +40,13 @@ import org.hisp.dhis.organisationunit.OrganisationUnit;
 public interface EventStore
 {
     List<Event> getEvents( EventSearchParams params, List<OrganisationUnit> organisationUnits );
+
+    /**
+     * Returns a cursor which reads the events matching the given parameters
+     * one at a time, without loading the full result set into memory. The
+     * cursor must be closed after use.
+     */
+    EventCursor getEventCursor( EventSearchParams params, List<OrganisationUnit> organisationUnits );
     
     List<Map<String, String>> getEventsGrid( EventSearchParams params, List<OrganisationUnit> organisationUnits );
     
@@ -35,8 +35,9 @@ import com.vividsolutions.jts.io.WKTReader;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
+import org.hisp.dhis.common.AccessibleObjectCache;
 import org.hisp.dhis.common.IdSchemes;
-import org.hisp.dhis.common.IdentifiableObjectManager;
+import org.hisp.dhis.common.PageToken;
 import org.hisp.dhis.common.QueryFilter;
 import org.hisp.dhis.common.QueryItem;
 import org.hisp.dhis.common.ValueType;
@@ -60,9 +61,16 @@ import org.hisp.dhis.user.User;
 import org.hisp.dhis.util.ObjectUtils;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.jdbc.support.rowset.ResultSetWrappingSqlRowSet;
 import org.springframework.jdbc.support.rowset.SqlRowSet;
 
 import javax.annotation.Resource;
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.HashMap;
@@ -70,8 +78,8 @@ import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.NoSuchElementException;
 import java.util.Set;
-import java.util.stream.Collectors;
 
 import static org.hisp.dhis.common.IdentifiableObjectUtils.getIdentifiers;
 import static org.hisp.dhis.commons.util.TextUtils.getCommaDelimitedString;
@@ -117,6 +125,8 @@ public class JdbcEventStore
         .put( "attributeOptionCombo", "psi_aoc" ).put( "completedDate", "psi_completeddate" )
         .put( "deleted", "psi_deleted" ).build();
 
+    static final int CURSOR_FETCH_SIZE = 1000;
+
     // -------------------------------------------------------------------------
     // Dependencies
     // -------------------------------------------------------------------------
@@ -131,7 +141,7 @@ public class JdbcEventStore
     private CurrentUserService currentUserService;
 
     @Autowired
-    private IdentifiableObjectManager manager;
+    private AccessibleObjectCache accessibleObjectCache;
 
     // -------------------------------------------------------------------------
     // EventStore implementation
@@ -142,16 +152,7 @@ public class JdbcEventStore
     {
         User user = currentUserService.getCurrentUser();
 
-        boolean isSuperUser = isSuper( user );
-
-        if ( !isSuperUser )
-        {
-            params.setAccessiblePrograms( manager.getDataReadAll( Program.class )
-                .stream().map( Program::getUid ).collect( Collectors.toSet() ) );
-
-            params.setAccessibleProgramStages( manager.getDataReadAll( ProgramStage.class )
-                .stream().map( ProgramStage::getUid ).collect( Collectors.toSet() ) );
-        }
+        setAccessiblePrograms( params, user );
 
         List<Event> events = new ArrayList<>();
 
@@ -161,138 +162,35 @@ public class JdbcEventStore
 
         log.debug( "Event query SQL: " + sql );
 
-        Event event = new Event();
+        EventRowReader reader = new EventRowReader( rowSet, params, user );
 
-        event.setEvent( "not_valid" );
+        Event event;
 
-        Set<String> notes = new HashSet<>();
-
-        IdSchemes idSchemes = ObjectUtils.firstNonNull( params.getIdSchemes(), new IdSchemes() );
-
-        while ( rowSet.next() )
+        while ( (event = reader.next()) != null )
         {
-            if ( rowSet.getString( "psi_uid" ) == null || (params.getCategoryOptionCombo() == null && !isSuperUser && !userHasAccess( rowSet )) )
-            {
-                continue;
-            }
-
-            if ( event.getUid() == null || !event.getUid().equals( rowSet.getString( "psi_uid" ) ) )
-            {
-                event = new Event();
-
-                event.setUid( rowSet.getString( "psi_uid" ) );
-
-                event.setEvent( IdSchemes.getValue( rowSet.getString( "psi_uid" ), rowSet.getString( "psi_code" ),
-                    idSchemes.getProgramStageInstanceIdScheme() ) );
-                event.setTrackedEntityInstance( rowSet.getString( "tei_uid" ) );
-                event.setStatus( EventStatus.valueOf( rowSet.getString( "psi_status" ) ) );
-
-                event.setProgram( IdSchemes.getValue( rowSet.getString( "p_uid" ), rowSet.getString( "p_code" ),
-                    idSchemes.getProgramIdScheme() ) );
-                event.setProgramStage( IdSchemes.getValue( rowSet.getString( "ps_uid" ), rowSet.getString( "ps_code" ),
-                    idSchemes.getProgramStageIdScheme() ) );
-                event.setOrgUnit( IdSchemes.getValue( rowSet.getString( "ou_uid" ), rowSet.getString( "ou_code" ),
-                    idSchemes.getOrgUnitIdScheme() ) );
-                event.setDeleted( rowSet.getBoolean( "psi_deleted" ) );
-
-                ProgramType programType = ProgramType.fromValue( rowSet.getString( "p_type" ) );
-
-                if ( programType != ProgramType.WITHOUT_REGISTRATION )
-                {
-                    event.setEnrollment( rowSet.getString( "pi_uid" ) );
-                    event.setEnrollmentStatus( EnrollmentStatus
-                        .fromProgramStatus( ProgramStatus.valueOf( rowSet.getString( "pi_status" ) ) ) );
-                    event.setFollowup( rowSet.getBoolean( "pi_followup" ) );
-                }
-
-                if ( params.getCategoryOptionCombo() == null && !isSuper( user ) )
-                {
-                    event.setOptionSize( rowSet.getInt( "option_size" ) );
-                }
-
-                event.setAttributeOptionCombo( rowSet.getString( "coc_categoryoptioncombouid" ) );
-                event.setAttributeCategoryOptions( rowSet.getString( "deco_uid" ) );
-                event.setTrackedEntityInstance( rowSet.getString( "tei_uid" ) );
-
-                event.setStoredBy( rowSet.getString( "psi_storedby" ) );
-                event.setOrgUnitName( rowSet.getString( "ou_name" ) );
-                event.setDueDate( DateUtils.getIso8601NoTz( rowSet.getDate( "psi_duedate" ) ) );
-                event.setEventDate( DateUtils.getIso8601NoTz( rowSet.getDate( "psi_executiondate" ) ) );
-                event.setCreated( DateUtils.getIso8601NoTz( rowSet.getDate( "psi_created" ) ) );
-                event.setLastUpdated( DateUtils.getIso8601NoTz( rowSet.getDate( "psi_lastupdated" ) ) );
-
-                event.setCompletedBy( rowSet.getString( "psi_completedby" ) );
-                event.setCompletedDate( DateUtils.getIso8601NoTz( rowSet.getDate( "psi_completeddate" ) ) );
-
-                if ( rowSet.getObject( "psi_geometry" ) != null )
-                {
-                    try
-                    {
-                        Geometry geom = new WKTReader().read( rowSet.getString( "psi_geometry" ) );
-
-                        event.setGeometry( geom );
-                        event.setCoordinate( new Coordinate( geom.getCoordinate().x, geom.getCoordinate().y ) );
-                    }
-                    catch ( ParseException e )
-                    {
-                        log.error( "Unable to read geometry for event '" + event.getUid() + "': ", e );
-                    }
-                }
-
-                events.add( event );
-            }
-            else
-            {
-                String attributeCategoryCombination = event.getAttributeCategoryOptions();
-                String currentAttributeCategoryCombination = rowSet.getString( "deco_uid" );
-
-                if ( !attributeCategoryCombination.contains( currentAttributeCategoryCombination ) )
-                {
-                    event.setAttributeCategoryOptions(
-                        attributeCategoryCombination + ";" + currentAttributeCategoryCombination );
-                }
-            }
-
-            if ( rowSet.getString( "pdv_value" ) != null && rowSet.getString( "de_uid" ) != null
-                && isNewDataValue( rowSet, event.getDataValues() ) )
-            {
-                DataValue dataValue = new DataValue();
-                dataValue.setCreated( DateUtils.getIso8601NoTz( rowSet.getDate( "pdv_created" ) ) );
-                dataValue.setLastUpdated( DateUtils.getIso8601NoTz( rowSet.getDate( "pdv_lastupdated" ) ) );
-                dataValue.setValue( rowSet.getString( "pdv_value" ) );
-                dataValue.setProvidedElsewhere( rowSet.getBoolean( "pdv_providedelsewhere" ) );
-                dataValue.setDataElement( IdSchemes.getValue( rowSet.getString( "de_uid" ),
-                    rowSet.getString( "de_code" ), idSchemes.getDataElementIdScheme() ) );
+            events.add( event );
+        }
 
-                dataValue.setStoredBy( rowSet.getString( "pdv_storedby" ) );
+        if ( params.isKeysetPaging() )
+        {
+            params.setNextPageToken( reader.getNextPageToken() );
+        }
 
-                if ( params.isSynchronizationQuery() )
-                {
-                    dataValue.setSkipSynchronization( rowSet.getBoolean( "psde_skipsynchronization" ) );
-                }
+        return events;
+    }
 
-                event.getDataValues().add( dataValue );
-            }
+    @Override
+    public EventCursor getEventCursor( EventSearchParams params, List<OrganisationUnit> organisationUnits )
+    {
+        User user = currentUserService.getCurrentUser();
 
-            if ( rowSet.getString( "psinote_value" ) != null && !notes.contains( rowSet.getString( "psinote_id" ) ) )
-            {
-                Note note = new Note();
-                note.setNote( rowSet.getString( "psinote_uid" ) );
-                note.setValue( rowSet.getString( "psinote_value" ) );
-                note.setStoredDate( DateUtils.getIso8601NoTz( rowSet.getDate( "psinote_storeddate" ) ) );
-                note.setStoredBy( rowSet.getString( "psinote_storedby" ) );
+        setAccessiblePrograms( params, user );
 
-                event.getNotes().add( note );
-                notes.add( rowSet.getString( "psinote_id" ) );
-            }
-        }
+        String sql = buildSql( params, organisationUnits, user );
 
-        if ( params.getCategoryOptionCombo() == null && !isSuper( user ) )
-        {
-            return events.stream().filter( ev -> ev.getAttributeCategoryOptions() != null && splitToArray( ev.getAttributeCategoryOptions(), TextUtils.SEMICOLON ).size() == ev.getOptionSize() ).collect( Collectors.toList() );
-        }
+        log.debug( "Event cursor SQL: " + sql );
 
-        return events;
+        return new JdbcEventCursor( sql, params, user );
     }
 
     @Override
@@ -569,8 +467,6 @@ public class JdbcEventStore
 
     private String getEventSelectQuery( EventSearchParams params, List<OrganisationUnit> organisationUnits, User user )
     {
-        List<Integer> orgUnitIds = getIdentifiers( organisationUnits );
-
         SqlHelper hlp = new SqlHelper();
 
         String sql = "select psi.programstageinstanceid as psi_id, psi.uid as psi_uid, psi.code as psi_code, psi.status as psi_status, psi.executiondate as psi_executiondate, "
@@ -598,8 +494,48 @@ public class JdbcEventStore
             + "deco.uid AS deco_uid, pi.uid as pi_uid, pi.status as pi_status, pi.followup as pi_followup, p.uid as p_uid, p.code as p_code, "
             + "p.type as p_type, ps.uid as ps_uid, ps.code as ps_code, "
             + "ou.uid as ou_uid, ou.code as ou_code, ou.name as ou_name, "
-            + "tei.trackedentityinstanceid as tei_id, tei.uid as tei_uid, teiou.uid as tei_ou, teiou.name as tei_ou_name, tei.created as tei_created, tei.inactive as tei_inactive "
-            + "from programstageinstance psi "
+            + "tei.trackedentityinstanceid as tei_id, tei.uid as tei_uid, teiou.uid as tei_ou, teiou.name as tei_ou_name, tei.created as tei_created, tei.inactive as tei_inactive ";
+
+        sql += getEventFromWhereQuery( params, organisationUnits, user, hlp );
+
+        if ( params.isKeysetPaging() )
+        {
+            sql += hlp.whereAnd() + " psi.programstageinstanceid in (" + getEventKeysetPageQuery( params, organisationUnits, user ) + ") ";
+        }
+
+        return sql;
+    }
+
+    /**
+     * Selects the identifiers of the events of the requested keyset page. The
+     * limit is applied to distinct events rather than to rows, as the event
+     * query returns one row per attribute category option of an event.
+     */
+    private String getEventKeysetPageQuery( EventSearchParams params, List<OrganisationUnit> organisationUnits, User user )
+    {
+        SqlHelper hlp = new SqlHelper();
+
+        String sql = "select psi.programstageinstanceid " + getEventFromWhereQuery( params, organisationUnits, user, hlp );
+
+        if ( params.hasPageToken() )
+        {
+            PageToken token = params.getPageToken();
+
+            sql += hlp.whereAnd() + " (psi.lastupdated, psi.programstageinstanceid) > (timestamp '" + token.getLastUpdated() + "', " + token.getId() + ") ";
+        }
+
+        sql += "group by psi.programstageinstanceid, psi.lastupdated "
+            + "order by psi.lastupdated, psi.programstageinstanceid "
+            + "limit " + params.getPageSizeWithDefault();
+
+        return sql;
+    }
+
+    private String getEventFromWhereQuery( EventSearchParams params, List<OrganisationUnit> organisationUnits, User user, SqlHelper hlp )
+    {
+        List<Integer> orgUnitIds = getIdentifiers( organisationUnits );
+
+        String sql = "from programstageinstance psi "
             + "inner join programinstance pi on pi.programinstanceid=psi.programinstanceid "
             + "inner join program p on p.programid=pi.programid "
             + "inner join programstage ps on ps.programstageid=psi.programstageid "
@@ -916,7 +852,7 @@ public class JdbcEventStore
     {
         String sql = " ";
 
-        if ( params.isPaging() )
+        if ( params.isPaging() && !params.isKeysetPaging() )
         {
             sql += "limit " + params.getPageSizeWithDefault() + " offset " + params.getOffset() + " ";
         }
@@ -1001,6 +937,11 @@ public class JdbcEventStore
 
     private String getOrderQuery( EventSearchParams params )
     {
+        if ( params.isKeysetPaging() )
+        {
+            return "order by psi_lastupdated asc, psi_id asc ";
+        }
+
         ArrayList<String> orderFields = new ArrayList<String>();
         
         if ( params.getGridOrders() != null )
@@ -1077,4 +1018,355 @@ public class JdbcEventStore
 
         return AccessStringHelper.isEnabled( rowSet.getString( "deco_publicaccess" ), AccessStringHelper.Permission.DATA_READ );
     }
+
+    private void setAccessiblePrograms( EventSearchParams params, User user )
+    {
+        if ( !isSuper( user ) )
+        {
+            params.setAccessiblePrograms( accessibleObjectCache.getDataReadUids( Program.class ) );
+
+            params.setAccessibleProgramStages( accessibleObjectCache.getDataReadUids( ProgramStage.class ) );
+        }
+    }
+
+    // -------------------------------------------------------------------------
+    // Supportive classes
+    // -------------------------------------------------------------------------
+
+    /**
+     * Reads events from a row set where the rows of each event are adjacent.
+     * An event is returned once all of its rows have been read, so only the
+     * event currently being read is held in memory.
+     */
+    private class EventRowReader
+    {
+        private final SqlRowSet rowSet;
+
+        private final EventSearchParams params;
+
+        private final boolean isSuperUser;
+
+        private final IdSchemes idSchemes;
+
+        private final Set<String> notes = new HashSet<>();
+
+        private Event event;
+
+        private PageToken lastKey;
+
+        private int keyCount;
+
+        EventRowReader( SqlRowSet rowSet, EventSearchParams params, User user )
+        {
+            this.rowSet = rowSet;
+            this.params = params;
+            this.isSuperUser = isSuper( user );
+            this.idSchemes = ObjectUtils.firstNonNull( params.getIdSchemes(), new IdSchemes() );
+        }
+
+        /**
+         * Returns the next event, or null if there are no more events.
+         */
+        Event next()
+        {
+            while ( rowSet.next() )
+            {
+                readKey();
+
+                if ( rowSet.getString( "psi_uid" ) == null || (params.getCategoryOptionCombo() == null && !isSuperUser && !userHasAccess( rowSet )) )
+                {
+                    continue;
+                }
+
+                Event completed = null;
+
+                if ( event == null || !event.getUid().equals( rowSet.getString( "psi_uid" ) ) )
+                {
+                    completed = event;
+                    event = readEvent();
+                    notes.clear();
+                }
+                else
+                {
+                    String attributeCategoryCombination = event.getAttributeCategoryOptions();
+                    String currentAttributeCategoryCombination = rowSet.getString( "deco_uid" );
+
+                    if ( !attributeCategoryCombination.contains( currentAttributeCategoryCombination ) )
+                    {
+                        event.setAttributeCategoryOptions(
+                            attributeCategoryCombination + ";" + currentAttributeCategoryCombination );
+                    }
+                }
+
+                readDataValueAndNote();
+
+                if ( completed != null && isIncluded( completed ) )
+                {
+                    return completed;
+                }
+            }
+
+            Event last = event;
+            event = null;
+
+            return last != null && isIncluded( last ) ? last : null;
+        }
+
+        /**
+         * Returns the token of the last event read, or null if the keyset page
+         * was not full and hence no more events follow.
+         */
+        PageToken getNextPageToken()
+        {
+            return keyCount >= params.getPageSizeWithDefault() ? lastKey : null;
+        }
+
+        /**
+         * Tracks the keyset position of the current row. Rows which are not
+         * accessible still count, as they are part of the page.
+         */
+        private void readKey()
+        {
+            if ( params.isKeysetPaging() && rowSet.getString( "psi_uid" ) != null )
+            {
+                long id = rowSet.getLong( "psi_id" );
+
+                if ( lastKey == null || lastKey.getId() != id )
+                {
+                    lastKey = new PageToken( rowSet.getTimestamp( "psi_lastupdated" ), id );
+                    keyCount++;
+                }
+            }
+        }
+
+        private Event readEvent()
+        {
+            Event event = new Event();
+
+            event.setUid( rowSet.getString( "psi_uid" ) );
+
+            event.setEvent( IdSchemes.getValue( rowSet.getString( "psi_uid" ), rowSet.getString( "psi_code" ),
+                idSchemes.getProgramStageInstanceIdScheme() ) );
+            event.setTrackedEntityInstance( rowSet.getString( "tei_uid" ) );
+            event.setStatus( EventStatus.valueOf( rowSet.getString( "psi_status" ) ) );
+
+            event.setProgram( IdSchemes.getValue( rowSet.getString( "p_uid" ), rowSet.getString( "p_code" ),
+                idSchemes.getProgramIdScheme() ) );
+            event.setProgramStage( IdSchemes.getValue( rowSet.getString( "ps_uid" ), rowSet.getString( "ps_code" ),
+                idSchemes.getProgramStageIdScheme() ) );
+            event.setOrgUnit( IdSchemes.getValue( rowSet.getString( "ou_uid" ), rowSet.getString( "ou_code" ),
+                idSchemes.getOrgUnitIdScheme() ) );
+            event.setDeleted( rowSet.getBoolean( "psi_deleted" ) );
+
+            ProgramType programType = ProgramType.fromValue( rowSet.getString( "p_type" ) );
+
+            if ( programType != ProgramType.WITHOUT_REGISTRATION )
+            {
+                event.setEnrollment( rowSet.getString( "pi_uid" ) );
+                event.setEnrollmentStatus( EnrollmentStatus
+                    .fromProgramStatus( ProgramStatus.valueOf( rowSet.getString( "pi_status" ) ) ) );
+                event.setFollowup( rowSet.getBoolean( "pi_followup" ) );
+            }
+
+            if ( params.getCategoryOptionCombo() == null && !isSuperUser )
+            {
+                event.setOptionSize( rowSet.getInt( "option_size" ) );
+            }
+
+            event.setAttributeOptionCombo( rowSet.getString( "coc_categoryoptioncombouid" ) );
+            event.setAttributeCategoryOptions( rowSet.getString( "deco_uid" ) );
+            event.setTrackedEntityInstance( rowSet.getString( "tei_uid" ) );
+
+            event.setStoredBy( rowSet.getString( "psi_storedby" ) );
+            event.setOrgUnitName( rowSet.getString( "ou_name" ) );
+            event.setDueDate( DateUtils.getIso8601NoTz( rowSet.getTimestamp( "psi_duedate" ) ) );
+            event.setEventDate( DateUtils.getIso8601NoTz( rowSet.getTimestamp( "psi_executiondate" ) ) );
+            event.setCreated( DateUtils.getIso8601NoTz( rowSet.getTimestamp( "psi_created" ) ) );
+            event.setLastUpdated( DateUtils.getIso8601NoTz( rowSet.getTimestamp( "psi_lastupdated" ) ) );
+
+            event.setCompletedBy( rowSet.getString( "psi_completedby" ) );
+            event.setCompletedDate( DateUtils.getIso8601NoTz( rowSet.getTimestamp( "psi_completeddate" ) ) );
+
+            if ( rowSet.getObject( "psi_geometry" ) != null )
+            {
+                try
+                {
+                    Geometry geom = new WKTReader().read( rowSet.getString( "psi_geometry" ) );
+
+                    event.setGeometry( geom );
+                    event.setCoordinate( new Coordinate( geom.getCoordinate().x, geom.getCoordinate().y ) );
+                }
+                catch ( ParseException e )
+                {
+                    log.error( "Unable to read geometry for event '" + event.getUid() + "': ", e );
+                }
+            }
+
+            return event;
+        }
+
+        private void readDataValueAndNote()
+        {
+            if ( rowSet.getString( "pdv_value" ) != null && rowSet.getString( "de_uid" ) != null
+                && isNewDataValue( rowSet, event.getDataValues() ) )
+            {
+                DataValue dataValue = new DataValue();
+                dataValue.setCreated( DateUtils.getIso8601NoTz( rowSet.getTimestamp( "pdv_created" ) ) );
+                dataValue.setLastUpdated( DateUtils.getIso8601NoTz( rowSet.getTimestamp( "pdv_lastupdated" ) ) );
+                dataValue.setValue( rowSet.getString( "pdv_value" ) );
+                dataValue.setProvidedElsewhere( rowSet.getBoolean( "pdv_providedelsewhere" ) );
+                dataValue.setDataElement( IdSchemes.getValue( rowSet.getString( "de_uid" ),
+                    rowSet.getString( "de_code" ), idSchemes.getDataElementIdScheme() ) );
+
+                dataValue.setStoredBy( rowSet.getString( "pdv_storedby" ) );
+
+                if ( params.isSynchronizationQuery() )
+                {
+                    dataValue.setSkipSynchronization( rowSet.getBoolean( "psde_skipsynchronization" ) );
+                }
+
+                event.getDataValues().add( dataValue );
+            }
+
+            if ( rowSet.getString( "psinote_value" ) != null && !notes.contains( rowSet.getString( "psinote_id" ) ) )
+            {
+                Note note = new Note();
+                note.setNote( rowSet.getString( "psinote_uid" ) );
+                note.setValue( rowSet.getString( "psinote_value" ) );
+                note.setStoredDate( DateUtils.getIso8601NoTz( rowSet.getTimestamp( "psinote_storeddate" ) ) );
+                note.setStoredBy( rowSet.getString( "psinote_storedby" ) );
+
+                event.getNotes().add( note );
+                notes.add( rowSet.getString( "psinote_id" ) );
+            }
+        }
+
+        /**
+         * Users without access to all category options of the attribute option
+         * combination of an event can not see the event.
+         */
+        private boolean isIncluded( Event event )
+        {
+            if ( params.getCategoryOptionCombo() != null || isSuperUser )
+            {
+                return true;
+            }
+
+            return event.getAttributeCategoryOptions() != null &&
+                splitToArray( event.getAttributeCategoryOptions(), TextUtils.SEMICOLON ).size() == event.getOptionSize();
+        }
+    }
+
+    /**
+     * Event cursor backed by a forward-only result set with a bounded fetch
+     * size. PostgreSQL only fetches rows in batches when auto-commit is off,
+     * and the portal is closed when the transaction ends. The cursor therefore
+     * uses a dedicated connection, not bound to the surrounding Spring
+     * transaction, and holds a read-only transaction on it until closed.
+     */
+    private class JdbcEventCursor
+        implements EventCursor
+    {
+        private final Connection connection;
+
+        private boolean autoCommit;
+
+        private boolean readOnly;
+
+        private Statement statement;
+
+        private EventRowReader reader;
+
+        private Event next;
+
+        private boolean closed;
+
+        JdbcEventCursor( String sql, EventSearchParams params, User user )
+        {
+            DataSource dataSource = jdbcTemplate.getDataSource();
+
+            try
+            {
+                this.connection = dataSource.getConnection();
+            }
+            catch ( SQLException ex )
+            {
+                throw jdbcTemplate.getExceptionTranslator().translate( "Event cursor", sql, ex );
+            }
+
+            try
+            {
+                autoCommit = connection.getAutoCommit();
+                readOnly = connection.isReadOnly();
+                connection.setAutoCommit( false );
+                connection.setReadOnly( true );
+
+                statement = connection.createStatement( ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY );
+                statement.setFetchSize( CURSOR_FETCH_SIZE );
+
+                reader = new EventRowReader( new ResultSetWrappingSqlRowSet( statement.executeQuery( sql ) ), params, user );
+            }
+            catch ( SQLException ex )
+            {
+                close();
+                throw jdbcTemplate.getExceptionTranslator().translate( "Event cursor", sql, ex );
+            }
+        }
+
+        @Override
+        public boolean hasNext()
+        {
+            if ( next == null && !closed )
+            {
+                next = reader.next();
+
+                if ( next == null )
+                {
+                    close();
+                }
+            }
+
+            return next != null;
+        }
+
+        @Override
+        public Event next()
+        {
+            if ( !hasNext() )
+            {
+                throw new NoSuchElementException();
+            }
+
+            Event event = next;
+            next = null;
+
+            return event;
+        }
+
+        @Override
+        public void close()
+        {
+            if ( closed )
+            {
+                return;
+            }
+
+            closed = true;
+
+            JdbcUtils.closeStatement( statement );
+
+            try
+            {
+                connection.rollback();
+                connection.setAutoCommit( autoCommit );
+                connection.setReadOnly( readOnly );
+            }
+            catch ( SQLException ex )
+            {
+                log.warn( "Unable to reset connection after reading events", ex );
+            }
+
+            JdbcUtils.closeConnection( connection );
+        }
+    }
 }
@@ -29,11 +29,13 @@ package org.hisp.dhis.dxf2.events.event.csv;
  */
 
 import com.vividsolutions.jts.io.ParseException;
+import org.hisp.dhis.dxf2.events.event.Event;
 import org.hisp.dhis.dxf2.events.event.Events;
 
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.util.Iterator;
 
 /**
  * @author Morten Olav Hansen <mortenoh@gmail.com>
@@ -42,6 +44,12 @@ public interface CsvEventService
 {
     void writeEvents( OutputStream outputStream, Events events, boolean withHeader ) throws IOException;
 
+    /**
+     * Writes the given events one at a time, without holding the full set of
+     * events or data value rows in memory.
+     */
+    void writeEvents( OutputStream outputStream, Iterator<Event> events, boolean withHeader ) throws IOException;
+
     Events readEvents( InputStream inputStream, boolean skipFirst )
         throws IOException, ParseException;
 }
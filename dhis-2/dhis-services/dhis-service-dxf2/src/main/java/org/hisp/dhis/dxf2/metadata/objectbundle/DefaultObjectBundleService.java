@@ -458,6 +458,10 @@ public class DefaultObjectBundleService implements ObjectBundleService
 
         List<IdentifiableObject> persistedObjects = bundle.getPreheat().getAll( bundle.getPreheatIdentifier(), objects );
 
+        persistedObjects.forEach( object -> objectBundleHooks.forEach( hook -> hook.preDelete( object, bundle ) ) );
+
+        manager.delete( persistedObjects, bundle.getUser() );
+
         for ( int idx = 0; idx < persistedObjects.size(); idx++ )
         {
             IdentifiableObject object = persistedObjects.get( idx );
@@ -465,9 +469,6 @@ public class DefaultObjectBundleService implements ObjectBundleService
             objectReport.setDisplayName( IdentifiableObjectUtils.getDisplayName( object ) );
             typeReport.addObjectReport( objectReport );
 
-            objectBundleHooks.forEach( hook -> hook.preDelete( object, bundle ) );
-            manager.delete( object, bundle.getUser() );
-
             if ( MetadataObject.class.isInstance( object ) )
             {
                 deletedObjectService.deleteDeletedObjects( new DeletedObjectQuery( object ) );
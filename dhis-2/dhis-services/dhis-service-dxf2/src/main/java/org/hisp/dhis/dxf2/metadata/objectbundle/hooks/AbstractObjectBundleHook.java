@@ -38,6 +38,8 @@ import org.hisp.dhis.preheat.PreheatService;
 import org.hisp.dhis.schema.MergeService;
 import org.hisp.dhis.schema.SchemaService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -112,4 +114,28 @@ public class AbstractObjectBundleHook implements ObjectBundleHook
     public <T extends IdentifiableObject> void preDelete( T persistedObject, ObjectBundle bundle )
     {
     }
+
+    /**
+     * Runs the given task when the current transaction commits, or immediately
+     * if there is no transaction. Useful for invalidating caches, which would
+     * otherwise be populated again with uncommitted state by concurrent requests.
+     */
+    protected void afterCommit( Runnable task )
+    {
+        if ( TransactionSynchronizationManager.isSynchronizationActive() )
+        {
+            TransactionSynchronizationManager.registerSynchronization( new TransactionSynchronizationAdapter()
+            {
+                @Override
+                public void afterCommit()
+                {
+                    task.run();
+                }
+            } );
+        }
+        else
+        {
+            task.run();
+        }
+    }
 }
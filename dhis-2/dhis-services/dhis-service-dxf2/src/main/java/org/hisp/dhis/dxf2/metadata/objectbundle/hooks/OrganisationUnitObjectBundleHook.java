@@ -34,7 +34,9 @@ import org.hisp.dhis.dxf2.metadata.objectbundle.ObjectBundle;
 import org.hisp.dhis.feedback.ErrorCode;
 import org.hisp.dhis.feedback.ErrorReport;
 import org.hisp.dhis.organisationunit.OrganisationUnit;
+import org.hisp.dhis.organisationunit.OrganisationUnitService;
 import org.hisp.dhis.organisationunit.comparator.OrganisationUnitParentCountComparator;
+import org.springframework.beans.factory.annotation.Autowired;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -45,6 +47,9 @@ import java.util.Map;
  */
 public class OrganisationUnitObjectBundleHook extends AbstractObjectBundleHook
 {
+    @Autowired
+    private OrganisationUnitService organisationUnitService;
+
     @Override
     public void preCommit( ObjectBundle objectBundle )
     {
@@ -87,6 +92,9 @@ public class OrganisationUnitObjectBundleHook extends AbstractObjectBundleHook
             organisationUnit.setParent( parent );
             session.update( organisationUnit );
         }
+
+        organisationUnitService.updateOrganisationUnitClosure();
+        organisationUnitService.updateOrganisationUnitVersion();
     }
 
     @Override
@@ -0,0 +1,77 @@
+package org.hisp.dhis.dxf2.metadata.objectbundle.hooks;
+
+/*
+ * Copyright (c) 2004-2018, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+import com.google.common.collect.ImmutableSet;
+import org.hisp.dhis.common.IdentifiableObject;
+import org.hisp.dhis.dxf2.metadata.objectbundle.ObjectBundle;
+import org.hisp.dhis.organisationunit.OrganisationUnitGroup;
+import org.hisp.dhis.program.Program;
+import org.hisp.dhis.programrule.ProgramRule;
+import org.hisp.dhis.programrule.ProgramRuleAction;
+import org.hisp.dhis.programrule.ProgramRuleVariable;
+import org.hisp.dhis.programrule.engine.ProgramRuleEngine;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Invalidates the cached rule engine contexts of the program rule engine when
+ * objects which are part of a context are imported or deleted. The cache is
+ * invalidated when the import transaction commits.
+ */
+public class ProgramRuleObjectBundleHook extends AbstractObjectBundleHook
+{
+    private static final Set<Class<?>> RULE_ENGINE_CONTEXT_CLASSES = ImmutableSet.of(
+        Program.class, ProgramRule.class, ProgramRuleAction.class, ProgramRuleVariable.class, OrganisationUnitGroup.class );
+
+    @Autowired
+    private ProgramRuleEngine programRuleEngine;
+
+    @Override
+    public void postCommit( ObjectBundle bundle )
+    {
+        if ( bundle.getObjectMap().keySet().stream().anyMatch( RULE_ENGINE_CONTEXT_CLASSES::contains ) )
+        {
+            afterCommit( programRuleEngine::invalidateCache );
+        }
+    }
+
+    @Override
+    public <T extends IdentifiableObject> void postTypeImport( Class<? extends IdentifiableObject> klass, List<T> objects, ObjectBundle bundle )
+    {
+        // post commit is not run for deletes
+
+        if ( bundle.getImportMode().isDelete() && RULE_ENGINE_CONTEXT_CLASSES.contains( klass ) )
+        {
+            afterCommit( programRuleEngine::invalidateCache );
+        }
+    }
+}
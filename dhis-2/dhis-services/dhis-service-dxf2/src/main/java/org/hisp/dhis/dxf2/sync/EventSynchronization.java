@@ -30,6 +30,7 @@ package org.hisp.dhis.dxf2.sync;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
+import org.hisp.dhis.common.PageToken;
 import org.hisp.dhis.dxf2.events.event.Event;
 import org.hisp.dhis.dxf2.events.event.EventService;
 import org.hisp.dhis.dxf2.events.event.Events;
@@ -105,12 +106,16 @@ public class EventSynchronization
         log.info( "Events sync job has " + pages + " pages to sync. With page size: " + eventSyncPageSize );
 
         boolean syncResult = true;
+        PageToken pageToken = null;
+        int page = 0;
 
-        for ( int i = 1; i <= pages; i++ )
+        do
         {
-            Events events = eventService.getAnonymousEventsForSync( eventSyncPageSize );
+            page++;
+            Events events = eventService.getAnonymousEventsForSync( eventSyncPageSize, pageToken );
+            pageToken = PageToken.decode( events.getNextPageToken() );
             filterOutDataValuesMarkedWithSkipSynchronizationFlag( events );
-            log.info( String.format( "Syncing page %d, page size is: %d", i, eventSyncPageSize ) );
+            log.info( String.format( "Syncing page %d, page size is: %d", page, eventSyncPageSize ) );
 
             if ( log.isDebugEnabled() )
             {
@@ -130,6 +135,7 @@ public class EventSynchronization
                 syncResult = false;
             }
         }
+        while ( pageToken != null );
 
         if ( syncResult )
         {
@@ -106,16 +106,22 @@ public class TrackerSynchronization
         log.info( "Remote server URL for Tracker POST sync: " + syncUrl );
         log.info( "Tracker sync job has " + pages + " pages to sync. With page size: " + trackerSyncPageSize );
 
+        // Keyset paging as synchronized TEIs drop out of the result set, which
+        // shifts offset based pages
+
         queryParams.setPageSize( trackerSyncPageSize );
+        queryParams.setKeysetPaging( true );
         TrackedEntityInstanceParams params = TrackedEntityInstanceParams.DATA_SYNCHRONIZATION;
         boolean syncResult = true;
+        int page = 0;
 
-        for ( int i = 1; i <= pages; i++ )
+        do
         {
-            queryParams.setPage( i );
+            page++;
+            queryParams.setPageToken( queryParams.getNextPageToken() );
 
             List<TrackedEntityInstance> dtoTeis = teiService.getTrackedEntityInstances( queryParams, params, true );
-            log.info( String.format( "Syncing page %d, page size is: %d", i, trackerSyncPageSize ) );
+            log.info( String.format( "Syncing page %d, page size is: %d", page, trackerSyncPageSize ) );
 
             if ( log.isDebugEnabled() )
             {
@@ -135,6 +141,7 @@ public class TrackerSynchronization
                 syncResult = false;
             }
         }
+        while ( queryParams.getNextPageToken() != null );
 
         if ( syncResult )
         {
@@ -0,0 +1,193 @@
+package org.hisp.dhis.dxf2.events.event;
+
+/*
+ * Copyright (c) 2004-2018, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+import org.hisp.dhis.DhisTest;
+import org.hisp.dhis.IntegrationTest;
+import org.hisp.dhis.common.IdentifiableObjectManager;
+import org.hisp.dhis.common.OrganisationUnitSelectionMode;
+import org.hisp.dhis.common.ValueType;
+import org.hisp.dhis.dataelement.DataElement;
+import org.hisp.dhis.dxf2.events.enrollment.Enrollment;
+import org.hisp.dhis.dxf2.events.enrollment.EnrollmentService;
+import org.hisp.dhis.dxf2.importsummary.ImportStatus;
+import org.hisp.dhis.dxf2.importsummary.ImportSummaries;
+import org.hisp.dhis.organisationunit.OrganisationUnit;
+import org.hisp.dhis.program.Program;
+import org.hisp.dhis.program.ProgramStage;
+import org.hisp.dhis.program.ProgramStageDataElement;
+import org.hisp.dhis.program.ProgramStageDataElementService;
+import org.hisp.dhis.program.ProgramType;
+import org.hisp.dhis.trackedentity.TrackedEntityInstance;
+import org.hisp.dhis.trackedentity.TrackedEntityType;
+import org.hisp.dhis.trackedentity.TrackedEntityTypeService;
+import org.hisp.dhis.user.UserService;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+public class EventCursorTest
+    extends DhisTest
+{
+    private static final int EVENT_COUNT = JdbcEventStore.CURSOR_FETCH_SIZE + 10;
+
+    @Autowired
+    private EventService eventService;
+
+    @Autowired
+    private EnrollmentService enrollmentService;
+
+    @Autowired
+    private TrackedEntityTypeService trackedEntityTypeService;
+
+    @Autowired
+    private ProgramStageDataElementService programStageDataElementService;
+
+    @Autowired
+    private IdentifiableObjectManager manager;
+
+    @Autowired
+    private UserService _userService;
+
+    private OrganisationUnit organisationUnitA;
+    private DataElement dataElementA;
+    private Program programA;
+    private ProgramStage programStageA;
+    private TrackedEntityInstance trackedEntityInstanceA;
+
+    @Override
+    protected void setUpTest()
+        throws Exception
+    {
+        userService = _userService;
+
+        organisationUnitA = createOrganisationUnit( 'A' );
+        manager.save( organisationUnitA );
+
+        TrackedEntityType trackedEntityType = createTrackedEntityType( 'A' );
+        trackedEntityTypeService.addTrackedEntityType( trackedEntityType );
+
+        trackedEntityInstanceA = createTrackedEntityInstance( 'A', organisationUnitA );
+        trackedEntityInstanceA.setTrackedEntityType( trackedEntityType );
+        manager.save( trackedEntityInstanceA );
+
+        dataElementA = createDataElement( 'A' );
+        dataElementA.setValueType( ValueType.INTEGER );
+        manager.save( dataElementA );
+
+        programStageA = createProgramStage( 'A', 0 );
+        programStageA.setRepeatable( true );
+        manager.save( programStageA );
+
+        programA = createProgram( 'A', new HashSet<>(), organisationUnitA );
+        programA.setProgramType( ProgramType.WITH_REGISTRATION );
+        manager.save( programA );
+
+        ProgramStageDataElement programStageDataElement = new ProgramStageDataElement();
+        programStageDataElement.setDataElement( dataElementA );
+        programStageDataElement.setProgramStage( programStageA );
+        programStageDataElementService.addProgramStageDataElement( programStageDataElement );
+
+        programStageA.getProgramStageDataElements().add( programStageDataElement );
+        programStageA.setProgram( programA );
+        programA.getProgramStages().add( programStageA );
+
+        manager.update( programStageA );
+        manager.update( programA );
+
+        createUserAndInjectSecurityContext( true );
+    }
+
+    @Override
+    public boolean emptyDatabaseAfterTest()
+    {
+        return true;
+    }
+
+    @Test
+    @Category( IntegrationTest.class )
+    public void testReadEventsBeyondFirstFetch()
+    {
+        Enrollment enrollment = new Enrollment();
+        enrollment.setOrgUnit( organisationUnitA.getUid() );
+        enrollment.setProgram( programA.getUid() );
+        enrollment.setTrackedEntityInstance( trackedEntityInstanceA.getUid() );
+        enrollment.setEnrollmentDate( new Date() );
+        enrollment.setIncidentDate( new Date() );
+
+        assertEquals( ImportStatus.SUCCESS, enrollmentService.addEnrollment( enrollment, null, null ).getStatus() );
+
+        List<Event> events = new ArrayList<>();
+
+        for ( int i = 0; i < EVENT_COUNT; i++ )
+        {
+            Event event = new Event();
+            event.setProgram( programA.getUid() );
+            event.setProgramStage( programStageA.getUid() );
+            event.setOrgUnit( organisationUnitA.getUid() );
+            event.setTrackedEntityInstance( trackedEntityInstanceA.getUid() );
+            event.setEventDate( "2013-01-01" );
+            event.getDataValues().add( new DataValue( dataElementA.getUid(), String.valueOf( i ) ) );
+
+            events.add( event );
+        }
+
+        ImportSummaries importSummaries = eventService.addEvents( events, null, true );
+        assertEquals( ImportStatus.SUCCESS, importSummaries.getStatus() );
+
+        EventSearchParams params = new EventSearchParams();
+        params.setProgram( programA );
+        params.setOrgUnit( organisationUnitA );
+        params.setOrgUnitSelectionMode( OrganisationUnitSelectionMode.SELECTED );
+        params.setSkipPaging( true );
+
+        Set<String> uids = new HashSet<>();
+
+        try ( EventCursor cursor = eventService.getEventCursor( params ) )
+        {
+            while ( cursor.hasNext() )
+            {
+                uids.add( cursor.next().getEvent() );
+            }
+
+            assertFalse( cursor.hasNext() );
+        }
+
+        assertEquals( EVENT_COUNT, uids.size() );
+    }
+}
@@ -30,6 +30,7 @@ package org.hisp.dhis.fieldfilter;
 
 import com.google.common.base.Joiner;
 import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Iterators;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Sets;
 import org.apache.commons.logging.Log;
@@ -44,13 +45,13 @@ import org.hisp.dhis.node.Preset;
 import org.hisp.dhis.node.types.CollectionNode;
 import org.hisp.dhis.node.types.ComplexNode;
 import org.hisp.dhis.node.types.SimpleNode;
+import org.hisp.dhis.node.types.StreamingCollectionNode;
 import org.hisp.dhis.period.PeriodType;
 import org.hisp.dhis.preheat.Preheat;
 import org.hisp.dhis.schema.Property;
 import org.hisp.dhis.schema.Schema;
 import org.hisp.dhis.schema.SchemaService;
 import org.hisp.dhis.security.acl.AclService;
-import org.hisp.dhis.system.util.ReflectionUtils;
 import org.hisp.dhis.user.CurrentUserService;
 import org.hisp.dhis.user.User;
 import org.hisp.dhis.user.UserCredentials;
@@ -194,6 +195,57 @@ public class DefaultFieldFilterService implements FieldFilterService
         return collectionNode;
     }
 
+    @Override
+    public StreamingCollectionNode toStreamingCollectionNode( Class<?> wrapper, Iterator<? extends List<?>> batches, FieldFilterParams params )
+    {
+        String fields = params.getFields() == null ? "" : Joiner.on( "," ).join( params.getFields() );
+
+        if ( params.getSkipSharing() )
+        {
+            fields = Joiner.on( "," ).join( fieldParser.modifyFilter( params.getFields(), SHARING_FIELDS ) );
+        }
+
+        Schema rootSchema = schemaService.getDynamicSchema( wrapper );
+
+        FieldMap fieldMap = new FieldMap();
+
+        if ( StringUtils.isEmpty( fields ) )
+        {
+            for ( Property property : rootSchema.getProperties() )
+            {
+                fieldMap.put( property.getName(), new FieldMap() );
+            }
+        }
+        else
+        {
+            fieldMap = fieldParser.parse( fields );
+        }
+
+        final FieldMap finalFieldMap = fieldMap;
+
+        Iterator<List<Node>> nodeBatches = Iterators.transform( batches, objects -> {
+            User user = params.getUser() != null ? params.getUser() : currentUserService.getCurrentUser();
+            List<Node> nodes = new ArrayList<>( objects.size() );
+
+            for ( Object object : objects )
+            {
+                AbstractNode node = buildNode( finalFieldMap, wrapper, object, user, params.getDefaults() );
+
+                if ( node != null )
+                {
+                    nodes.add( node );
+                }
+            }
+
+            return nodes;
+        } );
+
+        StreamingCollectionNode collectionNode = new StreamingCollectionNode( rootSchema.getCollectionName(), nodeBatches );
+        collectionNode.setNamespace( rootSchema.getNamespace() );
+
+        return collectionNode;
+    }
+
     private AbstractNode buildNode( FieldMap fieldMap, Class<?> klass, Object object, User user, Defaults defaults )
     {
         Schema schema = schemaService.getDynamicSchema( klass );
@@ -242,7 +294,7 @@ public class DefaultFieldFilterService implements FieldFilterService
                 continue;
             }
 
-            Object returnValue = ReflectionUtils.invokeMethod( object, property.getGetterMethod() );
+            Object returnValue = property.getValue( object );
             Schema propertySchema = schemaService.getDynamicSchema( property.getKlass() );
 
             FieldMap fieldValue = fieldMap.get( fieldKey );
@@ -530,7 +582,7 @@ public class DefaultFieldFilterService implements FieldFilterService
                 continue;
             }
 
-            Object returnValue = ReflectionUtils.invokeMethod( object, property.getGetterMethod() );
+            Object returnValue = property.getValue( object );
 
             SimpleNode simpleNode = new SimpleNode( field, returnValue );
             simpleNode.setAttribute( property.isAttribute() );
@@ -30,8 +30,10 @@ package org.hisp.dhis.fieldfilter;
 
 import org.hisp.dhis.node.types.CollectionNode;
 import org.hisp.dhis.node.types.ComplexNode;
+import org.hisp.dhis.node.types.StreamingCollectionNode;
 
 import java.util.Arrays;
+import java.util.Iterator;
 import java.util.List;
 
 /**
@@ -51,4 +53,13 @@ public interface FieldFilterService
      * Perform inclusion/exclusion on a list of objects.
      */
     CollectionNode toCollectionNode( Class<?> wrapper, FieldFilterParams params );
+
+    /**
+     * Perform inclusion/exclusion on batches of objects. The field map is parsed
+     * once, and each batch is filtered lazily as the returned collection node is
+     * serialized. The objects of the given params are ignored, and the user is
+     * resolved for each batch when not set, as the session may be cleared
+     * between batches.
+     */
+    StreamingCollectionNode toStreamingCollectionNode( Class<?> wrapper, Iterator<? extends List<?>> batches, FieldFilterParams params );
 }
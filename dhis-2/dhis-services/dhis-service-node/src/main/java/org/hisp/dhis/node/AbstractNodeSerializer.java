@@ -33,10 +33,13 @@ import org.hisp.dhis.node.types.CollectionNode;
 import org.hisp.dhis.node.types.ComplexNode;
 import org.hisp.dhis.node.types.RootNode;
 import org.hisp.dhis.node.types.SimpleNode;
+import org.hisp.dhis.node.types.StreamingCollectionNode;
 import org.joda.time.format.DateTimeFormat;
 import org.joda.time.format.DateTimeFormatter;
 
 import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * @author Morten Olav Hansen <mortenoh@gmail.com>
@@ -127,6 +130,12 @@ public abstract class AbstractNodeSerializer implements NodeSerializer
 
     protected void writeCollectionNode( CollectionNode collectionNode ) throws Exception
     {
+        if ( collectionNode instanceof StreamingCollectionNode && ((StreamingCollectionNode) collectionNode).isStreamable() )
+        {
+            writeStreamingCollectionNode( (StreamingCollectionNode) collectionNode );
+            return;
+        }
+
         if ( !config.getInclusionStrategy().include( collectionNode.getChildren() ) )
         {
             return;
@@ -145,6 +154,50 @@ public abstract class AbstractNodeSerializer implements NodeSerializer
 
     protected abstract void endWriteCollectionNode( CollectionNode collectionNode ) throws Exception;
 
+    /**
+     * Writes a streaming collection batch by batch, flushing after each batch. The
+     * inclusion strategy is applied to the first non-empty batch, or to an empty
+     * list if there is none. This gives the same outcome as for the full
+     * collection, as the strategies only look at nullness and emptiness.
+     */
+    protected void writeStreamingCollectionNode( StreamingCollectionNode collectionNode ) throws Exception
+    {
+        try
+        {
+            List<Node> batch = collectionNode.nextBatch();
+
+            while ( batch != null && batch.isEmpty() )
+            {
+                batch = collectionNode.nextBatch();
+            }
+
+            if ( !config.getInclusionStrategy().include( batch != null ? batch : new ArrayList<Node>() ) )
+            {
+                return;
+            }
+
+            startWriteCollectionNode( collectionNode );
+
+            while ( batch != null )
+            {
+                for ( Node node : batch )
+                {
+                    dispatcher( node );
+                }
+
+                flushStream();
+
+                batch = collectionNode.nextBatch();
+            }
+
+            endWriteCollectionNode( collectionNode );
+        }
+        finally
+        {
+            collectionNode.close();
+        }
+    }
+
     protected void dispatcher( Node node ) throws Exception
     {
         switch ( node.getType() )
@@ -35,6 +35,7 @@ import org.hisp.dhis.node.types.CollectionNode;
 import org.hisp.dhis.node.types.ComplexNode;
 import org.hisp.dhis.node.types.RootNode;
 import org.hisp.dhis.node.types.SimpleNode;
+import org.hisp.dhis.node.types.StreamingCollectionNode;
 import org.hisp.dhis.system.util.DateUtils;
 import org.springframework.context.annotation.Scope;
 import org.springframework.context.annotation.ScopedProxyMode;
@@ -170,7 +171,7 @@ public class StAXNodeSerializer extends AbstractNodeSerializer
     @Override
     protected void startWriteCollectionNode( CollectionNode collectionNode ) throws Exception
     {
-        if ( collectionNode.isWrapping() && !collectionNode.getChildren().isEmpty() )
+        if ( collectionNode.isWrapping() && hasChildren( collectionNode ) )
         {
             writeStartElement( collectionNode );
         }
@@ -179,12 +180,18 @@ public class StAXNodeSerializer extends AbstractNodeSerializer
     @Override
     protected void endWriteCollectionNode( CollectionNode collectionNode ) throws Exception
     {
-        if ( collectionNode.isWrapping() && !collectionNode.getChildren().isEmpty() )
+        if ( collectionNode.isWrapping() && hasChildren( collectionNode ) )
         {
             writer.writeEndElement();
         }
     }
 
+    private boolean hasChildren( CollectionNode collectionNode )
+    {
+        // streaming collections are always wrapped, checking for children would materialize them
+        return collectionNode instanceof StreamingCollectionNode || !collectionNode.getChildren().isEmpty();
+    }
+
     private void writeStartElement( Node node ) throws XMLStreamException
     {
         if ( !StringUtils.isEmpty( node.getComment() ) )
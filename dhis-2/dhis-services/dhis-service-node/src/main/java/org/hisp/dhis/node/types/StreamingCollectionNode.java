@@ -0,0 +1,138 @@
+package org.hisp.dhis.node.types;
+
+/*
+ * Copyright (c) 2004-2018, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+import org.hisp.dhis.node.Node;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Collection node which produces its children lazily in batches, allowing
+ * serializers to write very large collections without holding every child
+ * node in memory. The batches can only be consumed once; calling
+ * {@link #getChildren()} before the collection has been streamed will
+ * materialize all remaining batches for serializers which need random access.
+ */
+public class StreamingCollectionNode extends CollectionNode
+{
+    private Iterator<? extends List<? extends Node>> batches;
+
+    private AutoCloseable closeable;
+
+    public StreamingCollectionNode( String name, Iterator<? extends List<? extends Node>> batches )
+    {
+        super( name );
+        this.batches = batches;
+    }
+
+    /**
+     * Sets a resource backing the batches, such as a database cursor, which is
+     * closed when the collection has been written or materialized.
+     */
+    public StreamingCollectionNode setCloseable( AutoCloseable closeable )
+    {
+        this.closeable = closeable;
+        return this;
+    }
+
+    /**
+     * Returns true if the batches of this collection have not been consumed
+     * yet, either by streaming or by materialization.
+     */
+    public boolean isStreamable()
+    {
+        return batches != null;
+    }
+
+    /**
+     * Returns the next batch of child nodes, or null if there are no more
+     * batches. Only the returned batch is retained by this node.
+     */
+    public List<Node> nextBatch()
+    {
+        if ( batches == null || !batches.hasNext() )
+        {
+            batches = null;
+            return null;
+        }
+
+        setChildren( new ArrayList<>() );
+        addChildren( batches.next() );
+
+        return children;
+    }
+
+    @Override
+    public List<Node> getChildren()
+    {
+        if ( batches != null )
+        {
+            List<Node> nodes = new ArrayList<>();
+
+            while ( batches.hasNext() )
+            {
+                nodes.addAll( batches.next() );
+            }
+
+            batches = null;
+            setChildren( new ArrayList<>() );
+            addChildren( nodes );
+            close();
+        }
+
+        return super.getChildren();
+    }
+
+    /**
+     * Closes the resource backing the batches, if any. Further batches can not
+     * be read once the collection has been closed.
+     */
+    public void close()
+    {
+        batches = null;
+
+        if ( closeable != null )
+        {
+            try
+            {
+                closeable.close();
+            }
+            catch ( Exception ex )
+            {
+                throw new IllegalStateException( "Failed to close streaming collection " + getName(), ex );
+            }
+            finally
+            {
+                closeable = null;
+            }
+        }
+    }
+}
@@ -28,6 +28,7 @@ package org.hisp.dhis.pushanalysis;
  * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
  */
 
+import com.google.common.base.Joiner;
 import com.google.common.collect.Sets;
 import com.google.common.hash.Hashing;
 import com.google.common.io.ByteSource;
@@ -36,7 +37,11 @@ import org.apache.commons.logging.LogFactory;
 import org.apache.velocity.VelocityContext;
 import org.hisp.dhis.chart.Chart;
 import org.hisp.dhis.chart.ChartService;
+import org.hisp.dhis.common.IdentifiableObject;
 import org.hisp.dhis.common.IdentifiableObjectStore;
+import org.hisp.dhis.common.IdentifiableObjectUtils;
+import org.hisp.dhis.common.ListMap;
+import org.hisp.dhis.commons.util.SystemUtils;
 import org.hisp.dhis.commons.util.Encoder;
 import org.hisp.dhis.dashboard.DashboardItem;
 import org.hisp.dhis.fileresource.ExternalFileResource;
@@ -54,6 +59,7 @@ import org.hisp.dhis.reporttable.ReportTableService;
 import org.hisp.dhis.scheduling.JobConfiguration;
 import org.hisp.dhis.scheduling.JobType;
 import org.hisp.dhis.scheduling.SchedulingManager;
+import org.hisp.dhis.security.SecurityContextRunnable;
 import org.hisp.dhis.setting.SettingKey;
 import org.hisp.dhis.setting.SystemSettingManager;
 import org.hisp.dhis.system.grid.GridUtils;
@@ -63,11 +69,15 @@ import org.hisp.dhis.system.util.ChartUtils;
 import org.hisp.dhis.system.velocity.VelocityManager;
 import org.hisp.dhis.user.CurrentUserService;
 import org.hisp.dhis.user.User;
+import org.hisp.dhis.user.UserCredentials;
 import org.hisp.dhis.user.UserGroup;
+import org.hisp.dhis.user.UserService;
 import org.jfree.chart.JFreeChart;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.util.MimeTypeUtils;
 
 import javax.imageio.ImageIO;
@@ -78,11 +88,18 @@ import java.io.StringWriter;
 import java.text.DateFormat;
 import java.text.SimpleDateFormat;
 import java.util.Calendar;
+import java.util.Collection;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Objects;
 import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
 
 /**
  * @author Stian Sandvold
@@ -126,6 +143,15 @@ public class DefaultPushAnalysisService
     @Autowired
     private SchedulingManager schedulingManager;
 
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
     @Autowired
     @Qualifier( "emailMessageSender" )
     private MessageSender messageSender;
@@ -225,31 +251,50 @@ public class DefaultPushAnalysisService
         log( jobId, NotificationLevel.INFO, "List composed. " + receivingUsers.size() + " eligible users found.",
             false, null );
 
+        //----------------------------------------------------------------------
+        // Group users with identical data access, as they receive identical
+        // reports which can be generated once
+        //----------------------------------------------------------------------
+
+        ListMap<String, User> recipientsByAccess = getRecipientsByDataAccess( receivingUsers, getUsersWithUserAccess() );
+
+        log( jobId, NotificationLevel.INFO, recipientsByAccess.size() + " distinct reports to generate.", false, null );
+
         //----------------------------------------------------------------------
         // Generating reports
         //----------------------------------------------------------------------
 
         log( jobId, NotificationLevel.INFO, "Generating and sending reports", false, null );
 
-        for ( User user : receivingUsers )
+        ExecutorService executor = Executors.newFixedThreadPool( getThreadPoolSize( recipientsByAccess.size() ) );
+
+        for ( List<User> recipients : recipientsByAccess.values() )
         {
-            try
+            List<String> recipientUids = IdentifiableObjectUtils.getUids( recipients );
+
+            executor.execute( new SecurityContextRunnable()
             {
-                String title = pushAnalysis.getTitle();
-                String html = generateHtmlReport( pushAnalysis, user, jobId );
+                @Override
+                public void call()
+                {
+                    transactionTemplate.execute( status -> {
+                        generateAndSendReports( uid, recipientUids, jobId );
+                        return null;
+                    } );
+                }
+            } );
+        }
 
-                // TODO: Better handling of messageStatus; Might require refactoring of EmailMessageSender
-                @SuppressWarnings( "unused" )
-                OutboundMessageResponse status = messageSender
-                    .sendMessage( title, html, "", null, Sets.newHashSet( user ), true );
+        executor.shutdown();
 
-            }
-            catch ( Exception e )
-            {
-                log( jobId, NotificationLevel.ERROR,
-                    "Could not create or send report for PushAnalysis '" + pushAnalysis.getName() + "' and User '" +
-                        user.getUsername() + "': " + e.getMessage(), false, e );
-            }
+        try
+        {
+            executor.awaitTermination( 6, TimeUnit.HOURS );
+        }
+        catch ( InterruptedException e )
+        {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
         }
     }
 
@@ -315,6 +360,159 @@ public class DefaultPushAnalysisService
     // Supportive methods
     //--------------------------------------------------------------------------
 
+    /**
+     * Generates the report once for a group of users with identical data access
+     * and sends it to each of them. Objects are reloaded as this runs in a
+     * separate thread and session.
+     *
+     * @param pushAnalysisUid uid of the PushAnalysis
+     * @param recipientUids   uids of the users to receive the report
+     * @param jobId           for logging
+     */
+    private void generateAndSendReports( String pushAnalysisUid, List<String> recipientUids, JobConfiguration jobId )
+    {
+        PushAnalysis pushAnalysis = pushAnalysisStore.getByUid( pushAnalysisUid );
+
+        List<User> recipients = recipientUids.stream()
+            .map( userService::getUser )
+            .filter( Objects::nonNull )
+            .collect( Collectors.toList() );
+
+        if ( pushAnalysis == null || recipients.isEmpty() )
+        {
+            return;
+        }
+
+        String title = pushAnalysis.getTitle();
+        String html;
+
+        try
+        {
+            html = generateHtmlReport( pushAnalysis, recipients.get( 0 ), jobId );
+        }
+        catch ( Exception e )
+        {
+            for ( User user : recipients )
+            {
+                log( jobId, NotificationLevel.ERROR,
+                    "Could not create report for PushAnalysis '" + pushAnalysis.getName() + "' and User '" +
+                        user.getUsername() + "': " + e.getMessage(), false, e );
+            }
+
+            return;
+        }
+
+        for ( User user : recipients )
+        {
+            try
+            {
+                // TODO: Better handling of messageStatus; Might require refactoring of EmailMessageSender
+                @SuppressWarnings( "unused" )
+                OutboundMessageResponse status = messageSender
+                    .sendMessage( title, html, "", null, Sets.newHashSet( user ), true );
+
+                log( jobId, NotificationLevel.INFO, "Sent PushAnalysis to user '" + user.getUsername() + "'.", false,
+                    null );
+            }
+            catch ( Exception e )
+            {
+                log( jobId, NotificationLevel.ERROR,
+                    "Could not send report for PushAnalysis '" + pushAnalysis.getName() + "' and User '" +
+                        user.getUsername() + "': " + e.getMessage(), false, e );
+            }
+        }
+    }
+
+    /**
+     * Groups the given users by data access fingerprint. Users in the same group
+     * receive identical reports.
+     *
+     * @param users                the users
+     * @param usersWithUserAccess  identifiers of users granted user level sharing
+     * @return the users grouped by fingerprint
+     */
+    static ListMap<String, User> getRecipientsByDataAccess( Collection<User> users, Set<Integer> usersWithUserAccess )
+    {
+        ListMap<String, User> recipientsByAccess = new ListMap<>();
+
+        for ( User user : users )
+        {
+            recipientsByAccess.putValue( getDataAccessFingerprint( user, usersWithUserAccess ), user );
+        }
+
+        return recipientsByAccess;
+    }
+
+    /**
+     * Returns a fingerprint of every property of a user which analytics uses to
+     * restrict the data of a report:
+     *
+     * <ul>
+     * <li>the organisation units which relative organisation units resolve to</li>
+     * <li>the authorities, which decide among others whether unapproved data
+     * can be viewed</li>
+     * <li>the user groups, which sharing and data approval levels use</li>
+     * <li>the dimension constraints</li>
+     * <li>the user itself, if granted user level sharing on any object</li>
+     * </ul>
+     *
+     * Users with equal fingerprints receive identical reports.
+     *
+     * @param user                 the user
+     * @param usersWithUserAccess  identifiers of users granted user level sharing
+     * @return the data access fingerprint
+     */
+    private static String getDataAccessFingerprint( User user, Set<Integer> usersWithUserAccess )
+    {
+        UserCredentials credentials = user.getUserCredentials();
+
+        return Joiner.on( "|" ).useForNull( "" ).join(
+            usersWithUserAccess.contains( user.getId() ) ? user.getUid() : null,
+            user.getOrganisationUnit() != null ? user.getOrganisationUnit().getUid() : null,
+            getSortedUids( user.getOrganisationUnits() ),
+            getSortedUids( user.getDataViewOrganisationUnits() ),
+            getSortedUids( user.getGroups() ),
+            credentials != null ? new TreeSet<>( credentials.getAllAuthorities() ).toString() : null,
+            credentials != null ? getSortedUids( credentials.getCatDimensionConstraints() ) : null,
+            credentials != null ? getSortedUids( credentials.getCogsDimensionConstraints() ) : null );
+    }
+
+    private static String getSortedUids( Collection<? extends IdentifiableObject> objects )
+    {
+        return objects != null ? new TreeSet<>( IdentifiableObjectUtils.getUids( objects ) ).toString() : null;
+    }
+
+    /**
+     * Returns the identifiers of users which are granted user level sharing on
+     * any object. Such users may see data others with the same groups cannot,
+     * and hence receive a report of their own.
+     *
+     * @return a set of user identifiers
+     */
+    private Set<Integer> getUsersWithUserAccess()
+    {
+        return new HashSet<>( jdbcTemplate.queryForList( "select distinct userid from useraccess where userid is not null", Integer.class ) );
+    }
+
+    /**
+     * Returns the number of threads to generate reports with, which is bounded
+     * by the number of CPU cores and the number of reports.
+     *
+     * @param reports the number of reports
+     * @return the number of threads
+     */
+    private int getThreadPoolSize( int reports )
+    {
+        int threadPoolSize = SystemUtils.getCpuCores();
+
+        if ( threadPoolSize > 2 )
+        {
+            threadPoolSize--;
+        }
+
+        return Math.max( 1, Math.min( threadPoolSize, reports ) );
+    }
+
     /**
      * Finds the dashboardItem's type and calls the associated method for generating the resource (either URL og HTML)
      *
@@ -463,7 +661,7 @@ public class DefaultPushAnalysisService
      * @param completed         a flag indicating the task is completed (notifier)
      * @param exception         exception if one exists (logger)
      */
-    private void log( JobConfiguration jobId, NotificationLevel notificationLevel, String message, boolean completed,
+    private synchronized void log( JobConfiguration jobId, NotificationLevel notificationLevel, String message, boolean completed,
         Throwable exception )
     {
         notifier.notify( jobId, notificationLevel, message, completed );
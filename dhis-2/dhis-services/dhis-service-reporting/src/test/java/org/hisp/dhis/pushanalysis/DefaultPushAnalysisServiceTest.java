@@ -0,0 +1,131 @@
+package org.hisp.dhis.pushanalysis;
+
+/*
+ * Copyright (c) 2004-2018, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+import com.google.common.collect.Sets;
+import org.hisp.dhis.DhisConvenienceTest;
+import org.hisp.dhis.common.ListMap;
+import org.hisp.dhis.organisationunit.OrganisationUnit;
+import org.hisp.dhis.user.User;
+import org.hisp.dhis.user.UserAuthorityGroup;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+public class DefaultPushAnalysisServiceTest
+    extends DhisConvenienceTest
+{
+    private OrganisationUnit ouA;
+
+    private UserAuthorityGroup roleA;
+    private UserAuthorityGroup roleB;
+
+    @Before
+    public void before()
+    {
+        ouA = createOrganisationUnit( 'A' );
+
+        roleA = createUserAuthorityGroup( 'A', "F_VIEW_EVENT_ANALYTICS" );
+        roleB = createUserAuthorityGroup( 'B', "F_VIEW_EVENT_ANALYTICS", "F_VIEW_UNAPPROVED_DATA" );
+    }
+
+    @Test
+    public void testGroupUsersWithEqualAccess()
+    {
+        User userA = createRecipient( 'A', 1, roleA );
+        User userB = createRecipient( 'B', 2, roleA );
+
+        ListMap<String, User> recipients = DefaultPushAnalysisService.getRecipientsByDataAccess(
+            Sets.newHashSet( userA, userB ), Collections.emptySet() );
+
+        assertEquals( 1, recipients.size() );
+        assertEquals( 2, recipients.values().iterator().next().size() );
+    }
+
+    @Test
+    public void testSeparateUsersWithDifferentAuthorities()
+    {
+        User userA = createRecipient( 'A', 1, roleA );
+        User userB = createRecipient( 'B', 2, roleB );
+
+        ListMap<String, User> recipients = DefaultPushAnalysisService.getRecipientsByDataAccess(
+            Sets.newHashSet( userA, userB ), Collections.emptySet() );
+
+        assertEquals( 2, recipients.size() );
+        assertSeparate( recipients, userA, userB );
+    }
+
+    @Test
+    public void testSeparateUsersWithUserAccess()
+    {
+        User userA = createRecipient( 'A', 1, roleA );
+        User userB = createRecipient( 'B', 2, roleA );
+        User userC = createRecipient( 'C', 3, roleA );
+
+        ListMap<String, User> recipients = DefaultPushAnalysisService.getRecipientsByDataAccess(
+            Sets.newHashSet( userA, userB, userC ), Sets.newHashSet( userB.getId() ) );
+
+        assertEquals( 2, recipients.size() );
+        assertSeparate( recipients, userA, userB );
+        assertSeparate( recipients, userB, userC );
+    }
+
+    private User createRecipient( char uniqueCharacter, int id, UserAuthorityGroup role )
+    {
+        User user = createUser( uniqueCharacter );
+        user.setId( id );
+        user.setOrganisationUnits( Sets.newHashSet( ouA ) );
+        user.getUserCredentials().getUserAuthorityGroups().add( role );
+
+        return user;
+    }
+
+    private void assertSeparate( ListMap<String, User> recipients, User userA, User userB )
+    {
+        String keyA = null;
+        String keyB = null;
+
+        for ( String key : recipients.keySet() )
+        {
+            List<User> users = recipients.get( key );
+
+            keyA = users.contains( userA ) ? key : keyA;
+            keyB = users.contains( userB ) ? key : keyB;
+        }
+
+        assertTrue( keyA != null && keyB != null );
+        assertNotEquals( keyA, keyB );
+    }
+}
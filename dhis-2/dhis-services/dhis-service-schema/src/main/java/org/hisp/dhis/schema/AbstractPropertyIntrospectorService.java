@@ -111,7 +111,9 @@ public abstract class AbstractPropertyIntrospectorService
 
         if ( !classMapCache.containsKey( klass ) )
         {
-            classMapCache.put( klass, scanClass( klass ) );
+            Map<String, Property> properties = scanClass( klass );
+            properties.values().forEach( Property::initAccessors );
+            classMapCache.put( klass, properties );
         }
 
         return classMapCache.get( klass );
@@ -41,6 +41,7 @@ import org.hisp.dhis.jdbc.batchhandler.MinMaxDataElementBatchHandler;
 import org.hisp.dhis.minmax.MinMaxDataElement;
 import org.hisp.dhis.minmax.MinMaxDataElementService;
 import org.hisp.dhis.organisationunit.OrganisationUnit;
+import org.hisp.dhis.organisationunit.OrganisationUnitService;
 import org.hisp.dhis.period.Period;
 import org.hisp.dhis.system.filter.DataElementValueTypesFilter;
 import org.hisp.dhis.system.util.MathUtils;
@@ -49,6 +50,8 @@ import org.hisp.quick.BatchHandlerFactory;
 import org.joda.time.DateTime;
 
 import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 /**
  * @author Lars Helge Overland
@@ -85,6 +88,13 @@ public class MinMaxOutlierAnalysisService
         this.batchHandlerFactory = batchHandlerFactory;
     }
 
+    private OrganisationUnitService organisationUnitService;
+
+    public void setOrganisationUnitService( OrganisationUnitService organisationUnitService )
+    {
+        this.organisationUnitService = organisationUnitService;
+    }
+
     // -------------------------------------------------------------------------
     // DataAnalysisService implementation
     // -------------------------------------------------------------------------
@@ -126,39 +136,46 @@ public class MinMaxOutlierAnalysisService
 
         BatchHandler<MinMaxDataElement> batchHandler = batchHandlerFactory.createBatchHandler( MinMaxDataElementBatchHandler.class ).init();
 
-        for ( DataElement dataElement : dataElements )
+        Map<Integer, DataElement> elements = dataElements.stream()
+            .filter( de -> de.getValueType().isNumeric() )
+            .collect( Collectors.toMap( DataElement::getId, Function.identity(), ( de1, de2 ) -> de1 ) );
+
+        Set<CategoryOptionCombo> categoryOptionCombos = new HashSet<>();
+
+        for ( DataElement dataElement : elements.values() )
+        {
+            categoryOptionCombos.addAll( dataElement.getCategoryOptionCombos() );
+        }
+
+        organisationUnitService.updateOrganisationUnitClosure();
+
+        List<DataAnalysisMeasures> measuresList = dataAnalysisStore.getDataAnalysisMeasures( elements.values(), categoryOptionCombos, parentPaths, from );
+
+        for ( DataAnalysisMeasures measures : measuresList )
         {
-            if ( dataElement.getValueType().isNumeric() )
+            DataElement dataElement = elements.get( measures.getDataElementId() );
+
+            int min = (int) Math.round( MathUtils.getLowBound( measures.getStandardDeviation(), stdDevFactor, measures.getAverage() ) );
+            int max = (int) Math.round( MathUtils.getHighBound( measures.getStandardDeviation(), stdDevFactor, measures.getAverage() ) );
+
+            switch ( dataElement.getValueType() )
             {
-                Set<CategoryOptionCombo> categoryOptionCombos = dataElement.getCategoryOptionCombos();
-
-                List<DataAnalysisMeasures> measuresList = dataAnalysisStore.getDataAnalysisMeasures( dataElement, categoryOptionCombos, parentPaths, from );
-
-                for ( DataAnalysisMeasures measures : measuresList )
-                {
-                    int min = (int) Math.round( MathUtils.getLowBound( measures.getStandardDeviation(), stdDevFactor, measures.getAverage() ) );
-                    int max = (int) Math.round( MathUtils.getHighBound( measures.getStandardDeviation(), stdDevFactor, measures.getAverage() ) );
-
-                    switch ( dataElement.getValueType() )
-                    {
-                        case INTEGER_POSITIVE:
-                        case INTEGER_ZERO_OR_POSITIVE:
-                            min = Math.max( 0, min ); // Cannot be < 0
-                            break;
-                        case INTEGER_NEGATIVE:
-                            max = Math.min( 0, max ); // Cannot be > 0
-                            break;
-                    }
-
-                    OrganisationUnit orgUnit = new OrganisationUnit();
-                    orgUnit.setId( measures.getOrgUnitId() );
-
-                    CategoryOptionCombo categoryOptionCombo = new CategoryOptionCombo();
-                    categoryOptionCombo.setId( measures.getCategoryOptionComboId() );
-
-                    batchHandler.addObject( new MinMaxDataElement( orgUnit, dataElement, categoryOptionCombo, min, max, true ) );
-                }
+                case INTEGER_POSITIVE:
+                case INTEGER_ZERO_OR_POSITIVE:
+                    min = Math.max( 0, min ); // Cannot be < 0
+                    break;
+                case INTEGER_NEGATIVE:
+                    max = Math.min( 0, max ); // Cannot be > 0
+                    break;
             }
+
+            OrganisationUnit orgUnit = new OrganisationUnit();
+            orgUnit.setId( measures.getOrgUnitId() );
+
+            CategoryOptionCombo categoryOptionCombo = new CategoryOptionCombo();
+            categoryOptionCombo.setId( measures.getCategoryOptionComboId() );
+
+            batchHandler.addObject( new MinMaxDataElement( orgUnit, dataElement, categoryOptionCombo, min, max, true ) );
         }
 
         log.info( "Min-max value generation done" );
@@ -30,6 +30,7 @@ package org.hisp.dhis.dataanalysis.jdbc;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
+import com.google.common.collect.Lists;
 import org.hisp.dhis.category.CategoryOptionCombo;
 import org.hisp.dhis.commons.collection.PaginatedList;
 import org.hisp.dhis.commons.util.TextUtils;
@@ -51,6 +52,7 @@ import java.util.Collection;
 import java.util.Date;
 import java.util.List;
 import java.util.Map;
+import java.util.stream.Collectors;
 
 import static org.hisp.dhis.common.IdentifiableObjectUtils.getIdentifiers;
 import static org.hisp.dhis.commons.util.TextUtils.getCommaDelimitedString;
@@ -93,57 +95,111 @@ public class JdbcDataAnalysisStore
     public List<DataAnalysisMeasures> getDataAnalysisMeasures( DataElement dataElement,
         Collection<CategoryOptionCombo> categoryOptionCombos,
         Collection<String> parentPaths, Date from )
+    {
+        return getDataAnalysisMeasures( Lists.newArrayList( dataElement ), categoryOptionCombos, parentPaths, from );
+    }
+
+    @Override
+    public List<DataAnalysisMeasures> getDataAnalysisMeasures( Collection<DataElement> dataElements,
+        Collection<CategoryOptionCombo> categoryOptionCombos,
+        Collection<String> parentPaths, Date from )
     {
         List<DataAnalysisMeasures> measures = new ArrayList<>();
 
-        if ( categoryOptionCombos.isEmpty() || parentPaths.isEmpty() )
+        if ( dataElements.isEmpty() || categoryOptionCombos.isEmpty() || parentPaths.isEmpty() )
         {
             return measures;
         }
 
+        String dataElementIds = TextUtils.getCommaDelimitedString( getIdentifiers( dataElements ) );
         String catOptionComboIds = TextUtils.getCommaDelimitedString( getIdentifiers( categoryOptionCombos ) );
 
-        String matchPaths = "(";
-        for ( String path : parentPaths )
-        {
-            matchPaths += "ou.path like '" + path + "%' or ";
-        }
-        matchPaths = TextUtils.removeLastOr( matchPaths ) + ") ";
-
         String sql =
-            "select dv.sourceid, dv.categoryoptioncomboid, " +
+            "select dv.dataelementid, dv.sourceid, dv.categoryoptioncomboid, " +
                 "avg( cast( dv.value as " + statementBuilder.getDoubleColumnType() + " ) ) as average, " +
                 "stddev_pop( cast( dv.value as " + statementBuilder.getDoubleColumnType() +
                 " ) ) as standarddeviation " +
                 "from datavalue dv " +
                 "join organisationunit ou on ou.organisationunitid = dv.sourceid " +
                 "join period pe on dv.periodid = pe.periodid " +
-                "where dv.dataelementid = " + dataElement.getId() + " " +
+                "where dv.dataelementid in (" + dataElementIds + ") " +
                 "and dv.categoryoptioncomboid in (" + catOptionComboIds + ") " +
                 "and pe.startdate >= '" + DateUtils.getMediumDateString( from ) + "' " +
-                "and " + matchPaths +
+                "and " + getMatchParents( parentPaths ) +
                 "and dv.deleted is false " +
-                "group by dv.sourceid, dv.categoryoptioncomboid";
+                "group by dv.dataelementid, dv.sourceid, dv.categoryoptioncomboid";
 
         SqlRowSet rowSet = jdbcTemplate.queryForRowSet( sql );
 
         while ( rowSet.next() )
         {
-            int orgUnitId = rowSet.getInt( 1 );
-            int categoryOptionComboId = rowSet.getInt( 2 );
-            double average = rowSet.getDouble( 3 );
-            double standardDeviation = rowSet.getDouble( 4 );
+            int dataElementId = rowSet.getInt( 1 );
+            int orgUnitId = rowSet.getInt( 2 );
+            int categoryOptionComboId = rowSet.getInt( 3 );
+            double average = rowSet.getDouble( 4 );
+            double standardDeviation = rowSet.getDouble( 5 );
 
             if ( standardDeviation != 0.0 )
             {
                 measures
-                    .add( new DataAnalysisMeasures( orgUnitId, categoryOptionComboId, average, standardDeviation ) );
+                    .add( new DataAnalysisMeasures( dataElementId, orgUnitId, categoryOptionComboId, average, standardDeviation ) );
             }
         }
 
         return measures;
     }
 
+    @Override
+    public List<DeflatedDataValue> getOutlierDataValues( Collection<DataElement> dataElements,
+        Collection<CategoryOptionCombo> categoryOptionCombos, Collection<Period> periods,
+        Collection<String> parentPaths, Date from, double stdDevFactor, int limit )
+    {
+        if ( dataElements.isEmpty() || categoryOptionCombos.isEmpty() || periods.isEmpty() || parentPaths.isEmpty() )
+        {
+            return new ArrayList<>();
+        }
+
+        String dataElementIds = getCommaDelimitedString( getIdentifiers( dataElements ) );
+        String periodIds = getCommaDelimitedString( getIdentifiers( periods ) );
+        String categoryOptionComboIds = getCommaDelimitedString( getIdentifiers( categoryOptionCombos ) );
+        String value = "cast( dv.value as " + statementBuilder.getDoubleColumnType() + " )";
+
+        String boundsSql =
+            "select dv.dataelementid, dv.sourceid, dv.categoryoptioncomboid, " +
+                "cast( round( avg( " + value + " ) - stddev_pop( " + value + " ) * " + stdDevFactor + " ) as integer ) as minimumvalue, " +
+                "cast( round( avg( " + value + " ) + stddev_pop( " + value + " ) * " + stdDevFactor + " ) as integer ) as maximumvalue " +
+                "from datavalue dv " +
+                "join organisationunit ou on ou.organisationunitid = dv.sourceid " +
+                "join period pe on dv.periodid = pe.periodid " +
+                "where dv.dataelementid in (" + dataElementIds + ") " +
+                "and dv.categoryoptioncomboid in (" + categoryOptionComboIds + ") " +
+                "and pe.startdate >= '" + DateUtils.getMediumDateString( from ) + "' " +
+                "and " + getMatchParents( parentPaths ) +
+                "and dv.deleted is false " +
+                "group by dv.dataelementid, dv.sourceid, dv.categoryoptioncomboid " +
+                "having stddev_pop( " + value + " ) != 0";
+
+        String sql =
+            "select dv.dataelementid, dv.periodid, dv.sourceid, dv.categoryoptioncomboid, dv.attributeoptioncomboid, dv.value, dv.storedby, dv.lastupdated, " +
+                "dv.created, dv.comment, dv.followup, ou.name as sourcename, de.name as dataelementname, " +
+                "pt.name as periodtypename, pe.startdate, pe.enddate, coc.name as categoryoptioncomboname, mm.minimumvalue, mm.maximumvalue " +
+                "from datavalue dv " +
+                "join (" + boundsSql + ") mm on ( dv.dataelementid = mm.dataelementid and dv.categoryoptioncomboid = mm.categoryoptioncomboid and dv.sourceid = mm.sourceid ) " +
+                "join dataelement de on dv.dataelementid = de.dataelementid " +
+                "join period pe on dv.periodid = pe.periodid " +
+                "join periodtype pt on pe.periodtypeid = pt.periodtypeid " +
+                "join organisationunit ou on dv.sourceid = ou.organisationunitid " +
+                "join categoryoptioncombo coc on dv.categoryoptioncomboid = coc.categoryoptioncomboid " +
+                "where dv.periodid in (" + periodIds + ") " +
+                "and ( " + value + " < mm.minimumvalue or " + value + " > mm.maximumvalue ) " +
+                "and dv.deleted is false " +
+                statementBuilder.limitRecord( 0, limit );
+
+        log.debug( "Outlier data value SQL: " + sql );
+
+        return jdbcTemplate.query( sql, new DeflatedDataValueNameMinMaxRowMapper() );
+    }
+
     @Override
     public List<DeflatedDataValue> getMinMaxViolations( Collection<DataElement> dataElements,
         Collection<CategoryOptionCombo> categoryOptionCombos,
@@ -255,6 +311,23 @@ public class JdbcDataAnalysisStore
         return jdbcTemplate.query( sql, new DeflatedDataValueNameMinMaxRowMapper( lowerBoundMap, upperBoundMap ) );
     }
 
+    /**
+     * Restricts organisation units to the subtrees of the given parent paths
+     * through the organisation unit closure table, which avoids pattern
+     * matching on the path column for every data value row.
+     */
+    private String getMatchParents( Collection<String> parentPaths )
+    {
+        List<String> parentUids = parentPaths.stream()
+            .map( path -> path.substring( path.lastIndexOf( '/' ) + 1 ) )
+            .collect( Collectors.toList() );
+
+        return "ou.organisationunitid in (" +
+            "select oc.descendantid from orgunitclosure oc " +
+            "join organisationunit pou on oc.ancestorid = pou.organisationunitid " +
+            "where pou.uid in (" + TextUtils.getQuotedCommaDelimitedString( parentUids ) + ")) ";
+    }
+
     @Override
     public List<DeflatedDataValue> getFollowupDataValues( OrganisationUnit organisationUnit, DataSet dataSet,
         int limit )
@@ -32,6 +32,9 @@ import org.hisp.dhis.dataelement.DataElement;
 import org.hisp.dhis.category.CategoryOptionCombo;
 import org.hisp.dhis.organisationunit.OrganisationUnit;
 import org.hisp.dhis.system.deletion.DeletionHandler;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.Collection;
 
 /**
  * @author Lars Helge Overland
@@ -50,6 +53,13 @@ public class MinMaxDataElementDeletionHandler
     {
         this.minMaxDataElementService = minMaxDataElementService;
     }
+
+    private JdbcTemplate jdbcTemplate;
+
+    public void setJdbcTemplate( JdbcTemplate jdbcTemplate )
+    {
+        this.jdbcTemplate = jdbcTemplate;
+    }
     
     // -------------------------------------------------------------------------
     // DeletionHandler implementation
@@ -72,6 +82,18 @@ public class MinMaxDataElementDeletionHandler
     {
         minMaxDataElementService.removeMinMaxDataElements( source );
     }
+
+    @Override
+    public boolean isBulkDeletionSupported( Class<?> clazz )
+    {
+        return OrganisationUnit.class.equals( clazz );
+    }
+
+    @Override
+    public void deleteAll( Class<?> clazz, Collection<?> objects )
+    {
+        jdbcTemplate.update( "delete from minmaxdataelement where sourceid in (" + getIdentifiers( objects ) + ")" );
+    }
     
     @Override
     public void deleteCategoryOptionCombo( CategoryOptionCombo optionCombo )
@@ -32,6 +32,9 @@ import org.hisp.dhis.organisationunit.OrganisationUnit;
 import org.hisp.dhis.period.Period;
 import org.hisp.dhis.system.deletion.DeletionHandler;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.Collection;
 
 /**
  * @author Stian Sandvold
@@ -44,6 +47,9 @@ public class ValidationResultDeletionHandler
     private
     ValidationResultService validationResultService;
 
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
     @Override
     public String getClassName()
     {
@@ -86,6 +92,18 @@ public class ValidationResultDeletionHandler
         } );
     }
 
+    @Override
+    public boolean isBulkDeletionSupported( Class<?> clazz )
+    {
+        return OrganisationUnit.class.equals( clazz );
+    }
+
+    @Override
+    public void deleteAll( Class<?> clazz, Collection<?> objects )
+    {
+        jdbcTemplate.update( "delete from validationresult where organisationunitid in (" + getIdentifiers( objects ) + ")" );
+    }
+
     @Override
     public void deleteCategoryOptionCombo( CategoryOptionCombo dataElementCategoryOptionCombo )
     {
@@ -35,10 +35,12 @@ import org.hisp.dhis.category.CategoryOptionCombo;
 import org.hisp.dhis.category.CategoryService;
 import org.hisp.dhis.dataelement.*;
 import org.hisp.dhis.datavalue.DataValueService;
+import org.hisp.dhis.datavalue.DeflatedDataValue;
 import org.hisp.dhis.organisationunit.OrganisationUnit;
 import org.hisp.dhis.organisationunit.OrganisationUnitService;
 import org.hisp.dhis.period.MonthlyPeriodType;
 import org.hisp.dhis.period.Period;
+import org.hisp.dhis.period.PeriodService;
 import org.junit.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 
@@ -48,6 +50,7 @@ import java.util.List;
 import java.util.Set;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 
 /**
  * @author Lars Helge Overland
@@ -70,6 +73,9 @@ public class DataAnalysisStoreTest
     @Autowired
     private DataValueService dataValueService;
 
+    @Autowired
+    private PeriodService periodService;
+
     private DataElement dataElementA;
     private DataElement dataElementB;
 
@@ -128,6 +134,7 @@ public class DataAnalysisStoreTest
 
         organisationUnitService.addOrganisationUnit( organisationUnitA );
         organisationUnitService.addOrganisationUnit( organisationUnitB );
+        organisationUnitService.updateOrganisationUnitClosure();
         
         organisationUnits = new HashSet<>();
         organisationUnits.add( organisationUnitA );
@@ -160,4 +167,76 @@ public class DataAnalysisStoreTest
         assertEquals( 12.78, measures.get( 0 ).getAverage(), DELTA );
         assertEquals( 15.26, measures.get( 0 ).getStandardDeviation(), DELTA );
     }
+
+    @Test
+    public void testGetDataAnalysisMeasuresForDataElements()
+    {
+        dataValueService.addDataValue( createDataValue( dataElementA, periodA, organisationUnitA, "5", categoryOptionCombo ) );
+        dataValueService.addDataValue( createDataValue( dataElementA, periodB, organisationUnitA, "15", categoryOptionCombo ) );
+        dataValueService.addDataValue( createDataValue( dataElementB, periodA, organisationUnitA, "2", categoryOptionCombo ) );
+        dataValueService.addDataValue( createDataValue( dataElementB, periodB, organisationUnitA, "4", categoryOptionCombo ) );
+        dataValueService.addDataValue( createDataValue( dataElementB, periodA, organisationUnitB, "8", categoryOptionCombo ) );
+        dataValueService.addDataValue( createDataValue( dataElementB, periodB, organisationUnitB, "12", categoryOptionCombo ) );
+
+        List<DataAnalysisMeasures> measures = dataAnalysisStore.getDataAnalysisMeasures( Lists.newArrayList( dataElementA, dataElementB ),
+            Lists.newArrayList( categoryOptionCombo ), Lists.newArrayList( organisationUnitA.getPath(), organisationUnitB.getPath() ), from );
+
+        assertEquals( 3, measures.size() );
+
+        for ( DataAnalysisMeasures measure : measures )
+        {
+            if ( measure.getDataElementId() == dataElementA.getId() )
+            {
+                assertEquals( organisationUnitA.getId(), measure.getOrgUnitId() );
+                assertEquals( 10.0, measure.getAverage(), DELTA );
+                assertEquals( 5.0, measure.getStandardDeviation(), DELTA );
+            }
+            else
+            {
+                assertEquals( dataElementB.getId(), measure.getDataElementId() );
+                assertEquals( measure.getOrgUnitId() == organisationUnitA.getId() ? 3.0 : 10.0, measure.getAverage(), DELTA );
+            }
+        }
+    }
+
+    @Test
+    public void testGetOutlierDataValues()
+    {
+        periodService.addPeriod( periodA );
+        periodService.addPeriod( periodB );
+        periodService.addPeriod( periodC );
+
+        dataValueService.addDataValue( createDataValue( dataElementA, periodA, organisationUnitA, "5", categoryOptionCombo ) );
+        dataValueService.addDataValue( createDataValue( dataElementA, periodB, organisationUnitA, "52", categoryOptionCombo ) );
+        dataValueService.addDataValue( createDataValue( dataElementA, periodC, organisationUnitA, "-3", categoryOptionCombo ) );
+        dataValueService.addDataValue( createDataValue( dataElementB, periodA, organisationUnitB, "30", categoryOptionCombo ) );
+        dataValueService.addDataValue( createDataValue( dataElementB, periodB, organisationUnitB, "20", categoryOptionCombo ) );
+
+        List<DataElement> dataElements = Lists.newArrayList( dataElementA, dataElementB );
+        List<CategoryOptionCombo> categoryOptionCombos = Lists.newArrayList( categoryOptionCombo );
+        List<Period> periods = Lists.newArrayList( periodA, periodB, periodC );
+        List<String> parentPaths = Lists.newArrayList( organisationUnitA.getPath(), organisationUnitB.getPath() );
+
+        List<DeflatedDataValue> outliers = dataAnalysisStore.getOutlierDataValues( dataElements, categoryOptionCombos,
+            periods, parentPaths, from, 1.0, 10 );
+
+        assertEquals( 1, outliers.size() );
+        assertEquals( "52", outliers.get( 0 ).getValue() );
+        assertEquals( -6, outliers.get( 0 ).getMin() );
+        assertEquals( 42, outliers.get( 0 ).getMax() );
+
+        outliers = dataAnalysisStore.getOutlierDataValues( dataElements, categoryOptionCombos,
+            periods, parentPaths, from, 0.5, 10 );
+
+        assertEquals( 5, outliers.size() );
+
+        for ( DeflatedDataValue outlier : outliers )
+        {
+            assertTrue( Double.parseDouble( outlier.getValue() ) < outlier.getMin() || Double.parseDouble( outlier.getValue() ) > outlier.getMax() );
+        }
+
+        outliers = dataAnalysisStore.getOutlierDataValues( dataElements, categoryOptionCombos, periods, parentPaths, from, 0.5, 2 );
+
+        assertEquals( 2, outliers.size() );
+    }
 }
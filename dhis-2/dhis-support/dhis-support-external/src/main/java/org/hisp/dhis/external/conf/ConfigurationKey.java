@@ -36,6 +36,7 @@ public enum ConfigurationKey
     SYSTEM_READ_ONLY_MODE( "system.read_only_mode", "off", false ),
     SYSTEM_SESSION_TIMEOUT( "system.session.timeout", "3600", false ),
     SYSTEM_INTERNAL_SERVICE_API( "system.internal_service_api", "off", false ),
+    SYSTEM_STARTUP_MIGRATION_LEDGER( "system.startup_migration_ledger", "on", false ),
     SYSTEM_MONITORING_URL( "system.monitoring.url" ),
     SYSTEM_MONITORING_USERNAME( "system.monitoring.username" ),
     SYSTEM_MONITORING_PASSWORD( "system.monitoring.password" ),
@@ -48,6 +49,9 @@ public enum ConfigurationKey
     CONNECTION_PASSWORD( "connection.password", "", true ),
     CONNECTION_SCHEMA( "connection.schema", "", false ),
     CONNECTION_POOL_MAX_SIZE( "connection.pool.max_size", "", false ),
+    CONNECTION_READ_REPLICA_MAX_LAG( "connection.read_replica.max_lag", "60", false ),
+    CONNECTION_READ_REPLICA_CHECK_INTERVAL( "connection.read_replica.check_interval", "30", false ),
+    CONNECTION_READ_REPLICA_MAX_FAILURES( "connection.read_replica.max_failures", "3", false ),
     LDAP_URL( "ldap.url", "ldaps://0:1", false ),
     LDAP_MANAGER_DN( "ldap.manager.dn", "", false ),
     LDAP_MANAGER_PASSWORD( "ldap.manager.password", "", true ),
@@ -68,6 +72,7 @@ public enum ConfigurationKey
     CACHE_PROVIDER( "cache.provider", "ehcache", false ),
     CACHE_SERVERS( "cache.servers", "localhost:11211", false ),
     CACHE_TIME( "cache.time", "600", false ),
+    ANALYTICS_CACHE_EXPIRATION( "analytics.cache.expiration", "0", false ),
     METADATA_AUDIT_PERSIST( "metadata.audit.persist", "off", false ),
     METADATA_AUDIT_LOG( "metadata.audit.log", "off", false ),
     RABBITMQ_HOST( "rabbitmq.host" ),
@@ -87,6 +92,9 @@ public enum ConfigurationKey
     REDIS_ENABLED( "redis.enabled", "false", false ),
     REDIS_USE_SSL( "redis.use.ssl", "false", false ),
     PROGRAM_TEMPORARY_OWNERSHIP_TIMEOUT( "tracker.temporary.ownership.timeout", "3", false ),
+    TRACKER_SEARCH_INDEX( "tracker.search.index", "off", false ),
+    TRACKER_SEARCH_INDEX_MAX_VALUES( "tracker.search.index.max_values", "5000000", false ),
+    SMS_CONSUMER_WORKERS( "sms.consumer.workers", "4", false ),
     LEADER_TIME_TO_LIVE( "leader.time.to.live.minutes", "2", false ),
     RABBITMQ_CONNECTION_TIMEOUT( "rabbitmq.connection-timeout", "60000", false );
 
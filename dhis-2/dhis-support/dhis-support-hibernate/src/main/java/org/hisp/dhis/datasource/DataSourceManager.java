@@ -28,6 +28,8 @@ package org.hisp.dhis.datasource;
  * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
  */
 
+import java.util.List;
+
 import javax.sql.DataSource;
 
 /**
@@ -52,4 +54,13 @@ public interface DataSourceManager
      * @return the number of explicitly defined read only database instances.
      */
     int getReadReplicaCount();
+
+    /**
+     * Returns the explicitly defined read only database instances with their
+     * current routing state, i.e. health, connections in use, average
+     * connection hold time and replication lag.
+     *
+     * @return a list of read replicas.
+     */
+    List<ReadReplica> getReadReplicas();
 }
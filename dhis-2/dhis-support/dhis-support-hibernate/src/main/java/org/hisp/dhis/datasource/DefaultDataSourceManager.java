@@ -31,6 +31,9 @@ package org.hisp.dhis.datasource;
 import static org.hisp.dhis.external.conf.ConfigurationKey.CONNECTION_DRIVER_CLASS;
 import static org.hisp.dhis.external.conf.ConfigurationKey.CONNECTION_PASSWORD;
 import static org.hisp.dhis.external.conf.ConfigurationKey.CONNECTION_POOL_MAX_SIZE;
+import static org.hisp.dhis.external.conf.ConfigurationKey.CONNECTION_READ_REPLICA_CHECK_INTERVAL;
+import static org.hisp.dhis.external.conf.ConfigurationKey.CONNECTION_READ_REPLICA_MAX_FAILURES;
+import static org.hisp.dhis.external.conf.ConfigurationKey.CONNECTION_READ_REPLICA_MAX_LAG;
 import static org.hisp.dhis.external.conf.ConfigurationKey.CONNECTION_URL;
 import static org.hisp.dhis.external.conf.ConfigurationKey.CONNECTION_USERNAME;
 
@@ -38,6 +41,9 @@ import java.beans.PropertyVetoException;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Properties;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
 import javax.sql.DataSource;
 
@@ -47,15 +53,18 @@ import org.apache.commons.logging.LogFactory;
 import org.hisp.dhis.external.conf.ConfigurationKey;
 import org.hisp.dhis.external.conf.DhisConfigurationProvider;
 import org.hisp.dhis.util.ObjectUtils;
+import org.springframework.beans.factory.DisposableBean;
 import org.springframework.beans.factory.InitializingBean;
 
+import com.google.common.collect.ImmutableList;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.mchange.v2.c3p0.ComboPooledDataSource;
 
 /**
  * @author Lars Helge Overland
  */
 public class DefaultDataSourceManager
-    implements DataSourceManager, InitializingBean
+    implements DataSourceManager, InitializingBean, DisposableBean
 {
     private static final Log log = LogFactory.getLog( DefaultDataSourceManager.class );
     
@@ -77,16 +86,52 @@ public class DefaultDataSourceManager
     /**
      * State holder for explicitly defined read only data sources.
      */
-    private List<DataSource> internalReadOnlyInstanceList;
+    private List<ReadReplica> internalReadOnlyInstanceList;
+
+    /**
+     * Executor for read replica health checks, only present if read replicas
+     * are defined.
+     */
+    private ScheduledExecutorService healthCheckExecutor;
 
     @Override
     public void afterPropertiesSet()
         throws Exception
     {
-        List<DataSource> ds = getReadOnlyDataSources();
+        List<ReadReplica> replicas = getReadOnlyDataSources();
         
-        this.internalReadOnlyInstanceList = ds;        
-        this.internalReadOnlyDataSource = !ds.isEmpty() ? new CircularRoutingDataSource( ds ) : mainDataSource;
+        this.internalReadOnlyInstanceList = replicas;
+
+        if ( replicas.isEmpty() )
+        {
+            this.internalReadOnlyDataSource = mainDataSource;
+            return;
+        }
+
+        long maxLag = Long.parseLong( config.getProperty( CONNECTION_READ_REPLICA_MAX_LAG ) );
+        long checkInterval = Long.parseLong( config.getProperty( CONNECTION_READ_REPLICA_CHECK_INTERVAL ) );
+        int maxFailures = Integer.parseInt( config.getProperty( CONNECTION_READ_REPLICA_MAX_FAILURES ) );
+
+        ReadReplicaRoutingDataSource routingDataSource = new ReadReplicaRoutingDataSource( replicas, mainDataSource, maxLag,
+            maxFailures, ReadReplicaRoutingDataSource.DEFAULT_BACKOFF_MILLIS );
+
+        this.internalReadOnlyDataSource = routingDataSource;
+
+        this.healthCheckExecutor = Executors.newSingleThreadScheduledExecutor( new ThreadFactoryBuilder()
+            .setNameFormat( "read-replica-health-check-%d" ).setDaemon( true ).build() );
+
+        this.healthCheckExecutor.scheduleWithFixedDelay( routingDataSource::checkHealth, checkInterval, checkInterval, TimeUnit.SECONDS );
+
+        log.info( "Read replica health check scheduled, interval: " + checkInterval + " seconds, max lag: " + maxLag + " seconds" );
+    }
+
+    @Override
+    public void destroy()
+    {
+        if ( healthCheckExecutor != null )
+        {
+            healthCheckExecutor.shutdownNow();
+        }
     }
     
     // -------------------------------------------------------------------------
@@ -121,12 +166,18 @@ public class DefaultDataSourceManager
     {
         return internalReadOnlyInstanceList != null ? internalReadOnlyInstanceList.size() : 0;
     }
+
+    @Override
+    public List<ReadReplica> getReadReplicas()
+    {
+        return internalReadOnlyInstanceList != null ? ImmutableList.copyOf( internalReadOnlyInstanceList ) : ImmutableList.of();
+    }
     
     // -------------------------------------------------------------------------
     // Supportive methods
     // -------------------------------------------------------------------------
     
-    private List<DataSource> getReadOnlyDataSources()
+    private List<ReadReplica> getReadOnlyDataSources()
     {
         String mainUser = config.getProperty( ConfigurationKey.CONNECTION_USERNAME );
         String mainPassword = config.getProperty( ConfigurationKey.CONNECTION_PASSWORD );
@@ -135,7 +186,7 @@ public class DefaultDataSourceManager
         
         Properties props = config.getProperties();
                 
-        List<DataSource> dataSources = new ArrayList<>();
+        List<ReadReplica> dataSources = new ArrayList<>();
         
         for ( int i = 1; i <= MAX_READ_REPLICAS; i++ )
         {
@@ -160,7 +211,7 @@ public class DefaultDataSourceManager
                     ds.setAcquireIncrement( VAL_ACQUIRE_INCREMENT );
                     ds.setMaxIdleTime( VAL_MAX_IDLE_TIME );      
                     
-                    dataSources.add( ds );
+                    dataSources.add( new ReadReplica( jdbcUrl, ds ) );
                     
                     log.info( "Found read replica, connection URL: " + jdbcUrl );
                 }
@@ -0,0 +1,364 @@
+package org.hisp.dhis.datasource;
+
+/*
+ * Copyright (c) 2004-2018, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.sql.DataSource;
+
+import com.google.common.base.MoreObjects;
+
+/**
+ * A read replica database instance with the state used for routing read only
+ * queries. Keeps track of connections in use, the average time connections are
+ * held, the replication lag and whether the replica is healthy. All state is
+ * held in atomic or volatile fields so that it can be read and updated without
+ * locking.
+ */
+public class ReadReplica
+{
+    /**
+     * Weight of the most recent observation in the exponentially weighted
+     * moving average of connection hold time.
+     */
+    private static final double LATENCY_WEIGHT = 0.2;
+
+    /**
+     * Maximum number of doublings of the back off period after consecutive
+     * connection failures.
+     */
+    private static final int MAX_BACKOFF_DOUBLINGS = 5;
+
+    private final String name;
+
+    private final DataSource dataSource;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    private final AtomicLong connectionCount = new AtomicLong();
+
+    private final AtomicLong failureCount = new AtomicLong();
+
+    private final AtomicInteger consecutiveFailures = new AtomicInteger();
+
+    /**
+     * Time in milliseconds until which this replica is backed off after
+     * connection failures.
+     */
+    private volatile long retryAfter;
+
+    /**
+     * Average connection hold time in milliseconds, stored as double bits.
+     */
+    private final AtomicLong averageLatency = new AtomicLong( Double.doubleToLongBits( 0d ) );
+
+    /**
+     * Replication lag in seconds, -1 if unknown.
+     */
+    private volatile long lag = -1;
+
+    private volatile boolean healthy = true;
+
+    private volatile String ejectReason;
+
+    public ReadReplica( String name, DataSource dataSource )
+    {
+        this.name = name;
+        this.dataSource = dataSource;
+    }
+
+    // -------------------------------------------------------------------------
+    // Logic
+    // -------------------------------------------------------------------------
+
+    /**
+     * Returns a connection to this replica. The connection is tracked as in
+     * flight until it is closed.
+     *
+     * @return a connection.
+     * @throws SQLException if a connection could not be obtained.
+     */
+    public Connection getConnection()
+        throws SQLException
+    {
+        return getConnection( DataSource::getConnection );
+    }
+
+    /**
+     * Returns a connection to this replica for the given credentials. The
+     * connection is tracked as in flight until it is closed.
+     *
+     * @param username the database user.
+     * @param password the user's password.
+     * @return a connection.
+     * @throws SQLException if a connection could not be obtained.
+     */
+    public Connection getConnection( String username, String password )
+        throws SQLException
+    {
+        return getConnection( ds -> ds.getConnection( username, password ) );
+    }
+
+    Connection getConnection( ConnectionFactory factory )
+        throws SQLException
+    {
+        inFlight.incrementAndGet();
+
+        try
+        {
+            Connection connection = factory.getConnection( dataSource );
+
+            connectionCount.incrementAndGet();
+
+            if ( consecutiveFailures.get() > 0 )
+            {
+                resetFailures();
+            }
+
+            return trackConnection( connection );
+        }
+        catch ( SQLException | RuntimeException ex )
+        {
+            inFlight.decrementAndGet();
+            failureCount.incrementAndGet();
+            throw ex;
+        }
+    }
+
+    /**
+     * Marks this replica as unhealthy, so that it is no longer routed to.
+     *
+     * @param reason the reason for ejecting the replica.
+     */
+    public void eject( String reason )
+    {
+        this.ejectReason = reason;
+        this.healthy = false;
+    }
+
+    /**
+     * Marks this replica as healthy, so that it is routed to again, and clears
+     * any back off from earlier connection failures.
+     */
+    public void restore()
+    {
+        this.healthy = true;
+        this.ejectReason = null;
+
+        resetFailures();
+    }
+
+    /**
+     * Indicates whether this replica can be routed to, i.e. whether it is
+     * healthy and not backed off after a connection failure.
+     *
+     * @return true if this replica is available.
+     */
+    public boolean isAvailable()
+    {
+        return healthy && System.currentTimeMillis() >= retryAfter;
+    }
+
+    /**
+     * Records a consecutive connection failure and backs off this replica. The
+     * back off period starts at the given period and doubles for each further
+     * consecutive failure.
+     *
+     * @param backoffMillis the initial back off period in milliseconds.
+     * @return the number of consecutive failures.
+     */
+    int backOff( long backoffMillis )
+    {
+        int failures = consecutiveFailures.incrementAndGet();
+
+        retryAfter = System.currentTimeMillis() + ( backoffMillis << Math.min( failures - 1, MAX_BACKOFF_DOUBLINGS ) );
+
+        return failures;
+    }
+
+    void setLag( long lag )
+    {
+        this.lag = lag;
+    }
+
+    void recordFailure()
+    {
+        failureCount.incrementAndGet();
+    }
+
+    DataSource getDataSource()
+    {
+        return dataSource;
+    }
+
+    // -------------------------------------------------------------------------
+    // Supportive methods
+    // -------------------------------------------------------------------------
+
+    private void resetFailures()
+    {
+        consecutiveFailures.set( 0 );
+        retryAfter = 0;
+    }
+
+    private Connection trackConnection( Connection connection )
+    {
+        final long start = System.nanoTime();
+        final AtomicBoolean closed = new AtomicBoolean();
+
+        return (Connection) Proxy.newProxyInstance( Connection.class.getClassLoader(), new Class<?>[] { Connection.class },
+            ( proxy, method, args ) -> {
+                if ( isMethod( method, "close" ) && closed.compareAndSet( false, true ) )
+                {
+                    inFlight.decrementAndGet();
+                    recordLatency( TimeUnit.NANOSECONDS.toMillis( System.nanoTime() - start ) );
+                }
+                else if ( isMethod( method, "equals" ) )
+                {
+                    return proxy == args[0];
+                }
+                else if ( isMethod( method, "hashCode" ) )
+                {
+                    return System.identityHashCode( proxy );
+                }
+
+                try
+                {
+                    return method.invoke( connection, args );
+                }
+                catch ( InvocationTargetException ex )
+                {
+                    throw ex.getTargetException();
+                }
+            } );
+    }
+
+    private boolean isMethod( Method method, String name )
+    {
+        return name.equals( method.getName() ) && ( "equals".equals( name ) ? method.getParameterCount() == 1 : method.getParameterCount() == 0 );
+    }
+
+    private void recordLatency( long millis )
+    {
+        long current;
+        long updated;
+
+        do
+        {
+            current = averageLatency.get();
+            double average = Double.longBitsToDouble( current );
+            double next = average == 0d ? millis : ( LATENCY_WEIGHT * millis ) + ( ( 1 - LATENCY_WEIGHT ) * average );
+            updated = Double.doubleToLongBits( next );
+        }
+        while ( !averageLatency.compareAndSet( current, updated ) );
+    }
+
+    // -------------------------------------------------------------------------
+    // Getters
+    // -------------------------------------------------------------------------
+
+    public String getName()
+    {
+        return name;
+    }
+
+    public int getInFlight()
+    {
+        return inFlight.get();
+    }
+
+    public long getConnectionCount()
+    {
+        return connectionCount.get();
+    }
+
+    public long getFailureCount()
+    {
+        return failureCount.get();
+    }
+
+    public int getConsecutiveFailures()
+    {
+        return consecutiveFailures.get();
+    }
+
+    public double getAverageLatency()
+    {
+        return Double.longBitsToDouble( averageLatency.get() );
+    }
+
+    public long getLag()
+    {
+        return lag;
+    }
+
+    public boolean isHealthy()
+    {
+        return healthy;
+    }
+
+    public String getEjectReason()
+    {
+        return ejectReason;
+    }
+
+    @Override
+    public String toString()
+    {
+        return MoreObjects.toStringHelper( this )
+            .add( "name", name )
+            .add( "healthy", healthy )
+            .add( "ejectReason", ejectReason )
+            .add( "inFlight", getInFlight() )
+            .add( "connectionCount", getConnectionCount() )
+            .add( "failureCount", getFailureCount() )
+            .add( "consecutiveFailures", getConsecutiveFailures() )
+            .add( "averageLatency", getAverageLatency() )
+            .add( "lag", lag )
+            .toString();
+    }
+
+    /**
+     * Obtains a connection from a data source.
+     */
+    @FunctionalInterface
+    interface ConnectionFactory
+    {
+        Connection getConnection( DataSource dataSource )
+            throws SQLException;
+    }
+}
@@ -0,0 +1,332 @@
+package org.hisp.dhis.datasource;
+
+/*
+ * Copyright (c) 2004-2018, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.sql.DataSource;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+
+import com.google.common.collect.ImmutableList;
+
+/**
+ * Data source implementation which routes to a list of read replicas. A
+ * connection is taken from the healthy replica with the fewest connections in
+ * use, with ties broken by the lowest average connection hold time. Replicas
+ * which fail to provide a connection are backed off for an exponentially
+ * growing period, and are ejected after a maximum number of consecutive
+ * failures. Replicas which fail the health check or lag too far behind the
+ * primary are ejected until a later health check succeeds. If no replica is
+ * available, connections are taken from the fallback data source.
+ * <p>
+ * Routing does not take any locks, replica state is kept in atomic variables.
+ */
+public class ReadReplicaRoutingDataSource
+    extends AbstractDataSource
+{
+    private static final Log log = LogFactory.getLog( ReadReplicaRoutingDataSource.class );
+
+    private static final int VALIDATION_TIMEOUT_SECONDS = 10;
+
+    public static final int DEFAULT_MAX_FAILURES = 3;
+
+    public static final long DEFAULT_BACKOFF_MILLIS = 1000;
+
+    /**
+     * PostgreSQL query for the replication lag in seconds. The lag is 0 if the
+     * instance is not in recovery or has replayed all received changes, so that
+     * replicas are not ejected when the primary is idle.
+     */
+    private static final String LAG_SQL =
+        "select case when not pg_is_in_recovery() or pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() then 0 " +
+        "else extract(epoch from (now() - pg_last_xact_replay_timestamp())) end";
+
+    /**
+     * Replication lag query for PostgreSQL versions before 10.
+     */
+    private static final String LAG_SQL_LEGACY =
+        "select case when not pg_is_in_recovery() or pg_last_xlog_receive_location() = pg_last_xlog_replay_location() then 0 " +
+        "else extract(epoch from (now() - pg_last_xact_replay_timestamp())) end";
+
+    private final ReadReplica[] replicas;
+
+    private final DataSource fallbackDataSource;
+
+    private final long maxLag;
+
+    private final int maxFailures;
+
+    private final long backoffMillis;
+
+    /**
+     * Offset for the scan over replicas, spreads ties evenly across replicas.
+     */
+    private final AtomicInteger offset = new AtomicInteger();
+
+    /**
+     * @param replicas the read replicas.
+     * @param fallbackDataSource the data source to use if no replica is healthy.
+     * @param maxLag the maximum replication lag in seconds before a replica is
+     *        ejected, 0 or less to disable the lag check.
+     */
+    public ReadReplicaRoutingDataSource( List<ReadReplica> replicas, DataSource fallbackDataSource, long maxLag )
+    {
+        this( replicas, fallbackDataSource, maxLag, DEFAULT_MAX_FAILURES, DEFAULT_BACKOFF_MILLIS );
+    }
+
+    /**
+     * @param replicas the read replicas.
+     * @param fallbackDataSource the data source to use if no replica is healthy.
+     * @param maxLag the maximum replication lag in seconds before a replica is
+     *        ejected, 0 or less to disable the lag check.
+     * @param maxFailures the number of consecutive connection failures before a
+     *        replica is ejected.
+     * @param backoffMillis the initial period in milliseconds for which a
+     *        replica is backed off after a connection failure.
+     */
+    public ReadReplicaRoutingDataSource( List<ReadReplica> replicas, DataSource fallbackDataSource, long maxLag,
+        int maxFailures, long backoffMillis )
+    {
+        this.replicas = replicas.toArray( new ReadReplica[0] );
+        this.fallbackDataSource = fallbackDataSource;
+        this.maxLag = maxLag;
+        this.maxFailures = Math.max( 1, maxFailures );
+        this.backoffMillis = Math.max( 0, backoffMillis );
+    }
+
+    // -------------------------------------------------------------------------
+    // AbstractDataSource implementation
+    // -------------------------------------------------------------------------
+
+    @Override
+    public Connection getConnection()
+        throws SQLException
+    {
+        return getConnection( DataSource::getConnection );
+    }
+
+    @Override
+    public Connection getConnection( String username, String password )
+        throws SQLException
+    {
+        return getConnection( ds -> ds.getConnection( username, password ) );
+    }
+
+    // -------------------------------------------------------------------------
+    // Logic
+    // -------------------------------------------------------------------------
+
+    /**
+     * Checks the health and replication lag of all replicas. Ejects replicas
+     * which are unreachable or lag behind the primary by more than the maximum
+     * lag, and restores replicas which are healthy again.
+     */
+    public void checkHealth()
+    {
+        for ( ReadReplica replica : replicas )
+        {
+            try ( Connection connection = replica.getDataSource().getConnection() )
+            {
+                if ( !connection.isValid( VALIDATION_TIMEOUT_SECONDS ) )
+                {
+                    eject( replica, "Connection is not valid" );
+                    continue;
+                }
+
+                Long lag = getLag( connection );
+
+                replica.setLag( lag != null ? lag : -1 );
+
+                if ( lag != null && maxLag > 0 && lag > maxLag )
+                {
+                    eject( replica, "Replication lag of " + lag + " seconds exceeds max lag of " + maxLag + " seconds" );
+                }
+                else
+                {
+                    boolean ejected = !replica.isHealthy();
+
+                    replica.restore();
+
+                    if ( ejected )
+                    {
+                        log.info( "Restored read replica: " + replica.getName() );
+                    }
+                }
+            }
+            catch ( SQLException ex )
+            {
+                replica.recordFailure();
+
+                backOff( replica, "Health check failed: " + ex.getMessage() );
+            }
+        }
+    }
+
+    /**
+     * Returns the read replicas with their current state.
+     *
+     * @return a list of read replicas.
+     */
+    public List<ReadReplica> getReplicas()
+    {
+        return ImmutableList.copyOf( replicas );
+    }
+
+    // -------------------------------------------------------------------------
+    // Supportive methods
+    // -------------------------------------------------------------------------
+
+    /**
+     * Returns a connection from the selected replica, trying further replicas
+     * if a replica fails to provide a connection, and the fallback data source
+     * if no replica is available.
+     */
+    private Connection getConnection( ReadReplica.ConnectionFactory factory )
+        throws SQLException
+    {
+        for ( int i = 0; i < replicas.length; i++ )
+        {
+            ReadReplica replica = selectReplica();
+
+            if ( replica == null )
+            {
+                break;
+            }
+
+            try
+            {
+                return replica.getConnection( factory );
+            }
+            catch ( SQLException ex )
+            {
+                backOff( replica, "Failed to get connection: " + ex.getMessage() );
+            }
+        }
+
+        return factory.getConnection( fallbackDataSource );
+    }
+
+    /**
+     * Returns the available replica with the fewest connections in use and the
+     * lowest average connection hold time, or null if no replica is available.
+     */
+    private ReadReplica selectReplica()
+    {
+        int start = Math.abs( offset.getAndIncrement() % replicas.length );
+
+        ReadReplica selected = null;
+
+        for ( int i = 0; i < replicas.length; i++ )
+        {
+            ReadReplica replica = replicas[( start + i ) % replicas.length];
+
+            if ( replica.isAvailable() && ( selected == null || isLessLoaded( replica, selected ) ) )
+            {
+                selected = replica;
+            }
+        }
+
+        return selected;
+    }
+
+    private boolean isLessLoaded( ReadReplica replica, ReadReplica other )
+    {
+        int inFlight = replica.getInFlight();
+        int otherInFlight = other.getInFlight();
+
+        return inFlight < otherInFlight || ( inFlight == otherInFlight && replica.getAverageLatency() < other.getAverageLatency() );
+    }
+
+    /**
+     * Backs off the given replica after a connection failure, and ejects it if
+     * the maximum number of consecutive failures is reached.
+     */
+    private void backOff( ReadReplica replica, String reason )
+    {
+        int failures = replica.backOff( backoffMillis );
+
+        if ( failures >= maxFailures )
+        {
+            eject( replica, reason + ", consecutive failures: " + failures );
+        }
+        else
+        {
+            log.info( "Backed off read replica: " + replica.getName() + ", reason: " + reason + ", consecutive failures: " + failures );
+        }
+    }
+
+    private void eject( ReadReplica replica, String reason )
+    {
+        if ( replica.isHealthy() )
+        {
+            log.warn( "Ejected read replica: " + replica.getName() + ", reason: " + reason );
+        }
+
+        replica.eject( reason );
+    }
+
+    /**
+     * Returns the replication lag in seconds, or null if it could not be
+     * determined, i.e. if the database does not support the lag query.
+     */
+    private Long getLag( Connection connection )
+    {
+        Long lag = getLag( connection, LAG_SQL );
+
+        return lag != null ? lag : getLag( connection, LAG_SQL_LEGACY );
+    }
+
+    private Long getLag( Connection connection, String sql )
+    {
+        try ( Statement statement = connection.createStatement();
+            ResultSet rs = statement.executeQuery( sql ) )
+        {
+            if ( rs.next() )
+            {
+                double lag = rs.getDouble( 1 );
+
+                return rs.wasNull() ? null : (long) lag;
+            }
+        }
+        catch ( SQLException ex )
+        {
+            log.debug( "Could not determine replication lag", ex );
+        }
+
+        return null;
+    }
+}
@@ -291,6 +291,7 @@ public class HibernateDbmsManager
 
         emptyTable( "userteisearchorgunits" );
         emptyTable( "categoryoption_organisationunits" );
+        emptyTable( "orgunitclosure" );
         emptyTable( "organisationunit" );
         emptyTable( "orgunitlevel" );
 
@@ -0,0 +1,205 @@
+package org.hisp.dhis.datasource;
+
+/*
+ * Copyright (c) 2004-2018, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+import static org.junit.Assert.*;
+
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+import org.junit.Test;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+
+import com.google.common.collect.Lists;
+
+public class ReadReplicaRoutingDataSourceTest
+{
+    @Test
+    public void testRouteToLeastLoaded()
+        throws SQLException
+    {
+        ReadReplica replicaA = new ReadReplica( "A", new StubDataSource( false ) );
+        ReadReplica replicaB = new ReadReplica( "B", new StubDataSource( false ) );
+
+        ReadReplicaRoutingDataSource dataSource = new ReadReplicaRoutingDataSource( Lists.newArrayList( replicaA, replicaB ), new StubDataSource( false ), 60 );
+
+        Connection connectionA = dataSource.getConnection();
+        Connection connectionB = dataSource.getConnection();
+
+        assertEquals( 1, replicaA.getInFlight() );
+        assertEquals( 1, replicaB.getInFlight() );
+
+        connectionA.close();
+        connectionA.close();
+
+        assertEquals( 1, replicaA.getInFlight() + replicaB.getInFlight() );
+
+        connectionB.close();
+
+        assertEquals( 0, replicaA.getInFlight() );
+        assertEquals( 0, replicaB.getInFlight() );
+        assertEquals( 1, replicaA.getConnectionCount() );
+        assertEquals( 1, replicaB.getConnectionCount() );
+    }
+
+    @Test
+    public void testEjectFailingReplica()
+        throws SQLException
+    {
+        ReadReplica replicaA = new ReadReplica( "A", new StubDataSource( true ) );
+        ReadReplica replicaB = new ReadReplica( "B", new StubDataSource( false ) );
+
+        ReadReplicaRoutingDataSource dataSource = new ReadReplicaRoutingDataSource( Lists.newArrayList( replicaA, replicaB ), new StubDataSource( false ), 60, 3, 0 );
+
+        dataSource.getConnection().close();
+
+        assertTrue( replicaA.isHealthy() );
+        assertEquals( 1, replicaA.getConsecutiveFailures() );
+
+        for ( int i = 0; i < 3; i++ )
+        {
+            dataSource.getConnection().close();
+        }
+
+        assertFalse( replicaA.isHealthy() );
+        assertNotNull( replicaA.getEjectReason() );
+        assertEquals( 3, replicaA.getFailureCount() );
+        assertTrue( replicaB.isHealthy() );
+        assertEquals( 0, replicaA.getConnectionCount() );
+        assertEquals( 4, replicaB.getConnectionCount() );
+
+        replicaA.restore();
+
+        assertTrue( replicaA.isHealthy() );
+        assertNull( replicaA.getEjectReason() );
+        assertEquals( 0, replicaA.getConsecutiveFailures() );
+    }
+
+    @Test
+    public void testBackOffFailingReplica()
+        throws SQLException
+    {
+        StubDataSource fallback = new StubDataSource( false );
+
+        ReadReplica replicaA = new ReadReplica( "A", new StubDataSource( true ) );
+
+        ReadReplicaRoutingDataSource dataSource = new ReadReplicaRoutingDataSource( Lists.newArrayList( replicaA ), fallback, 60, 3, 60000 );
+
+        dataSource.getConnection();
+        dataSource.getConnection();
+
+        assertTrue( replicaA.isHealthy() );
+        assertFalse( replicaA.isAvailable() );
+        assertEquals( 1, replicaA.getFailureCount() );
+        assertEquals( 1, replicaA.getConsecutiveFailures() );
+        assertEquals( 2, fallback.connections );
+    }
+
+    @Test
+    public void testConnectionWithCredentials()
+        throws SQLException
+    {
+        StubDataSource replicaDataSource = new StubDataSource( false );
+        StubDataSource fallback = new StubDataSource( false );
+
+        ReadReplica replicaA = new ReadReplica( "A", replicaDataSource );
+
+        ReadReplicaRoutingDataSource dataSource = new ReadReplicaRoutingDataSource( Lists.newArrayList( replicaA ), fallback, 60 );
+
+        dataSource.getConnection( "dhis", "district" ).close();
+
+        assertEquals( "dhis", replicaDataSource.username );
+        assertEquals( 1, replicaA.getConnectionCount() );
+        assertEquals( 0, replicaA.getInFlight() );
+
+        replicaA.eject( "Down for maintenance" );
+
+        dataSource.getConnection( "admin", "district" );
+
+        assertEquals( "admin", fallback.username );
+        assertEquals( 1, fallback.connections );
+    }
+
+    @Test
+    public void testFallbackWhenNoReplicaHealthy()
+        throws SQLException
+    {
+        StubDataSource fallback = new StubDataSource( false );
+
+        ReadReplica replicaA = new ReadReplica( "A", new StubDataSource( true ) );
+
+        ReadReplicaRoutingDataSource dataSource = new ReadReplicaRoutingDataSource( Lists.newArrayList( replicaA ), fallback, 60, 1, 0 );
+
+        dataSource.getConnection();
+        dataSource.getConnection();
+
+        assertFalse( replicaA.isHealthy() );
+        assertEquals( 1, replicaA.getFailureCount() );
+        assertEquals( 2, fallback.connections );
+    }
+
+    private static class StubDataSource
+        extends AbstractDataSource
+    {
+        private final boolean fail;
+
+        private int connections;
+
+        private String username;
+
+        StubDataSource( boolean fail )
+        {
+            this.fail = fail;
+        }
+
+        @Override
+        public Connection getConnection()
+            throws SQLException
+        {
+            if ( fail )
+            {
+                throw new SQLException( "Database is down" );
+            }
+
+            connections++;
+
+            return (Connection) Proxy.newProxyInstance( Connection.class.getClassLoader(), new Class<?>[] { Connection.class }, ( proxy, method, args ) -> null );
+        }
+
+        @Override
+        public Connection getConnection( String username, String password )
+            throws SQLException
+        {
+            this.username = username;
+
+            return getConnection();
+        }
+    }
+}
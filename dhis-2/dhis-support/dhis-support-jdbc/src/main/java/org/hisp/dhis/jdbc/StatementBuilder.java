@@ -225,6 +225,19 @@ public interface StatementBuilder
     
     String getDropNotNullConstraint( String table, String column, String type );
 
+    /**
+     * Returns a statement which inserts a row unless a row with the same values
+     * for the given key columns exists, also when such a row is inserted
+     * concurrently. The statement takes one parameter per column, in the order
+     * of the given columns.
+     *
+     * @param table the table.
+     * @param columns the columns to insert.
+     * @param keyColumns the columns of the primary or unique key.
+     * @return an insert statement.
+     */
+    String getInsertIgnoreDuplicate( String table, List<String> columns, List<String> keyColumns );
+
     /**
      * Generates a derived table containing one column of literal strings.
      *
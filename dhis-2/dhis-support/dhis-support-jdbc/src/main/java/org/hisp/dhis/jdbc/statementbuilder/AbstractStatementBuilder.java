@@ -44,6 +44,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.regex.Matcher;
+import java.util.stream.Collectors;
 
 /**
  * @author Lars Helge Overland
@@ -177,6 +178,17 @@ public abstract class AbstractStatementBuilder
         return "alter table " + table + " modify column " + column + " " + type + " null;";
     }
 
+    @Override
+    public String getInsertIgnoreDuplicate( String table, List<String> columns, List<String> keyColumns )
+    {
+        String values = columns.stream().map( column -> "? as " + column ).collect( Collectors.joining( ", " ) );
+        String keys = keyColumns.stream().map( column -> "t." + column + " = v." + column ).collect( Collectors.joining( " and " ) );
+
+        return "insert into " + table + " (" + String.join( ", ", columns ) + ") " +
+            "select * from (select " + values + ") v " +
+            "where not exists (select 1 from " + table + " t where " + keys + ")";
+    }
+
     /**
      * Generates a derived table containing one column of literal strings.
      *
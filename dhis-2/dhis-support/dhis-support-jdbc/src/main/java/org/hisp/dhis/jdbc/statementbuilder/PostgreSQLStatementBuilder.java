@@ -29,6 +29,7 @@ package org.hisp.dhis.jdbc.statementbuilder;
  */
 
 import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 
 /**
@@ -155,6 +156,14 @@ public class PostgreSQLStatementBuilder
         return "alter table " + table + " alter column " + column + " drop not null;";
     }
 
+    @Override
+    public String getInsertIgnoreDuplicate( String table, List<String> columns, List<String> keyColumns )
+    {
+        return "insert into " + table + " (" + String.join( ", ", columns ) + ") " +
+            "values (" + String.join( ", ", Collections.nCopies( columns.size(), "?" ) ) + ") " +
+            "on conflict (" + String.join( ", ", keyColumns ) + ") do nothing";
+    }
+
     /**
      * Generates a derived table containing one column of literal strings.
      *
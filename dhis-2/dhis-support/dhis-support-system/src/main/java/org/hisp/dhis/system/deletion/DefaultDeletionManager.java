@@ -37,7 +37,12 @@ import org.springframework.beans.factory.annotation.Autowired;
 
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * TODO: Add support for failed allow tests on "transitive" deletion handlers which
@@ -66,21 +71,48 @@ public class DefaultDeletionManager
 
     @Override
     public void execute( Object object )
+    {
+        execute( Collections.singletonList( object ) );
+    }
+
+    @Override
+    public void execute( Collection<?> objects )
     {
         if ( deletionHandlers == null || deletionHandlers.isEmpty() )
         {
             log.info( "No deletion handlers registered, aborting deletion handling" );
             return;
         }
-        
+
+        if ( objects == null || objects.isEmpty() )
+        {
+            return;
+        }
+
         log.debug( "Deletion handlers detected: " + deletionHandlers.size() );
-        
-        Class<?> clazz = getClazz( object );
 
+        Map<Class<?>, List<Object>> classObjects = new LinkedHashMap<>();
+
+        for ( Object object : objects )
+        {
+            classObjects.computeIfAbsent( getClazz( object ), k -> new ArrayList<>() ).add( object );
+        }
+
+        classObjects.forEach( this::execute );
+    }
+
+    /**
+     * Runs the deletion handlers for the given objects of the given class.
+     *
+     * @param clazz the class of the objects.
+     * @param objects the objects to delete.
+     */
+    private void execute( Class<?> clazz, Collection<?> objects )
+    {
         String className = clazz.getSimpleName();
 
         // ---------------------------------------------------------------------
-        // Verify that object is allowed to be deleted
+        // Verify that objects are allowed to be deleted
         // ---------------------------------------------------------------------
 
         String allowMethodName = ALLOW_METHOD_PREFIX + className;
@@ -95,9 +127,28 @@ public class DefaultDeletionManager
             {
                 currentHandler = handler.getClass().getSimpleName();
 
-                log.debug( "Check if allowed using " + currentHandler + " for class " + className );
+                Object allow = null;
+
+                if ( handler.isBulkDeletionSupported( clazz ) )
+                {
+                    log.debug( "Check if allowed using bulk deletion in " + currentHandler + " for class " + className );
+
+                    allow = handler.allowDeleteAll( clazz, objects );
+                }
+                else
+                {
+                    log.debug( "Check if allowed using " + currentHandler + " for class " + className );
 
-                Object allow = allowMethod.invoke( handler, object );
+                    for ( Object object : objects )
+                    {
+                        allow = allowMethod.invoke( handler, object );
+
+                        if ( allow != null )
+                        {
+                            break;
+                        }
+                    }
+                }
 
                 if ( allow != null )
                 {
@@ -142,9 +193,21 @@ public class DefaultDeletionManager
             {
                 currentHandler = handler.getClass().getSimpleName();
 
-                log.debug( "Deleting object using " + currentHandler + " for class " + className );
+                if ( handler.isBulkDeletionSupported( clazz ) )
+                {
+                    log.debug( "Deleting objects using bulk deletion in " + currentHandler + " for class " + className );
 
-                deleteMethod.invoke( handler, object );
+                    handler.deleteAll( clazz, objects );
+                }
+                else
+                {
+                    log.debug( "Deleting objects using " + currentHandler + " for class " + className );
+
+                    for ( Object object : objects )
+                    {
+                        deleteMethod.invoke( handler, object );
+                    }
+                }
             }
         }
         catch ( Exception ex )
@@ -153,7 +216,7 @@ public class DefaultDeletionManager
             return;
         }
 
-        log.info( "Deleted objects associated with object of type " + className );
+        log.info( "Deleted objects associated with " + objects.size() + " object(s) of type " + className );
     }
 
     private Class<?> getClazz( Object object )
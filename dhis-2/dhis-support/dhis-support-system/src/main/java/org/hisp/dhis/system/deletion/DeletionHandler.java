@@ -33,6 +33,7 @@ import org.hisp.dhis.attribute.AttributeValue;
 import org.hisp.dhis.chart.Chart;
 import org.hisp.dhis.color.Color;
 import org.hisp.dhis.color.ColorSet;
+import org.hisp.dhis.common.IdentifiableObject;
 import org.hisp.dhis.constant.Constant;
 import org.hisp.dhis.dashboard.Dashboard;
 import org.hisp.dhis.dashboard.DashboardItem;
@@ -123,6 +124,9 @@ import org.hisp.dhis.validation.ValidationRule;
 import org.hisp.dhis.validation.ValidationRuleGroup;
 import org.hisp.dhis.validation.notification.ValidationNotificationTemplate;
 
+import java.util.Collection;
+import java.util.stream.Collectors;
+
 /**
  * A DeletionHandler should override methods for objects that, when deleted,
  * will affect the current object in any way. Eg. a DeletionHandler for
@@ -132,6 +136,12 @@ import org.hisp.dhis.validation.notification.ValidationNotificationTemplate;
  * if there exists objects that are dependent on the DataElement and are
  * considered not be deleted. The return value could be a hint for which object
  * is denying the delete, like the name.
+ * <p>
+ * When a collection of objects of one type is deleted, a DeletionHandler can
+ * handle the whole collection at once by returning true from
+ * isBulkDeletionSupported(..) for that type and overriding allowDeleteAll(..)
+ * and deleteAll(..), typically with a single SQL statement. Handlers which do
+ * not are invoked once per object through the regular methods.
  *
  * @author Lars Helge Overland
  */
@@ -145,6 +155,64 @@ public abstract class DeletionHandler
 
     protected abstract String getClassName();
 
+    // -------------------------------------------------------------------------
+    // Set-based methods
+    // -------------------------------------------------------------------------
+
+    /**
+     * Indicates whether this handler implements allowDeleteAll(..) and
+     * deleteAll(..) for objects of the given class.
+     *
+     * @param clazz the class of the objects to delete.
+     * @return true if set-based deletion is supported for the class.
+     */
+    public boolean isBulkDeletionSupported( Class<?> clazz )
+    {
+        return false;
+    }
+
+    /**
+     * Set-based variant of the allowDelete methods. Only invoked if
+     * isBulkDeletionSupported(..) returns true for the given class.
+     *
+     * @param clazz the class of the objects to delete.
+     * @param objects the objects to delete, all of the given class.
+     * @return a non-null value if deletion of any of the objects is not allowed.
+     */
+    public String allowDeleteAll( Class<?> clazz, Collection<?> objects )
+    {
+        return null;
+    }
+
+    /**
+     * Set-based variant of the delete methods. Only invoked if
+     * isBulkDeletionSupported(..) returns true for the given class.
+     *
+     * @param clazz the class of the objects to delete.
+     * @param objects the objects to delete, all of the given class.
+     */
+    public void deleteAll( Class<?> clazz, Collection<?> objects )
+    {
+    }
+
+    // -------------------------------------------------------------------------
+    // Supportive methods
+    // -------------------------------------------------------------------------
+
+    /**
+     * Returns the identifiers of the given identifiable objects as a comma
+     * separated string, for use in set-based SQL statements.
+     *
+     * @param objects the identifiable objects.
+     * @return a comma separated string of identifiers.
+     */
+    protected static String getIdentifiers( Collection<?> objects )
+    {
+        return objects.stream()
+            .map( object -> String.valueOf( ( (IdentifiableObject) object ).getId() ) )
+            .collect( Collectors.joining( "," ) );
+    }
+
     // -------------------------------------------------------------------------
     // Public methods
     // -------------------------------------------------------------------------
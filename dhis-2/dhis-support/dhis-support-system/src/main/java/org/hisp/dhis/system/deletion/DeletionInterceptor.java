@@ -30,6 +30,8 @@ package org.hisp.dhis.system.deletion;
 
 import org.aspectj.lang.JoinPoint;
 
+import java.util.Collection;
+
 /**
  * @author Lars Helge Overland
  * @version $Id$
@@ -51,7 +53,16 @@ public class DeletionInterceptor
     {
         if ( joinPoint.getArgs() != null && joinPoint.getArgs().length > 0 )
         {
-            deletionManager.execute( joinPoint.getArgs()[0] );
+            Object object = joinPoint.getArgs()[0];
+
+            if ( object instanceof Collection )
+            {
+                deletionManager.execute( (Collection<?>) object );
+            }
+            else
+            {
+                deletionManager.execute( object );
+            }
         }
     }
 }
@@ -28,6 +28,8 @@ package org.hisp.dhis.system.deletion;
  * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
  */
 
+import java.util.Collection;
+
 /**
  * @author Lars Helge Overland
  */
@@ -35,5 +37,21 @@ public interface DeletionManager
 {
     String ID = DeletionManager.class.getName();
     
+    /**
+     * Runs the deletion handlers for the given object, which is about to be
+     * deleted.
+     *
+     * @param object the object to delete.
+     */
     void execute( Object object );
+
+    /**
+     * Runs the deletion handlers for the given objects, which are about to be
+     * deleted. The objects are handled per type. Deletion handlers which
+     * support set-based deletion for a type are invoked once for all objects
+     * of that type, other handlers once per object.
+     *
+     * @param objects the objects to delete.
+     */
+    void execute( Collection<?> objects );
 }
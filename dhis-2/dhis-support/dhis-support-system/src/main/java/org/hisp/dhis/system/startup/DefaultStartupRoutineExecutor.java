@@ -28,18 +28,24 @@ package org.hisp.dhis.system.startup;
  * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
  */
 
+import org.apache.commons.lang3.time.DurationFormatUtils;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.hisp.dhis.external.conf.DhisConfigurationProvider;
+import org.hisp.dhis.system.util.Clock;
 import org.springframework.beans.factory.annotation.Autowired;
 
 import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
 
 /**
  * Default implementation of StartupRoutineExecutor. The execute method will
- * execute the added StartupRoutines ordered by their run levels. Startup routines
- * can be ignored from the command line by appending the below.
+ * execute the added StartupRoutines ordered by their run levels and report the
+ * time spent in each. Startup routines can be ignored from the command line by
+ * appending the below.
  * 
  * <code>-Ddhis.skip.startup=true</code>
  * 
@@ -52,6 +58,7 @@ public class DefaultStartupRoutineExecutor
 
     private static final String TRUE = "true";
     private static final String SKIP_PROP = "dhis.skip.startup";
+    private static final int SLOWEST_ROUTINES = 5;
     
     @Autowired
     private DhisConfigurationProvider config;
@@ -100,6 +107,9 @@ public class DefaultStartupRoutineExecutor
         
         Collections.sort( startupRoutines, new StartupRoutineComparator() );
 
+        final Clock totalClock = new Clock( log ).startClock();
+        final Map<StartupRoutine, Long> durations = new LinkedHashMap<>();
+
         int total = startupRoutines.size();
         int index = 1;
 
@@ -110,12 +120,26 @@ public class DefaultStartupRoutineExecutor
                 log.info( "Executing startup routine [" + index + " of " + total + ", runlevel " + routine.getRunlevel()
                     + "]: " + routine.getName() );
 
+                final Clock clock = new Clock().startClock();
+
                 routine.execute();
+
+                log.info( "Startup routine done: " + routine.getName() + ", time: " + clock.time() );
+
+                durations.put( routine, clock.getSplitTime() );
                 
                 ++index;
             }
         }
 
-        log.info( "All startup routines done" );
+        String slowest = durations.entrySet().stream()
+            .sorted( Map.Entry.<StartupRoutine, Long>comparingByValue().reversed() )
+            .limit( SLOWEST_ROUTINES )
+            .map( entry -> entry.getKey().getName() + ": " + DurationFormatUtils.formatDurationHMS( entry.getValue() ) )
+            .collect( Collectors.joining( ", " ) );
+
+        log.info( "Slowest startup routines: " + slowest );
+
+        totalClock.logTime( "All startup routines done" );
     }
 }
@@ -28,6 +28,7 @@ package org.hisp.dhis.system.util;
  * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
  */
 
+import com.vividsolutions.jts.geom.Geometry;
 import com.vividsolutions.jts.geom.MultiPolygon;
 import com.vividsolutions.jts.geom.Point;
 import com.vividsolutions.jts.geom.Polygon;
@@ -197,6 +198,44 @@ public class GeoUtils
         }
     }
 
+    /**
+     * Parses the given GeoJSON coordinates of the given feature type into a
+     * geometry. Supports point, polygon and multi-polygon feature types.
+     *
+     * @param coordinates the GeoJSON coordinates.
+     * @param featureType the feature type of the coordinates.
+     * @return the geometry, or null if the feature type is not supported or
+     *         the coordinates could not be parsed.
+     */
+    public static Geometry getGeometry( String coordinates, FeatureType featureType )
+    {
+        if ( coordinates == null || featureType == null )
+        {
+            return null;
+        }
+
+        try
+        {
+            GeometryJSON gtjson = new GeometryJSON();
+
+            switch ( featureType )
+            {
+                case POINT:
+                    return gtjson.readPoint( new StringReader( "{\"type\":\"Point\", \"coordinates\":" + coordinates + "}" ) );
+                case POLYGON:
+                    return gtjson.readPolygon( new StringReader( "{\"type\":\"Polygon\", \"coordinates\":" + coordinates + "}" ) );
+                case MULTI_POLYGON:
+                    return gtjson.readMultiPolygon( new StringReader( "{\"type\":\"MultiPolygon\", \"coordinates\":" + coordinates + "}" ) );
+                default:
+                    return null;
+            }
+        }
+        catch ( Exception ex )
+        {
+            return null;
+        }
+    }
+
     /**
      * Escapes the String encoded SVG.
      * @param svg the String encoded SVG.
@@ -0,0 +1,125 @@
+package org.hisp.dhis.webapi.controller;
+
+/*
+ * Copyright (c) 2004-2018, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.hisp.dhis.constant.Constant;
+import org.hisp.dhis.webapi.DhisWebSpringTest;
+import org.hisp.dhis.webapi.documentation.common.TestUtils;
+import org.junit.Test;
+import org.springframework.mock.web.MockHttpSession;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+public class StreamingObjectListWebApiTest
+    extends DhisWebSpringTest
+{
+    private static final int CONSTANT_COUNT = AbstractCrudController.STREAMING_BATCH_SIZE * 2 + 5;
+
+    private MockHttpSession session;
+
+    @Override
+    protected void setUpTest()
+    {
+        session = getSession( "ALL" );
+
+        for ( int i = 0; i < CONSTANT_COUNT; i++ )
+        {
+            Constant constant = new Constant( "Constant" + i, i );
+            constant.setAutoFields();
+
+            manager.save( constant );
+        }
+    }
+
+    @Test
+    public void testStreamAllBatches() throws Exception
+    {
+        JsonNode constants = getObjectList( "/constants?paging=false&stream=true&fields=id,name" ).get( "constants" );
+
+        assertEquals( CONSTANT_COUNT, constants.size() );
+
+        Set<String> ids = new HashSet<>();
+        String previousId = "";
+
+        for ( JsonNode constant : constants )
+        {
+            String id = constant.get( "id" ).asText();
+
+            assertTrue( id.compareTo( previousId ) > 0 );
+            assertTrue( ids.add( id ) );
+
+            previousId = id;
+        }
+    }
+
+    @Test
+    public void testStreamWithFilter() throws Exception
+    {
+        String filter = "&filter=name:like:Constant1";
+
+        JsonNode streamed = getObjectList( "/constants?paging=false&stream=true&fields=id" + filter ).get( "constants" );
+        JsonNode listed = getObjectList( "/constants?paging=false&fields=id" + filter ).get( "constants" );
+
+        assertEquals( listed.size(), streamed.size() );
+    }
+
+    @Test
+    public void testStreamInclusionStrategy() throws Exception
+    {
+        String filter = "&filter=name:eq:NonExisting";
+
+        JsonNode nonEmpty = getObjectList( "/constants?paging=false&stream=true&inclusionStrategy=NON_EMPTY" + filter );
+        JsonNode nonNull = getObjectList( "/constants?paging=false&stream=true&inclusionStrategy=NON_NULL" + filter );
+
+        assertFalse( nonEmpty.has( "constants" ) );
+        assertEquals( 0, nonNull.get( "constants" ).size() );
+    }
+
+    // -------------------------------------------------------------------------
+    // Supportive methods
+    // -------------------------------------------------------------------------
+
+    private JsonNode getObjectList( String url ) throws Exception
+    {
+        String content = mvc.perform( get( url ).session( session ).contentType( TestUtils.APPLICATION_JSON_UTF8 ) )
+            .andExpect( status().isOk() )
+            .andReturn().getResponse().getContentAsString();
+
+        return new ObjectMapper().readTree( content );
+    }
+}
@@ -31,7 +31,10 @@ package org.hisp.dhis.webapi.controller;
 import com.google.common.base.Enums;
 import com.google.common.base.Joiner;
 import com.google.common.base.Optional;
+import com.google.common.collect.AbstractIterator;
 import com.google.common.collect.Lists;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
 import org.hisp.dhis.cache.HibernateCacheManager;
 import org.hisp.dhis.common.BaseIdentifiableObject;
 import org.hisp.dhis.common.DhisApiVersion;
@@ -77,10 +80,12 @@ import org.hisp.dhis.node.types.SimpleNode;
 import org.hisp.dhis.patch.Patch;
 import org.hisp.dhis.patch.PatchParams;
 import org.hisp.dhis.patch.PatchService;
+import org.hisp.dhis.query.Junction;
 import org.hisp.dhis.query.Order;
 import org.hisp.dhis.query.Query;
 import org.hisp.dhis.query.QueryParserException;
 import org.hisp.dhis.query.QueryService;
+import org.hisp.dhis.query.Restrictions;
 import org.hisp.dhis.render.DefaultRenderService;
 import org.hisp.dhis.render.RenderService;
 import org.hisp.dhis.schema.MergeService;
@@ -119,6 +124,7 @@ import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
@@ -133,6 +139,8 @@ public abstract class AbstractCrudController<T extends IdentifiableObject>
 
     protected static final String DEFAULTS = "INCLUDE";
 
+    protected static final int STREAMING_BATCH_SIZE = 1000;
+
     //--------------------------------------------------------------------------
     // Dependencies
     //--------------------------------------------------------------------------
@@ -188,6 +196,9 @@ public abstract class AbstractCrudController<T extends IdentifiableObject>
     @Autowired
     protected PatchService patchService;
 
+    @Autowired
+    protected SessionFactory sessionFactory;
+
     //--------------------------------------------------------------------------
     // GET
     //--------------------------------------------------------------------------
@@ -214,6 +225,11 @@ public abstract class AbstractCrudController<T extends IdentifiableObject>
             throw new ReadAccessDeniedException( "You don't have the proper permissions to read objects of this type." );
         }
 
+        if ( isStreamingRequest( options, filters, orders ) )
+        {
+            return getStreamingObjectList( options, filters, orders, fields, rpParameters, response );
+        }
+
         List<T> entities = getEntityList( metadata, options, filters, orders );
         Pager pager = metadata.getPager();
 
@@ -246,6 +262,70 @@ public abstract class AbstractCrudController<T extends IdentifiableObject>
         return rootNode;
     }
 
+    /**
+     * Writes the full, unpaged list of objects by fetching, post processing and
+     * field filtering it in batches while the response is being serialized.
+     * Batches are read with keyset paging in identifier order. Each batch starts
+     * after the last identifier of the previous batch, so the cost of a batch
+     * does not grow with its position. The objects of a batch are evicted from
+     * the session once the batch has been written, so memory use stays flat
+     * regardless of the number of objects. Other objects of the open session,
+     * like the current user, are not affected.
+     */
+    private RootNode getStreamingObjectList( WebOptions options, List<String> filters, List<Order> orders,
+        List<String> fields, Map<String, String> rpParameters, HttpServletResponse response )
+    {
+        Iterator<List<T>> batches = new AbstractIterator<List<T>>()
+        {
+            private List<T> previous = new ArrayList<>();
+
+            @Override
+            @SuppressWarnings( "unchecked" )
+            protected List<T> computeNext()
+            {
+                Session session = sessionFactory.getCurrentSession();
+
+                previous.stream().filter( session::contains ).forEach( session::evict );
+
+                // the query must be created for every batch as query planning modifies its junctions
+                Query query = getStreamingQuery( options, filters, orders );
+
+                if ( !previous.isEmpty() )
+                {
+                    query.add( Restrictions.gt( "id", previous.get( previous.size() - 1 ).getUid() ) );
+                }
+
+                query.setMaxResults( STREAMING_BATCH_SIZE );
+
+                List<T> entities = (List<T>) queryService.query( query );
+
+                if ( entities.isEmpty() )
+                {
+                    return endOfData();
+                }
+
+                previous = entities;
+
+                postProcessEntities( entities );
+                postProcessEntities( entities, options, rpParameters );
+
+                handleLinksAndAccess( entities, fields, false, currentUserService.getCurrentUser() );
+
+                return entities;
+            }
+        };
+
+        RootNode rootNode = NodeUtils.createMetadata();
+        rootNode.getConfig().setInclusionStrategy( getInclusionStrategy( rpParameters.get( "inclusionStrategy" ) ) );
+
+        rootNode.addChild( fieldFilterService.toStreamingCollectionNode( getEntityClass(), batches,
+            new FieldFilterParams( new ArrayList<>(), fields, Defaults.valueOf( options.get( "defaults", DEFAULTS ) ) ) ) );
+
+        response.setHeader( ContextUtils.HEADER_CACHE_CONTROL, CacheControl.noCache().cachePrivate().getHeaderValue() );
+
+        return rootNode;
+    }
+
     @RequestMapping( value = "/{uid}", method = RequestMethod.GET )
     public @ResponseBody RootNode getObject(
         @PathVariable( "uid" ) String pvUid,
@@ -1144,6 +1224,37 @@ public abstract class AbstractCrudController<T extends IdentifiableObject>
         return entityList;
     }
 
+    /**
+     * Indicates whether the object list can be streamed for the given options.
+     * Streaming bypasses {@link #getEntityList}, so controllers which override it
+     * to apply custom filtering must override this method as well.
+     */
+    protected boolean isStreamingSupported( WebOptions options )
+    {
+        return !options.contains( "query" );
+    }
+
+    /**
+     * Streaming requires keyset paging on the identifier, so requests with
+     * custom orders or with filters combined by a root disjunction, to which
+     * the keyset restriction can not be added, are not streamed.
+     */
+    private boolean isStreamingRequest( WebOptions options, List<String> filters, List<Order> orders )
+    {
+        return !options.hasPaging() && options.isStream() && orders.isEmpty() &&
+            Junction.Type.AND == options.getRootJunction() && isStreamingSupported( options ) &&
+            queryService.isPersistedQuery( getStreamingQuery( options, filters, orders ) );
+    }
+
+    private Query getStreamingQuery( WebOptions options, List<String> filters, List<Order> orders )
+    {
+        Query query = queryService.getQueryFromUrl( getEntityClass(), filters, orders, options.getRootJunction() );
+        query.addOrder( Order.asc( query.getSchema().getPersistedProperty( "id" ) ) );
+        query.setDefaults( Defaults.valueOf( options.get( "defaults", DEFAULTS ) ) );
+
+        return query;
+    }
+
     private List<T> getEntity( String uid )
     {
         return getEntity( uid, NO_WEB_OPTIONS );
@@ -121,6 +121,13 @@ public class InterpretationController extends AbstractCrudController<Interpretat
         return entityList;
     }
 
+    @Override
+    protected boolean isStreamingSupported( WebOptions options )
+    {
+        // custom mention filters are applied to the query in getEntityList
+        return false;
+    }
+
     // -------------------------------------------------------------------------
     // Intepretation create
     // -------------------------------------------------------------------------
@@ -195,6 +195,13 @@ public class MessageConversationController
         return messageConversations;
     }
 
+    @Override
+    protected boolean isStreamingSupported( WebOptions options )
+    {
+        // message conversations are always restricted to those of the current user
+        return false;
+    }
+
     //--------------------------------------------------------------------------
     // POST for new MessageConversation
     //--------------------------------------------------------------------------
@@ -28,6 +28,7 @@ package org.hisp.dhis.webapi.controller.event;
  * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
  */
 
+import com.google.common.collect.Iterators;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Sets;
 import com.google.common.io.ByteSource;
@@ -39,6 +40,7 @@ import org.hisp.dhis.common.DhisApiVersion;
 import org.hisp.dhis.common.Grid;
 import org.hisp.dhis.common.IdSchemes;
 import org.hisp.dhis.common.OrganisationUnitSelectionMode;
+import org.hisp.dhis.common.PageToken;
 import org.hisp.dhis.common.PagerUtils;
 import org.hisp.dhis.common.cache.CacheStrategy;
 import org.hisp.dhis.commons.util.StreamUtils;
@@ -49,6 +51,7 @@ import org.hisp.dhis.dxf2.common.ImportOptions;
 import org.hisp.dhis.dxf2.common.OrderParams;
 import org.hisp.dhis.dxf2.events.event.DataValue;
 import org.hisp.dhis.dxf2.events.event.Event;
+import org.hisp.dhis.dxf2.events.event.EventCursor;
 import org.hisp.dhis.dxf2.events.event.EventSearchParams;
 import org.hisp.dhis.dxf2.events.event.EventService;
 import org.hisp.dhis.dxf2.events.event.Events;
@@ -77,6 +80,7 @@ import org.hisp.dhis.importexport.ImportStrategy;
 import org.hisp.dhis.node.NodeUtils;
 import org.hisp.dhis.node.Preset;
 import org.hisp.dhis.node.types.RootNode;
+import org.hisp.dhis.node.types.SimpleNode;
 import org.hisp.dhis.program.Program;
 import org.hisp.dhis.program.ProgramStageInstanceService;
 import org.hisp.dhis.program.ProgramStatus;
@@ -104,6 +108,8 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestMethod;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseBody;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
 
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
@@ -116,6 +122,7 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -136,6 +143,8 @@ public class EventController
 
     private static final String META_DATA_KEY_DE = "de";
 
+    private static final int STREAMING_BATCH_SIZE = 500;
+
     //--------------------------------------------------------------------------
     // Dependencies
     //--------------------------------------------------------------------------
@@ -495,6 +504,7 @@ public class EventController
         @RequestParam( required = false ) boolean totalPages,
         @RequestParam( required = false ) Boolean skipPaging,
         @RequestParam( required = false ) Boolean paging,
+        @RequestParam( required = false ) String pageToken,
         @RequestParam( required = false ) String order,
         @RequestParam( required = false ) String attachment,
         @RequestParam( required = false, defaultValue = "false" ) boolean includeDeleted,
@@ -527,6 +537,13 @@ public class EventController
             idSchemes, page, pageSize, totalPages, skipPaging, getOrderParams( order ), getGridOrderParams( order, dataElementOrders ), false, eventIds, filter, dataElementOrders.keySet(), false,
             includeDeleted );
 
+        setPageToken( params, pageToken );
+
+        if ( params.isSkipPaging() )
+        {
+            return getStreamingEvents( params, fields, attachment, request, response );
+        }
+
         Events events = eventService.getEvents( params );
 
         if ( hasHref( fields ) )
@@ -549,6 +566,10 @@ public class EventController
             rootNode.addChild( NodeUtils.createPager( events.getPager() ) );
         }
 
+        if ( events.getNextPageToken() != null )
+        {
+            rootNode.addChild( new SimpleNode( "nextPageToken", events.getNextPageToken() ) );
+        }
 
         if ( !StringUtils.isEmpty( attachment ) )
         {
@@ -611,8 +632,6 @@ public class EventController
             idSchemes, page, pageSize, totalPages, skipPaging, schemaOrders, getGridOrderParams( order, dataElementOrders ), false, eventIds, filter, dataElementOrders.keySet(), false,
             includeDeleted );
 
-        Events events = eventService.getEvents( params );
-
         OutputStream outputStream = response.getOutputStream();
         response.setContentType( "application/csv" );
 
@@ -628,7 +647,70 @@ public class EventController
             response.addHeader( "Content-Disposition", "attachment; filename=" + attachment );
         }
 
-        csvEventService.writeEvents( outputStream, events, !skipHeader );
+        if ( params.isSkipPaging() )
+        {
+            try ( EventCursor cursor = eventService.getEventCursor( params ) )
+            {
+                csvEventService.writeEvents( outputStream, cursor, !skipHeader );
+            }
+        }
+        else
+        {
+            Events events = eventService.getEvents( params );
+
+            csvEventService.writeEvents( outputStream, events, !skipHeader );
+        }
+    }
+
+    /**
+     * Enables keyset paging when a page token parameter is present. An empty
+     * token requests the first page.
+     */
+    private void setPageToken( EventSearchParams params, String pageToken )
+    {
+        params.setKeysetPaging( pageToken != null );
+        params.setPageToken( PageToken.decode( pageToken ) );
+    }
+
+    /**
+     * Reads events from a database cursor and writes them to the response in
+     * batches as it is being serialized, so that unpaged exports do not hold all
+     * events in memory. The cursor is closed when the request completes, also
+     * when serialization fails or never starts.
+     */
+    private RootNode getStreamingEvents( EventSearchParams params, List<String> fields, String attachment,
+        HttpServletRequest request, HttpServletResponse response )
+    {
+        EventCursor cursor = eventService.getEventCursor( params );
+
+        RequestContextHolder.currentRequestAttributes().registerDestructionCallback(
+            EventCursor.class.getName(), cursor::close, RequestAttributes.SCOPE_REQUEST );
+
+        Iterator<Event> events = cursor;
+
+        if ( hasHref( fields ) )
+        {
+            String hrefPrefix = ContextUtils.getRootPath( request ) + RESOURCE_PATH + "/";
+
+            events = Iterators.transform( cursor, e -> {
+                e.setHref( hrefPrefix + e.getEvent() );
+                return e;
+            } );
+        }
+
+        if ( !StringUtils.isEmpty( attachment ) )
+        {
+            response.addHeader( ContextUtils.HEADER_CONTENT_DISPOSITION, "attachment; filename=" + attachment );
+            response.addHeader( ContextUtils.HEADER_CONTENT_TRANSFER_ENCODING, "binary" );
+        }
+
+        RootNode rootNode = NodeUtils.createMetadata();
+
+        rootNode.addChild( fieldFilterService.toStreamingCollectionNode( Event.class,
+            Iterators.partition( events, STREAMING_BATCH_SIZE ), new FieldFilterParams( new ArrayList<>(), fields ) )
+            .setCloseable( cursor ) );
+
+        return rootNode;
     }
 
     @RequestMapping( value = "/eventRows", method = RequestMethod.GET )
@@ -122,6 +122,12 @@ public class ProgramController
         return entityList;
     }
 
+    @Override
+    protected boolean isStreamingSupported( WebOptions options )
+    {
+        return !options.isTrue( "userFilter" ) && super.isStreamingSupported( options );
+    }
+
     @RequestMapping( value = "/{uid}/metadata", method = RequestMethod.GET )
     public @ResponseBody RootNode getProgramWithDependencies( @PathVariable( "uid" ) String pvUid, HttpServletResponse response ) throws WebMessageException, IOException
     {
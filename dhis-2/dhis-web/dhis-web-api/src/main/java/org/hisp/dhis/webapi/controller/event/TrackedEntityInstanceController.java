@@ -39,6 +39,7 @@ import org.hisp.dhis.common.DxfNamespaces;
 import org.hisp.dhis.common.Grid;
 import org.hisp.dhis.common.IdSchemes;
 import org.hisp.dhis.common.OrganisationUnitSelectionMode;
+import org.hisp.dhis.common.PageToken;
 import org.hisp.dhis.common.Pager;
 import org.hisp.dhis.common.PagerUtils;
 import org.hisp.dhis.common.ValueType;
@@ -69,6 +70,7 @@ import org.hisp.dhis.importexport.ImportStrategy;
 import org.hisp.dhis.node.NodeUtils;
 import org.hisp.dhis.node.types.CollectionNode;
 import org.hisp.dhis.node.types.RootNode;
+import org.hisp.dhis.node.types.SimpleNode;
 import org.hisp.dhis.program.Program;
 import org.hisp.dhis.program.ProgramService;
 import org.hisp.dhis.program.ProgramStatus;
@@ -206,6 +208,7 @@ public class TrackedEntityInstanceController
         @RequestParam( required = false ) Boolean skipPaging,
         @RequestParam( required = false ) Boolean paging,
         @RequestParam( required = false ) boolean includeDeleted,
+        @RequestParam( required = false ) String pageToken,
         @RequestParam( required = false ) String order ) throws Exception
     {
         programEnrollmentStartDate = ObjectUtils.firstNonNull( programEnrollmentStartDate, programStartDate );
@@ -230,6 +233,11 @@ public class TrackedEntityInstanceController
             eventStatus, eventStartDate, eventEndDate, skipMeta, page, pageSize, totalPages, skipPaging, includeDeleted,
             getOrderParams( order ) );
 
+        // Keyset paging when a page token is present, an empty token requests the first page
+
+        queryParams.setKeysetPaging( pageToken != null );
+        queryParams.setPageToken( PageToken.decode( pageToken ) );
+
         if ( trackedEntityInstance == null )
         {
             trackedEntityInstances = trackedEntityInstanceService.getTrackedEntityInstances( queryParams,
@@ -244,13 +252,18 @@ public class TrackedEntityInstanceController
                 .collect( Collectors.toList() ) : null;
         }
 
-        if ( queryParams.isPaging() && queryParams.isTotalPages() )
+        if ( queryParams.isPaging() && queryParams.isTotalPages() && !queryParams.isKeysetPaging() )
         {
             int count = trackedEntityInstanceService.getTrackedEntityInstanceCount( queryParams, true, false );
             Pager pager = new Pager( queryParams.getPageWithDefault(), count, queryParams.getPageSizeWithDefault() );
             rootNode.addChild( NodeUtils.createPager( pager ) );
         }
 
+        if ( queryParams.getNextPageToken() != null )
+        {
+            rootNode.addChild( new SimpleNode( "nextPageToken", queryParams.getNextPageToken().encode() ) );
+        }
+
         rootNode.addChild( fieldFilterService.toCollectionNode( TrackedEntityInstance.class,
             new FieldFilterParams( trackedEntityInstances, fields ) ) );
 
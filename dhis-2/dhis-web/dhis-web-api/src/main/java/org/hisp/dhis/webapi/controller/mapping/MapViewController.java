@@ -141,6 +141,13 @@ public class MapViewController
         return entityList;
     }
 
+    @Override
+    protected boolean isStreamingSupported( WebOptions options )
+    {
+        // the query option is applied in getEntityList through the object manager
+        return !options.contains( "query" ) && super.isStreamingSupported( options );
+    }
+
     //--------------------------------------------------------------------------
     // Supportive methods
     //--------------------------------------------------------------------------
@@ -178,6 +178,17 @@ public class OrganisationUnitController
         return list;
     }
 
+    @Override
+    protected boolean isStreamingSupported( WebOptions options )
+    {
+        boolean anySpecialPropertySet = ObjectUtils.anyIsTrue( options.isTrue( "userOnly" ),
+            options.isTrue( "userDataViewOnly" ), options.isTrue( "userDataViewFallback" ), options.isTrue( "levelSorted" ) );
+        boolean anyQueryPropertySet = ObjectUtils.firstNonNull( options.get( "query" ), options.getInt( "level" ),
+            options.getInt( "maxLevel" ) ) != null || options.isTrue( "withinUserHierarchy" );
+
+        return !anySpecialPropertySet && !anyQueryPropertySet && !options.contains( "memberObject" );
+    }
+
     @Override
     protected List<OrganisationUnit> getEntity( String uid, WebOptions options )
     {
@@ -170,6 +170,13 @@ public class UserController
         return (List<User>) queryService.query( query );
     }
 
+    @Override
+    protected boolean isStreamingSupported( WebOptions options )
+    {
+        // users are always fetched through the user service to apply user query parameters
+        return false;
+    }
+
     @Override
     protected List<User> getEntity( String uid, WebOptions options )
     {
@@ -77,6 +77,12 @@ public class UserRoleController
         return entityList;
     }
 
+    @Override
+    protected boolean isStreamingSupported( WebOptions options )
+    {
+        return !options.isTrue( "canIssue" ) && super.isStreamingSupported( options );
+    }
+
     @RequestMapping( value = "/{id}/users/{userId}", method = { RequestMethod.POST, RequestMethod.PUT } )
     @ResponseStatus( HttpStatus.NO_CONTENT )
     public void addUserToRole( @PathVariable( value = "id" ) String pvId, @PathVariable( "userId" ) String pvUserId, HttpServletResponse response ) throws WebMessageException
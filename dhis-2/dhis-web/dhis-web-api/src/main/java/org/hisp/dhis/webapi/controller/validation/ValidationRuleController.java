@@ -77,4 +77,10 @@ public class ValidationRuleController
 
         return super.getEntityList( metadata, options, filters, orders );
     }
+
+    @Override
+    protected boolean isStreamingSupported( WebOptions options )
+    {
+        return !options.contains( "dataSet" ) && super.isStreamingSupported( options );
+    }
 }
@@ -79,6 +79,11 @@ public class WebOptions
         return stringAsBoolean( options.get( "manage" ), false );
     }
 
+    public boolean isStream()
+    {
+        return stringAsBoolean( options.get( "stream" ), false );
+    }
+
     public Junction.Type getRootJunction()
     {
         String rootJunction = options.get( "rootJunction" );